@@ -0,0 +1,79 @@
+package org.mule.extension.whisperer.api;
+
+public class InferenceStats {
+    private boolean modelReady;
+    private int running;
+    private int queueDepth;
+    private long admitted;
+    private long rejected;
+    private long averageQueueWaitMillis;
+    private long maxQueueWaitMillis;
+
+    /**
+     * @return whether the model is loaded; all other figures are 0 until it is
+     */
+    public boolean isModelReady() {
+        return modelReady;
+    }
+
+    public void setModelReady(boolean modelReady) {
+        this.modelReady = modelReady;
+    }
+
+    /**
+     * @return transcriptions currently holding an inference slot
+     */
+    public int getRunning() {
+        return running;
+    }
+
+    public void setRunning(int running) {
+        this.running = running;
+    }
+
+    /**
+     * @return transcriptions waiting for an inference slot
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public void setQueueDepth(int queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public long getAdmitted() {
+        return admitted;
+    }
+
+    public void setAdmitted(long admitted) {
+        this.admitted = admitted;
+    }
+
+    /**
+     * @return transcriptions rejected because the queue was full
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getAverageQueueWaitMillis() {
+        return averageQueueWaitMillis;
+    }
+
+    public void setAverageQueueWaitMillis(long averageQueueWaitMillis) {
+        this.averageQueueWaitMillis = averageQueueWaitMillis;
+    }
+
+    public long getMaxQueueWaitMillis() {
+        return maxQueueWaitMillis;
+    }
+
+    public void setMaxQueueWaitMillis(long maxQueueWaitMillis) {
+        this.maxQueueWaitMillis = maxQueueWaitMillis;
+    }
+}
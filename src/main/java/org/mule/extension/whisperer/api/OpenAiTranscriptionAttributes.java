@@ -1,8 +1,11 @@
 package org.mule.extension.whisperer.api;
 
+import java.util.List;
+
 public class OpenAiTranscriptionAttributes {
     private String language;
     private Double duration;
+    private List<TranscriptionSegmentAttributes> segments;
 
     public String getLanguage() {
         return language;
@@ -19,4 +22,15 @@ public class OpenAiTranscriptionAttributes {
     public void setDuration(Double duration) {
         this.duration = duration;
     }
+
+    /**
+     * @return segments of a local Whisper transcription, with the model that transcribed each one
+     */
+    public List<TranscriptionSegmentAttributes> getSegments() {
+        return segments;
+    }
+
+    public void setSegments(List<TranscriptionSegmentAttributes> segments) {
+        this.segments = segments;
+    }
 }
@@ -1,9 +1,12 @@
 package org.mule.extension.whisperer.api;
+import org.mule.extension.whisperer.internal.metadata.DecodingPresetProvider;
 import org.mule.extension.whisperer.internal.metadata.ModelNameProvider;
+import org.mule.extension.whisperer.internal.metadata.TranscriptionPriorityProvider;
 import org.mule.runtime.api.meta.ExpressionSupport;
 import org.mule.runtime.extension.api.annotation.Expression;
 import org.mule.runtime.extension.api.annotation.param.Optional;
 import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
 import org.mule.runtime.extension.api.annotation.values.OfValues;
 
 public class STTParamsModelDetails {
@@ -11,6 +14,7 @@ public class STTParamsModelDetails {
 	@Expression(ExpressionSupport.SUPPORTED)
 	@OfValues(ModelNameProvider.class)
 	@Optional(defaultValue = "whisper-1")
+	@Summary("Model to transcribe with. On Whisper JNI connections, a name from the connection's models selects that model; other names use the connection's model.")
 	private String modelName;
 
 	public String getModelName() {
@@ -43,4 +47,76 @@ public class STTParamsModelDetails {
 	public boolean isVerbose() {
 		return verbose;
 	}
+
+	@Parameter
+	@Expression(ExpressionSupport.SUPPORTED)
+	@OfValues(TranscriptionPriorityProvider.class)
+	@Optional(defaultValue = "INTERACTIVE")
+	@Summary("Scheduling class of local Whisper transcriptions. Queued INTERACTIVE requests are admitted before BATCH ones.")
+	private String priority;
+
+	public String getPriority() {
+		return priority;
+	}
+
+	@Parameter
+	@Expression(ExpressionSupport.SUPPORTED)
+	@OfValues(DecodingPresetProvider.class)
+	@Optional
+	@Summary("Latency/quality trade-off of local Whisper decoding. REALTIME: greedy, no fallback or context, single segment and audio context scaled to short clips. BALANCED: greedy with fallback and scaled audio context. ACCURATE: beam search over full windows. Empty keeps the whisper.cpp defaults.")
+	private String decodingPreset;
+
+	public String getDecodingPreset() {
+		return decodingPreset;
+	}
+
+	@Parameter
+	@Expression(ExpressionSupport.SUPPORTED)
+	@Optional
+	@Summary("Number of beams of local Whisper decoding; 1 decodes greedily. Overrides the decoding preset.")
+	private Integer beamSize;
+
+	public Integer getBeamSize() {
+		return beamSize;
+	}
+
+	@Parameter
+	@Expression(ExpressionSupport.SUPPORTED)
+	@Optional
+	@Summary("Temperature increase when local Whisper decoding fails its quality checks and is retried; 0 disables the retries. Overrides the decoding preset.")
+	private Number temperatureFallback;
+
+	public Number getTemperatureFallback() {
+		return temperatureFallback;
+	}
+
+	@Parameter
+	@Expression(ExpressionSupport.SUPPORTED)
+	@Optional
+	@Summary("Whether local Whisper ignores the text of the previous window when decoding the next one. Overrides the decoding preset.")
+	private Boolean noContext;
+
+	public Boolean getNoContext() {
+		return noContext;
+	}
+
+	@Parameter
+	@Expression(ExpressionSupport.SUPPORTED)
+	@Optional
+	@Summary("Whether local Whisper returns a single segment for clips of up to 30 seconds. Overrides the decoding preset.")
+	private Boolean singleSegment;
+
+	public Boolean getSingleSegment() {
+		return singleSegment;
+	}
+
+	@Parameter
+	@Expression(ExpressionSupport.SUPPORTED)
+	@Optional
+	@Summary("Whether local Whisper encodes only the part of the 30 second window a shorter clip fills, which speeds up short clips. Overrides the decoding preset.")
+	private Boolean scaleAudioContext;
+
+	public Boolean getScaleAudioContext() {
+		return scaleAudioContext;
+	}
 }
@@ -0,0 +1,43 @@
+package org.mule.extension.whisperer.api;
+
+public class TranscriptionSegmentAttributes {
+    private Double start;
+    private Double end;
+    private String text;
+    private String model;
+
+    public Double getStart() {
+        return start;
+    }
+
+    public void setStart(Double start) {
+        this.start = start;
+    }
+
+    public Double getEnd() {
+        return end;
+    }
+
+    public void setEnd(Double end) {
+        this.end = end;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    /**
+     * @return name of the model that transcribed the segment
+     */
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+}
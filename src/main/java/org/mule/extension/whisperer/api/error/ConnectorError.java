@@ -8,5 +8,7 @@ public enum ConnectorError implements ErrorTypeDefinition<ConnectorError> {
     MODEL_SETUP_FAILURE,
     GENERATION,
     AUDIO_FORMAT_NOT_SUPPORTED,
-    TIMEOUT
+    TIMEOUT,
+    QUEUE_FULL,
+    MODEL_NOT_READY
 }
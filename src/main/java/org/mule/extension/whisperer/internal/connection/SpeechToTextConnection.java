@@ -1,6 +1,8 @@
 package org.mule.extension.whisperer.internal.connection;
 
+import org.mule.extension.whisperer.api.InferenceStats;
 import org.mule.extension.whisperer.api.STTParamsModelDetails;
+import org.mule.extension.whisperer.internal.error.ConnectionIncompatibleException;
 import org.mule.runtime.api.metadata.TypedValue;
 import org.mule.runtime.extension.api.runtime.operation.Result;
 
@@ -9,4 +11,22 @@ import java.util.concurrent.CompletableFuture;
 
 public interface SpeechToTextConnection {
     CompletableFuture<Result<String, Object>> transcribe(TypedValue<InputStream> audioContent, String fineTuningPrompt, STTParamsModelDetails params);
+
+    /**
+     * Switches the connection to another model, or reloads its configured model, without interrupting transcriptions.
+     *
+     * @param modelLocation location of the new model, or {@code null} for the configured one
+     * @return the path of the model now in use
+     */
+    default CompletableFuture<String> reloadModel(String modelLocation) {
+        return CompletableFuture.failedFuture(
+            new ConnectionIncompatibleException("Reloading the model is only supported by Whisper JNI connections"));
+    }
+
+    /**
+     * @return admission statistics of the connection's local transcriptions
+     */
+    default InferenceStats getInferenceStats() {
+        throw new ConnectionIncompatibleException("Inference statistics are only available for Whisper JNI connections");
+    }
 }
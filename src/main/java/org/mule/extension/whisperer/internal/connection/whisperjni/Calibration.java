@@ -0,0 +1,66 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Inference settings found by {@link InferenceCalibrator}, with the measurements that led to them.
+ */
+class Calibration {
+
+    private final int threads;
+    private final int concurrency;
+    private final List<Measurement> curve;
+
+    Calibration(int threads, int concurrency, List<Measurement> curve) {
+        this.threads = threads;
+        this.concurrency = concurrency;
+        this.curve = Collections.unmodifiableList(curve);
+    }
+
+    /**
+     * @return Whisper threads per transcription
+     */
+    int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @return transcriptions to run at once
+     */
+    int getConcurrency() {
+        return concurrency;
+    }
+
+    List<Measurement> getCurve() {
+        return curve;
+    }
+
+    /**
+     * Real-time factor measured for one setting.
+     */
+    static class Measurement {
+
+        private final int threads;
+        private final int concurrency;
+        private final double realTimeFactor;
+
+        Measurement(int threads, int concurrency, double realTimeFactor) {
+            this.threads = threads;
+            this.concurrency = concurrency;
+            this.realTimeFactor = realTimeFactor;
+        }
+
+        int getThreads() {
+            return threads;
+        }
+
+        int getConcurrency() {
+            return concurrency;
+        }
+
+        double getRealTimeFactor() {
+            return realTimeFactor;
+        }
+    }
+}
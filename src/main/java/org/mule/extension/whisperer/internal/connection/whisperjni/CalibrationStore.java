@@ -0,0 +1,181 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Keeps calibration results on disk, one properties file per model and CPU signature, so restarts on the same
+ * hardware reuse them instead of measuring again.
+ */
+class CalibrationStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CalibrationStore.class);
+
+    /** Bytes hashed at each end of the model file; hashing a whole multi-gigabyte model would take seconds. */
+    private static final int FINGERPRINT_BYTES = 4 * 1024 * 1024;
+
+    private static final Path CPU_INFO = Paths.get("/proc/cpuinfo");
+
+    private final Path directory;
+
+    CalibrationStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @param modelFile the loaded model
+     * @param cpus CPUs available to the process
+     * @return key identifying the model contents and the hardware
+     */
+    static String key(Path modelFile, int cpus) throws IOException {
+        return fingerprint(modelFile) + "-" + cpuSignature(cpus);
+    }
+
+    /**
+     * @return the stored calibration, or {@code null} if there is none or it cannot be read
+     */
+    Calibration load(String key) {
+        Path file = file(key);
+        if (!Files.isReadable(file)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(file)) {
+            properties.load(input);
+            List<Calibration.Measurement> curve = new ArrayList<>();
+            for (int i = 0; properties.containsKey("curve." + i); i++) {
+                String[] fields = properties.getProperty("curve." + i).split(",");
+                curve.add(new Calibration.Measurement(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]),
+                                                      Double.parseDouble(fields[2])));
+            }
+            return new Calibration(Integer.parseInt(properties.getProperty("threads")),
+                                   Integer.parseInt(properties.getProperty("concurrency")), curve);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring unreadable calibration file {}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores a calibration, replacing any previous one atomically.
+     */
+    void save(String key, Calibration calibration) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("threads", Integer.toString(calibration.getThreads()));
+        properties.setProperty("concurrency", Integer.toString(calibration.getConcurrency()));
+        List<Calibration.Measurement> curve = calibration.getCurve();
+        for (int i = 0; i < curve.size(); i++) {
+            Calibration.Measurement measurement = curve.get(i);
+            properties.setProperty("curve." + i, measurement.getThreads() + "," + measurement.getConcurrency() + ","
+                + measurement.getRealTimeFactor());
+        }
+
+        Files.createDirectories(directory);
+        Path file = file(key);
+        Path temp = Files.createTempFile(directory, "calibration-", ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(temp)) {
+                properties.store(output, "Whisper inference calibration");
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        LOGGER.debug("Stored calibration in {}", file);
+    }
+
+    private Path file(String key) {
+        return directory.resolve("calibration-" + key + ".properties");
+    }
+
+    /**
+     * Hash of the model size and of its first and last bytes, enough to tell model files apart.
+     */
+    static String fingerprint(Path modelFile) throws IOException {
+        MessageDigest digest = sha256();
+        try (FileChannel channel = FileChannel.open(modelFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            digest.update(Long.toString(size).getBytes(StandardCharsets.US_ASCII));
+            hashRange(channel, digest, 0, Math.min(size, FINGERPRINT_BYTES));
+            if (size > FINGERPRINT_BYTES) {
+                long tailStart = Math.max(FINGERPRINT_BYTES, size - FINGERPRINT_BYTES);
+                hashRange(channel, digest, tailStart, size - tailStart);
+            }
+        }
+        return hex(digest.digest()).substring(0, 16);
+    }
+
+    private static String cpuSignature(int cpus) {
+        MessageDigest digest = sha256();
+        String signature = System.getProperty("os.arch") + "|" + cpus + "|" + cpuModel();
+        digest.update(signature.getBytes(StandardCharsets.UTF_8));
+        return hex(digest.digest()).substring(0, 16);
+    }
+
+    private static String cpuModel() {
+        try {
+            for (String line : Files.readAllLines(CPU_INFO, StandardCharsets.UTF_8)) {
+                if (line.startsWith("model name")) {
+                    return line.substring(line.indexOf(':') + 1).trim();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("Unable to read {}", CPU_INFO, e);
+        }
+        return "unknown";
+    }
+
+    private static void hashRange(FileChannel channel, MessageDigest digest, long position, long length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long end = position + length;
+        while (position < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            buffer.flip();
+            digest.update(buffer);
+            position += read;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,192 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import io.github.givimad.whisperjni.WhisperFullParams;
+import io.github.givimad.whisperjni.WhisperSamplingStrategy;
+import org.mule.extension.whisperer.internal.error.TranscriptionException;
+import org.mule.extension.whisperer.internal.helpers.audio.AudioDecoder;
+
+import java.util.Locale;
+
+/**
+ * Decoding settings of a local transcription: a latency/quality {@link Preset} and individual overrides, mapped to
+ * the {@link WhisperFullParams} of each Whisper call. Settings left unset by both keep the whisper.cpp defaults, so
+ * a transcription without a preset or overrides decodes as before.
+ *
+ * <p>Whisper always encodes a 30 second window; with a scaled audio context, the encoder only attends to the part
+ * of the window the clip fills, plus a second of margin, which cuts the encoder cost of a 3 to 5 second utterance
+ * several times over. Scaling and single-segment mode only apply to clips that fit in one window.
+ */
+final class DecodingOptions {
+
+    /**
+     * Encoder positions of a full 30 second window, 50 per second of audio.
+     */
+    static final int FULL_AUDIO_CONTEXT = 1500;
+
+    private static final int WINDOW_SAMPLES = 30 * AudioDecoder.WHISPER_SAMPLE_RATE;
+    private static final int SAMPLES_PER_POSITION = AudioDecoder.WHISPER_SAMPLE_RATE / 50;
+    private static final int AUDIO_CONTEXT_MARGIN = 50;
+    private static final int AUDIO_CONTEXT_STEP = 64;
+    // Shorter contexts make Whisper prone to repeating itself
+    private static final int MIN_AUDIO_CONTEXT = 256;
+
+    /**
+     * Named trade-offs between latency and accuracy.
+     */
+    enum Preset {
+
+        /**
+         * Greedy decoding of a single candidate without temperature fallback or previous-text context, one
+         * segment per clip and an audio context scaled to the clip. For short interactive utterances.
+         */
+        REALTIME(1, 1, 0f, true, true, true),
+        /**
+         * Greedy decoding with a second candidate on temperature fallback, no previous-text context and an audio
+         * context scaled to the clip.
+         */
+        BALANCED(1, 2, 0.2f, true, false, true),
+        /**
+         * Beam search over five beams with temperature fallback and previous-text context over full windows.
+         */
+        ACCURATE(5, 5, 0.2f, false, false, false);
+
+        private final int beamSize;
+        private final int bestOf;
+        private final float temperatureFallback;
+        private final boolean noContext;
+        private final boolean singleSegment;
+        private final boolean scaleAudioContext;
+
+        Preset(int beamSize, int bestOf, float temperatureFallback, boolean noContext, boolean singleSegment,
+               boolean scaleAudioContext) {
+            this.beamSize = beamSize;
+            this.bestOf = bestOf;
+            this.temperatureFallback = temperatureFallback;
+            this.noContext = noContext;
+            this.singleSegment = singleSegment;
+            this.scaleAudioContext = scaleAudioContext;
+        }
+
+        /**
+         * @return the preset with the given name ignoring case, or {@code null} for none
+         */
+        static Preset parse(String value) {
+            if (value == null || value.trim().isEmpty()) {
+                return null;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new TranscriptionException("Unknown decoding preset '" + value
+                                                 + "', expected REALTIME, BALANCED or ACCURATE");
+            }
+        }
+    }
+
+    // null keeps the whisper.cpp default
+    private final Integer beamSize;
+    private final Integer bestOf;
+    private final Float temperatureFallback;
+    private final Boolean noContext;
+    private final boolean singleSegment;
+    private final boolean scaleAudioContext;
+
+    private DecodingOptions(Integer beamSize, Integer bestOf, Float temperatureFallback, Boolean noContext,
+                            boolean singleSegment, boolean scaleAudioContext) {
+        this.beamSize = beamSize;
+        this.bestOf = bestOf;
+        this.temperatureFallback = temperatureFallback;
+        this.noContext = noContext;
+        this.singleSegment = singleSegment;
+        this.scaleAudioContext = scaleAudioContext;
+    }
+
+    /**
+     * Resolves the settings of a transcription. Overrides take precedence over the preset.
+     *
+     * @param preset name of the preset, or {@code null} for none
+     * @param beamSize number of beams, 1 for greedy decoding, or {@code null}
+     * @param temperatureFallback temperature increase when decoding fails, 0 to disable the fallback, or {@code null}
+     * @param noContext whether to ignore the text of the previous window, or {@code null}
+     * @param singleSegment whether to return a single segment per clip, or {@code null}
+     * @param scaleAudioContext whether to scale the audio context to the clip length, or {@code null}
+     * @throws TranscriptionException if the preset or an override is invalid
+     */
+    static DecodingOptions of(String preset, Integer beamSize, Number temperatureFallback, Boolean noContext,
+                              Boolean singleSegment, Boolean scaleAudioContext) {
+        Preset base = Preset.parse(preset);
+        if (beamSize != null && beamSize < 1) {
+            throw new TranscriptionException("Beam size must be at least 1, was " + beamSize);
+        }
+        if (temperatureFallback != null && temperatureFallback.floatValue() < 0) {
+            throw new TranscriptionException("Temperature fallback must not be negative, was " + temperatureFallback);
+        }
+        return new DecodingOptions(
+            beamSize != null ? beamSize : base != null ? Integer.valueOf(base.beamSize) : null,
+            base != null ? Integer.valueOf(base.bestOf) : null,
+            temperatureFallback != null ? Float.valueOf(temperatureFallback.floatValue())
+                : base != null ? Float.valueOf(base.temperatureFallback) : null,
+            noContext != null ? noContext : base != null ? Boolean.valueOf(base.noContext) : null,
+            singleSegment != null ? singleSegment : base != null && base.singleSegment,
+            scaleAudioContext != null ? scaleAudioContext : base != null && base.scaleAudioContext);
+    }
+
+    /**
+     * @return parameters for a transcription with these settings; clip dependent ones are set by {@link #fitToClip}
+     */
+    WhisperFullParams newParams() {
+        boolean beamSearch = beamSize != null && beamSize > 1;
+        WhisperFullParams params = beamSearch
+            ? new WhisperFullParams(WhisperSamplingStrategy.BEAN_SEARCH)
+            : new WhisperFullParams();
+        if (beamSearch) {
+            params.beamSearchBeamSize = beamSize;
+        }
+        if (bestOf != null) {
+            // Candidates sampled when falling back to a higher temperature
+            params.greedyBestOf = bestOf;
+        }
+        if (temperatureFallback != null) {
+            params.temperatureInc = temperatureFallback;
+        }
+        if (noContext != null) {
+            params.noContext = noContext;
+        }
+        return params;
+    }
+
+    /**
+     * @return these settings for windows that pack several clips, which must keep one segment per clip at least
+     */
+    DecodingOptions withoutSingleSegment() {
+        return singleSegment
+            ? new DecodingOptions(beamSize, bestOf, temperatureFallback, noContext, false, scaleAudioContext)
+            : this;
+    }
+
+    /**
+     * Sets the parameters that depend on the length of the clip about to be transcribed. The parameters belong to
+     * one transcription, whose clips are transcribed one after the other, so they are updated in place. Windows of
+     * the long audio mode run concurrently on the same parameters and are not fitted, they fill whole windows anyway.
+     */
+    void fitToClip(WhisperFullParams params, int sampleCount) {
+        boolean oneWindow = sampleCount <= WINDOW_SAMPLES;
+        params.singleSegment = singleSegment && oneWindow;
+        params.audioCtx = scaleAudioContext && oneWindow ? audioContext(sampleCount) : 0;
+    }
+
+    /**
+     * @return encoder positions for a clip of up to 30 seconds, with a second of margin, rounded up
+     */
+    static int audioContext(int sampleCount) {
+        int positions = (sampleCount + SAMPLES_PER_POSITION - 1) / SAMPLES_PER_POSITION + AUDIO_CONTEXT_MARGIN;
+        int rounded = (positions + AUDIO_CONTEXT_STEP - 1) / AUDIO_CONTEXT_STEP * AUDIO_CONTEXT_STEP;
+        return Math.min(FULL_AUDIO_CONTEXT, Math.max(MIN_AUDIO_CONTEXT, rounded));
+    }
+
+    @Override
+    public String toString() {
+        return "beamSize=" + beamSize + ", bestOf=" + bestOf + ", temperatureFallback=" + temperatureFallback
+            + ", noContext=" + noContext + ", singleSegment=" + singleSegment + ", scaleAudioContext=" + scaleAudioContext;
+    }
+}
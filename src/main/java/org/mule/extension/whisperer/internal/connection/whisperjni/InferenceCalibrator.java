@@ -0,0 +1,164 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import io.github.givimad.whisperjni.WhisperContext;
+import io.github.givimad.whisperjni.WhisperFullParams;
+import io.github.givimad.whisperjni.WhisperJNI;
+import io.github.givimad.whisperjni.WhisperState;
+import org.mule.extension.whisperer.internal.error.TranscriptionException;
+import org.mule.extension.whisperer.internal.helpers.audio.AudioDecoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Finds the thread count and number of concurrent transcriptions that give the best throughput for a model on
+ * the current hardware.
+ *
+ * <p>Every combination of a power-of-two thread count and a power-of-two concurrency that fits in the available
+ * CPUs is measured, and the one with the lowest aggregate real-time factor wins: wall-clock time divided by the
+ * total duration of audio transcribed, so a setting that transcribes four clips at once in the time another takes
+ * for one scores four times better. Ties go to the setting using fewer threads.
+ */
+class InferenceCalibrator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InferenceCalibrator.class);
+
+    /**
+     * Measures one setting.
+     */
+    interface Benchmark {
+
+        /**
+         * @return wall-clock time divided by the duration of audio transcribed
+         */
+        double measure(int threads, int concurrency);
+    }
+
+    private final int cpus;
+    private final Benchmark benchmark;
+
+    InferenceCalibrator(int cpus, Benchmark benchmark) {
+        this.cpus = Math.max(1, cpus);
+        this.benchmark = benchmark;
+    }
+
+    /**
+     * Measures every candidate setting and logs the curve.
+     *
+     * @return the best setting, with every measurement
+     */
+    Calibration calibrate() {
+        List<Calibration.Measurement> curve = new ArrayList<>();
+        for (int[] candidate : candidates(cpus)) {
+            double rtf = benchmark.measure(candidate[0], candidate[1]);
+            curve.add(new Calibration.Measurement(candidate[0], candidate[1], rtf));
+            LOGGER.info("Calibration: {} threads x {} concurrent -> real-time factor {}",
+                        candidate[0], candidate[1], String.format("%.3f", rtf));
+        }
+
+        Calibration.Measurement best = curve.stream()
+            .min(Comparator.comparingDouble(Calibration.Measurement::getRealTimeFactor)
+                     .thenComparingInt(measurement -> measurement.getThreads() * measurement.getConcurrency()))
+            .orElseThrow(IllegalStateException::new);
+        LOGGER.info("Calibration selected {} threads x {} concurrent (real-time factor {})",
+                    best.getThreads(), best.getConcurrency(), String.format("%.3f", best.getRealTimeFactor()));
+        return new Calibration(best.getThreads(), best.getConcurrency(), curve);
+    }
+
+    /**
+     * @return {threads, concurrency} pairs to measure, using at most {@code cpus} threads in total
+     */
+    static List<int[]> candidates(int cpus) {
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < cpus; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(cpus);
+
+        List<int[]> candidates = new ArrayList<>();
+        for (int threads : threadCounts) {
+            for (int concurrency = 1; threads * concurrency <= cpus; concurrency *= 2) {
+                candidates.add(new int[] {threads, concurrency});
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Benchmark running a clip through Whisper on separate states at the same time. Each setting gets an untimed
+     * warm-up run first, so page faults and allocator growth are not charged to whichever setting comes first.
+     *
+     * @param clip 16kHz mono samples
+     * @param executor runs the concurrent transcriptions; must accept as many tasks as the highest concurrency
+     */
+    static Benchmark whisperBenchmark(WhisperJNI whisper, WhisperContext whisperContext, float[] clip, Executor executor) {
+        double clipSeconds = (double) clip.length / AudioDecoder.WHISPER_SAMPLE_RATE;
+        return (threads, concurrency) -> {
+            WhisperFullParams params = new WhisperFullParams();
+            params.nThreads = threads;
+            params.language = "en";
+            params.printProgress = false;
+
+            List<WhisperState> states = new ArrayList<>(concurrency);
+            try {
+                for (int i = 0; i < concurrency; i++) {
+                    states.add(whisper.initState(whisperContext));
+                }
+                runConcurrently(whisper, whisperContext, states, params, clip, executor);
+
+                long start = System.nanoTime();
+                runConcurrently(whisper, whisperContext, states, params, clip, executor);
+                double wallSeconds = (System.nanoTime() - start) / 1e9;
+                return wallSeconds / (clipSeconds * concurrency);
+            } finally {
+                states.forEach(WhisperState::close);
+            }
+        };
+    }
+
+    private static void runConcurrently(WhisperJNI whisper, WhisperContext whisperContext, List<WhisperState> states,
+                                        WhisperFullParams params, float[] clip, Executor executor) {
+        CompletableFuture<?>[] runs = new CompletableFuture<?>[states.size()];
+        for (int i = 0; i < runs.length; i++) {
+            WhisperState state = states.get(i);
+            runs[i] = CompletableFuture.runAsync(() -> {
+                int result = whisper.fullWithState(whisperContext, state, params, clip, clip.length);
+                if (result != 0) {
+                    throw new TranscriptionException("Calibration run failed with code " + result);
+                }
+            }, executor);
+        }
+        CompletableFuture.allOf(runs).join();
+    }
+
+    /**
+     * Synthetic speech-like clip: a voiced harmonic tone with a wandering pitch, cut into syllables. Whisper's
+     * encoder cost does not depend on the content, and the decoder gets something to work on.
+     *
+     * @param seconds length of the clip
+     * @return 16kHz mono samples
+     */
+    static float[] syntheticClip(int seconds) {
+        int rate = AudioDecoder.WHISPER_SAMPLE_RATE;
+        float[] clip = new float[seconds * rate];
+        double phase = 0;
+        for (int i = 0; i < clip.length; i++) {
+            double t = (double) i / rate;
+            double pitch = 130 + 30 * Math.sin(2 * Math.PI * 0.7 * t) + 15 * Math.sin(2 * Math.PI * 3.1 * t);
+            phase += 2 * Math.PI * pitch / rate;
+            double value = 0;
+            for (int harmonic = 1; harmonic <= 12; harmonic++) {
+                value += Math.sin(harmonic * phase) / harmonic;
+            }
+            // About four syllables per second, with short gaps
+            double envelope = Math.max(0, Math.sin(2 * Math.PI * 4 * t));
+            clip[i] = (float) (0.2 * envelope * value);
+        }
+        return clip;
+    }
+}
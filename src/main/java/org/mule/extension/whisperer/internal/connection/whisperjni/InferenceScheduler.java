@@ -0,0 +1,269 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.mule.extension.whisperer.internal.error.QueueFullException;
+import org.mule.extension.whisperer.internal.error.TranscriptionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Admission control for local inference: at most a fixed number of transcriptions run at once on the inference
+ * executor, the rest wait in a bounded queue, and requests arriving at a full queue are rejected immediately
+ * instead of piling up. Submitting never blocks the caller; jobs are handed to the executor as slots free up.
+ *
+ * <p>Waiting requests are admitted by priority class first, {@link Priority#INTERACTIVE} before
+ * {@link Priority#BATCH}. Within a class they are admitted in arrival order or, with shortest-audio-first enabled,
+ * shortest clip first, which lowers the average latency when short and long recordings are mixed at the cost of
+ * making long ones wait longer.
+ */
+class InferenceScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InferenceScheduler.class);
+
+    enum Priority {
+        INTERACTIVE,
+        BATCH;
+
+        /**
+         * @param value priority name, case insensitive; {@code null} or blank means {@link #INTERACTIVE}
+         * @throws TranscriptionException if the name is unknown
+         */
+        static Priority parse(String value) {
+            if (value == null || value.trim().isEmpty()) {
+                return INTERACTIVE;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new TranscriptionException("Unknown transcription priority '" + value + "', expected INTERACTIVE or BATCH");
+            }
+        }
+    }
+
+    private final Executor executor;
+    private final int maxConcurrent;
+    private final int maxQueued;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Job<?>> queue;
+    private long nextSequence;
+    private int running;
+    private boolean closed;
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * @param executor runs admitted jobs; must accept at least {@code maxConcurrent} tasks at once
+     * @param maxConcurrent transcriptions allowed to run at once
+     * @param maxQueued transcriptions allowed to wait for a slot; 0 rejects whenever all slots are busy
+     * @param shortestAudioFirst whether to admit shorter clips first within a priority class
+     */
+    InferenceScheduler(Executor executor, int maxConcurrent, int maxQueued, boolean shortestAudioFirst) {
+        this.executor = executor;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxQueued = Math.max(0, maxQueued);
+
+        Comparator<Job<?>> order = Comparator.comparing(job -> job.priority);
+        if (shortestAudioFirst) {
+            order = order.thenComparingLong(job -> job.sampleCount);
+        }
+        this.queue = new PriorityQueue<>(order.thenComparingLong(job -> job.sequence));
+    }
+
+    /**
+     * Queues a transcription job. It runs on the inference executor as soon as a slot is free and no job ahead of
+     * it in the queue is waiting.
+     *
+     * @param priority scheduling class of the request
+     * @param sampleCount length of the audio, used for shortest-audio-first ordering
+     * @param task the inference work
+     * @return completes with the result of the task, or exceptionally with {@link QueueFullException} if all slots
+     *         are busy and the queue is full, or with {@link TranscriptionException} if the scheduler is closed
+     */
+    <T> CompletableFuture<T> submit(Priority priority, long sampleCount, Supplier<T> task) {
+        Job<T> job = new Job<>(priority, sampleCount, task);
+        boolean start = false;
+        lock.lock();
+        try {
+            if (closed) {
+                job.result.completeExceptionally(stopped());
+            } else if (running < maxConcurrent && queue.isEmpty()) {
+                running++;
+                start = true;
+            } else if (queue.size() >= maxQueued) {
+                rejected.incrementAndGet();
+                job.result.completeExceptionally(new QueueFullException(String.format(
+                    "Local transcription queue is full: %d running, %d waiting (limit %d)", running, queue.size(), maxQueued)));
+            } else {
+                job.sequence = nextSequence++;
+                queue.add(job);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (start) {
+            start(job);
+        }
+        return job.result;
+    }
+
+    private <T> void start(Job<T> job) {
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            release();
+            job.result.completeExceptionally(new TranscriptionException("Inference executor rejected the transcription", e));
+        }
+    }
+
+    private <T> void run(Job<T> job) {
+        long waitNanos = System.nanoTime() - job.submittedNanos;
+        admitted.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        LOGGER.debug("Transcription started after {} ms in the queue ({} still queued)",
+                     TimeUnit.NANOSECONDS.toMillis(waitNanos), getQueueDepth());
+        T value = null;
+        Throwable failure = null;
+        try {
+            value = job.task.get();
+        } catch (Throwable t) {
+            failure = t;
+        }
+
+        // Free the slot before completing: dependents run on this thread and may submit follow-up work
+        try {
+            release();
+        } finally {
+            if (failure == null) {
+                job.result.complete(value);
+            } else {
+                job.result.completeExceptionally(failure);
+            }
+        }
+    }
+
+    private void release() {
+        Job<?> next;
+        lock.lock();
+        try {
+            next = queue.poll();
+            if (next == null) {
+                running--;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // The slot passes straight to the next job
+        if (next != null) {
+            start(next);
+        }
+    }
+
+    /**
+     * Stops admitting transcriptions and fails the ones still waiting for a slot. Running transcriptions are left to
+     * finish; no queued job starts after this returns.
+     */
+    void close() {
+        List<Job<?>> waiting;
+        lock.lock();
+        try {
+            closed = true;
+            waiting = new ArrayList<>(queue);
+            queue.clear();
+        } finally {
+            lock.unlock();
+        }
+
+        if (!waiting.isEmpty()) {
+            LOGGER.debug("Failing {} queued transcriptions, the engine is stopping", waiting.size());
+        }
+        for (Job<?> job : waiting) {
+            job.result.completeExceptionally(stopped());
+        }
+    }
+
+    private static TranscriptionException stopped() {
+        return new TranscriptionException("Local transcription engine stopped");
+    }
+
+    /**
+     * @return transcriptions waiting for a slot
+     */
+    int getQueueDepth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return transcriptions currently holding a slot
+     */
+    int getRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getAdmittedCount() {
+        return admitted.get();
+    }
+
+    long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * @return average time admitted transcriptions spent waiting for a slot
+     */
+    long getAverageWaitMillis() {
+        long count = admitted.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / count);
+    }
+
+    /**
+     * @return longest time a transcription spent waiting for a slot
+     */
+    long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    private static final class Job<T> {
+
+        private final Priority priority;
+        private final long sampleCount;
+        private final Supplier<T> task;
+        private final long submittedNanos = System.nanoTime();
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private long sequence;
+
+        private Job(Priority priority, long sampleCount, Supplier<T> task) {
+            this.priority = priority;
+            this.sampleCount = sampleCount;
+            this.task = task;
+        }
+    }
+}
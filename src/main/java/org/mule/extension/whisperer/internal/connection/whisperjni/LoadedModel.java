@@ -0,0 +1,41 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import io.github.givimad.whisperjni.WhisperContext;
+
+import java.nio.file.Path;
+
+/**
+ * A Whisper model loaded without state, together with the pool of states transcriptions run on. States belong to
+ * the context they were created from, so the two are shared and closed together.
+ */
+class LoadedModel implements AutoCloseable {
+
+    private final Path modelFile;
+    private final WhisperContext whisperContext;
+    private final WhisperStatePool statePool;
+
+    LoadedModel(Path modelFile, WhisperContext whisperContext, WhisperStatePool statePool) {
+        this.modelFile = modelFile;
+        this.whisperContext = whisperContext;
+        this.statePool = statePool;
+    }
+
+    Path getModelFile() {
+        return modelFile;
+    }
+
+    WhisperContext getWhisperContext() {
+        return whisperContext;
+    }
+
+    WhisperStatePool getStatePool() {
+        return statePool;
+    }
+
+    @Override
+    public void close() {
+        // States must be freed before the context they belong to
+        statePool.close();
+        whisperContext.close();
+    }
+}
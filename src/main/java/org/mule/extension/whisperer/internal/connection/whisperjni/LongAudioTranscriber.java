@@ -0,0 +1,174 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import io.github.givimad.whisperjni.WhisperContext;
+import io.github.givimad.whisperjni.WhisperFullParams;
+import io.github.givimad.whisperjni.WhisperJNI;
+import io.github.givimad.whisperjni.WhisperState;
+import org.mule.extension.whisperer.internal.error.TranscriptionException;
+import org.mule.extension.whisperer.internal.helpers.audio.AudioDecoder;
+import org.mule.extension.whisperer.internal.helpers.audio.FloatSampleBuffer;
+import org.mule.extension.whisperer.internal.helpers.pool.BoundedPool;
+import org.mule.extension.whisperer.internal.helpers.vad.AudioWindow;
+import org.mule.extension.whisperer.internal.helpers.vad.SilenceSplitter;
+import org.mule.runtime.extension.api.exception.ModuleException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Transcribes long recordings by splitting them into overlapping windows that are transcribed in parallel.
+ *
+ * <p>Whisper's own scaling flattens out after a few threads, so instead of giving one call more threads, each
+ * worker checks out its own {@link WhisperState} for the shared {@link WhisperContext} and works through the windows
+ * one at a time. The model weights are loaded once; only the per-state buffers are duplicated. The calling thread
+ * always works on the windows itself with a state it waits for; helpers only join when the pool has a state to
+ * spare, so a busy pool lowers the parallelism instead of failing the request. Segments are then stitched back in
+ * order by {@link TranscriptStitcher}.
+ */
+class LongAudioTranscriber {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LongAudioTranscriber.class);
+
+    private final WhisperJNI whisper;
+    private final Executor executor;
+    private final int parallelism;
+    private final int windowSamples;
+    private final int overlapSamples;
+    private final boolean divideThreads;
+
+    LongAudioTranscriber(WhisperJNI whisper, Executor executor, int parallelism, int windowSeconds, int overlapSeconds,
+                         boolean divideThreads) {
+        this.whisper = whisper;
+        this.executor = executor;
+        this.parallelism = Math.max(1, parallelism);
+        this.windowSamples = windowSeconds * AudioDecoder.WHISPER_SAMPLE_RATE;
+        this.overlapSamples = overlapSeconds * AudioDecoder.WHISPER_SAMPLE_RATE;
+        this.divideThreads = divideThreads;
+    }
+
+    /**
+     * @param sampleCount length of a clip
+     * @return whether the clip is long enough to be worth splitting
+     */
+    boolean isLongAudio(int sampleCount) {
+        return sampleCount > windowSamples + windowSamples / 2;
+    }
+
+    /**
+     * @param model model to transcribe with, on states of its pool
+     * @param whisperParams parameters for every window; only read, except for the thread count while threads are
+     *                      divided among the workers, which is restored before returning
+     * @param samples 16kHz mono samples
+     * @return the stitched segments, with timestamps relative to the start of {@code samples}
+     */
+    List<TranscriptionSegment> transcribe(LoadedModel model, WhisperFullParams whisperParams, FloatSampleBuffer samples) {
+        // Look for a pause within the last tenth of each window
+        List<AudioWindow> windows = SilenceSplitter.split(samples, windowSamples, overlapSamples, windowSamples / 10);
+        int workers = Math.min(parallelism, windows.size());
+
+        List<List<TranscriptionSegment>> windowSegments = new ArrayList<>(windows.size());
+        for (int i = 0; i < windows.size(); i++) {
+            windowSegments.add(null);
+        }
+
+        AtomicInteger nextWindow = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        WhisperStatePool statePool = model.getStatePool();
+        int allocatedThreads = whisperParams.nThreads;
+        // Helpers wait until the thread count is set for the number of workers actually started
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        try (BoundedPool.Lease<WhisperState> lease = statePool.checkout()) {
+            List<CompletableFuture<Void>> helpers = new ArrayList<>(workers - 1);
+            for (int helper = 1; helper < workers; helper++) {
+                BoundedPool.Lease<WhisperState> helperLease = statePool.tryCheckout();
+                if (helperLease == null) {
+                    break;
+                }
+                try {
+                    helpers.add(CompletableFuture.runAsync(() -> {
+                        try (helperLease) {
+                            started.join();
+                            transcribeWindows(model, helperLease, whisperParams, samples, windows, windowSegments, nextWindow, failure);
+                        }
+                    }, executor));
+                } catch (RejectedExecutionException e) {
+                    helperLease.close();
+                    LOGGER.debug("Long audio scheduler is saturated, continuing with {} helpers", helpers.size());
+                    break;
+                }
+            }
+
+            if (divideThreads) {
+                // The request's thread allocation is shared by its workers rather than granted to each
+                whisperParams.nThreads = Math.max(1, allocatedThreads / (helpers.size() + 1));
+            }
+            LOGGER.debug("Transcribing {} ms of audio as {} windows on {} workers", samples.durationMillis(), windows.size(),
+                         helpers.size() + 1);
+            started.complete(null);
+
+            transcribeWindows(model, lease, whisperParams, samples, windows, windowSegments, nextWindow, failure);
+            CompletableFuture.allOf(helpers.toArray(new CompletableFuture<?>[0])).exceptionally(e -> null).join();
+        } finally {
+            // Releases helpers left waiting if this thread failed before starting them
+            started.completeExceptionally(new IllegalStateException("Long audio transcription aborted"));
+            whisperParams.nThreads = allocatedThreads;
+        }
+
+        Throwable cause = failure.get();
+        if (cause instanceof ModuleException) {
+            throw (ModuleException) cause;
+        } else if (cause != null) {
+            throw new TranscriptionException("Parallel transcription of long audio failed", cause);
+        }
+
+        return TranscriptStitcher.stitch(windows, windowSegments);
+    }
+
+    /**
+     * Transcribes windows until none is left or a worker has failed. Failures are recorded rather than thrown.
+     */
+    private void transcribeWindows(LoadedModel model, BoundedPool.Lease<WhisperState> lease,
+                                   WhisperFullParams whisperParams, FloatSampleBuffer samples, List<AudioWindow> windows,
+                                   List<List<TranscriptionSegment>> windowSegments, AtomicInteger nextWindow,
+                                   AtomicReference<Throwable> failure) {
+        try {
+            int index;
+            while (failure.get() == null && (index = nextWindow.getAndIncrement()) < windows.size()) {
+                windowSegments.set(index, transcribeWindow(model, lease.get(), whisperParams, samples, windows.get(index)));
+            }
+        } catch (RuntimeException e) {
+            lease.invalidate();
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    private List<TranscriptionSegment> transcribeWindow(LoadedModel model, WhisperState state,
+                                                        WhisperFullParams whisperParams, FloatSampleBuffer samples,
+                                                        AudioWindow window) {
+        float[] windowSamples = Arrays.copyOfRange(samples.array(), window.getStartSample(), window.getEndSample());
+        int result = whisper.fullWithState(model.getWhisperContext(), state, whisperParams, windowSamples,
+                                           windowSamples.length);
+        if (result != 0) {
+            throw new TranscriptionException("Transcription of window " + window + " failed with code " + result);
+        }
+
+        int count = whisper.fullNSegmentsFromState(state);
+        List<TranscriptionSegment> segments = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            // Whisper timestamps are in centiseconds, relative to the window
+            segments.add(new TranscriptionSegment(whisper.fullGetSegmentTimestamp0FromState(state, i) * 10,
+                                                  whisper.fullGetSegmentTimestamp1FromState(state, i) * 10,
+                                                  whisper.fullGetSegmentTextFromState(state, i))
+                             .shift(window.getStartMillis()));
+        }
+        return segments;
+    }
+}
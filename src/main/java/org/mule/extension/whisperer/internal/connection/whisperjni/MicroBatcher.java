@@ -0,0 +1,257 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.mule.extension.whisperer.internal.helpers.audio.AudioDecoder;
+import org.mule.extension.whisperer.internal.helpers.audio.FloatSampleBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Packs short clips of concurrent requests into shared 30 second windows, so one Whisper call transcribes several
+ * of them. Whisper encodes a whole window whatever the length of the clip, so a 3 second clip alone wastes most of
+ * the encoder's work.
+ *
+ * <p>Clips are grouped by a key standing for everything that must match to share a call: the model, the language,
+ * the prompt and the decoding options. The first clip of a group waits at most the batching delay for others; a
+ * group is transcribed as soon as the delay expires or the next clip does not fit in the window. Clips are separated
+ * by a second of silence, so Whisper ends a segment between them, and each segment of the window goes back to the
+ * clip it overlaps. If a segment still reaches into two clips, even by a few milliseconds, those clips are
+ * transcribed again on their own rather than returning text of one request to another.
+ */
+class MicroBatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MicroBatcher.class);
+
+    static final int WINDOW_SAMPLES = 30 * AudioDecoder.WHISPER_SAMPLE_RATE;
+    static final int SEPARATOR_SAMPLES = AudioDecoder.WHISPER_SAMPLE_RATE;
+
+    private static final long SAMPLES_PER_MILLI = AudioDecoder.WHISPER_SAMPLE_RATE / 1000;
+
+    /**
+     * Transcribes a window. The transcriber of the first clip of a batch transcribes the whole batch.
+     */
+    @FunctionalInterface
+    interface WindowTranscriber {
+
+        /**
+         * @return segments with timestamps relative to the start of the window
+         */
+        CompletableFuture<List<TranscriptionSegment>> transcribe(FloatSampleBuffer window);
+    }
+
+    private final ScheduledExecutorService timer;
+    private final long maxDelayMillis;
+    private final int maxClipSamples;
+    // Guarded by this
+    private final Map<String, Batch> pending = new HashMap<>();
+
+    /**
+     * @param timer flushes batches whose delay expired
+     * @param maxDelayMillis time the first clip of a batch waits for others
+     * @param maxClipSeconds longest clip worth batching
+     */
+    MicroBatcher(ScheduledExecutorService timer, long maxDelayMillis, int maxClipSeconds) {
+        this.timer = timer;
+        this.maxDelayMillis = Math.max(0, maxDelayMillis);
+        this.maxClipSamples = Math.min(WINDOW_SAMPLES, Math.max(1, maxClipSeconds) * AudioDecoder.WHISPER_SAMPLE_RATE);
+    }
+
+    /**
+     * @return whether a clip is short enough to be batched
+     */
+    boolean accepts(int sampleCount) {
+        return sampleCount > 0 && sampleCount <= maxClipSamples;
+    }
+
+    /**
+     * Adds a clip to the batch of its key.
+     *
+     * @param key what clips transcribed together must have in common
+     * @param clip the clip, at most {@link #accepts as long as accepted}
+     * @param transcriber transcribes a window with the settings of the key
+     * @return segments of the clip, with timestamps relative to its start
+     */
+    CompletableFuture<List<TranscriptionSegment>> submit(String key, float[] clip, WindowTranscriber transcriber) {
+        Clip entry = new Clip(clip, transcriber);
+        Batch full = null;
+        Batch flushNow = null;
+        synchronized (this) {
+            Batch batch = pending.get(key);
+            if (batch != null && !batch.fits(clip.length)) {
+                full = pending.remove(key);
+                batch = null;
+            }
+            if (batch == null) {
+                batch = new Batch(key);
+                pending.put(key, batch);
+                if (maxDelayMillis > 0) {
+                    Batch scheduled = batch;
+                    batch.timeout = timer.schedule(() -> flush(scheduled), maxDelayMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+            batch.add(entry);
+            if (maxDelayMillis == 0 || !batch.fits(SEPARATOR_SAMPLES)) {
+                flushNow = pending.remove(key);
+            }
+        }
+        if (full != null) {
+            transcribe(full);
+        }
+        if (flushNow != null) {
+            transcribe(flushNow);
+        }
+        return entry.result;
+    }
+
+    private void flush(Batch batch) {
+        synchronized (this) {
+            if (!pending.remove(batch.key, batch)) {
+                // Already flushed because it was full
+                return;
+            }
+        }
+        transcribe(batch);
+    }
+
+    private void transcribe(Batch batch) {
+        if (batch.timeout != null) {
+            batch.timeout.cancel(false);
+        }
+        List<Clip> clips = batch.clips;
+        if (clips.size() == 1) {
+            transcribeAlone(clips.get(0));
+            return;
+        }
+
+        FloatSampleBuffer window = new FloatSampleBuffer(batch.samples);
+        long[] offsets = new long[clips.size()];
+        for (int i = 0; i < clips.size(); i++) {
+            if (i > 0) {
+                window.append(new float[SEPARATOR_SAMPLES], 0, SEPARATOR_SAMPLES);
+            }
+            offsets[i] = window.size() / SAMPLES_PER_MILLI;
+            window.append(clips.get(i).samples, 0, clips.get(i).samples.length);
+        }
+        LOGGER.debug("Transcribing {} clips in one window of {} ms", clips.size(), window.durationMillis());
+
+        CompletableFuture<List<TranscriptionSegment>> transcribed;
+        try {
+            transcribed = clips.get(0).transcriber.transcribe(window);
+        } catch (RuntimeException e) {
+            transcribed = CompletableFuture.failedFuture(e);
+        }
+        transcribed.whenComplete((segments, failure) -> {
+            if (failure != null) {
+                clips.forEach(clip -> clip.result.completeExceptionally(failure));
+                return;
+            }
+            split(clips, offsets, segments);
+        });
+    }
+
+    /**
+     * Hands each segment of the window to the clip it overlaps, with timestamps made relative to that clip. Segment
+     * edges are only accurate to a few hundred milliseconds, so clips touched by a segment that overlaps more than
+     * one of them, by however little, are transcribed again alone.
+     */
+    private void split(List<Clip> clips, long[] offsets, List<TranscriptionSegment> segments) {
+        List<List<TranscriptionSegment>> clipSegments = new ArrayList<>();
+        boolean[] ambiguous = new boolean[clips.size()];
+        for (int i = 0; i < clips.size(); i++) {
+            clipSegments.add(new ArrayList<>());
+        }
+        for (TranscriptionSegment segment : segments) {
+            List<Integer> overlapping = new ArrayList<>();
+            for (int i = 0; i < clips.size(); i++) {
+                if (overlap(segment, offsets[i], offsets[i] + clips.get(i).durationMillis()) > 0) {
+                    overlapping.add(i);
+                }
+            }
+            if (overlapping.size() > 1) {
+                overlapping.forEach(i -> ambiguous[i] = true);
+            } else if (overlapping.size() == 1) {
+                int clip = overlapping.get(0);
+                long clipMillis = clips.get(clip).durationMillis();
+                TranscriptionSegment shifted = segment.shift(-offsets[clip]);
+                clipSegments.get(clip).add(new TranscriptionSegment(Math.max(0, shifted.getStartMillis()),
+                                                                    Math.min(clipMillis, shifted.getEndMillis()),
+                                                                    shifted.getText(), shifted.getModel()));
+            }
+            // Segments entirely within a separator hold no speech of any clip
+        }
+        for (int i = 0; i < clips.size(); i++) {
+            if (ambiguous[i]) {
+                LOGGER.debug("A segment spans two batched clips, transcribing clip {} of {} alone", i + 1, clips.size());
+                transcribeAlone(clips.get(i));
+            } else {
+                clips.get(i).result.complete(clipSegments.get(i));
+            }
+        }
+    }
+
+    private static void transcribeAlone(Clip clip) {
+        try {
+            clip.transcriber.transcribe(FloatSampleBuffer.wrap(clip.samples)).whenComplete((segments, failure) -> {
+                if (failure != null) {
+                    clip.result.completeExceptionally(failure);
+                } else {
+                    clip.result.complete(segments);
+                }
+            });
+        } catch (RuntimeException e) {
+            clip.result.completeExceptionally(e);
+        }
+    }
+
+    private static long overlap(TranscriptionSegment segment, long startMillis, long endMillis) {
+        return Math.max(0, Math.min(segment.getEndMillis(), endMillis) - Math.max(segment.getStartMillis(), startMillis));
+    }
+
+    private static final class Clip {
+
+        private final float[] samples;
+        private final WindowTranscriber transcriber;
+        private final CompletableFuture<List<TranscriptionSegment>> result = new CompletableFuture<>();
+
+        private Clip(float[] samples, WindowTranscriber transcriber) {
+            this.samples = samples;
+            this.transcriber = transcriber;
+        }
+
+        private long durationMillis() {
+            return samples.length / SAMPLES_PER_MILLI;
+        }
+    }
+
+    private static final class Batch {
+
+        private final String key;
+        private final List<Clip> clips = new ArrayList<>();
+        private int samples;
+        private ScheduledFuture<?> timeout;
+
+        private Batch(String key) {
+            this.key = key;
+        }
+
+        /**
+         * @return whether a clip of that length still fits, after a separator
+         */
+        private boolean fits(int sampleCount) {
+            return samples + SEPARATOR_SAMPLES + sampleCount <= WINDOW_SAMPLES;
+        }
+
+        private void add(Clip clip) {
+            samples += (clips.isEmpty() ? 0 : SEPARATOR_SAMPLES) + clip.samples.length;
+            clips.add(clip);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.mule.extension.whisperer.internal.helpers.audio.AudioDecoder;
+import org.mule.extension.whisperer.internal.helpers.audio.FloatSampleBuffer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Escalates the parts of a transcription a fast model transcribed with low {@link SegmentConfidence confidence} to a
+ * larger model, so most audio only pays for the fast model.
+ *
+ * <p>Consecutive low-confidence segments, up to a second apart, form a span. Each span is cut from the audio with a
+ * little padding, never reaching into the neighbouring confident segments, and transcribed again as a whole; its
+ * segments replace the ones of the fast model, unless the larger model returns none, in which case the fast model's
+ * are kept. Segments keep the name of the model that produced them.
+ */
+class ModelCascade {
+
+    private static final long MAX_GAP_MILLIS = 1000;
+    private static final long PADDING_MILLIS = 250;
+    private static final int SAMPLES_PER_MILLI = AudioDecoder.WHISPER_SAMPLE_RATE / 1000;
+
+    /**
+     * Transcribes the audio of a span.
+     */
+    @FunctionalInterface
+    interface SpanTranscriber {
+
+        /**
+         * @return segments with timestamps relative to the start of the span
+         */
+        List<TranscriptionSegment> transcribe(float[] samples);
+    }
+
+    /**
+     * Part of the audio to transcribe again, and the segments it replaces.
+     */
+    static final class Span {
+
+        private final long startMillis;
+        private final long endMillis;
+        private final int firstSegment;
+        private final int lastSegment;
+
+        Span(long startMillis, long endMillis, int firstSegment, int lastSegment) {
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+            this.firstSegment = firstSegment;
+            this.lastSegment = lastSegment;
+        }
+
+        long getStartMillis() {
+            return startMillis;
+        }
+
+        long getEndMillis() {
+            return endMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + startMillis + " ms - " + endMillis + " ms]";
+        }
+    }
+
+    private final String modelName;
+    private final double minConfidence;
+
+    /**
+     * @param modelName name of the catalog model spans are escalated to
+     * @param minConfidence segments with a lower confidence are escalated
+     */
+    ModelCascade(String modelName, double minConfidence) {
+        this.modelName = modelName;
+        this.minConfidence = minConfidence;
+    }
+
+    String getModelName() {
+        return modelName;
+    }
+
+    /**
+     * @param segments segments of the fast model, in order
+     * @param durationMillis length of the audio
+     * @return spans to transcribe again, in order, empty if every segment is confident
+     */
+    List<Span> findSpans(List<TranscriptionSegment> segments, long durationMillis) {
+        List<Span> spans = new ArrayList<>();
+        int first = -1;
+        for (int i = 0; i <= segments.size(); i++) {
+            boolean low = i < segments.size() && SegmentConfidence.of(segments.get(i)) < minConfidence;
+            if (low && first >= 0 && segments.get(i).getStartMillis() - segments.get(i - 1).getEndMillis() > MAX_GAP_MILLIS) {
+                spans.add(span(segments, first, i - 1, durationMillis));
+                first = i;
+            } else if (low && first < 0) {
+                first = i;
+            } else if (!low && first >= 0) {
+                spans.add(span(segments, first, i - 1, durationMillis));
+                first = -1;
+            }
+        }
+        return spans;
+    }
+
+    private static Span span(List<TranscriptionSegment> segments, int first, int last, long durationMillis) {
+        long earliest = first > 0 ? segments.get(first - 1).getEndMillis() : 0;
+        long latest = last + 1 < segments.size() ? segments.get(last + 1).getStartMillis() : durationMillis;
+        long start = Math.max(earliest, segments.get(first).getStartMillis() - PADDING_MILLIS);
+        long end = Math.min(latest, segments.get(last).getEndMillis() + PADDING_MILLIS);
+        return new Span(start, Math.max(start, Math.min(durationMillis, end)), first, last);
+    }
+
+    /**
+     * Transcribes the spans again and replaces their segments.
+     *
+     * @param segments segments of the fast model, in order
+     * @param spans spans found by {@link #findSpans}
+     * @param samples the audio the segments were transcribed from
+     * @param modelLabel name recorded on the segments of the escalation model
+     * @param transcriber transcribes a span with the escalation model
+     * @return the merged segments, in order
+     */
+    List<TranscriptionSegment> escalate(List<TranscriptionSegment> segments, List<Span> spans, FloatSampleBuffer samples,
+                                        String modelLabel, SpanTranscriber transcriber) {
+        List<TranscriptionSegment> merged = new ArrayList<>(segments.size());
+        int next = 0;
+        for (Span span : spans) {
+            merged.addAll(segments.subList(next, span.firstSegment));
+            int from = (int) Math.min(samples.size(), span.startMillis * SAMPLES_PER_MILLI);
+            int to = (int) Math.min(samples.size(), span.endMillis * SAMPLES_PER_MILLI);
+            List<TranscriptionSegment> escalated = to > from
+                ? transcriber.transcribe(Arrays.copyOfRange(samples.array(), from, to))
+                : Collections.emptyList();
+            if (escalated.isEmpty()) {
+                // Words of the fast model beat none at all
+                merged.addAll(segments.subList(span.firstSegment, span.lastSegment + 1));
+            } else {
+                for (TranscriptionSegment segment : escalated) {
+                    merged.add(segment.shift(span.startMillis).withModel(modelLabel));
+                }
+            }
+            next = span.lastSegment + 1;
+        }
+        merged.addAll(segments.subList(next, segments.size()));
+        return merged;
+    }
+}
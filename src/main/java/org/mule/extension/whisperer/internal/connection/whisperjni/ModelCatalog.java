@@ -0,0 +1,68 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Model names a connection accepts in {@code modelName}, each mapped to the location of its file. A model is
+ * installed the first time it is asked for, and the installed file is remembered for later requests.
+ */
+class ModelCatalog {
+
+    /**
+     * Makes the model at a location available on the local file system.
+     */
+    @FunctionalInterface
+    interface Installer {
+
+        Path install(String location) throws IOException;
+    }
+
+    private final Map<String, String> locations;
+    private final Installer installer;
+    private final Map<String, Path> installed = new ConcurrentHashMap<>();
+
+    /**
+     * @param locations model locations by name
+     */
+    ModelCatalog(Map<String, String> locations, Installer installer) {
+        this.locations = locations == null ? Collections.emptyMap() : new LinkedHashMap<>(locations);
+        this.installer = installer;
+    }
+
+    boolean contains(String name) {
+        return name != null && locations.containsKey(name);
+    }
+
+    /**
+     * @return the installed model file of a name in the catalog
+     * @throws IOException if the model cannot be installed
+     */
+    Path install(String name) throws IOException {
+        String location = locations.get(name);
+        if (location == null) {
+            throw new IOException("No model named " + name);
+        }
+        try {
+            // Concurrent requests for the same name wait for a single installation
+            return installed.computeIfAbsent(name, key -> {
+                try {
+                    return installer.install(location);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    Map<String, String> getLocations() {
+        return Collections.unmodifiableMap(locations);
+    }
+}
@@ -0,0 +1,87 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.mule.extension.whisperer.api.error.ConnectorError;
+import org.mule.extension.whisperer.internal.error.ModelNotReadyException;
+import org.mule.runtime.extension.api.exception.ModuleException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Readiness of something loaded in the background, such as a Whisper model. Requests arriving before it is ready
+ * wait for it up to a timeout, or are rejected immediately if the timeout is zero, with a
+ * {@link ModelNotReadyException} either way. If loading fails, every request fails with the cause.
+ *
+ * @param <T> what is being loaded
+ */
+class ModelReadiness<T> {
+
+    private final CompletableFuture<T> value = new CompletableFuture<>();
+    private final long timeoutMillis;
+
+    /**
+     * @param timeoutMillis how long requests wait for loading to finish; 0 rejects them immediately
+     */
+    ModelReadiness(long timeoutMillis) {
+        this.timeoutMillis = Math.max(0, timeoutMillis);
+    }
+
+    /**
+     * Marks the value as loaded and releases the waiting requests.
+     */
+    void ready(T loaded) {
+        value.complete(loaded);
+    }
+
+    /**
+     * Marks loading as failed; waiting and future requests fail with the cause.
+     */
+    void failed(Throwable cause) {
+        value.completeExceptionally(cause);
+    }
+
+    boolean isReady() {
+        return value.isDone() && !value.isCompletedExceptionally();
+    }
+
+    /**
+     * @return the loaded value, or {@code null} if it is still loading or loading failed
+     */
+    T getIfReady() {
+        return isReady() ? value.join() : null;
+    }
+
+    /**
+     * @return completes with the loaded value, or exceptionally with {@link ModelNotReadyException} if it is not
+     *         loaded in time, or with a {@link ConnectorError#MODEL_SETUP_FAILURE} error if loading failed
+     */
+    CompletableFuture<T> whenReady() {
+        CompletableFuture<T> waiting = value.copy();
+        if (!value.isDone()) {
+            if (timeoutMillis == 0) {
+                return CompletableFuture.failedFuture(new ModelNotReadyException("The Whisper model is still loading"));
+            }
+            waiting = waiting.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        return waiting.handle((loaded, error) -> {
+            if (error == null) {
+                return loaded;
+            }
+            throw new CompletionException(translate(error));
+        });
+    }
+
+    private Throwable translate(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            return new ModelNotReadyException(String.format("The Whisper model is still loading after %d ms",
+                                                            timeoutMillis));
+        }
+        if (cause instanceof ModuleException) {
+            return cause;
+        }
+        return new ModuleException("The Whisper model failed to load", ConnectorError.MODEL_SETUP_FAILURE, cause);
+    }
+}
@@ -0,0 +1,98 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+
+/**
+ * Heuristic confidence of a Whisper segment, from 0 to 1, used to decide which parts of a transcription a larger
+ * model should transcribe again.
+ *
+ * <p>whisper-jni does not expose token probabilities, so the confidence is read from the text and its timing
+ * instead. Each sign of a failed decode lowers it by a fixed factor:
+ * <ul>
+ *   <li>a compression ratio above the one whisper.cpp itself rejects, the mark of a decoder stuck repeating
+ *   itself</li>
+ *   <li>more characters per second than anyone speaks, the mark of text hallucinated over noise</li>
+ *   <li>U+FFFD replacement characters, left when a model splits a character across tokens it did not finish</li>
+ *   <li>text that is only a bracketed annotation such as {@code (inaudible)} or {@code [Music]}, which a model
+ *   writes when it could not make out the speech</li>
+ *   <li>a long segment with hardly any words, the mark of speech the model missed</li>
+ * </ul>
+ * Empty segments and {@code [BLANK_AUDIO]} are silence the model recognized, so they count as confident.
+ */
+final class SegmentConfidence {
+
+    /**
+     * Compression ratio above which whisper.cpp considers a decode failed.
+     */
+    static final double MAX_COMPRESSION_RATIO = 2.4;
+
+    private static final double MAX_CHARS_PER_SECOND = 25;
+    private static final long SPARSE_SEGMENT_MILLIS = 5000;
+    private static final int SPARSE_SEGMENT_WORDS = 2;
+
+    private static final double REPETITION_FACTOR = 0.2;
+    private static final double BROKEN_TOKEN_FACTOR = 0.3;
+    private static final double ANNOTATION_FACTOR = 0.4;
+    private static final double SPEAKING_RATE_FACTOR = 0.4;
+    private static final double SPARSE_FACTOR = 0.6;
+
+    private SegmentConfidence() {
+    }
+
+    /**
+     * @return confidence of the segment, 1 when no sign of a failed decode is found
+     */
+    static double of(TranscriptionSegment segment) {
+        String text = segment.getText() == null ? "" : segment.getText().trim();
+        if (text.isEmpty() || "[BLANK_AUDIO]".equals(text)) {
+            return 1;
+        }
+
+        double confidence = 1;
+        if (compressionRatio(text) > MAX_COMPRESSION_RATIO) {
+            confidence *= REPETITION_FACTOR;
+        }
+        if (text.indexOf('\uFFFD') >= 0) {
+            confidence *= BROKEN_TOKEN_FACTOR;
+        }
+        if (isAnnotation(text)) {
+            confidence *= ANNOTATION_FACTOR;
+        }
+        long durationMillis = segment.durationMillis();
+        if (durationMillis > 0 && text.length() * 1000.0 / durationMillis > MAX_CHARS_PER_SECOND) {
+            confidence *= SPEAKING_RATE_FACTOR;
+        }
+        if (durationMillis >= SPARSE_SEGMENT_MILLIS && text.split("\\s+").length <= SPARSE_SEGMENT_WORDS) {
+            confidence *= SPARSE_FACTOR;
+        }
+        return confidence;
+    }
+
+    /**
+     * @return size of the UTF-8 text divided by its deflated size; repetitive text compresses well
+     */
+    static double compressionRatio(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            byte[] buffer = new byte[bytes.length + 64];
+            int compressed = 0;
+            while (!deflater.finished()) {
+                compressed += deflater.deflate(buffer);
+            }
+            return (double) bytes.length / Math.max(1, compressed);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static boolean isAnnotation(String text) {
+        char first = text.charAt(0);
+        char last = text.charAt(text.length() - 1);
+        return text.length() > 1
+            && (first == '(' && last == ')' || first == '[' && last == ']' || first == '*' && last == '*');
+    }
+}
@@ -0,0 +1,89 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Divides the CPUs available to the container among the local transcriptions in flight.
+ *
+ * <p>A transcription running alone gets every CPU; under contention each one gets its fair share, counting the
+ * requests already queued behind it since they are about to start. Threads are fixed for the duration of a call
+ * to Whisper, so a request never takes more than what is still free unless that would leave it below the share
+ * it is guaranteed when the admission limit is reached. This avoids oversubscribing the CPUs under load without
+ * leaving cores idle when traffic is light.
+ */
+class ThreadBudget {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ThreadBudget.class);
+
+    private final int cpus;
+    private final int minimumShare;
+
+    private int inFlight;
+    private int allocatedThreads;
+
+    /**
+     * @param cpus CPUs to divide
+     * @param maxConcurrent maximum number of transcriptions running at once
+     */
+    ThreadBudget(int cpus, int maxConcurrent) {
+        this.cpus = Math.max(1, cpus);
+        this.minimumShare = Math.max(1, this.cpus / Math.max(1, maxConcurrent));
+    }
+
+    /**
+     * Allocates threads to a transcription about to start. Callers must close the allocation when it is done.
+     *
+     * @param queued transcriptions waiting to start after this one
+     * @return the allocation
+     */
+    synchronized Allocation allocate(int queued) {
+        int contenders = inFlight + 1 + Math.max(0, queued);
+        int fairShare = Math.max(1, cpus / contenders);
+        int threads = Math.max(minimumShare, Math.min(fairShare, cpus - allocatedThreads));
+        inFlight++;
+        allocatedThreads += threads;
+        LOGGER.debug("Allocated {} of {} threads to a transcription ({} in flight, {} queued)", threads, cpus, inFlight, queued);
+        return new Allocation(this, threads);
+    }
+
+    private synchronized void release(int threads) {
+        inFlight--;
+        allocatedThreads -= threads;
+    }
+
+    int getCpus() {
+        return cpus;
+    }
+
+    synchronized int getAllocatedThreads() {
+        return allocatedThreads;
+    }
+
+    /**
+     * Threads granted to one transcription.
+     */
+    static final class Allocation implements AutoCloseable {
+
+        private final ThreadBudget budget;
+        private final int threads;
+        private boolean closed;
+
+        private Allocation(ThreadBudget budget, int threads) {
+            this.budget = budget;
+            this.threads = threads;
+        }
+
+        int getThreads() {
+            return threads;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                budget.release(threads);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.mule.extension.whisperer.internal.helpers.vad.AudioWindow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Joins the segments of overlapping windows back into a single transcript.
+ *
+ * <p>Segments are kept only by the window owning their start, which removes most of the duplication caused by the
+ * overlap. A window finishing a segment that straddles its boundary runs into the next window's range, where the
+ * same speech was transcribed again with a different cut; segments of the next window that end before it are
+ * dropped, and words repeated at the start of the following one are removed.
+ */
+class TranscriptStitcher {
+
+    /** Longest run of words compared when removing text repeated across a window boundary. */
+    private static final int MAX_OVERLAP_WORDS = 20;
+
+    /** Shortest run of words treated as a repetition; a single shared word is usually a coincidence. */
+    private static final int MIN_OVERLAP_WORDS = 2;
+
+    private TranscriptStitcher() {
+    }
+
+    /**
+     * @param windows the windows, in order
+     * @param windowSegments segments of each window, with timestamps relative to the original recording
+     * @return the stitched segments, in order
+     */
+    static List<TranscriptionSegment> stitch(List<AudioWindow> windows, List<List<TranscriptionSegment>> windowSegments) {
+        List<TranscriptionSegment> stitched = new ArrayList<>();
+        long lastEnd = Long.MIN_VALUE;
+        for (int w = 0; w < windows.size(); w++) {
+            AudioWindow window = windows.get(w);
+            for (TranscriptionSegment segment : windowSegments.get(w)) {
+                long start = segment.getStartMillis();
+                boolean owned = (w == 0 || start >= window.getOwnedStartMillis())
+                    && (w == windows.size() - 1 || start < window.getOwnedEndMillis());
+                if (!owned || segment.getEndMillis() <= lastEnd) {
+                    continue;
+                }
+
+                // The previous window may have run past its boundary while finishing a segment
+                if (start < lastEnd) {
+                    String text = removeRepeatedPrefix(stitched.get(stitched.size() - 1).getText(), segment.getText());
+                    segment = new TranscriptionSegment(start, segment.getEndMillis(), text);
+                }
+
+                if (!segment.getText().trim().isEmpty()) {
+                    stitched.add(segment);
+                    lastEnd = segment.getEndMillis();
+                }
+            }
+        }
+        return stitched;
+    }
+
+    /**
+     * Removes from the start of {@code next} the longest run of at least two words that also ends {@code previous}.
+     * Words are compared ignoring case and punctuation.
+     */
+    static String removeRepeatedPrefix(String previous, String next) {
+        String[] previousWords = previous.trim().split("\\s+");
+        String[] nextWords = next.trim().split("\\s+");
+
+        int maxOverlap = Math.min(MAX_OVERLAP_WORDS, Math.min(previousWords.length, nextWords.length));
+        for (int overlap = maxOverlap; overlap >= MIN_OVERLAP_WORDS; overlap--) {
+            if (matches(previousWords, previousWords.length - overlap, nextWords, overlap)) {
+                return String.join(" ", Arrays.copyOfRange(nextWords, overlap, nextWords.length));
+            }
+        }
+        return next;
+    }
+
+    private static boolean matches(String[] previousWords, int from, String[] nextWords, int count) {
+        for (int i = 0; i < count; i++) {
+            String a = normalize(previousWords[from + i]);
+            if (a.isEmpty() || !a.equals(normalize(nextWords[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(String word) {
+        return word.replaceAll("[\\p{Punct}]", "").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,67 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+/**
+ * A segment of text produced by Whisper, with its position in the original audio and, once known, the model that
+ * transcribed it.
+ */
+public class TranscriptionSegment {
+
+    private final long startMillis;
+    private final long endMillis;
+    private final String text;
+    private final String model;
+
+    public TranscriptionSegment(long startMillis, long endMillis, String text) {
+        this(startMillis, endMillis, text, null);
+    }
+
+    public TranscriptionSegment(long startMillis, long endMillis, String text, String model) {
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+        this.text = text;
+        this.model = model;
+    }
+
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public long getEndMillis() {
+        return endMillis;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return name of the model that transcribed the segment, or {@code null} if not recorded
+     */
+    public String getModel() {
+        return model;
+    }
+
+    public long durationMillis() {
+        return endMillis - startMillis;
+    }
+
+    /**
+     * @param offsetMillis time to add to both timestamps
+     * @return a copy of this segment moved by {@code offsetMillis}
+     */
+    public TranscriptionSegment shift(long offsetMillis) {
+        return new TranscriptionSegment(startMillis + offsetMillis, endMillis + offsetMillis, text, model);
+    }
+
+    /**
+     * @return a copy of this segment recorded as transcribed by {@code model}
+     */
+    public TranscriptionSegment withModel(String model) {
+        return new TranscriptionSegment(startMillis, endMillis, text, model);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + startMillis + " ms - " + endMillis + " ms] " + text;
+    }
+}
@@ -0,0 +1,259 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import io.github.givimad.whisperjni.WhisperFullParams;
+import io.github.givimad.whisperjni.WhisperJNI;
+import io.github.givimad.whisperjni.WhisperState;
+import org.mule.extension.whisperer.api.error.ConnectorError;
+import org.mule.extension.whisperer.internal.error.TranscriptionException;
+import org.mule.extension.whisperer.internal.helpers.audio.AudioDecoder;
+import org.mule.extension.whisperer.internal.helpers.pool.BoundedPool;
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.extension.api.exception.ModuleException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Everything local inference needs once a model is loaded: a lease on the connection's model in the
+ * {@link WhisperModelRegistry}, the catalog of other models requests may name, the inference scheduler and the
+ * executors it owns. Built in one piece by the connection provider, either during startup or in the background, and
+ * closed in one piece.
+ *
+ * <p>The connection's model can be {@link #reload reloaded} while transcriptions run. Every transcription holds its
+ * own lease on the model it started with, so switching only changes the model later requests get; the previous one
+ * is closed by the registry once the last transcription using it returns its lease.
+ */
+class WhisperEngine implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WhisperEngine.class);
+
+    private final WhisperJNI whisper;
+    private final WhisperModelRegistry.Client<LoadedModel> registryClient;
+    private final ModelCatalog catalog;
+    private final ModelCatalog.Installer modelInstaller;
+    private final WhisperModelRegistry.Loader<LoadedModel> modelLoader;
+    private final int warmUpSeconds;
+    private final InferenceScheduler inferenceScheduler;
+    private final ThreadBudget threadBudget;
+    private final int threads;
+    private final LongAudioTranscriber longAudioTranscriber;
+    private final ModelCascade cascade;
+    private final MicroBatcher batcher;
+    private final List<Scheduler> schedulers;
+    private final ScheduledFuture<?> stateEviction;
+
+    // Taken for writing only to switch models, so leasing the current one never waits for a model to load
+    private final ReadWriteLock defaultModelLock = new ReentrantReadWriteLock();
+    private WhisperModelRegistry.Lease<LoadedModel> defaultModel;
+
+    /**
+     * @param registryClient registration of the configuration with the model registry, closed on close
+     * @param defaultModel lease on the model used when a request names no model of the catalog, closed on close
+     * @param modelInstaller installs a model to reload from its location, or the configured model for {@code null}
+     *                       or an empty location
+     * @param modelLoader loads models of the catalog and reloaded models
+     * @param warmUpSeconds length of the warm-up clip run on a reloaded model before switching to it, or 0
+     * @param threadBudget divides the CPUs among transcriptions, or {@code null} to use {@code threads} for each
+     * @param longAudioTranscriber splits long clips, or {@code null} to transcribe them in one call
+     * @param cascade escalates low-confidence parts to a model of the catalog, or {@code null}
+     * @param batcher packs short clips into shared windows, or {@code null} to transcribe each clip on its own
+     * @param schedulers executors owned by the engine, stopped in order on close
+     * @param stateEviction periodic eviction of idle states, or {@code null}
+     */
+    WhisperEngine(WhisperJNI whisper, WhisperModelRegistry.Client<LoadedModel> registryClient,
+                  WhisperModelRegistry.Lease<LoadedModel> defaultModel, ModelCatalog catalog,
+                  ModelCatalog.Installer modelInstaller, WhisperModelRegistry.Loader<LoadedModel> modelLoader,
+                  int warmUpSeconds, InferenceScheduler inferenceScheduler,
+                  ThreadBudget threadBudget, int threads, LongAudioTranscriber longAudioTranscriber, ModelCascade cascade,
+                  MicroBatcher batcher, List<Scheduler> schedulers, ScheduledFuture<?> stateEviction) {
+        this.whisper = whisper;
+        this.registryClient = registryClient;
+        this.defaultModel = defaultModel;
+        this.catalog = catalog;
+        this.modelInstaller = modelInstaller;
+        this.modelLoader = modelLoader;
+        this.warmUpSeconds = warmUpSeconds;
+        this.inferenceScheduler = inferenceScheduler;
+        this.threadBudget = threadBudget;
+        this.threads = threads;
+        this.longAudioTranscriber = longAudioTranscriber;
+        this.cascade = cascade;
+        this.batcher = batcher;
+        this.schedulers = schedulers;
+        this.stateEviction = stateEviction;
+    }
+
+    /**
+     * Runs one untimed inference on a short silent clip, so the page faults of the first pass through the weights
+     * and the growth of the state buffers are not paid by the first real request. The state used stays in the pool.
+     *
+     * @param model the model to warm up
+     * @param seconds length of the clip
+     */
+    void warmUp(LoadedModel model, int seconds) {
+        float[] silence = new float[Math.max(1, seconds) * AudioDecoder.WHISPER_SAMPLE_RATE];
+        WhisperFullParams params = new WhisperFullParams();
+        params.nThreads = threadBudget != null ? threadBudget.getCpus() : threads;
+        params.language = "en";
+        params.printProgress = false;
+
+        long start = System.nanoTime();
+        try (BoundedPool.Lease<WhisperState> lease = model.getStatePool().checkout()) {
+            int result = whisper.fullWithState(model.getWhisperContext(), lease.get(), params, silence, silence.length);
+            if (result != 0) {
+                lease.invalidate();
+                throw new TranscriptionException("Warm-up inference failed with code " + result);
+            }
+        }
+        LOGGER.info("Warm-up inference took {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Loads a model next to the current one and switches the connection to it. Transcriptions already running
+     * finish on the previous model, which is closed once they are done unless another configuration uses it.
+     * Concurrent reloads run one after the other.
+     *
+     * @param location where the new model comes from, or {@code null} to install the configured model again
+     * @return the file of the model now in use
+     * @throws ModuleException with {@link ConnectorError#MODEL_SETUP_FAILURE} if the model cannot be installed or
+     *                         loaded; the current model stays in use
+     */
+    synchronized Path reload(String location) {
+        long start = System.nanoTime();
+        WhisperModelRegistry.Lease<LoadedModel> reloaded;
+        try {
+            reloaded = registryClient.acquire(modelInstaller.install(location), modelLoader);
+        } catch (IOException e) {
+            throw new ModuleException(String.format("Failed to reload model from %s",
+                                                    location == null ? "the configured location" : location),
+                                      ConnectorError.MODEL_SETUP_FAILURE, e);
+        }
+
+        try {
+            if (warmUpSeconds > 0) {
+                warmUp(reloaded.get(), warmUpSeconds);
+            }
+        } catch (RuntimeException e) {
+            reloaded.close();
+            throw e;
+        }
+
+        WhisperModelRegistry.Lease<LoadedModel> previous;
+        defaultModelLock.writeLock().lock();
+        try {
+            previous = defaultModel;
+            defaultModel = reloaded;
+        } finally {
+            defaultModelLock.writeLock().unlock();
+        }
+
+        if (previous.isSameModel(reloaded)) {
+            previous.close();
+            LOGGER.info("Model {} is unchanged and stays in use", reloaded.getModelFile());
+        } else {
+            // In-flight transcriptions hold their own leases on the previous model
+            registryClient.relinquish(previous);
+            LOGGER.info("Switched from model {} to {} in {} ms", previous.getModelFile(), reloaded.getModelFile(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return reloaded.getModelFile();
+    }
+
+    WhisperJNI getWhisper() {
+        return whisper;
+    }
+
+    /**
+     * Leases the model a request asked for: the model of that name in the catalog, loading it if needed, or the
+     * connection's model for any other name.
+     *
+     * @param modelName model name of the request, may be {@code null}
+     * @return the lease, to be closed once the transcription is done
+     * @throws ModuleException with {@link ConnectorError#MODEL_SETUP_FAILURE} if the model cannot be installed or
+     *                         loaded
+     */
+    WhisperModelRegistry.Lease<LoadedModel> acquireModel(String modelName) {
+        try {
+            if (catalog.contains(modelName)) {
+                return registryClient.acquire(catalog.install(modelName), modelLoader);
+            }
+            defaultModelLock.readLock().lock();
+            try {
+                LOGGER.trace("Model {} is not in the catalog, using {}", modelName, defaultModel.getModelFile());
+                // Held by the engine, so it is loaded already
+                return defaultModel.share();
+            } finally {
+                defaultModelLock.readLock().unlock();
+            }
+        } catch (IOException e) {
+            throw new ModuleException(String.format("Failed to load model %s", modelName),
+                                      ConnectorError.MODEL_SETUP_FAILURE, e);
+        }
+    }
+
+    /**
+     * @return the connection's model
+     */
+    LoadedModel getDefaultModel() {
+        defaultModelLock.readLock().lock();
+        try {
+            return defaultModel.get();
+        } finally {
+            defaultModelLock.readLock().unlock();
+        }
+    }
+
+    InferenceScheduler getInferenceScheduler() {
+        return inferenceScheduler;
+    }
+
+    ThreadBudget getThreadBudget() {
+        return threadBudget;
+    }
+
+    int getThreads() {
+        return threads;
+    }
+
+    LongAudioTranscriber getLongAudioTranscriber() {
+        return longAudioTranscriber;
+    }
+
+    ModelCascade getCascade() {
+        return cascade;
+    }
+
+    MicroBatcher getBatcher() {
+        return batcher;
+    }
+
+    @Override
+    public void close() {
+        if (null != stateEviction) {
+            stateEviction.cancel(false);
+        }
+
+        // Fail queued transcriptions up front; their callers would otherwise wait on an executor that never runs them
+        inferenceScheduler.close();
+        for (Scheduler scheduler : schedulers) {
+            scheduler.stop();
+        }
+
+        // Models are closed by the registry once no other configuration, of this or another application, uses them
+        // and the transcriptions still running on them have returned their leases
+        defaultModelLock.writeLock().lock();
+        try {
+            defaultModel.close();
+        } finally {
+            defaultModelLock.writeLock().unlock();
+        }
+        registryClient.close();
+    }
+}
@@ -0,0 +1,76 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+public class WhisperJNIAdmissionParameters {
+
+  @Parameter
+  @Optional(defaultValue = "2")
+  @DisplayName("Max concurrent transcriptions")
+  @Summary("Transcriptions allowed to run inference at the same time. Further requests wait in the queue.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 1)
+  private int maxConcurrentTranscriptions;
+
+  @Parameter
+  @Optional(defaultValue = "32")
+  @DisplayName("Max queued transcriptions")
+  @Summary("Transcriptions allowed to wait for a free slot. Requests arriving when the queue is full fail immediately with a QUEUE_FULL error.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 2)
+  private int maxQueuedTranscriptions;
+
+  @Parameter
+  @Optional(defaultValue = "false")
+  @DisplayName("Shortest audio first")
+  @Summary("Admit queued requests of the same priority shortest recording first instead of in arrival order.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 3)
+  private boolean shortestAudioFirst;
+
+  @Parameter
+  @Optional(defaultValue = "2")
+  @DisplayName("Max concurrent decodes")
+  @Summary("Requests allowed to decode and resample their audio at the same time, ahead of and alongside inference.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 4)
+  private int maxConcurrentDecodes;
+
+  public int getMaxConcurrentTranscriptions() {
+    return maxConcurrentTranscriptions;
+  }
+
+  public void setMaxConcurrentTranscriptions(int maxConcurrentTranscriptions) {
+    this.maxConcurrentTranscriptions = maxConcurrentTranscriptions;
+  }
+
+  public int getMaxQueuedTranscriptions() {
+    return maxQueuedTranscriptions;
+  }
+
+  public void setMaxQueuedTranscriptions(int maxQueuedTranscriptions) {
+    this.maxQueuedTranscriptions = maxQueuedTranscriptions;
+  }
+
+  public boolean isShortestAudioFirst() {
+    return shortestAudioFirst;
+  }
+
+  public void setShortestAudioFirst(boolean shortestAudioFirst) {
+    this.shortestAudioFirst = shortestAudioFirst;
+  }
+
+  public int getMaxConcurrentDecodes() {
+    return maxConcurrentDecodes;
+  }
+
+  public void setMaxConcurrentDecodes(int maxConcurrentDecodes) {
+    this.maxConcurrentDecodes = maxConcurrentDecodes;
+  }
+}
@@ -0,0 +1,60 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+public class WhisperJNIBatchingParameters {
+
+  @Parameter
+  @Optional(defaultValue = "false")
+  @DisplayName("Micro-batching")
+  @Summary("Pack short clips of concurrent transcriptions with the same model, language, prompt and decoding options into shared 30 second windows, separated by a second of silence, and transcribe each window in one Whisper call.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 1)
+  private boolean microBatching;
+
+  @Parameter
+  @Optional(defaultValue = "50")
+  @DisplayName("Maximum batching delay (ms)")
+  @Summary("Time the first clip of a batch waits for others before the batch is transcribed. A batch is transcribed earlier once its window is full.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 2)
+  private int maxBatchDelayMs;
+
+  @Parameter
+  @Optional(defaultValue = "10")
+  @DisplayName("Maximum batched clip (s)")
+  @Summary("Longest clip, after voice activity detection, that is batched. Longer clips are transcribed on their own.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 3)
+  private int maxBatchedClipSeconds;
+
+  public boolean isMicroBatching() {
+    return microBatching;
+  }
+
+  public void setMicroBatching(boolean microBatching) {
+    this.microBatching = microBatching;
+  }
+
+  public int getMaxBatchDelayMs() {
+    return maxBatchDelayMs;
+  }
+
+  public void setMaxBatchDelayMs(int maxBatchDelayMs) {
+    this.maxBatchDelayMs = maxBatchDelayMs;
+  }
+
+  public int getMaxBatchedClipSeconds() {
+    return maxBatchedClipSeconds;
+  }
+
+  public void setMaxBatchedClipSeconds(int maxBatchedClipSeconds) {
+    this.maxBatchedClipSeconds = maxBatchedClipSeconds;
+  }
+}
@@ -0,0 +1,46 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Example;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+public class WhisperJNICalibrationParameters {
+
+  @Parameter
+  @Optional(defaultValue = "false")
+  @DisplayName("Calibrate at startup")
+  @Summary("Measure the real-time factor of the loaded model over thread and concurrency settings at startup and use the fastest. Overrides threads and max concurrent transcriptions. Results are reused on later restarts with the same model and CPUs.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 1)
+  private boolean calibrate;
+
+  @Parameter
+  @Optional
+  @DisplayName("Calibration directory")
+  @Summary("Directory where calibration results are kept. Defaults to whisperer-calibration under java.io.tmpdir; use a persistent directory to keep results across redeployments.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 2)
+  @Example("/opt/mule/whisperer-calibration")
+  private String calibrationDirectory;
+
+  public boolean isCalibrate() {
+    return calibrate;
+  }
+
+  public void setCalibrate(boolean calibrate) {
+    this.calibrate = calibrate;
+  }
+
+  public String getCalibrationDirectory() {
+    return calibrationDirectory;
+  }
+
+  public void setCalibrationDirectory(String calibrationDirectory) {
+    this.calibrationDirectory = calibrationDirectory;
+  }
+}
@@ -0,0 +1,46 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Example;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+public class WhisperJNICascadeParameters {
+
+  @Parameter
+  @Optional
+  @DisplayName("Escalation model")
+  @Summary("Name of a model of the model registry that transcribes again the parts the first model transcribed with low confidence. The segments record which model transcribed them. Empty disables the cascade.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 1)
+  @Example("large-v3")
+  private String escalationModel;
+
+  @Parameter
+  @Optional(defaultValue = "0.5")
+  @DisplayName("Minimum confidence")
+  @Summary("Segments whose confidence, from 0 to 1, is lower are escalated. Confidence is estimated from the text: repetition, speaking rate, broken characters and annotations such as (inaudible) lower it.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 2)
+  private double minConfidence;
+
+  public String getEscalationModel() {
+    return escalationModel;
+  }
+
+  public void setEscalationModel(String escalationModel) {
+    this.escalationModel = escalationModel;
+  }
+
+  public double getMinConfidence() {
+    return minConfidence;
+  }
+
+  public void setMinConfidence(double minConfidence) {
+    this.minConfidence = minConfidence;
+  }
+}
@@ -1,118 +1,431 @@
 package org.mule.extension.whisperer.internal.connection.whisperjni;
 
+import org.mule.extension.whisperer.api.InferenceStats;
+import org.mule.extension.whisperer.api.OpenAiTranscriptionAttributes;
 import org.mule.extension.whisperer.api.STTParamsModelDetails;
+import org.mule.extension.whisperer.api.TranscriptionSegmentAttributes;
 import org.mule.extension.whisperer.api.error.ConnectorError;
 import org.mule.extension.whisperer.internal.connection.SpeechToTextConnection;
+import org.mule.extension.whisperer.internal.error.QueueFullException;
 import org.mule.extension.whisperer.internal.error.TranscriptionException;
-import org.mule.extension.whisperer.internal.helpers.audio.AudioFileReader;
+import org.mule.extension.whisperer.internal.helpers.audio.AudioDecoder;
 import org.mule.extension.whisperer.internal.helpers.audio.AudioUtils;
+import org.mule.extension.whisperer.internal.helpers.audio.FloatSampleBuffer;
+import org.mule.extension.whisperer.internal.helpers.pool.BoundedPool;
+import org.mule.extension.whisperer.internal.helpers.scratch.ScratchSpace;
+import org.mule.extension.whisperer.internal.helpers.scratch.ScratchSpaceManager;
+import org.mule.extension.whisperer.internal.helpers.vad.SpeechRegion;
+import org.mule.extension.whisperer.internal.helpers.vad.SpeechTimeline;
+import org.mule.extension.whisperer.internal.helpers.vad.VoiceActivityDetector;
 import io.github.givimad.whisperjni.WhisperContext;
 import io.github.givimad.whisperjni.WhisperFullParams;
 import io.github.givimad.whisperjni.WhisperJNI;
+import io.github.givimad.whisperjni.WhisperState;
 import org.mule.runtime.api.metadata.TypedValue;
 import org.mule.runtime.extension.api.runtime.operation.Result;
 import org.mule.runtime.extension.api.exception.ModuleException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.sound.sampled.UnsupportedAudioFileException;
-import java.io.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 
 public class WhisperJNIConnection implements SpeechToTextConnection {
     private static final Logger LOGGER = LoggerFactory.getLogger(WhisperJNIConnection.class);
 
-    private final WhisperJNI whisper;
-    private final WhisperContext whisperContext;
-    private final int threads;
+    private final ModelReadiness<WhisperEngine> modelReadiness;
+    private final Executor decodeExecutor;
+    private final Executor modelLoader;
+    private final ScratchSpaceManager scratchSpaceManager;
+    private final long inMemoryAudioLimit;
     private final boolean translate;
     private final boolean printProgress;
+    private final VoiceActivityDetector voiceActivityDetector;
+    private final boolean splitAtSilence;
 
-    public WhisperJNIConnection(WhisperJNI whisper, WhisperContext whisperContext, int threads, boolean translate, boolean printProgress) {
-        this.whisper = whisper;
-        this.whisperContext = whisperContext;
-        this.threads = threads;
+    WhisperJNIConnection(ModelReadiness<WhisperEngine> modelReadiness, Executor decodeExecutor, Executor modelLoader,
+                         ScratchSpaceManager scratchSpaceManager, long inMemoryAudioLimit, boolean translate, boolean printProgress,
+                         VoiceActivityDetector voiceActivityDetector, boolean splitAtSilence) {
+        this.modelReadiness = modelReadiness;
+        this.decodeExecutor = decodeExecutor;
+        this.modelLoader = modelLoader;
+        this.scratchSpaceManager = scratchSpaceManager;
+        this.inMemoryAudioLimit = inMemoryAudioLimit;
         this.translate = translate;
         this.printProgress = printProgress;
+        this.voiceActivityDetector = voiceActivityDetector;
+        this.splitAtSilence = splitAtSilence;
     }
 
+    /**
+     * Transcribes in two stages that never run on the caller's thread: the audio is decoded on the decode executor,
+     * then queued on the inference scheduler, so decoding of one request overlaps with inference of another. If the
+     * model is still loading, decoding goes ahead while the request waits for it. A {@code modelName} of the
+     * connection's model catalog selects that model, loaded on first use; any other name uses the connection's model.
+     */
     @Override
     public CompletableFuture<Result<String, Object>> transcribe(TypedValue<InputStream> audioContent, String fineTuningPrompt, STTParamsModelDetails params) {
-        WhisperFullParams whisperParams = new WhisperFullParams();
-        whisperParams.nThreads = threads;
+        CompletableFuture<WhisperEngine> ready = modelReadiness.whenReady();
+        if (ready.isCompletedExceptionally()) {
+            // Rejected already, do not bother decoding
+            return ready.thenApply(engine -> null);
+        }
+
+        String modelName = params.getModelName();
+        InferenceScheduler.Priority priority;
+        DecodingOptions decodingOptions;
+        CompletableFuture<FloatSampleBuffer> decoded;
+        try {
+            priority = InferenceScheduler.Priority.parse(params.getPriority());
+            decodingOptions = DecodingOptions.of(params.getDecodingPreset(), params.getBeamSize(),
+                                                 params.getTemperatureFallback(), params.getNoContext(),
+                                                 params.getSingleSegment(), params.getScaleAudioContext());
+            // Decode audio into 16kHz mono samples (supports all formats: MP3, M4A, WAV, FLAC, OGG, WEBM)
+            decoded = CompletableFuture.supplyAsync(() -> decodeForTranscription(audioContent), decodeExecutor);
+        } catch (ModuleException e) {
+            return CompletableFuture.failedFuture(e);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new QueueFullException("Local audio decoding queue is full"));
+        }
+
+        WhisperFullParams whisperParams = decodingOptions.newParams();
         whisperParams.translate = translate;
         whisperParams.printProgress = printProgress;
         whisperParams.language = params.getLanguage();
         whisperParams.temperature = params.getTemperature().floatValue();
         whisperParams.initialPrompt = fineTuningPrompt;
+        // Everything a batched clip must share with the others of its window
+        String batchKey = String.join("|", String.valueOf(modelName), String.valueOf(whisperParams.language),
+                                      String.valueOf(whisperParams.temperature), String.valueOf(fineTuningPrompt),
+                                      decodingOptions.toString());
 
-        LOGGER.debug("Whisper context initialized successfully. Processing audio input.");
+        return decoded
+            .thenCombine(ready, (samples, engine) -> schedule(engine, priority, modelName, batchKey, whisperParams,
+                                                              decodingOptions, samples))
+            .thenCompose(Function.identity())
+            .thenApply(segments -> {
+                // Collect the transcribed text from all segments
+                StringBuilder transcription = new StringBuilder();
+                for (TranscriptionSegment segment : segments) {
+                    transcription.append(segment.getText()).append(" ");
+                }
+                Result.Builder<String, Object> result = Result.<String, Object>builder()
+                    .output(transcription.toString());
+                if (params.isVerbose()) {
+                    // Decoded already, the segments were transcribed from it
+                    result.attributes(verboseAttributes(params.getLanguage(), decoded.join(), segments));
+                }
+                return result.build();
+            });
+    }
 
-        // Save InputStream content to a temporary file
-        String appHomePath = System.getProperty("app.home");
-        File tempAudioFile = new File(appHomePath, "audio." + AudioUtils.guessAudioFileExtension(audioContent.getDataType().getMediaType()));
+    /**
+     * Attributes of a verbose transcription, in the shape of OpenAI's, with the segments and their models.
+     */
+    private static OpenAiTranscriptionAttributes verboseAttributes(String language, FloatSampleBuffer samples,
+                                                                   List<TranscriptionSegment> segments) {
+        List<TranscriptionSegmentAttributes> segmentAttributes = new ArrayList<>(segments.size());
+        for (TranscriptionSegment segment : segments) {
+            TranscriptionSegmentAttributes attributes = new TranscriptionSegmentAttributes();
+            attributes.setStart(segment.getStartMillis() / 1000.0);
+            attributes.setEnd(segment.getEndMillis() / 1000.0);
+            attributes.setText(segment.getText());
+            attributes.setModel(segment.getModel());
+            segmentAttributes.add(attributes);
+        }
+        OpenAiTranscriptionAttributes attributes = new OpenAiTranscriptionAttributes();
+        attributes.setLanguage(language);
+        attributes.setDuration(samples.durationMillis() / 1000.0);
+        attributes.setSegments(segmentAttributes);
+        return attributes;
+    }
 
-        try (OutputStream outStream = new FileOutputStream(tempAudioFile)) {
-            byte[] buffer = new byte[1024];
-            int bytesRead;
-            while ((bytesRead = audioContent.getValue().read(buffer)) != -1) {
-                outStream.write(buffer, 0, bytesRead);
+    /**
+     * Loads the model on the provider's model loader, off the caller's thread, and switches to it once loaded and
+     * warmed up. Transcriptions keep running on the previous model meanwhile and finish on it; new ones use the new
+     * model. If the model is still loading, the reload waits for it. One reload runs at a time and one more may wait.
+     */
+    @Override
+    public CompletableFuture<String> reloadModel(String modelLocation) {
+        CompletableFuture<WhisperEngine> ready = modelReadiness.whenReady();
+        if (ready.isCompletedExceptionally()) {
+            return ready.thenApply(engine -> null);
+        }
+        // A rejected reload fails the returned future, whether the model was ready or became ready later
+        Executor reloadExecutor = task -> {
+            try {
+                modelLoader.execute(task);
+            } catch (RejectedExecutionException e) {
+                throw new ModuleException("A model reload is already pending", ConnectorError.MODEL_SETUP_FAILURE, e);
             }
-        } catch (IOException e) {
-            return CompletableFuture.supplyAsync(() -> {
-                throw new TranscriptionException("Unable to buffer audio data for transcription", e);
-            });
+        };
+        return ready.thenApplyAsync(engine -> engine.reload(modelLocation).toString(), reloadExecutor);
+    }
+
+    /**
+     * Queues the transcription on the inference scheduler. With micro-batching, a short clip goes to the batcher
+     * instead, which queues one transcription for a window of clips. Voice activity detection then runs before
+     * batching, so only speech is packed into the window; the speech is transcribed as one clip even with split at
+     * silence, which only matters for long recordings.
+     */
+    private CompletableFuture<List<TranscriptionSegment>> schedule(WhisperEngine engine,
+                                                                   InferenceScheduler.Priority priority,
+                                                                   String modelName, String batchKey,
+                                                                   WhisperFullParams whisperParams,
+                                                                   DecodingOptions decodingOptions,
+                                                                   FloatSampleBuffer samples) {
+        MicroBatcher batcher = engine.getBatcher();
+        if (batcher == null || !batcher.accepts(samples.size())) {
+            return engine.getInferenceScheduler().submit(priority, samples.size(),
+                () -> runInference(engine, modelName, whisperParams, decodingOptions, samples, false));
         }
-        LOGGER.trace("Audio file successfully saved to temporary file: {}", tempAudioFile.getAbsolutePath());
 
-        // Convert audio to WAV format (supports all formats: MP3, M4A, WAV, FLAC, OGG, WEBM)
-        String processedFilePath = tempAudioFile.getAbsolutePath();
-        String wavFilePath = processedFilePath.replaceAll("\\.\\w+$", ".wav");
+        SpeechTimeline timeline = null;
+        FloatSampleBuffer clip = samples;
+        if (voiceActivityDetector != null) {
+            List<SpeechRegion> regions = voiceActivityDetector.detect(samples);
+            if (regions.isEmpty()) {
+                LOGGER.debug("No speech detected in {} ms of audio, skipping transcription.", samples.durationMillis());
+                return CompletableFuture.completedFuture(new ArrayList<>());
+            }
+            timeline = SpeechTimeline.compact(samples, regions);
+            clip = timeline.getSamples();
+        }
 
-        try {
-            LOGGER.trace("Converting audio file to WAV format via AudioConverter pipeline.");
-            AudioFileReader.convertAudioToWav(processedFilePath, wavFilePath);
-            processedFilePath = wavFilePath;
-            LOGGER.debug("Audio file converted to WAV format: {}", wavFilePath);
-        } catch (IOException e) {
-            return CompletableFuture.supplyAsync(() -> {
-                throw new TranscriptionException("Error converting audio content to WAV format", e);
-            });
+        DecodingOptions windowOptions = decodingOptions.withoutSingleSegment();
+        SpeechTimeline clipTimeline = timeline;
+        return batcher.submit(batchKey, clip.toArray(), window -> engine.getInferenceScheduler().submit(
+                priority, window.size(), () -> runInference(engine, modelName, whisperParams, windowOptions, window, true)))
+            .thenApply(segments -> clipTimeline == null ? segments : toOriginal(clipTimeline, segments));
+    }
+
+    /**
+     * Inference stage, run on the inference executor. The model is leased for the duration of the transcription,
+     * so it cannot be evicted while in use. With an adaptive thread budget, the number of Whisper threads is chosen
+     * now, from the load at the time the transcription starts. A batched window is transcribed in a single call, its
+     * clips already went through voice activity detection.
+     */
+    private List<TranscriptionSegment> runInference(WhisperEngine engine, String modelName,
+                                                    WhisperFullParams whisperParams, DecodingOptions decodingOptions,
+                                                    FloatSampleBuffer samples, boolean batchWindow) {
+        try (WhisperModelRegistry.Lease<LoadedModel> model = engine.acquireModel(modelName)) {
+            ThreadBudget threadBudget = engine.getThreadBudget();
+            if (threadBudget == null) {
+                whisperParams.nThreads = engine.getThreads();
+                return transcribeAndEscalate(engine, modelName, model.get(), whisperParams, decodingOptions, samples,
+                                             batchWindow);
+            }
+            try (ThreadBudget.Allocation allocation = threadBudget.allocate(engine.getInferenceScheduler().getQueueDepth())) {
+                whisperParams.nThreads = allocation.getThreads();
+                return transcribeAndEscalate(engine, modelName, model.get(), whisperParams, decodingOptions, samples,
+                                             batchWindow);
+            }
         }
+    }
 
-        // Read audio file and extract samples
-        LOGGER.trace("Reading audio file and extracting samples.");
+    /**
+     * Transcribes with the leased model and, in cascade mode, transcribes the low-confidence spans again with the
+     * escalation model, leased only if there is a span to escalate. Both run within the same inference slot.
+     */
+    private List<TranscriptionSegment> transcribeAndEscalate(WhisperEngine engine, String modelName, LoadedModel model,
+                                                             WhisperFullParams whisperParams,
+                                                             DecodingOptions decodingOptions, FloatSampleBuffer samples,
+                                                             boolean batchWindow) {
+        List<TranscriptionSegment> transcribed = batchWindow
+            ? runWhisper(engine, model, whisperParams, decodingOptions, samples.array(), samples.size())
+            : transcribeSamples(engine, model, whisperParams, decodingOptions, samples);
+        List<TranscriptionSegment> segments = new ArrayList<>();
+        String modelLabel = modelLabel(model);
+        for (TranscriptionSegment segment : transcribed) {
+            segments.add(segment.withModel(modelLabel));
+        }
+
+        ModelCascade cascade = engine.getCascade();
+        if (cascade == null || cascade.getModelName().equals(modelName)) {
+            return segments;
+        }
+        List<ModelCascade.Span> spans = cascade.findSpans(segments, samples.durationMillis());
+        if (spans.isEmpty()) {
+            return segments;
+        }
+        try (WhisperModelRegistry.Lease<LoadedModel> escalation = engine.acquireModel(cascade.getModelName())) {
+            LOGGER.debug("Escalating {} low-confidence spans of {} ms of audio to model {}: {}", spans.size(),
+                         samples.durationMillis(), cascade.getModelName(), spans);
+            return cascade.escalate(segments, spans, samples, modelLabel(escalation.get()),
+                                    spanSamples -> runWhisper(engine, escalation.get(), whisperParams, decodingOptions,
+                                                              spanSamples, spanSamples.length));
+        }
+    }
+
+    private static String modelLabel(LoadedModel model) {
+        return model.getModelFile().getFileName().toString();
+    }
+
+    private List<TranscriptionSegment> transcribeSamples(WhisperEngine engine, LoadedModel model,
+                                                         WhisperFullParams whisperParams, DecodingOptions decodingOptions,
+                                                         FloatSampleBuffer samples) {
+        LOGGER.debug("Performing speech-to-text operation with local Whisper on {} ms of audio with {} threads.",
+                     samples.durationMillis(), whisperParams.nThreads);
+        return voiceActivityDetector == null
+            ? transcribeClip(engine, model, whisperParams, decodingOptions, samples)
+            : transcribeSpeech(engine, model, whisperParams, decodingOptions, samples);
+    }
+
+    private FloatSampleBuffer decodeForTranscription(TypedValue<InputStream> audioContent) {
         try {
-            float[] samples = AudioFileReader.readFile(new File(processedFilePath));
+            return decode(audioContent);
+        } catch (IOException | UnsupportedOperationException e) {
+            throw new TranscriptionException("Error decoding audio content for transcription", e);
+        }
+    }
+
+    /**
+     * Transcribes only the speech regions found by voice activity detection, either joined into a single clip or
+     * one region at a time, and maps the segment timestamps back to the original audio.
+     */
+    private List<TranscriptionSegment> transcribeSpeech(WhisperEngine engine, LoadedModel model,
+                                                        WhisperFullParams whisperParams, DecodingOptions decodingOptions,
+                                                        FloatSampleBuffer samples) {
+        List<SpeechRegion> regions = voiceActivityDetector.detect(samples);
+        List<TranscriptionSegment> segments = new ArrayList<>();
+        if (regions.isEmpty()) {
+            LOGGER.debug("No speech detected in {} ms of audio, skipping transcription.", samples.durationMillis());
+            return segments;
+        }
+
+        if (splitAtSilence) {
+            for (SpeechRegion region : regions) {
+                float[] regionSamples = Arrays.copyOfRange(samples.array(), region.getStartSample(), region.getEndSample());
+                List<TranscriptionSegment> regionSegments = runWhisper(engine, model, whisperParams, decodingOptions,
+                                                                       regionSamples, regionSamples.length);
+                for (TranscriptionSegment segment : regionSegments) {
+                    segments.add(segment.shift(region.getStartMillis()));
+                }
+            }
+            return segments;
+        }
+
+        SpeechTimeline timeline = SpeechTimeline.compact(samples, regions);
+        return toOriginal(timeline, transcribeClip(engine, model, whisperParams, decodingOptions, timeline.getSamples()));
+    }
+
+    /**
+     * Maps segments of the compacted speech back to the original audio.
+     */
+    private static List<TranscriptionSegment> toOriginal(SpeechTimeline timeline, List<TranscriptionSegment> segments) {
+        List<TranscriptionSegment> mapped = new ArrayList<>(segments.size());
+        for (TranscriptionSegment segment : segments) {
+            mapped.add(new TranscriptionSegment(timeline.toOriginalStartMillis(segment.getStartMillis()),
+                                                timeline.toOriginalEndMillis(segment.getEndMillis()),
+                                                segment.getText(), segment.getModel()));
+        }
+        return mapped;
+    }
 
-            // Perform transcription
-            LOGGER.debug("Performing speech-to-text operation with local Whisper.");
-            int result = whisper.full(whisperContext, whisperParams, samples, samples.length);
+    /**
+     * Transcribes a clip in a single Whisper call, or as parallel windows if it is long and long audio mode is on.
+     */
+    private List<TranscriptionSegment> transcribeClip(WhisperEngine engine, LoadedModel model,
+                                                      WhisperFullParams whisperParams, DecodingOptions decodingOptions,
+                                                      FloatSampleBuffer samples) {
+        LongAudioTranscriber longAudioTranscriber = engine.getLongAudioTranscriber();
+        if (longAudioTranscriber != null && longAudioTranscriber.isLongAudio(samples.size())) {
+            return longAudioTranscriber.transcribe(model, whisperParams, samples);
+        }
+        return runWhisper(engine, model, whisperParams, decodingOptions, samples.array(), samples.size());
+    }
 
+    /**
+     * Runs Whisper on a clip with a pooled state and collects its segments, with timestamps relative to the start
+     * of the clip.
+     */
+    private List<TranscriptionSegment> runWhisper(WhisperEngine engine, LoadedModel model, WhisperFullParams whisperParams,
+                                                  DecodingOptions decodingOptions, float[] samples, int sampleCount) {
+        WhisperJNI whisper = engine.getWhisper();
+        decodingOptions.fitToClip(whisperParams, sampleCount);
+        try (BoundedPool.Lease<WhisperState> lease = model.getStatePool().checkout()) {
+            WhisperState state = lease.get();
+            int result = whisper.fullWithState(model.getWhisperContext(), state, whisperParams, samples, sampleCount);
             if (result != 0) {
-                return CompletableFuture.supplyAsync(() -> {
-                    throw new TranscriptionException("Transcription failed with code " + result);
-                });
+                // Do not hand a state to the next request after a failure
+                lease.invalidate();
+                throw new TranscriptionException("Transcription failed with code " + result);
             }
 
-            int segments = whisper.fullNSegments(whisperContext);
-            // Collect the transcribed text from all segments
-            // TODO: add segments attribute similar to OpenAI verbose
-            StringBuilder transcription = new StringBuilder();
-            for (int i = 0; i < segments; ++i) {
-                transcription.append(whisper.fullGetSegmentText(whisperContext, i)).append(" ");
+            int count = whisper.fullNSegmentsFromState(state);
+            List<TranscriptionSegment> segments = new ArrayList<>(count);
+            for (int i = 0; i < count; ++i) {
+                // Whisper timestamps are in centiseconds
+                segments.add(new TranscriptionSegment(whisper.fullGetSegmentTimestamp0FromState(state, i) * 10,
+                                                      whisper.fullGetSegmentTimestamp1FromState(state, i) * 10,
+                                                      whisper.fullGetSegmentTextFromState(state, i)));
             }
+            return segments;
+        }
+    }
 
-            return CompletableFuture.supplyAsync(() -> Result.<String, Object>builder()
-                .output(transcription.toString())
-                .build());
-        } catch (UnsupportedAudioFileException | IOException e) {
-            return CompletableFuture.supplyAsync(() -> {
-                throw new TranscriptionException(e);
-            });
+    /**
+     * Decodes the audio content in memory, unless its size is known to exceed the in-memory limit. Large payloads
+     * are spooled to a scratch space private to this request, which is deleted as soon as decoding completes.
+     */
+    private FloatSampleBuffer decode(TypedValue<InputStream> audioContent) throws IOException {
+        String format = AudioUtils.guessAudioFileExtension(audioContent.getDataType().getMediaType());
+        OptionalLong byteLength = audioContent.getByteLength();
+
+        if (!byteLength.isPresent() || byteLength.getAsLong() <= inMemoryAudioLimit) {
+            LOGGER.trace("Decoding {} audio content in memory via AudioDecoder pipeline.", format);
+            return AudioDecoder.decode(audioContent.getValue(), format);
+        }
+
+        try (ScratchSpace scratchSpace = scratchSpaceManager.allocate()) {
+            LOGGER.debug("Audio content of {} bytes exceeds in-memory limit, spooling to {}",
+                         byteLength.getAsLong(), scratchSpace.getDirectory());
+            Path audioFile = scratchSpace.write("audio." + format, audioContent.getValue());
+            return AudioDecoder.decode(audioFile, format, scratchSpace.getDirectory());
         }
     }
+
+    /**
+     * @return the connection's loaded model, or {@code null} while it is still loading
+     */
     public WhisperContext getWhisperContext() {
-        return whisperContext;
+        WhisperEngine engine = modelReadiness.getIfReady();
+        return engine == null ? null : engine.getDefaultModel().getWhisperContext();
+    }
+
+    /**
+     * @return whether the model is loaded and transcriptions can run
+     */
+    public boolean isModelReady() {
+        return modelReadiness.isReady();
+    }
+
+    /**
+     * Admission statistics of the owning provider, shared by all its connections.
+     */
+    @Override
+    public InferenceStats getInferenceStats() {
+        InferenceStats stats = new InferenceStats();
+        WhisperEngine engine = modelReadiness.getIfReady();
+        if (engine != null) {
+            InferenceScheduler scheduler = engine.getInferenceScheduler();
+            stats.setModelReady(true);
+            stats.setRunning(scheduler.getRunning());
+            stats.setQueueDepth(scheduler.getQueueDepth());
+            stats.setAdmitted(scheduler.getAdmittedCount());
+            stats.setRejected(scheduler.getRejectedCount());
+            stats.setAverageQueueWaitMillis(scheduler.getAverageWaitMillis());
+            stats.setMaxQueueWaitMillis(scheduler.getMaxWaitMillis());
+        }
+        return stats;
     }
 }
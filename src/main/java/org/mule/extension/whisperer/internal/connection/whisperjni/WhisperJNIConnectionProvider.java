@@ -0,0 +1,464 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import io.github.givimad.whisperjni.WhisperContext;
+import io.github.givimad.whisperjni.WhisperJNI;
+import org.mule.extension.whisperer.internal.helpers.models.ModelCache;
+import org.mule.extension.whisperer.internal.helpers.models.ModelLocations;
+import org.mule.extension.whisperer.internal.helpers.models.WhisperJNICloudhubConfigurer;
+import org.mule.extension.whisperer.internal.helpers.scratch.ScratchSpaceManager;
+import org.mule.extension.whisperer.internal.helpers.system.ContainerCpus;
+import org.mule.extension.whisperer.internal.helpers.vad.VoiceActivityDetector;
+import org.mule.runtime.api.connection.CachedConnectionProvider;
+import org.mule.runtime.api.connection.ConnectionException;
+import org.mule.runtime.api.connection.ConnectionValidationResult;
+import org.mule.runtime.api.exception.MuleException;
+import org.mule.runtime.api.lifecycle.Startable;
+import org.mule.runtime.api.lifecycle.Stoppable;
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.api.scheduler.Scheduler;
+import org.mule.runtime.api.scheduler.SchedulerConfig;
+import org.mule.runtime.api.scheduler.SchedulerService;
+import org.mule.runtime.core.api.lifecycle.StartException;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.ParameterGroup;
+import org.mule.runtime.extension.api.annotation.param.RefName;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Base class of the Whisper JNI connection providers. Handles the parameters and lifecycle shared by every
+ * local model source; subclasses only need to make the model file available on the file system.
+ */
+public abstract class WhisperJNIConnectionProvider
+    implements CachedConnectionProvider<WhisperJNIConnection>, Startable, Stoppable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WhisperJNIConnectionProvider.class);
+
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+
+    private static final int CALIBRATION_CLIP_SECONDS = 10;
+
+    private static final int WARM_UP_CLIP_SECONDS = 1;
+
+    @Parameter
+    @Expression(ExpressionSupport.SUPPORTED)
+    @Optional(defaultValue = "4")
+    private int threads;
+
+    @Parameter
+    @Expression(ExpressionSupport.SUPPORTED)
+    @Optional(defaultValue = "false")
+    @Summary("Divide the CPUs available to the container among in-flight transcriptions instead of giving each one a fixed number of threads. A transcription running alone gets every CPU.")
+    private boolean adaptiveThreads;
+
+    @Parameter
+    @Expression(ExpressionSupport.SUPPORTED)
+    @Optional(defaultValue = "false")
+    private boolean translate;
+
+    @Parameter
+    @Expression(ExpressionSupport.SUPPORTED)
+    @Optional(defaultValue = "false")
+    private boolean printProgress;
+
+    @ParameterGroup(name = "Scratch space")
+    private WhisperJNIScratchSpaceParameters scratchSpace;
+
+    @ParameterGroup(name = "Voice activity detection")
+    private WhisperJNIVoiceActivityParameters voiceActivity;
+
+    @ParameterGroup(name = "Long audio")
+    private WhisperJNILongAudioParameters longAudio;
+
+    @ParameterGroup(name = "State pool")
+    private WhisperJNIStatePoolParameters statePoolParameters;
+
+    @ParameterGroup(name = "Admission control")
+    private WhisperJNIAdmissionParameters admission;
+
+    @ParameterGroup(name = "Calibration")
+    private WhisperJNICalibrationParameters calibration;
+
+    @ParameterGroup(name = "Model loading")
+    private WhisperJNIModelLoadingParameters modelLoading;
+
+    @ParameterGroup(name = "Model registry")
+    private WhisperJNIModelRegistryParameters modelRegistry;
+
+    @ParameterGroup(name = "Model cascade")
+    private WhisperJNICascadeParameters cascade;
+
+    @ParameterGroup(name = "Micro-batching")
+    private WhisperJNIBatchingParameters batching;
+
+    @RefName
+    private String configName;
+
+    @Inject
+    private SchedulerService schedulerService;
+
+    private ModelReadiness<WhisperEngine> modelReadiness;
+    private Scheduler modelLoader;
+    private Future<?> backgroundLoad;
+    private Scheduler decodeExecutor;
+    private ScratchSpaceManager scratchSpaceManager;
+
+    /**
+     * Makes the model available on the local file system, downloading or extracting it if needed.
+     *
+     * @return path of the model file
+     * @throws IOException if the model cannot be installed
+     */
+    protected abstract Path installModel() throws IOException;
+
+    @Override
+    public WhisperJNIConnection connect() throws ConnectionException {
+        VoiceActivityDetector voiceActivityDetector = voiceActivity.isVoiceActivityDetection()
+            ? new VoiceActivityDetector(voiceActivity.getSpeechThresholdDb(), voiceActivity.getMinSilenceMs(),
+                                        voiceActivity.getSpeechPaddingMs())
+            : null;
+        return new WhisperJNIConnection(modelReadiness, decodeExecutor, modelLoader, scratchSpaceManager,
+                                        scratchSpace.getInMemoryAudioLimitMb() * BYTES_PER_MB, translate, printProgress,
+                                        voiceActivityDetector, voiceActivity.isSplitAtSilence());
+    }
+
+    @Override
+    public void disconnect(WhisperJNIConnection whisperJNIConnection) {
+    }
+
+    @Override
+    public ConnectionValidationResult validate(WhisperJNIConnection whisperJNIConnection) {
+        return ConnectionValidationResult.success();
+    }
+
+    @Override
+    public void start() throws MuleException {
+        modelReadiness = new ModelReadiness<>(TimeUnit.SECONDS.toMillis(modelLoading.getModelReadyTimeoutSeconds()));
+        try {
+            scratchSpaceManager = new ScratchSpaceManager(resolveScratchDirectory(),
+                                                          scratchSpace.getScratchQuotaMb() * BYTES_PER_MB);
+            scratchSpaceManager.start();
+
+            // Decoding does not need the model, so requests can decode while it loads
+            decodeExecutor = schedulerService.customScheduler(SchedulerConfig.config()
+                .withName("whisperer-decode")
+                .withMaxConcurrentTasks(Math.max(1, admission.getMaxConcurrentDecodes())),
+                Math.max(1, admission.getMaxQueuedTranscriptions()));
+
+            // Loads the model in the background and reloads it on request, one at a time
+            modelLoader = schedulerService.customScheduler(SchedulerConfig.config()
+                .withName("whisperer-model-loader")
+                .withMaxConcurrentTasks(1), 1);
+
+            if (!modelLoading.isLoadModelInBackground()) {
+                modelReadiness.ready(loadEngine());
+                return;
+            }
+
+            LOGGER.info("Loading the Whisper model in the background");
+            backgroundLoad = modelLoader.submit(() -> {
+                try {
+                    modelReadiness.ready(loadEngine());
+                } catch (Exception | Error e) {
+                    LOGGER.error("Failed to load the Whisper model in the background", e);
+                    modelReadiness.failed(e);
+                }
+            });
+        } catch (IOException e) {
+            abortStart(e);
+            throw new StartException(e, this);
+        } catch (RuntimeException | Error e) {
+            abortStart(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Stops whatever {@link #start()} created before it failed; Mule does not call {@link #stop()} for a provider
+     * that never started.
+     */
+    private void abortStart(Throwable failure) {
+        try {
+            stop();
+        } catch (MuleException | RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Installs and loads the model and builds everything inference needs around it. The model comes from the shared
+     * {@link WhisperModelRegistry}, so a configuration using a model another one already loaded reuses it. Whatever
+     * was created is released again if a later step fails.
+     */
+    private WhisperEngine loadEngine() throws IOException {
+        long loadStart = System.nanoTime();
+        Path modelPath = installModel();
+
+        if (WhisperJNICloudhubConfigurer.isCloudHubDeployment()) {
+            LOGGER.info("CloudHub deployment detected. Performing CloudHub specific setup.");
+            // Skips the extraction when another application already completed it
+            WhisperJNICloudhubConfigurer.setup();
+        }
+
+        WhisperJNI.loadLibrary();
+        WhisperJNI whisper = new WhisperJNI();
+        WhisperModelRegistry<LoadedModel> registry = WhisperModelRegistry.shared();
+        WhisperModelRegistry.Client<LoadedModel> registryClient =
+            registry.register(configName, modelRegistry.getModelMemoryBudgetMb() * BYTES_PER_MB);
+
+        WhisperModelRegistry.Lease<LoadedModel> defaultModel = null;
+        List<Scheduler> schedulers = new ArrayList<>();
+        try {
+            int inferenceThreads = threads;
+            int admitted = Math.max(1, admission.getMaxConcurrentTranscriptions());
+            AtomicReference<Calibration> calibrated = new AtomicReference<>();
+            defaultModel = registryClient.acquire(modelPath, modelFile -> {
+                // Transcriptions run on pooled states, so the context does not need one of its own
+                WhisperContext whisperContext = whisper.initNoState(modelFile);
+                try {
+                    if (calibration.isCalibrate()) {
+                        calibrated.set(calibrate(whisper, whisperContext, modelPath));
+                    }
+                    return newLoadedModel(whisper, modelFile, whisperContext, calibrated.get() != null
+                        ? calibrated.get().getConcurrency() : admitted);
+                } catch (IOException | RuntimeException | Error e) {
+                    whisperContext.close();
+                    throw e;
+                }
+            });
+
+            int maxConcurrent = admitted;
+            if (calibration.isCalibrate()) {
+                if (calibrated.get() == null) {
+                    // Loaded by another configuration; its state pool bounds the concurrency
+                    calibrated.set(calibrate(whisper, defaultModel.get().getWhisperContext(), modelPath));
+                }
+                inferenceThreads = calibrated.get().getThreads();
+                maxConcurrent = Math.min(calibrated.get().getConcurrency(),
+                                         defaultModel.get().getStatePool().getMaxSize());
+            }
+
+            // The inference scheduler never hands its executor more jobs than it has threads, so the small queue
+            // only absorbs the hand-over between jobs
+            Scheduler inferenceExecutor = schedulerService.customScheduler(SchedulerConfig.config()
+                .withName("whisperer-inference")
+                .withMaxConcurrentTasks(maxConcurrent), maxConcurrent);
+            schedulers.add(inferenceExecutor);
+            InferenceScheduler inferenceScheduler = new InferenceScheduler(inferenceExecutor, maxConcurrent,
+                                                                           admission.getMaxQueuedTranscriptions(),
+                                                                           admission.isShortestAudioFirst());
+
+            ThreadBudget threadBudget = null;
+            if (adaptiveThreads) {
+                threadBudget = new ThreadBudget(ContainerCpus.availableCpus(), maxConcurrent);
+                LOGGER.info("Adaptive threads enabled: {} CPUs shared by up to {} concurrent transcriptions",
+                            threadBudget.getCpus(), maxConcurrent);
+            }
+
+            LongAudioTranscriber longAudioTranscriber = null;
+            if (longAudio.isParallelLongAudio()) {
+                Scheduler longAudioScheduler = schedulerService.customScheduler(SchedulerConfig.config()
+                    .withName("whisperer-long-audio")
+                    .withMaxConcurrentTasks(Math.max(1, longAudio.getParallelism())));
+                schedulers.add(longAudioScheduler);
+                longAudioTranscriber = new LongAudioTranscriber(whisper, longAudioScheduler, longAudio.getParallelism(),
+                                                                longAudio.getWindowSeconds(),
+                                                                longAudio.getOverlapSeconds(), threadBudget != null);
+            }
+
+            ScheduledFuture<?> stateEviction = null;
+            if (statePoolParameters.getStateIdleTimeoutSeconds() > 0) {
+                long period = Math.max(1, statePoolParameters.getStateIdleTimeoutSeconds() / 2);
+                Scheduler maintenanceScheduler = schedulerService.cpuLightScheduler();
+                schedulers.add(maintenanceScheduler);
+                stateEviction = maintenanceScheduler.scheduleWithFixedDelay(
+                    () -> registry.forEachLoaded(model -> model.getStatePool().evictIdle()), period, period,
+                    TimeUnit.SECONDS);
+            }
+
+            ModelCatalog catalog = new ModelCatalog(modelRegistry.getModels(),
+                                                    location -> ModelLocations.install(location, resolveModelDirectory()));
+            int catalogConcurrency = maxConcurrent;
+            WhisperModelRegistry.Loader<LoadedModel> catalogLoader = modelFile -> {
+                WhisperContext whisperContext = whisper.initNoState(modelFile);
+                try {
+                    return newLoadedModel(whisper, modelFile, whisperContext, catalogConcurrency);
+                } catch (RuntimeException | Error e) {
+                    whisperContext.close();
+                    throw e;
+                }
+            };
+            if (!catalog.getLocations().isEmpty()) {
+                LOGGER.info("Models selectable by name: {}", catalog.getLocations().keySet());
+            }
+
+            ModelCascade modelCascade = null;
+            String escalationModel = cascade.getEscalationModel();
+            if (escalationModel != null && !escalationModel.trim().isEmpty()) {
+                if (!catalog.contains(escalationModel)) {
+                    throw new IOException("Escalation model " + escalationModel + " is not one of the models "
+                                          + catalog.getLocations().keySet());
+                }
+                modelCascade = new ModelCascade(escalationModel, cascade.getMinConfidence());
+                LOGGER.info("Segments with a confidence below {} are escalated to model {}", cascade.getMinConfidence(),
+                            escalationModel);
+            }
+
+            MicroBatcher batcher = null;
+            if (batching.isMicroBatching()) {
+                Scheduler batchTimer = schedulerService.cpuLightScheduler();
+                schedulers.add(batchTimer);
+                batcher = new MicroBatcher(batchTimer, batching.getMaxBatchDelayMs(), batching.getMaxBatchedClipSeconds());
+                LOGGER.info("Micro-batching clips of up to {} s for up to {} ms", batching.getMaxBatchedClipSeconds(),
+                            batching.getMaxBatchDelayMs());
+            }
+
+            // A reload installs the configured model again unless it is given another location
+            ModelCatalog.Installer reloadInstaller = location -> location == null || location.trim().isEmpty()
+                ? installModel()
+                : ModelLocations.install(location, resolveModelDirectory());
+            int warmUpSeconds = modelLoading.isWarmUp() ? WARM_UP_CLIP_SECONDS : 0;
+
+            WhisperEngine engine = new WhisperEngine(whisper, registryClient, defaultModel, catalog, reloadInstaller,
+                                                     catalogLoader, warmUpSeconds, inferenceScheduler, threadBudget,
+                                                     inferenceThreads, longAudioTranscriber, modelCascade, batcher,
+                                                     schedulers, stateEviction);
+            if (warmUpSeconds > 0) {
+                engine.warmUp(defaultModel.get(), warmUpSeconds);
+            }
+
+            LOGGER.info("WhisperJNI initialized successfully with model: {} in {} ms", modelPath,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - loadStart));
+            return engine;
+        } catch (IOException | RuntimeException | Error e) {
+            schedulers.forEach(Scheduler::stop);
+            if (null != defaultModel) {
+                defaultModel.close();
+            }
+            registryClient.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Wraps a context loaded without state together with its state pool, started.
+     *
+     * @param maxConcurrent transcriptions the configuration admits at once; never held back by the pool
+     */
+    private LoadedModel newLoadedModel(WhisperJNI whisper, Path modelFile, WhisperContext whisperContext,
+                                       int maxConcurrent) {
+        WhisperStatePool statePool = new WhisperStatePool(
+            whisper, whisperContext, statePoolParameters.getMinStates(),
+            Math.max(statePoolParameters.getMaxStates(), maxConcurrent),
+            TimeUnit.SECONDS.toMillis(statePoolParameters.getStateCheckoutTimeoutSeconds()),
+            TimeUnit.SECONDS.toMillis(statePoolParameters.getStateIdleTimeoutSeconds()));
+        statePool.start();
+        return new LoadedModel(modelFile, whisperContext, statePool);
+    }
+
+    @Override
+    public void stop() throws MuleException {
+        if (null != backgroundLoad) {
+            // Native memory cannot be released while the model is still being loaded into it
+            LOGGER.info("Waiting for the Whisper model to finish loading before stopping");
+            try {
+                backgroundLoad.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                LOGGER.debug("Background model loading failed", e);
+            }
+            backgroundLoad = null;
+        }
+
+        if (null != modelLoader) {
+            modelLoader.stop();
+            modelLoader = null;
+        }
+
+        if (null != decodeExecutor) {
+            decodeExecutor.stop();
+            decodeExecutor = null;
+        }
+
+        if (null != modelReadiness) {
+            WhisperEngine engine = modelReadiness.getIfReady();
+            if (null != engine) {
+                engine.close();
+            }
+            modelReadiness = null;
+        }
+
+        if (null != scratchSpaceManager) {
+            scratchSpaceManager.stop();
+        }
+    }
+
+    /**
+     * Returns the stored calibration for this model and hardware, or measures one and stores it.
+     */
+    private Calibration calibrate(WhisperJNI whisper, WhisperContext whisperContext, Path modelPath) throws IOException {
+        int cpus = ContainerCpus.availableCpus();
+        CalibrationStore store = new CalibrationStore(resolveCalibrationDirectory());
+        String key = CalibrationStore.key(modelPath, cpus);
+        Calibration stored = store.load(key);
+        if (stored != null) {
+            LOGGER.info("Using stored calibration for {}: {} threads x {} concurrent transcriptions",
+                        modelPath, stored.getThreads(), stored.getConcurrency());
+            return stored;
+        }
+
+        LOGGER.info("Calibrating local inference for {} on {} CPUs. This may take a few minutes.", modelPath, cpus);
+        Scheduler calibrationScheduler = schedulerService.customScheduler(SchedulerConfig.config()
+            .withName("whisperer-calibration")
+            .withMaxConcurrentTasks(cpus));
+        try {
+            InferenceCalibrator.Benchmark benchmark = InferenceCalibrator.whisperBenchmark(
+                whisper, whisperContext, InferenceCalibrator.syntheticClip(CALIBRATION_CLIP_SECONDS), calibrationScheduler);
+            Calibration calibrated = new InferenceCalibrator(cpus, benchmark).calibrate();
+            store.save(key, calibrated);
+            return calibrated;
+        } finally {
+            calibrationScheduler.stop();
+        }
+    }
+
+    private Path resolveCalibrationDirectory() {
+        String directory = calibration.getCalibrationDirectory();
+        if (directory == null || directory.trim().isEmpty()) {
+            return Paths.get(System.getProperty("java.io.tmpdir"), "whisperer-calibration");
+        }
+        return Paths.get(directory);
+    }
+
+    private Path resolveModelDirectory() {
+        String directory = modelRegistry.getModelDirectory();
+        if (directory == null || directory.trim().isEmpty()) {
+            return Paths.get(System.getProperty("java.io.tmpdir"), ModelCache.DEFAULT_DIRECTORY_NAME);
+        }
+        return Paths.get(directory);
+    }
+
+    private Path resolveScratchDirectory() {
+        String directory = scratchSpace.getScratchDirectory();
+        if (directory == null || directory.trim().isEmpty()) {
+            directory = System.getProperty("java.io.tmpdir");
+        }
+        return Paths.get(directory);
+    }
+}
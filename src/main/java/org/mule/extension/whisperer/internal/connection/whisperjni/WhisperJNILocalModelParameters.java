@@ -3,9 +3,11 @@ package org.mule.extension.whisperer.internal.connection.whisperjni;
 import org.mule.runtime.api.meta.ExpressionSupport;
 import org.mule.runtime.extension.api.annotation.Alias;
 import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
 import org.mule.runtime.extension.api.annotation.param.Parameter;
 import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
 import org.mule.runtime.extension.api.annotation.param.display.Example;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
 
 public class WhisperJNILocalModelParameters {
 
@@ -16,6 +18,14 @@ public class WhisperJNILocalModelParameters {
   @Example("\"classpath://models/ggml-model-whisper-tiny.en-q8_0.bin\"")
   private String modelFilePath;
 
+  @Parameter
+  @Optional
+  @DisplayName("Model cache directory")
+  @Summary("Directory where classpath:// models are extracted and kept across restarts. Defaults to whisperer-models under java.io.tmpdir.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Example("/opt/mule/whisperer-models")
+  private String modelCacheDirectory;
+
   public String getModelFilePath() {
       return modelFilePath;
   }
@@ -23,4 +33,12 @@ public class WhisperJNILocalModelParameters {
   public void setModelFilePath(String modelFilePath) {
       this.modelFilePath = modelFilePath;
   }
+
+  public String getModelCacheDirectory() {
+      return modelCacheDirectory;
+  }
+
+  public void setModelCacheDirectory(String modelCacheDirectory) {
+      this.modelCacheDirectory = modelCacheDirectory;
+  }
 }
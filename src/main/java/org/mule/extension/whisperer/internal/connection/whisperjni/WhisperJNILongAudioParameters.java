@@ -0,0 +1,76 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+public class WhisperJNILongAudioParameters {
+
+  @Parameter
+  @Optional(defaultValue = "false")
+  @DisplayName("Parallel long audio")
+  @Summary("Split long recordings into overlapping windows and transcribe them in parallel against the same loaded model.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 1)
+  private boolean parallelLongAudio;
+
+  @Parameter
+  @Optional(defaultValue = "60")
+  @DisplayName("Window length (s)")
+  @Summary("Length of each window. Windows end at the quietest point of their last tenth. Recordings shorter than 1.5 windows are not split.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 2)
+  private int windowSeconds;
+
+  @Parameter
+  @Optional(defaultValue = "2")
+  @DisplayName("Window overlap (s)")
+  @Summary("Context added on each side of a window. Text repeated in the overlap is removed when windows are stitched.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 3)
+  private int overlapSeconds;
+
+  @Parameter
+  @Optional(defaultValue = "4")
+  @DisplayName("Parallel windows")
+  @Summary("Windows transcribed at the same time. Each one uses the configured number of threads and its own Whisper state.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 4)
+  private int parallelism;
+
+  public boolean isParallelLongAudio() {
+    return parallelLongAudio;
+  }
+
+  public void setParallelLongAudio(boolean parallelLongAudio) {
+    this.parallelLongAudio = parallelLongAudio;
+  }
+
+  public int getWindowSeconds() {
+    return windowSeconds;
+  }
+
+  public void setWindowSeconds(int windowSeconds) {
+    this.windowSeconds = windowSeconds;
+  }
+
+  public int getOverlapSeconds() {
+    return overlapSeconds;
+  }
+
+  public void setOverlapSeconds(int overlapSeconds) {
+    this.overlapSeconds = overlapSeconds;
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  public void setParallelism(int parallelism) {
+    this.parallelism = parallelism;
+  }
+}
@@ -0,0 +1,60 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+public class WhisperJNIModelLoadingParameters {
+
+  @Parameter
+  @Optional(defaultValue = "false")
+  @DisplayName("Load model in background")
+  @Summary("Install and load the model after the application has started instead of during startup. Transcriptions arriving before the model is ready wait for it up to the model ready timeout.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 1)
+  private boolean loadModelInBackground;
+
+  @Parameter
+  @Optional(defaultValue = "60")
+  @DisplayName("Model ready timeout (seconds)")
+  @Summary("How long a transcription waits for a model loading in the background before failing with a MODEL_NOT_READY error. 0 fails immediately.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 2)
+  private int modelReadyTimeoutSeconds;
+
+  @Parameter
+  @Optional(defaultValue = "false")
+  @DisplayName("Warm up")
+  @Summary("Run one inference on a short silent clip after loading the model, before accepting transcriptions, so the first request does not pay the first-run costs.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 3)
+  private boolean warmUp;
+
+  public boolean isLoadModelInBackground() {
+    return loadModelInBackground;
+  }
+
+  public void setLoadModelInBackground(boolean loadModelInBackground) {
+    this.loadModelInBackground = loadModelInBackground;
+  }
+
+  public int getModelReadyTimeoutSeconds() {
+    return modelReadyTimeoutSeconds;
+  }
+
+  public void setModelReadyTimeoutSeconds(int modelReadyTimeoutSeconds) {
+    this.modelReadyTimeoutSeconds = modelReadyTimeoutSeconds;
+  }
+
+  public boolean isWarmUp() {
+    return warmUp;
+  }
+
+  public void setWarmUp(boolean warmUp) {
+    this.warmUp = warmUp;
+  }
+}
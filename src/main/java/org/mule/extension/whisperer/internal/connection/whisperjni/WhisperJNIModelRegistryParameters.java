@@ -0,0 +1,66 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.NullSafe;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Example;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+import java.util.Map;
+
+public class WhisperJNIModelRegistryParameters {
+
+  @Parameter
+  @Optional
+  @NullSafe
+  @DisplayName("Models")
+  @Summary("Additional models selectable per transcription with modelName, by name. Each value is a file path, a classpath:// resource or an http(s) URL. Models are loaded on first use and shared with every configuration using the same file, across applications when the connector is a domain dependency; other model names use the connection's model.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 1)
+  private Map<String, String> models;
+
+  @Parameter
+  @Optional(defaultValue = "0")
+  @DisplayName("Model memory budget (MB)")
+  @Summary("Native memory the loaded models of the application may take, estimated from their file sizes. Idle models are closed, least recently used first, to stay within it. 0 keeps every model loaded.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 2)
+  private long modelMemoryBudgetMb;
+
+  @Parameter
+  @Optional
+  @DisplayName("Model directory")
+  @Summary("Directory where classpath:// models are extracted and http(s) models downloaded. Defaults to whisperer-models under java.io.tmpdir.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 3)
+  @Example("/opt/mule/whisperer-models")
+  private String modelDirectory;
+
+  public Map<String, String> getModels() {
+    return models;
+  }
+
+  public void setModels(Map<String, String> models) {
+    this.models = models;
+  }
+
+  public long getModelMemoryBudgetMb() {
+    return modelMemoryBudgetMb;
+  }
+
+  public void setModelMemoryBudgetMb(long modelMemoryBudgetMb) {
+    this.modelMemoryBudgetMb = modelMemoryBudgetMb;
+  }
+
+  public String getModelDirectory() {
+    return modelDirectory;
+  }
+
+  public void setModelDirectory(String modelDirectory) {
+    this.modelDirectory = modelDirectory;
+  }
+}
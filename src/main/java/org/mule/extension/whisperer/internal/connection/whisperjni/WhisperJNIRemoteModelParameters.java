@@ -2,10 +2,12 @@ package org.mule.extension.whisperer.internal.connection.whisperjni;
 
 import org.mule.runtime.api.meta.ExpressionSupport;
 import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
 import org.mule.runtime.extension.api.annotation.param.Parameter;
 import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
 import org.mule.runtime.extension.api.annotation.param.display.Example;
 import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
 
 public class WhisperJNIRemoteModelParameters {
 
@@ -23,6 +25,30 @@ public class WhisperJNIRemoteModelParameters {
   @Example("mule.home ++ \"/apps/\" ++ app.name ++ \"/model.bin\"")
   private String installationFilePath;
 
+  @Parameter
+  @Optional
+  @DisplayName("Expected SHA-256")
+  @Summary("Hex SHA-256 checksum of the model. When set, a downloaded or already installed model that does not match it is rejected and downloaded again.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 3)
+  private String expectedSha256;
+
+  @Parameter
+  @Optional(defaultValue = "4")
+  @DisplayName("Download connections")
+  @Summary("Parallel connections used to download the model when the server supports range requests.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 4)
+  private int downloadConnections;
+
+  @Parameter
+  @Optional(defaultValue = "30")
+  @DisplayName("Download timeout (seconds)")
+  @Summary("Connect and read timeout of each download request. Interrupted downloads resume on the next start. Waiting for another application downloading the same model fails after twice this time without progress.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 5)
+  private int downloadTimeoutSeconds;
+
   public String getModelURL() {
     return modelURL;
   }
@@ -39,6 +65,30 @@ public class WhisperJNIRemoteModelParameters {
     this.installationFilePath = installationFilePath;
   }
 
+  public String getExpectedSha256() {
+    return expectedSha256;
+  }
+
+  public void setExpectedSha256(String expectedSha256) {
+    this.expectedSha256 = expectedSha256;
+  }
+
+  public int getDownloadConnections() {
+    return downloadConnections;
+  }
+
+  public void setDownloadConnections(int downloadConnections) {
+    this.downloadConnections = downloadConnections;
+  }
+
+  public int getDownloadTimeoutSeconds() {
+    return downloadTimeoutSeconds;
+  }
+
+  public void setDownloadTimeoutSeconds(int downloadTimeoutSeconds) {
+    this.downloadTimeoutSeconds = downloadTimeoutSeconds;
+  }
+
   private String getModelFileName() {
 
     try {
@@ -0,0 +1,62 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Example;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+public class WhisperJNIScratchSpaceParameters {
+
+  @Parameter
+  @Optional
+  @DisplayName("Scratch directory")
+  @Summary("Directory for per-request temporary audio files, e.g. a tmpfs mount. Defaults to java.io.tmpdir.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 1)
+  @Example("/dev/shm")
+  private String scratchDirectory;
+
+  @Parameter
+  @Optional(defaultValue = "1024")
+  @DisplayName("Scratch quota (MB)")
+  @Summary("Maximum size of audio spooled to the scratch directory by all in-flight transcriptions together. 0 means no limit.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 2)
+  private long scratchQuotaMb;
+
+  @Parameter
+  @Optional(defaultValue = "64")
+  @DisplayName("In-memory audio limit (MB)")
+  @Summary("Audio payloads of known size above this limit are spooled to the scratch directory instead of being decoded in memory.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 3)
+  private long inMemoryAudioLimitMb;
+
+  public String getScratchDirectory() {
+    return scratchDirectory;
+  }
+
+  public void setScratchDirectory(String scratchDirectory) {
+    this.scratchDirectory = scratchDirectory;
+  }
+
+  public long getScratchQuotaMb() {
+    return scratchQuotaMb;
+  }
+
+  public void setScratchQuotaMb(long scratchQuotaMb) {
+    this.scratchQuotaMb = scratchQuotaMb;
+  }
+
+  public long getInMemoryAudioLimitMb() {
+    return inMemoryAudioLimitMb;
+  }
+
+  public void setInMemoryAudioLimitMb(long inMemoryAudioLimitMb) {
+    this.inMemoryAudioLimitMb = inMemoryAudioLimitMb;
+  }
+}
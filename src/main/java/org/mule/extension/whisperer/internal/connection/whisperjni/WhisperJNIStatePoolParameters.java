@@ -0,0 +1,76 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+public class WhisperJNIStatePoolParameters {
+
+  @Parameter
+  @Optional(defaultValue = "1")
+  @DisplayName("Minimum states")
+  @Summary("Whisper states allocated at startup and kept when idle. Each state holds the decoding buffers of one transcription.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 1)
+  private int minStates;
+
+  @Parameter
+  @Optional(defaultValue = "4")
+  @DisplayName("Maximum states")
+  @Summary("Maximum number of transcriptions running at once against the loaded model, including parallel long audio windows.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 2)
+  private int maxStates;
+
+  @Parameter
+  @Optional(defaultValue = "60")
+  @DisplayName("State checkout timeout (s)")
+  @Summary("How long a transcription waits for a free state before failing with a TIMEOUT error.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 3)
+  private int stateCheckoutTimeoutSeconds;
+
+  @Parameter
+  @Optional(defaultValue = "300")
+  @DisplayName("State idle timeout (s)")
+  @Summary("States above the minimum are released after being idle this long. 0 keeps them until the connection is stopped.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 4)
+  private int stateIdleTimeoutSeconds;
+
+  public int getMinStates() {
+    return minStates;
+  }
+
+  public void setMinStates(int minStates) {
+    this.minStates = minStates;
+  }
+
+  public int getMaxStates() {
+    return maxStates;
+  }
+
+  public void setMaxStates(int maxStates) {
+    this.maxStates = maxStates;
+  }
+
+  public int getStateCheckoutTimeoutSeconds() {
+    return stateCheckoutTimeoutSeconds;
+  }
+
+  public void setStateCheckoutTimeoutSeconds(int stateCheckoutTimeoutSeconds) {
+    this.stateCheckoutTimeoutSeconds = stateCheckoutTimeoutSeconds;
+  }
+
+  public int getStateIdleTimeoutSeconds() {
+    return stateIdleTimeoutSeconds;
+  }
+
+  public void setStateIdleTimeoutSeconds(int stateIdleTimeoutSeconds) {
+    this.stateIdleTimeoutSeconds = stateIdleTimeoutSeconds;
+  }
+}
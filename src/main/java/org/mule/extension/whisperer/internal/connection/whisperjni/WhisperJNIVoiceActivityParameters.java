@@ -0,0 +1,92 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.mule.runtime.api.meta.ExpressionSupport;
+import org.mule.runtime.extension.api.annotation.Expression;
+import org.mule.runtime.extension.api.annotation.param.Optional;
+import org.mule.runtime.extension.api.annotation.param.Parameter;
+import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Placement;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
+
+public class WhisperJNIVoiceActivityParameters {
+
+  @Parameter
+  @Optional(defaultValue = "false")
+  @DisplayName("Voice activity detection")
+  @Summary("Drop silence, hold music and noise before transcription. Timestamps still refer to the original audio.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 1)
+  private boolean voiceActivityDetection;
+
+  @Parameter
+  @Optional(defaultValue = "10")
+  @DisplayName("Speech threshold (dB)")
+  @Summary("How far above the background noise level audio must be to count as speech. Lower values keep quieter speech.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 2)
+  private double speechThresholdDb;
+
+  @Parameter
+  @Optional(defaultValue = "500")
+  @DisplayName("Minimum silence (ms)")
+  @Summary("Pauses shorter than this are kept as part of the surrounding speech.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 3)
+  private int minSilenceMs;
+
+  @Parameter
+  @Optional(defaultValue = "200")
+  @DisplayName("Speech padding (ms)")
+  @Summary("Audio kept before and after each speech region so words are not clipped.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 4)
+  private int speechPaddingMs;
+
+  @Parameter
+  @Optional(defaultValue = "false")
+  @DisplayName("Split at silence")
+  @Summary("Transcribe each speech region separately instead of joining them into a single clip.")
+  @Expression(ExpressionSupport.SUPPORTED)
+  @Placement(order = 5)
+  private boolean splitAtSilence;
+
+  public boolean isVoiceActivityDetection() {
+    return voiceActivityDetection;
+  }
+
+  public void setVoiceActivityDetection(boolean voiceActivityDetection) {
+    this.voiceActivityDetection = voiceActivityDetection;
+  }
+
+  public double getSpeechThresholdDb() {
+    return speechThresholdDb;
+  }
+
+  public void setSpeechThresholdDb(double speechThresholdDb) {
+    this.speechThresholdDb = speechThresholdDb;
+  }
+
+  public int getMinSilenceMs() {
+    return minSilenceMs;
+  }
+
+  public void setMinSilenceMs(int minSilenceMs) {
+    this.minSilenceMs = minSilenceMs;
+  }
+
+  public int getSpeechPaddingMs() {
+    return speechPaddingMs;
+  }
+
+  public void setSpeechPaddingMs(int speechPaddingMs) {
+    this.speechPaddingMs = speechPaddingMs;
+  }
+
+  public boolean isSplitAtSilence() {
+    return splitAtSilence;
+  }
+
+  public void setSplitAtSilence(boolean splitAtSilence) {
+    this.splitAtSilence = splitAtSilence;
+  }
+}
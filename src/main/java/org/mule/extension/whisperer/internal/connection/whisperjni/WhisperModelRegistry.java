@@ -0,0 +1,391 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Models loaded by the connector, keyed by model file, so every configuration pointing at the same file shares one
+ * copy of the weights and one pool of states. The key includes the size and modification time of the file, so a file
+ * replaced in place is loaded as a new model rather than mistaken for the one already loaded.
+ *
+ * <p>The {@link #shared() shared} registry lives as long as the connector's class loader. When the connector is a
+ * dependency of the application, it is shared by the configurations of that application. When the connector is a
+ * dependency of a Mule domain, every application of the domain uses the same class loader, so they all share it.
+ *
+ * <p>Each configuration {@link #register registers} as a {@link Client} while started and takes a {@link Lease} on a
+ * model for as long as it uses it; the first lease loads it. A model counts the clients that have used it. It stays
+ * loaded between requests as long as the loaded models fit in the native memory budget, and is closed once the last
+ * client using it is closed, for example when the last application using it is undeployed. When the models do not
+ * fit in the budget, idle models are closed, least recently used first, before another one is loaded and whenever a
+ * lease is returned. Leased models are never closed, so the budget may be exceeded while every loaded model is in
+ * use. The memory of a model is estimated as the size of its file, which is what the weights take once loaded; the
+ * buffers of its states come on top. The smallest non-zero budget of the registered clients applies.
+ *
+ * @param <M> the loaded model
+ */
+class WhisperModelRegistry<M extends AutoCloseable> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WhisperModelRegistry.class);
+
+    private static final WhisperModelRegistry<LoadedModel> SHARED = new WhisperModelRegistry<>();
+
+    /**
+     * Loads a model from its file.
+     */
+    @FunctionalInterface
+    interface Loader<M> {
+
+        M load(Path modelFile) throws IOException;
+    }
+
+    // Access order, so iteration starts with the least recently used model
+    private final Map<String, Entry<M>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<Client<M>> clients = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long loadedBytes;
+
+    /**
+     * @return the registry shared by the connection providers using this copy of the connector
+     */
+    static WhisperModelRegistry<LoadedModel> shared() {
+        return SHARED;
+    }
+
+    /**
+     * Registers a user of the registry, typically a started configuration.
+     *
+     * @param name name of the user, for logging
+     * @param memoryBudgetBytes native memory the loaded models may take, or 0 for no limit
+     * @return the client, to be closed when the user stops
+     */
+    synchronized Client<M> register(String name, long memoryBudgetBytes) {
+        Client<M> client = new Client<>(this, name, Math.max(0, memoryBudgetBytes));
+        clients.add(client);
+        return client;
+    }
+
+    /**
+     * Runs an action on every loaded model. Models are not closed while it runs.
+     */
+    synchronized void forEachLoaded(Consumer<M> action) {
+        for (Entry<M> entry : entries.values()) {
+            if (entry.model.isDone() && !entry.model.isCompletedExceptionally()) {
+                action.accept(entry.model.join());
+            }
+        }
+    }
+
+    synchronized long getLoadedBytes() {
+        return loadedBytes;
+    }
+
+    synchronized int getLoadedCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return how many registered clients use the model loaded from a file, 0 if it is not loaded
+     */
+    synchronized int getClientCount(Path modelFile) throws IOException {
+        Entry<M> entry = entries.get(key(modelFile.toRealPath()));
+        return entry == null ? 0 : entry.clients.size();
+    }
+
+    private Lease<M> acquire(Client<M> client, Path modelFile, Loader<M> loader) throws IOException {
+        Path file = modelFile.toRealPath();
+        String key = key(file);
+        Entry<M> entry;
+        boolean load = false;
+        List<Entry<M>> evicted = new ArrayList<>();
+        synchronized (this) {
+            if (client.closed) {
+                throw new IllegalStateException("Model registry client " + client.name + " is closed");
+            }
+            entry = entries.get(key);
+            if (entry == null) {
+                long size = Files.size(file);
+                // Make room before loading, so the evicted and the new model are not in memory together
+                evicted = evictOverBudget(size);
+                entry = new Entry<>(key, file, size);
+                entries.put(key, entry);
+                loadedBytes += size;
+                load = true;
+            }
+            entry.users++;
+            if (entry.clients.add(client) && !load) {
+                LOGGER.info("Model {} is now shared by {} configurations", file, entry.clients.size());
+            }
+        }
+        closeAll(evicted);
+
+        if (load) {
+            try {
+                long start = System.nanoTime();
+                entry.model.complete(loader.load(file));
+                LOGGER.info("Loaded model {} ({} MB) for {} in {} ms, {} MB of models loaded", file, entry.size >> 20,
+                            client.name, (System.nanoTime() - start) / 1_000_000, getLoadedBytes() >> 20);
+            } catch (IOException | RuntimeException | Error e) {
+                synchronized (this) {
+                    entries.remove(key, entry);
+                    loadedBytes -= entry.size;
+                }
+                entry.model.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            entry.model.join();
+        } catch (CompletionException e) {
+            // Loading by another caller failed; the entry is already gone, so the next acquire tries again
+            synchronized (this) {
+                entry.users--;
+            }
+            if (e.getCause() instanceof IOException) {
+                throw new IOException(e.getCause().getMessage(), e.getCause());
+            }
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        return new Lease<>(this, entry);
+    }
+
+    private synchronized Lease<M> share(Entry<M> entry) {
+        entry.users++;
+        // Counts as a use for the eviction order
+        entries.get(entry.key);
+        return new Lease<>(this, entry);
+    }
+
+    private void relinquish(Client<M> client, Entry<M> entry) {
+        List<Entry<M>> evicted;
+        synchronized (this) {
+            entry.clients.remove(client);
+            evicted = evictUnused();
+        }
+        closeAll(evicted);
+    }
+
+    private void release(Entry<M> entry) {
+        List<Entry<M>> evicted;
+        synchronized (this) {
+            entry.users--;
+            evicted = evictUnused();
+            evicted.addAll(evictOverBudget(0));
+        }
+        closeAll(evicted);
+    }
+
+    private void unregister(Client<M> client) {
+        List<Entry<M>> evicted;
+        synchronized (this) {
+            if (client.closed) {
+                return;
+            }
+            client.closed = true;
+            clients.remove(client);
+            for (Entry<M> entry : entries.values()) {
+                entry.clients.remove(client);
+            }
+            evicted = evictUnused();
+            evicted.addAll(evictOverBudget(0));
+        }
+        closeAll(evicted);
+    }
+
+    /**
+     * Removes idle models no registered client uses anymore.
+     */
+    private List<Entry<M>> evictUnused() {
+        return evict(entry -> entry.clients.isEmpty(), Long.MAX_VALUE);
+    }
+
+    /**
+     * Removes idle models, least recently used first, until {@code extraBytes} more fit in the budget.
+     */
+    private List<Entry<M>> evictOverBudget(long extraBytes) {
+        long budget = effectiveBudget();
+        if (budget <= 0 || loadedBytes + extraBytes <= budget) {
+            return new ArrayList<>();
+        }
+        List<Entry<M>> evicted = evict(entry -> true, loadedBytes + extraBytes - budget);
+        if (loadedBytes + extraBytes > budget) {
+            LOGGER.warn("Loaded models take {} MB, over the budget of {} MB, because the others are in use",
+                        (loadedBytes + extraBytes) >> 20, budget >> 20);
+        }
+        return evicted;
+    }
+
+    /**
+     * Removes matching idle models, least recently used first, until at least {@code bytes} are freed or none is
+     * left. The caller closes them outside the lock.
+     */
+    private List<Entry<M>> evict(Predicate<Entry<M>> filter, long bytes) {
+        List<Entry<M>> evicted = new ArrayList<>();
+        long freed = 0;
+        for (Iterator<Entry<M>> it = entries.values().iterator(); it.hasNext() && freed < bytes; ) {
+            Entry<M> entry = it.next();
+            if (entry.users == 0 && entry.model.isDone() && filter.test(entry)) {
+                it.remove();
+                loadedBytes -= entry.size;
+                freed += entry.size;
+                evicted.add(entry);
+            }
+        }
+        return evicted;
+    }
+
+    private long effectiveBudget() {
+        long budget = 0;
+        for (Client<M> client : clients) {
+            if (client.memoryBudgetBytes > 0 && (budget == 0 || client.memoryBudgetBytes < budget)) {
+                budget = client.memoryBudgetBytes;
+            }
+        }
+        return budget;
+    }
+
+    private static String key(Path realPath) throws IOException {
+        return realPath + "@" + Files.size(realPath) + "/" + Files.getLastModifiedTime(realPath).toMillis();
+    }
+
+    private void closeAll(List<Entry<M>> evicted) {
+        for (Entry<M> entry : evicted) {
+            LOGGER.info("Closing idle model {} ({} MB)", entry.file, entry.size >> 20);
+            try {
+                entry.model.join().close();
+            } catch (Exception e) {
+                LOGGER.warn("Failed to close model {}", entry.file, e);
+            }
+        }
+    }
+
+    private static final class Entry<M extends AutoCloseable> {
+
+        private final String key;
+        private final Path file;
+        private final long size;
+        private final CompletableFuture<M> model = new CompletableFuture<>();
+        // Guarded by the registry
+        private final Set<Client<M>> clients = Collections.newSetFromMap(new IdentityHashMap<>());
+        private int users;
+
+        private Entry(String key, Path file, long size) {
+            this.key = key;
+            this.file = file;
+            this.size = size;
+        }
+    }
+
+    /**
+     * A registered user of the registry. Closing it releases its claim on every model it used; models no other
+     * client uses are closed once their last lease is returned.
+     */
+    static final class Client<M extends AutoCloseable> implements AutoCloseable {
+
+        private final WhisperModelRegistry<M> registry;
+        private final String name;
+        private final long memoryBudgetBytes;
+        // Guarded by the registry
+        private boolean closed;
+
+        private Client(WhisperModelRegistry<M> registry, String name, long memoryBudgetBytes) {
+            this.registry = registry;
+            this.name = name;
+            this.memoryBudgetBytes = memoryBudgetBytes;
+        }
+
+        /**
+         * Leases the model loaded from a file, loading it first if no other client has. Concurrent callers of a
+         * model being loaded wait for it rather than loading it again.
+         *
+         * @param modelFile the model file
+         * @param loader loads the model if it is not loaded yet
+         * @return the lease, to be closed once the model is no longer used
+         * @throws IOException if the model cannot be loaded
+         */
+        Lease<M> acquire(Path modelFile, Loader<M> loader) throws IOException {
+            return registry.acquire(this, modelFile, loader);
+        }
+
+        /**
+         * Closes a lease of this client and gives up the client's claim on its model, so the model is closed once
+         * its other leases are returned unless another client uses it. Used when a configuration switches to
+         * another model.
+         */
+        void relinquish(Lease<M> lease) {
+            lease.close();
+            registry.relinquish(this, lease.entry);
+        }
+
+        @Override
+        public void close() {
+            registry.unregister(this);
+        }
+    }
+
+    /**
+     * Use of a loaded model. The model stays loaded at least until the lease is closed.
+     */
+    static final class Lease<M extends AutoCloseable> implements AutoCloseable {
+
+        private final WhisperModelRegistry<M> registry;
+        private final Entry<M> entry;
+        private boolean closed;
+
+        private Lease(WhisperModelRegistry<M> registry, Entry<M> entry) {
+            this.registry = registry;
+            this.entry = entry;
+        }
+
+        M get() {
+            if (closed) {
+                throw new IllegalStateException("Lease on " + entry.file + " was already closed");
+            }
+            return entry.model.join();
+        }
+
+        Path getModelFile() {
+            return entry.file;
+        }
+
+        /**
+         * @return another lease on the same model, which stays loaded until both are closed
+         */
+        Lease<M> share() {
+            if (closed) {
+                throw new IllegalStateException("Lease on " + entry.file + " was already closed");
+            }
+            return registry.share(entry);
+        }
+
+        /**
+         * @return whether both leases are on the same loaded model
+         */
+        boolean isSameModel(Lease<M> other) {
+            return entry == other.entry;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                registry.release(entry);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import io.github.givimad.whisperjni.WhisperContext;
+import io.github.givimad.whisperjni.WhisperJNI;
+import io.github.givimad.whisperjni.WhisperState;
+import org.mule.extension.whisperer.api.error.ConnectorError;
+import org.mule.extension.whisperer.internal.error.TranscriptionException;
+import org.mule.extension.whisperer.internal.helpers.pool.BoundedPool;
+import org.mule.runtime.extension.api.exception.ModuleException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Pool of {@link WhisperState}s on a context loaded without state.
+ *
+ * <p>A state holds the decoder buffers and KV caches of one transcription, so sharing the context's built-in
+ * state would serialize every request on the same model. Pooling the states lets requests run concurrently
+ * against a single copy of the weights while capping the native memory spent on buffers, and spares each
+ * request the cost of allocating them.
+ */
+class WhisperStatePool implements AutoCloseable {
+
+    private final BoundedPool<WhisperState> pool;
+    private final long checkoutTimeoutMillis;
+
+    /**
+     * @param whisper the Whisper JNI binding
+     * @param whisperContext context loaded with {@link WhisperJNI#initNoState}
+     * @param minStates states created up front and kept when idle
+     * @param maxStates maximum number of states, i.e. of transcriptions running at once
+     * @param checkoutTimeoutMillis how long a transcription waits for a free state
+     * @param idleTimeoutMillis idle time after which states above the minimum are released, or 0 to keep them
+     */
+    WhisperStatePool(WhisperJNI whisper, WhisperContext whisperContext, int minStates, int maxStates,
+                     long checkoutTimeoutMillis, long idleTimeoutMillis) {
+        this.pool = new BoundedPool<>("whisper-states", () -> whisper.initState(whisperContext), WhisperState::close,
+                                      Math.min(Math.max(0, minStates), Math.max(1, maxStates)), Math.max(1, maxStates),
+                                      idleTimeoutMillis);
+        this.checkoutTimeoutMillis = checkoutTimeoutMillis;
+    }
+
+    void start() {
+        pool.start();
+    }
+
+    /**
+     * Takes a state out of the pool, waiting up to the checkout timeout when all of them are in use.
+     *
+     * @throws ModuleException with {@link ConnectorError#TIMEOUT} if no state became available in time
+     */
+    BoundedPool.Lease<WhisperState> checkout() {
+        try {
+            return pool.acquire(checkoutTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ModuleException(String.format("All %d Whisper states are in use; none was released within %d ms",
+                                                    pool.getMaxSize(), checkoutTimeoutMillis),
+                                      ConnectorError.TIMEOUT, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TranscriptionException("Interrupted while waiting for a Whisper state", e);
+        }
+    }
+
+    /**
+     * Takes a state out of the pool only if one is idle or can be created right away.
+     *
+     * @return the lease, or {@code null} if the pool is exhausted
+     */
+    BoundedPool.Lease<WhisperState> tryCheckout() {
+        try {
+            return pool.acquire(0, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TranscriptionException("Interrupted while waiting for a Whisper state", e);
+        }
+    }
+
+    /**
+     * Releases states that have been idle for longer than the idle timeout.
+     */
+    void evictIdle() {
+        pool.evictIdle();
+    }
+
+    int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    int getSize() {
+        return pool.getSize();
+    }
+
+    int getMaxSize() {
+        return pool.getMaxSize();
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+}
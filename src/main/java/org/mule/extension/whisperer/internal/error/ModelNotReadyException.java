@@ -0,0 +1,10 @@
+package org.mule.extension.whisperer.internal.error;
+
+import org.mule.extension.whisperer.api.error.ConnectorError;
+import org.mule.runtime.extension.api.exception.ModuleException;
+
+public class ModelNotReadyException extends ModuleException {
+    public ModelNotReadyException(String message) {
+        super(message, ConnectorError.MODEL_NOT_READY);
+    }
+}
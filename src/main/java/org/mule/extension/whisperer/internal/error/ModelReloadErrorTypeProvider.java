@@ -0,0 +1,19 @@
+package org.mule.extension.whisperer.internal.error;
+
+import org.mule.extension.whisperer.api.error.ConnectorError;
+import org.mule.runtime.extension.api.annotation.error.ErrorTypeProvider;
+import org.mule.runtime.extension.api.error.ErrorTypeDefinition;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class ModelReloadErrorTypeProvider implements ErrorTypeProvider {
+    @Override
+    public Set<ErrorTypeDefinition> getErrorTypes() {
+        Set<ErrorTypeDefinition> errorTypes = new HashSet<>();
+        errorTypes.add(ConnectorError.MODEL_SETUP_FAILURE);
+        errorTypes.add(ConnectorError.MODEL_NOT_READY);
+        errorTypes.add(ConnectorError.CONNECTION_INCOMPATIBLE);
+        return errorTypes;
+    }
+}
@@ -7,6 +7,7 @@ import java.io.IOException;
 
 /**
  * Orchestrates audio format conversion using pure Java decoders with optional ByteDeco FFmpeg.
+ * See {@link AudioDecoder} for the in-memory equivalent that decodes straight to 16kHz mono samples.
  *
  * <p>Core Formats (Always Available):
  * <ul>
@@ -78,7 +79,7 @@ public class AudioConverter {
                 break;
 
             case "mp3":
-                // Use JLayer (always available) - preserves original sample rate
+                // Use JLayer (always available), decoded to 16kHz mono
                 try {
                     Mp3ToWavConverter.convertMp3ToWav(inputPath, outputPath);
                     LOGGER.debug("MP3 conversion completed using JLayer");
@@ -119,7 +120,7 @@ public class AudioConverter {
         }
     }
 
-    private static String getExtendedFormatMissingDependencyMessage(String format) {
+    static String getExtendedFormatMissingDependencyMessage(String format) {
         return format.toUpperCase() + " format requires ByteDeco FFmpeg. Add this dependency to your Mule app pom.xml:\n" +
                "<dependency>\n" +
                "  <groupId>org.bytedeco</groupId>\n" +
@@ -0,0 +1,191 @@
+package org.mule.extension.whisperer.internal.helpers.audio;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Decodes audio streams straight into 16kHz mono float samples, as expected by WhisperJNI.
+ *
+ * <p>Unlike {@link AudioConverter}, which works on files, streams are decoded entirely in memory: the payload is
+ * pulled from the given {@link InputStream}, decoded, downmixed and resampled into a {@link FloatSampleBuffer}
+ * without writing any intermediate file. Payloads too large to buffer can be spooled to a private scratch
+ * directory and decoded from there instead.
+ */
+public class AudioDecoder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AudioDecoder.class);
+
+    /** Sample rate required by Whisper models. */
+    public static final int WHISPER_SAMPLE_RATE = 16000;
+
+    /** 16-bit signed little-endian mono PCM at 16kHz. */
+    static final AudioFormat WHISPER_PCM_FORMAT = new AudioFormat(
+        AudioFormat.Encoding.PCM_SIGNED,
+        WHISPER_SAMPLE_RATE,
+        16,
+        1,
+        2,
+        WHISPER_SAMPLE_RATE,
+        false
+    );
+
+    private static final int READ_BLOCK_SIZE = 64 * 1024;
+
+    /**
+     * Decodes an audio stream into 16kHz mono float samples in the range [-1.0, 1.0].
+     *
+     * @param audioStream the encoded audio
+     * @param format audio format (mp3, m4a, aac, flac, ogg, webm, wav), see {@link AudioUtils#guessAudioFormat}
+     * @return buffer holding the decoded samples
+     * @throws IOException if the stream cannot be read or decoded
+     * @throws UnsupportedOperationException if the format is unknown or requires ByteDeco but it's not available
+     */
+    public static FloatSampleBuffer decode(InputStream audioStream, String format) throws IOException {
+        String normalizedFormat = format.toLowerCase();
+
+        LOGGER.debug("Decoding {} stream to 16kHz mono samples in memory", normalizedFormat);
+
+        switch (normalizedFormat) {
+            case "wav":
+                try (AudioInputStream wavStream = AudioSystem.getAudioInputStream(new BufferedInputStream(audioStream))) {
+                    return readMono16kHz(wavStream);
+                } catch (UnsupportedAudioFileException e) {
+                    throw new IOException("WAV stream format not supported", e);
+                }
+
+            case "mp3":
+                return Mp3StreamDecoder.decodeToMono16kHz(audioStream, -1);
+
+            case "m4a":
+            case "aac":
+            case "mp4":
+            case "flac":
+            case "ogg":
+            case "webm":
+                if (!AudioConverter.isByteDecoAvailable()) {
+                    throw new UnsupportedOperationException(AudioConverter.getExtendedFormatMissingDependencyMessage(normalizedFormat));
+                }
+                // swresample downmixes and resamples natively, no Java Sound conversion needed
+                return ByteDecoConverter.decodeToMono16kHz(audioStream);
+
+            default:
+                throw new UnsupportedOperationException(
+                    "Unsupported audio format: " + format + ". " +
+                    "Supported formats: MP3, M4A, AAC, WAV (core) and FLAC, OGG, WEBM (with ByteDeco FFmpeg)"
+                );
+        }
+    }
+
+    /**
+     * Decodes an audio file into 16kHz mono float samples in the range [-1.0, 1.0].
+     * Used for payloads too large to buffer in memory; intermediate files, if any, are written to {@code workDirectory}.
+     * Formats handled by ByteDeco are decoded straight from the file without an intermediate WAV.
+     *
+     * @param audioFile the encoded audio file
+     * @param format audio format (mp3, m4a, aac, flac, ogg, webm, wav), see {@link AudioUtils#guessAudioFormat}
+     * @param workDirectory directory for intermediate files, private to the caller
+     * @return buffer holding the decoded samples
+     * @throws IOException if the file cannot be read or decoded
+     * @throws UnsupportedOperationException if the format is unknown or requires ByteDeco but it's not available
+     */
+    public static FloatSampleBuffer decode(Path audioFile, String format, Path workDirectory) throws IOException {
+        if (isByteDecoFormat(format)) {
+            if (!AudioConverter.isByteDecoAvailable()) {
+                throw new UnsupportedOperationException(AudioConverter.getExtendedFormatMissingDependencyMessage(format.toLowerCase()));
+            }
+            return ByteDecoConverter.decodeToMono16kHz(audioFile.toString());
+        }
+
+        if ("mp3".equalsIgnoreCase(format)) {
+            try (InputStream mp3Stream = new BufferedInputStream(Files.newInputStream(audioFile))) {
+                return Mp3StreamDecoder.decodeToMono16kHz(mp3Stream, Files.size(audioFile));
+            }
+        }
+
+        Path wavFile = audioFile;
+        if (!"wav".equalsIgnoreCase(format)) {
+            wavFile = workDirectory.resolve("decoded.wav");
+            AudioConverter.convertToWav(audioFile.toString(), wavFile.toString(), format);
+        }
+
+        try {
+            return AudioFileReader.readSamples(wavFile.toFile());
+        } catch (UnsupportedAudioFileException e) {
+            throw new IOException("Unable to read decoded audio file " + wavFile, e);
+        }
+    }
+
+    private static boolean isByteDecoFormat(String format) {
+        switch (format.toLowerCase()) {
+            case "m4a":
+            case "aac":
+            case "mp4":
+            case "flac":
+            case "ogg":
+            case "webm":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Reads a PCM audio stream into 16kHz mono float samples. Java Sound is only used to normalize the sample
+     * encoding to 16-bit little-endian PCM; downmixing and resampling are done by {@link PolyphaseResampler}.
+     *
+     * @param audioInputStream the PCM audio stream
+     * @return buffer holding the samples
+     * @throws IOException if the stream cannot be read or converted
+     */
+    static FloatSampleBuffer readMono16kHz(AudioInputStream audioInputStream) throws IOException {
+        AudioFormat sourceFormat = audioInputStream.getFormat();
+        int channels = sourceFormat.getChannels();
+        int sampleRate = Math.round(sourceFormat.getSampleRate());
+
+        AudioInputStream pcmStream = audioInputStream;
+        AudioFormat pcm16Format = new AudioFormat(sampleRate, 16, channels, true, false);
+        if (!pcm16Format.matches(sourceFormat)) {
+            LOGGER.trace("Converting audio stream from {} to {}", sourceFormat, pcm16Format);
+            try {
+                pcmStream = AudioSystem.getAudioInputStream(pcm16Format, audioInputStream);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Unable to convert audio from " + sourceFormat + " to 16-bit PCM", e);
+            }
+        }
+
+        long frameLength = pcmStream.getFrameLength();
+        long expectedSamples = frameLength * WHISPER_SAMPLE_RATE / sampleRate + 1;
+        FloatSampleBuffer samples = frameLength > 0 && expectedSamples < Integer.MAX_VALUE
+            ? new FloatSampleBuffer((int) expectedSamples)
+            : new FloatSampleBuffer();
+
+        PolyphaseResampler resampler = PolyphaseResampler.create(sampleRate, WHISPER_SAMPLE_RATE);
+        int frameSize = 2 * channels;
+        byte[] block = new byte[READ_BLOCK_SIZE - READ_BLOCK_SIZE % frameSize];
+        int pending = 0;
+        int bytesRead;
+        while ((bytesRead = pcmStream.read(block, pending, block.length - pending)) != -1) {
+            int available = pending + bytesRead;
+            int frames = available / frameSize;
+            resampler.processPcm16(block, 0, frames, channels, samples);
+
+            // Keep a partial frame for the next read
+            pending = available - frames * frameSize;
+            System.arraycopy(block, frames * frameSize, block, 0, pending);
+        }
+        resampler.flush(samples);
+
+        LOGGER.debug("Decoded {} samples ({} ms) of 16kHz mono audio", samples.size(), samples.durationMillis());
+        return samples;
+    }
+}
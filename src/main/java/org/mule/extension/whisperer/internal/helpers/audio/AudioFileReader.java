@@ -1,12 +1,25 @@
 package org.mule.extension.whisperer.internal.helpers.audio;
 
-import javazoom.jl.decoder.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import javax.sound.sampled.*;
 import java.io.*;
-import java.nio.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 public class AudioFileReader {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(AudioFileReader.class);
+
+    private static final int WAV_HEADER_BYTES = 44;
+    private static final int WRITE_BLOCK_SAMPLES = 32 * 1024;
+
     /**
      * Reads an audio file from InputStream and converts its data into an array of float samples.
      *
@@ -16,66 +29,52 @@ public class AudioFileReader {
      * @throws IOException                   if an I/O error occurs during file reading.
      */
     public static float[] readFile(File audioFile) throws UnsupportedAudioFileException, IOException {
+        FloatSampleBuffer samples = readSamples(audioFile);
+        // Exactly sized buffers, such as those of 16kHz mono WAV files, are returned without copying
+        return samples.size() == samples.array().length ? samples.array() : samples.toArray();
+    }
 
-        // Open the audio file and create an AudioInputStream
-        AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(audioFile);
-
-        // Check if the audio is in the correct format (Mono and 16kHz)
-        AudioFormat format = audioInputStream.getFormat();
-        if (format.getChannels() != 1 || format.getSampleRate() != 16000) {
-            // If not Mono or 16kHz, convert it using FFmpeg
-            File convertedFile = convertToMono16kHz(audioFile);
-            return readFile(convertedFile); // Recursively read the converted file
-        }
-
-        // Create a ByteBuffer to read the audio data into
-        ByteBuffer captureBuffer = ByteBuffer.allocate(audioInputStream.available());
-        captureBuffer.order(ByteOrder.LITTLE_ENDIAN); // Ensure the buffer uses little-endian byte order
-
-        // Read the audio data into the buffer
-        int bytesRead = audioInputStream.read(captureBuffer.array());
-        if (bytesRead == -1) {
-            throw new IOException("Unable to read audio file: " + audioFile.getAbsolutePath());
+    /**
+     * Reads an audio file into a buffer of 16kHz mono float samples. WAV files are memory-mapped and converted
+     * by {@link WavFileReader}; other files, or WAV encodings it does not support, are read through Java Sound.
+     *
+     * @param audioFile the audio file to be read.
+     * @return buffer holding the audio samples.
+     * @throws UnsupportedAudioFileException if the audio file format is not supported.
+     * @throws IOException                   if an I/O error occurs during file reading.
+     */
+    static FloatSampleBuffer readSamples(File audioFile) throws UnsupportedAudioFileException, IOException {
+        try {
+            return WavFileReader.read(audioFile.toPath());
+        } catch (UnsupportedAudioFileException e) {
+            LOGGER.debug("Falling back to Java Sound for {}: {}", audioFile, e.getMessage());
         }
 
-        // Convert the ByteBuffer to a ShortBuffer for easier processing
-        ShortBuffer shortBuffer = captureBuffer.asShortBuffer();
-
-        // Create a float array to store the converted audio samples
-        float[] samples = new float[shortBuffer.capacity()];
-        int i = 0;
-
-        // Convert each short sample to a float value between -1.0f and 1.0f
-        while (shortBuffer.hasRemaining()) {
-            samples[i++] = Math.max(-1f, Math.min(((float) shortBuffer.get()) / (float) Short.MAX_VALUE, 1f));
+        // Other formats are normalized to 16-bit PCM by Java Sound, then downmixed and resampled in memory
+        try (AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(audioFile)) {
+            return AudioDecoder.readMono16kHz(audioInputStream);
         }
-
-        return samples; // Return the array of audio samples
     }
 
+    /**
+     * Converts an audio file to 16kHz mono 16-bit PCM WAV. The output is written next to the input file
+     * under a unique name, so concurrent conversions in the same directory never overwrite each other.
+     *
+     * @param inputFile the audio file to convert.
+     * @return the converted file.
+     * @throws UnsupportedAudioFileException if the audio file format is not supported.
+     * @throws IOException                   if an I/O error occurs during conversion.
+     */
     public static File convertToMono16kHz(File inputFile) throws UnsupportedAudioFileException, IOException {
-        File outputFile = new File(inputFile.getParent(), "converted_16kHz_mono.wav");
-
-        // Load the audio file
-        AudioInputStream inputStream = AudioSystem.getAudioInputStream(inputFile);
-
-        // Create a new audio format with 16kHz sample rate and Mono
-        AudioFormat originalFormat = inputStream.getFormat();
-        AudioFormat targetFormat = new AudioFormat(
-            AudioFormat.Encoding.PCM_SIGNED,
-            16000, // Sample rate set to 16kHz
-            16,    // 16-bit
-            1,     // Mono
-            2,     // 2 bytes per frame (16-bit)
-            16000, // Frame rate matching the sample rate
-            false  // Little Endian
-        );
+        File outputFile = File.createTempFile("converted_16kHz_mono-", ".wav", inputFile.getAbsoluteFile().getParentFile());
 
-        // Convert the stream to the new audio format
-        AudioInputStream convertedStream = AudioSystem.getAudioInputStream(targetFormat, inputStream);
+        // Downmix and resample to 16kHz mono
+        FloatSampleBuffer samples;
+        try (AudioInputStream inputStream = AudioSystem.getAudioInputStream(inputFile)) {
+            samples = AudioDecoder.readMono16kHz(inputStream);
+        }
 
-        // Write the converted file
-        AudioSystem.write(convertedStream, AudioFileFormat.Type.WAVE, outputFile);
+        writeMono16kHzWav(samples, outputFile.toPath());
 
         return outputFile;
     }
@@ -126,56 +125,64 @@ public class AudioFileReader {
             throw new IOException("Failed to convert " + format.toUpperCase() + " to WAV", e);
         }
     }
-}
-
-class Mp3ToWavConverter {
-
-    public static void convertMp3ToWav(String mp3FilePath, String wavFilePath) throws IOException, UnsupportedAudioFileException {
-        try (FileInputStream mp3Stream = new FileInputStream(mp3FilePath);
-            FileOutputStream wavStream = new FileOutputStream(wavFilePath)) {
-
-            Bitstream bitstream = new Bitstream(mp3Stream);
-            Decoder decoder = new Decoder();
-
-            AudioFormat baseFormat = null;
-
-            ByteArrayOutputStream byteOutputStream = new ByteArrayOutputStream();
-            long totalFrames = 0;
-            Header header;
-
-            while ((header = bitstream.readFrame()) != null) {
-                SampleBuffer output = (SampleBuffer) decoder.decodeFrame(header, bitstream);
-
-                if (baseFormat == null) {
-                    baseFormat = new AudioFormat(
-                        (float) header.frequency(),
-                        16, // 16-bit samples
-                        output.getChannelCount(),
-                        true, // signed
-                        false // little-endian
-                    );
-                }
 
-                byte[] buffer = new byte[output.getBufferLength() * 2]; // Buffer size * 2 for bytes
-                for (int i = 0; i < output.getBufferLength(); i++) {
-                    short val = output.getBuffer()[i];
-                    buffer[2 * i] = (byte) (val & 0x00ff);
-                    buffer[2 * i + 1] = (byte) ((val & 0xff00) >> 8);
+    /**
+     * Writes 16kHz mono samples as a 16-bit PCM WAV file, a block at a time.
+     */
+    static void writeMono16kHzWav(FloatSampleBuffer samples, Path wavFile) throws IOException {
+        long dataBytes = samples.size() * 2L;
+        if (dataBytes > 0xFFFFFFFFL - WAV_HEADER_BYTES) {
+            throw new IOException("Decoded audio is too long for a WAV file");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(WAV_HEADER_BYTES, WRITE_BLOCK_SAMPLES * 2))
+            .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put("RIFF".getBytes(StandardCharsets.US_ASCII)).putInt((int) (36 + dataBytes))
+            .put("WAVE".getBytes(StandardCharsets.US_ASCII))
+            .put("fmt ".getBytes(StandardCharsets.US_ASCII)).putInt(16)
+            .putShort((short) 1) // PCM
+            .putShort((short) 1) // mono
+            .putInt(AudioDecoder.WHISPER_SAMPLE_RATE)
+            .putInt(AudioDecoder.WHISPER_SAMPLE_RATE * 2)
+            .putShort((short) 2)
+            .putShort((short) 16)
+            .put("data".getBytes(StandardCharsets.US_ASCII)).putInt((int) dataBytes);
+
+        float[] data = samples.array();
+        try (FileChannel channel = FileChannel.open(wavFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < samples.size(); i++) {
+                if (!buffer.hasRemaining()) {
+                    flush(channel, buffer);
                 }
-                byteOutputStream.write(buffer, 0, buffer.length); // write all bytes
-                totalFrames += output.getBufferLength(); // Use buffer length directly
-
-                bitstream.closeFrame();
+                float sample = Math.max(-1f, Math.min(1f, data[i]));
+                buffer.putShort((short) Math.round(sample * Short.MAX_VALUE));
             }
+            flush(channel, buffer);
+        }
+    }
 
-            byte[] audioData = byteOutputStream.toByteArray();
-            InputStream byteInputStream = new ByteArrayInputStream(audioData);
-            AudioInputStream audioInputStream = new AudioInputStream(byteInputStream, baseFormat, audioData.length / baseFormat.getFrameSize());
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
 
-            AudioSystem.write(audioInputStream, AudioFileFormat.Type.WAVE, wavStream);
+/**
+ * Converts MP3 files to 16kHz mono 16-bit PCM WAV. Frames are decoded, downmixed and resampled on the fly by
+ * {@link Mp3StreamDecoder}, and the samples are written out in small blocks, so the only buffer that grows with the
+ * input is the decoded audio itself.
+ */
+class Mp3ToWavConverter {
 
-        } catch (JavaLayerException e) {
-            e.printStackTrace();
+    public static void convertMp3ToWav(String mp3FilePath, String wavFilePath) throws IOException, UnsupportedAudioFileException {
+        File mp3File = new File(mp3FilePath);
+        FloatSampleBuffer samples;
+        try (FileInputStream mp3Stream = new FileInputStream(mp3File)) {
+            samples = Mp3StreamDecoder.decodeToMono16kHz(mp3Stream, mp3File.length());
         }
+        AudioFileReader.writeMono16kHzWav(samples, Paths.get(wavFilePath));
     }
 }
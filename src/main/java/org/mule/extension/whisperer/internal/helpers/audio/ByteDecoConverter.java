@@ -1,16 +1,22 @@
 package org.mule.extension.whisperer.internal.helpers.audio;
 
+import org.apache.commons.io.IOUtils;
 import org.bytedeco.ffmpeg.avcodec.AVCodec;
 import org.bytedeco.ffmpeg.avcodec.AVCodecContext;
 import org.bytedeco.ffmpeg.avcodec.AVPacket;
 import org.bytedeco.ffmpeg.avformat.AVFormatContext;
+import org.bytedeco.ffmpeg.avformat.AVIOContext;
 import org.bytedeco.ffmpeg.avformat.AVStream;
+import org.bytedeco.ffmpeg.avformat.Read_packet_Pointer_BytePointer_int;
+import org.bytedeco.ffmpeg.avformat.Seek_Pointer_long_int;
 import org.bytedeco.ffmpeg.avutil.AVFrame;
 import org.bytedeco.ffmpeg.swresample.SwrContext;
 import org.bytedeco.javacpp.BytePointer;
 import org.bytedeco.javacpp.DoublePointer;
+import org.bytedeco.javacpp.FloatPointer;
 import org.bytedeco.javacpp.IntPointer;
 import org.bytedeco.javacpp.Loader;
+import org.bytedeco.javacpp.Pointer;
 import org.bytedeco.javacpp.PointerPointer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,11 +28,14 @@ import javax.sound.sampled.AudioSystem;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.ShortBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.bytedeco.ffmpeg.global.avcodec.*;
 import static org.bytedeco.ffmpeg.global.avformat.*;
@@ -38,7 +47,9 @@ import static org.bytedeco.ffmpeg.global.swresample.*;
  * This class is only used when ByteDeco FFmpeg is available in the classpath.
  *
  * Uses ByteDeco's Java API (not command-line execution), eliminating PATH dependencies.
- * Preserves original sample rate and channels - use AudioFileReader.readFile() for 16kHz mono conversion.
+ * WAV conversion preserves original sample rate and channels - use AudioFileReader.readFile() for 16kHz mono conversion.
+ * The decodeToMono16kHz methods instead produce 16kHz mono float samples directly, ready for WhisperJNI.
+ * Audio can be read either from a file or, through a custom AVIO context, from an in-memory buffer.
  */
 public class ByteDecoConverter {
 
@@ -46,6 +57,8 @@ public class ByteDecoConverter {
 
     private static final int TARGET_SAMPLE_FORMAT = AV_SAMPLE_FMT_S16;  // 16-bit PCM
 
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
     static {
         // Initialize FFmpeg libraries
         try {
@@ -65,6 +78,12 @@ public class ByteDecoConverter {
         }
     }
 
+    // Native callbacks are expensive to allocate, so a single instance of each is shared by all in-memory
+    // decodes and the actual input is looked up by the address of the opaque pointer handed to FFmpeg.
+    private static final Map<Long, InMemoryInput> IN_MEMORY_INPUTS = new ConcurrentHashMap<>();
+    private static final ReadCallback READ_CALLBACK = new ReadCallback().retainReference();
+    private static final SeekCallback SEEK_CALLBACK = new SeekCallback().retainReference();
+
     /**
      * Converts audio file to WAV format (16-bit PCM) using ByteDeco FFmpeg.
      * Preserves original sample rate and channel count.
@@ -76,58 +95,267 @@ public class ByteDecoConverter {
     public static void convertToWav(String inputPath, String outputPath) throws IOException {
         LOGGER.debug("Starting audio conversion using ByteDeco FFmpeg: {} -> {}", inputPath, outputPath);
 
+        try {
+            // Write WAV file using Java Sound API (preserves original sample rate and channels)
+            try (AudioInputStream audioInputStream = decodeFile(inputPath, ByteDecoConverter::decodeToPcm)) {
+                AudioSystem.write(audioInputStream, AudioFileFormat.Type.WAVE, new File(outputPath));
+            }
+
+            LOGGER.debug("Successfully converted {} to WAV", inputPath);
+
+        } catch (Exception e) {
+            throw new IOException("Failed to convert audio file using ByteDeco FFmpeg: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Decodes an audio file straight into 16kHz mono float samples, letting swresample downmix and resample
+     * in the same native pass that converts the sample format.
+     *
+     * @param inputPath Path to input audio file (M4A, AAC, FLAC, OGG, WEBM, etc.)
+     * @return buffer holding the decoded samples, ready for WhisperJNI
+     * @throws IOException if decoding fails
+     */
+    public static FloatSampleBuffer decodeToMono16kHz(String inputPath) throws IOException {
+        LOGGER.debug("Starting 16kHz mono decoding using ByteDeco FFmpeg: {}", inputPath);
+        return decodeFile(inputPath, ByteDecoConverter::decodeToMono16kHz);
+    }
+
+    /**
+     * Decodes an audio stream in memory straight into 16kHz mono float samples, without touching the file system.
+     *
+     * @param audioStream the encoded audio (M4A, AAC, FLAC, OGG, WEBM, etc.)
+     * @return buffer holding the decoded samples, ready for WhisperJNI
+     * @throws IOException if decoding fails
+     */
+    public static FloatSampleBuffer decodeToMono16kHz(InputStream audioStream) throws IOException {
+        // Containers such as MP4 may keep their index at the end of the file, so the input must be seekable
+        InMemoryInput input = new InMemoryInput(IOUtils.toByteArray(audioStream));
+        LOGGER.debug("Starting in-memory 16kHz mono decoding using ByteDeco FFmpeg: {} bytes", input.data.length);
+        return decodeInMemory(input, ByteDecoConverter::decodeToMono16kHz);
+    }
+
+    private static <T> T decodeFile(String inputPath, InputDecoder<T> decoder) throws IOException {
         AVFormatContext formatContext = null;
-        AVCodecContext codecContext = null;
-        SwrContext swrContext = null;
-        AVFrame frame = null;
-        AVFrame resampledFrame = null;
-        AVPacket packet = null;
 
         try {
-            // Step 1: Open input file
             formatContext = avformat_alloc_context();
             if (avformat_open_input(formatContext, inputPath, null, null) < 0) {
                 throw new IOException("Could not open input file: " + inputPath);
             }
 
-            // Step 2: Find stream information
-            if (avformat_find_stream_info(formatContext, (PointerPointer<?>) null) < 0) {
-                throw new IOException("Could not find stream information");
+            return decoder.decode(formatContext);
+
+        } finally {
+            if (formatContext != null) {
+                avformat_close_input(formatContext);
             }
+        }
+    }
 
-            // Step 3: Find audio stream
-            int audioStreamIndex = -1;
-            AVStream audioStream = null;
-            for (int i = 0; i < formatContext.nb_streams(); i++) {
-                AVStream stream = formatContext.streams(i);
-                if (stream.codecpar().codec_type() == AVMEDIA_TYPE_AUDIO) {
-                    audioStreamIndex = i;
-                    audioStream = stream;
-                    break;
-                }
+    private static <T> T decodeInMemory(InMemoryInput input, InputDecoder<T> decoder) throws IOException {
+        BytePointer opaque = new BytePointer(1);
+        AVFormatContext formatContext = null;
+        AVIOContext ioContext = null;
+
+        try {
+            IN_MEMORY_INPUTS.put(opaque.address(), input);
+
+            ioContext = avio_alloc_context(new BytePointer(av_malloc(IO_BUFFER_SIZE)), IO_BUFFER_SIZE, 0,
+                                           opaque, READ_CALLBACK, null, SEEK_CALLBACK);
+            formatContext = avformat_alloc_context();
+            formatContext.pb(ioContext);
+
+            if (avformat_open_input(formatContext, (String) null, null, null) < 0) {
+                throw new IOException("Could not open in-memory audio input");
             }
 
-            if (audioStreamIndex == -1) {
-                throw new IOException("Could not find audio stream in file");
+            return decoder.decode(formatContext);
+
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to decode audio using ByteDeco FFmpeg: " + e.getMessage(), e);
+        } finally {
+            if (formatContext != null) {
+                avformat_close_input(formatContext);
             }
+            if (ioContext != null) {
+                // FFmpeg may have replaced the buffer we handed over, so free whatever it holds now
+                av_free(ioContext.buffer());
+                ioContext.buffer(null);
+                avio_context_free(ioContext);
+            }
+            IN_MEMORY_INPUTS.remove(opaque.address());
+            opaque.close();
+        }
+    }
 
-            // Step 4: Find decoder
-            AVCodec codec = avcodec_find_decoder(audioStream.codecpar().codec_id());
-            if (codec == null) {
-                throw new IOException("Unsupported audio codec");
+    /**
+     * Decodes the first audio stream of an opened input into 16kHz mono float samples.
+     *
+     * <p>The resampler keeps a few samples of history per call (its filter delay), so each call is given room for
+     * {@code swr_get_out_samples} output samples and the delayed tail is drained by flushing with a null input
+     * once the decoder is exhausted. Without the flush the last few milliseconds of audio would be lost.
+     *
+     * @param formatContext an input opened with {@code avformat_open_input}
+     * @return buffer holding the decoded samples
+     * @throws IOException if decoding fails
+     */
+    private static FloatSampleBuffer decodeToMono16kHz(AVFormatContext formatContext) throws IOException {
+        AVCodecContext codecContext = null;
+        SwrContext swrContext = null;
+        AVFrame frame = null;
+        AVPacket packet = null;
+        FloatPointer outputBuffer = null;
+
+        try {
+            int audioStreamIndex = findAudioStream(formatContext);
+            codecContext = openDecoder(formatContext.streams(audioStreamIndex));
+
+            LOGGER.debug("Input audio: {} Hz, {} channels, format: {}",
+                    codecContext.sample_rate(), codecContext.channels(), codecContext.sample_fmt());
+
+            long inputChannelLayout = codecContext.channel_layout() != 0
+                    ? codecContext.channel_layout()
+                    : av_get_default_channel_layout(codecContext.channels());
+
+            // Downmix, resample and convert to float in a single pass
+            swrContext = swr_alloc_set_opts(
+                    null,
+                    AV_CH_LAYOUT_MONO,                               // Output channel layout (mono)
+                    AV_SAMPLE_FMT_FLT,                               // Output sample format (32-bit float)
+                    AudioDecoder.WHISPER_SAMPLE_RATE,                // Output sample rate (16kHz)
+                    inputChannelLayout,                              // Input channel layout
+                    codecContext.sample_fmt(),                       // Input sample format
+                    codecContext.sample_rate(),                      // Input sample rate
+                    0, null
+            );
+
+            if (swr_init(swrContext) < 0) {
+                throw new IOException("Could not initialize resampler");
             }
 
-            // Step 5: Allocate codec context
-            codecContext = avcodec_alloc_context3(codec);
-            if (avcodec_parameters_to_context(codecContext, audioStream.codecpar()) < 0) {
-                throw new IOException("Could not copy codec parameters to context");
+            frame = av_frame_alloc();
+            packet = av_packet_alloc();
+
+            // Size the sample buffer from the container duration when known (AV_TIME_BASE is microseconds)
+            long duration = formatContext.duration();
+            FloatSampleBuffer samples = duration > 0 && duration < Integer.MAX_VALUE / AudioDecoder.WHISPER_SAMPLE_RATE * 1_000_000L
+                    ? new FloatSampleBuffer((int) (duration * AudioDecoder.WHISPER_SAMPLE_RATE / 1_000_000L) + AudioDecoder.WHISPER_SAMPLE_RATE)
+                    : new FloatSampleBuffer();
+
+            // Native output buffer, reused for every frame: one second of audio, grown on demand
+            int outputCapacity = AudioDecoder.WHISPER_SAMPLE_RATE;
+            outputBuffer = new FloatPointer(outputCapacity);
+            PointerPointer<FloatPointer> outputPlanes = new PointerPointer<>(outputBuffer);
+
+            while (av_read_frame(formatContext, packet) >= 0) {
+                if (packet.stream_index() == audioStreamIndex) {
+                    int ret = avcodec_send_packet(codecContext, packet);
+                    if (ret < 0) {
+                        LOGGER.warn("Error sending packet to decoder");
+                        av_packet_unref(packet);
+                        continue;
+                    }
+
+                    while (ret >= 0) {
+                        ret = avcodec_receive_frame(codecContext, frame);
+                        if (ret == AVERROR_EAGAIN() || ret == AVERROR_EOF) {
+                            break;
+                        } else if (ret < 0) {
+                            throw new IOException("Error during decoding");
+                        }
+
+                        int required = swr_get_out_samples(swrContext, frame.nb_samples());
+                        if (required > outputCapacity) {
+                            outputBuffer.close();
+                            outputCapacity = required;
+                            outputBuffer = new FloatPointer(outputCapacity);
+                            outputPlanes = new PointerPointer<>(outputBuffer);
+                        }
+
+                        int converted = swr_convert(swrContext, outputPlanes, outputCapacity, frame.data(), frame.nb_samples());
+                        appendSamples(outputBuffer, converted, samples);
+
+                        av_frame_unref(frame);
+                    }
+                }
+                av_packet_unref(packet);
             }
 
-            // Step 6: Open codec
-            if (avcodec_open2(codecContext, codec, (PointerPointer<?>) null) < 0) {
-                throw new IOException("Could not open codec");
+            // Flush decoder
+            avcodec_send_packet(codecContext, null);
+            while (avcodec_receive_frame(codecContext, frame) >= 0) {
+                int required = swr_get_out_samples(swrContext, frame.nb_samples());
+                if (required > outputCapacity) {
+                    outputBuffer.close();
+                    outputCapacity = required;
+                    outputBuffer = new FloatPointer(outputCapacity);
+                    outputPlanes = new PointerPointer<>(outputBuffer);
+                }
+
+                int converted = swr_convert(swrContext, outputPlanes, outputCapacity, frame.data(), frame.nb_samples());
+                appendSamples(outputBuffer, converted, samples);
+
+                av_frame_unref(frame);
             }
 
+            // Flush resampler: drain the samples still held back by its filter delay
+            int converted;
+            while ((converted = swr_convert(swrContext, outputPlanes, outputCapacity, (PointerPointer<?>) null, 0)) > 0) {
+                appendSamples(outputBuffer, converted, samples);
+            }
+
+            LOGGER.debug("Decoded {} samples ({} ms) of 16kHz mono audio", samples.size(), samples.durationMillis());
+            return samples;
+
+        } finally {
+            if (packet != null) {
+                av_packet_free(packet);
+            }
+            if (frame != null) {
+                av_frame_free(frame);
+            }
+            if (outputBuffer != null) {
+                outputBuffer.close();
+            }
+            if (swrContext != null) {
+                swr_free(swrContext);
+            }
+            if (codecContext != null) {
+                avcodec_free_context(codecContext);
+            }
+        }
+    }
+
+    private static void appendSamples(FloatPointer outputBuffer, int count, FloatSampleBuffer samples) throws IOException {
+        if (count < 0) {
+            throw new IOException("Error during resampling");
+        }
+        samples.ensureCapacity(samples.size() + count);
+        outputBuffer.position(0).get(samples.array(), samples.size(), count);
+        samples.advance(count);
+    }
+
+    /**
+     * Decodes the first audio stream of an opened input into 16-bit PCM.
+     *
+     * @param formatContext an input opened with {@code avformat_open_input}
+     * @return the decoded PCM audio, with original sample rate and channel count
+     * @throws IOException if decoding fails
+     */
+    private static AudioInputStream decodeToPcm(AVFormatContext formatContext) throws IOException {
+        AVCodecContext codecContext = null;
+        SwrContext swrContext = null;
+        AVFrame frame = null;
+        AVFrame resampledFrame = null;
+        AVPacket packet = null;
+
+        try {
+            int audioStreamIndex = findAudioStream(formatContext);
+            codecContext = openDecoder(formatContext.streams(audioStreamIndex));
+
             // Preserve original sample rate and channels
             int outputSampleRate = codecContext.sample_rate();
             int outputChannels = codecContext.channels();
@@ -135,7 +363,7 @@ public class ByteDecoConverter {
             LOGGER.debug("Input audio: {} Hz, {} channels, format: {}",
                     outputSampleRate, outputChannels, codecContext.sample_fmt());
 
-            // Step 7: Setup resampler to convert to 16-bit PCM (preserve sample rate and channels)
+            // Step 1: Setup resampler to convert to 16-bit PCM (preserve sample rate and channels)
             swrContext = swr_alloc_set_opts(
                     null,
                     av_get_default_channel_layout(outputChannels),   // Output channel layout (preserve)
@@ -151,7 +379,7 @@ public class ByteDecoConverter {
                 throw new IOException("Could not initialize resampler");
             }
 
-            // Step 8: Allocate frames and packet
+            // Step 2: Allocate frames and packet
             frame = av_frame_alloc();
             resampledFrame = av_frame_alloc();
             packet = av_packet_alloc();
@@ -164,7 +392,7 @@ public class ByteDecoConverter {
 
             av_frame_get_buffer(resampledFrame, 0);
 
-            // Step 9: Read and decode all frames
+            // Step 3: Read and decode all frames
             List<short[]> audioData = new ArrayList<>();
             int totalSamples = 0;
 
@@ -187,29 +415,7 @@ public class ByteDecoConverter {
                             throw new IOException("Error during decoding");
                         }
 
-                        // Convert to 16-bit PCM (preserve sample rate and channels)
-                        int outSamples = swr_convert(
-                                swrContext,
-                                resampledFrame.data(),
-                                resampledFrame.nb_samples(),
-                                frame.data(),
-                                frame.nb_samples()
-                        );
-
-                        if (outSamples > 0) {
-                            // Convert to short array (16-bit PCM samples)
-                            BytePointer dataPointer = resampledFrame.data(0);
-                            short[] samples = new short[outSamples];
-                            byte[] bytes = new byte[outSamples * 2];
-                            dataPointer.position(0).get(bytes);
-                            // Use ByteBuffer for proper little-endian conversion
-                            ByteBuffer.wrap(bytes)
-                                    .order(ByteOrder.LITTLE_ENDIAN)
-                                    .asShortBuffer()
-                                    .get(samples);
-                            audioData.add(samples);
-                            totalSamples += outSamples;
-                        }
+                        totalSamples += convertFrame(swrContext, frame, resampledFrame, outputChannels, audioData);
 
                         av_frame_unref(frame);
                     }
@@ -220,34 +426,14 @@ public class ByteDecoConverter {
             // Flush decoder
             avcodec_send_packet(codecContext, null);
             while (avcodec_receive_frame(codecContext, frame) >= 0) {
-                int outSamples = swr_convert(
-                        swrContext,
-                        resampledFrame.data(),
-                        resampledFrame.nb_samples(),
-                        frame.data(),
-                        frame.nb_samples()
-                );
-
-                if (outSamples > 0) {
-                    BytePointer dataPointer = resampledFrame.data(0);
-                    short[] samples = new short[outSamples];
-                    byte[] bytes = new byte[outSamples * 2];
-                    dataPointer.position(0).get(bytes);
-                    // Use ByteBuffer for proper little-endian conversion
-                    ByteBuffer.wrap(bytes)
-                            .order(ByteOrder.LITTLE_ENDIAN)
-                            .asShortBuffer()
-                            .get(samples);
-                    audioData.add(samples);
-                    totalSamples += outSamples;
-                }
+                totalSamples += convertFrame(swrContext, frame, resampledFrame, outputChannels, audioData);
 
                 av_frame_unref(frame);
             }
 
             LOGGER.debug("Decoded {} total samples", totalSamples);
 
-            // Step 10: Combine all audio data
+            // Step 4: Combine all audio data
             short[] allSamples = new short[totalSamples];
             int offset = 0;
             for (short[] chunk : audioData) {
@@ -255,14 +441,13 @@ public class ByteDecoConverter {
                 offset += chunk.length;
             }
 
-            // Step 11: Convert to bytes (little-endian)
+            // Step 5: Convert to bytes (little-endian)
             byte[] audioBytes = new byte[allSamples.length * 2];
             ByteBuffer.wrap(audioBytes)
                     .order(ByteOrder.LITTLE_ENDIAN)
                     .asShortBuffer()
                     .put(allSamples);
 
-            // Step 12: Write WAV file using Java Sound API (preserves original sample rate and channels)
             AudioFormat audioFormat = new AudioFormat(
                     outputSampleRate,        // Sample rate (preserved from source)
                     16,                      // Sample size in bits
@@ -271,21 +456,14 @@ public class ByteDecoConverter {
                     false                    // Little-endian
             );
 
-            try (AudioInputStream audioInputStream = new AudioInputStream(
+            return new AudioInputStream(
                     new ByteArrayInputStream(audioBytes),
                     audioFormat,
-                    allSamples.length
-            )) {
-                AudioSystem.write(audioInputStream, AudioFileFormat.Type.WAVE, new File(outputPath));
-            }
-
-            LOGGER.debug("Successfully converted {} to WAV: {} Hz, {} channels",
-                    inputPath, outputSampleRate, outputChannels);
+                    allSamples.length / outputChannels
+            );
 
-        } catch (Exception e) {
-            throw new IOException("Failed to convert audio file using ByteDeco FFmpeg: " + e.getMessage(), e);
         } finally {
-            // Step 13: Clean up all resources
+            // Step 6: Clean up all resources
             if (packet != null) {
                 av_packet_free(packet);
             }
@@ -301,9 +479,140 @@ public class ByteDecoConverter {
             if (codecContext != null) {
                 avcodec_free_context(codecContext);
             }
-            if (formatContext != null) {
-                avformat_close_input(formatContext);
+        }
+    }
+
+    private static int findAudioStream(AVFormatContext formatContext) throws IOException {
+        if (avformat_find_stream_info(formatContext, (PointerPointer<?>) null) < 0) {
+            throw new IOException("Could not find stream information");
+        }
+
+        for (int i = 0; i < formatContext.nb_streams(); i++) {
+            if (formatContext.streams(i).codecpar().codec_type() == AVMEDIA_TYPE_AUDIO) {
+                return i;
             }
         }
+        throw new IOException("Could not find audio stream in file");
+    }
+
+    private static AVCodecContext openDecoder(AVStream audioStream) throws IOException {
+        AVCodec codec = avcodec_find_decoder(audioStream.codecpar().codec_id());
+        if (codec == null) {
+            throw new IOException("Unsupported audio codec");
+        }
+
+        AVCodecContext codecContext = avcodec_alloc_context3(codec);
+        if (avcodec_parameters_to_context(codecContext, audioStream.codecpar()) < 0) {
+            avcodec_free_context(codecContext);
+            throw new IOException("Could not copy codec parameters to context");
+        }
+
+        if (avcodec_open2(codecContext, codec, (PointerPointer<?>) null) < 0) {
+            avcodec_free_context(codecContext);
+            throw new IOException("Could not open codec");
+        }
+        return codecContext;
+    }
+
+    /**
+     * Converts a decoded frame to interleaved 16-bit PCM and appends it to {@code audioData}.
+     *
+     * @return number of 16-bit samples appended, across all channels
+     */
+    private static int convertFrame(SwrContext swrContext, AVFrame frame, AVFrame resampledFrame,
+                                    int channels, List<short[]> audioData) {
+        int outSamples = swr_convert(
+                swrContext,
+                resampledFrame.data(),
+                resampledFrame.nb_samples(),
+                frame.data(),
+                frame.nb_samples()
+        );
+
+        if (outSamples <= 0) {
+            return 0;
+        }
+
+        // Samples are interleaved, so each output sample holds one value per channel
+        int sampleCount = outSamples * channels;
+        BytePointer dataPointer = resampledFrame.data(0);
+        short[] samples = new short[sampleCount];
+        byte[] bytes = new byte[sampleCount * 2];
+        dataPointer.position(0).get(bytes);
+        // Use ByteBuffer for proper little-endian conversion
+        ByteBuffer.wrap(bytes)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asShortBuffer()
+                .get(samples);
+        audioData.add(samples);
+        return sampleCount;
+    }
+
+    @FunctionalInterface
+    private interface InputDecoder<T> {
+        T decode(AVFormatContext formatContext) throws IOException;
+    }
+
+    /**
+     * Seekable in-memory source backing a custom AVIO context.
+     */
+    private static final class InMemoryInput {
+        private final byte[] data;
+        private int position;
+
+        InMemoryInput(byte[] data) {
+            this.data = data;
+        }
+
+        int read(BytePointer buffer, int bufferSize) {
+            if (position >= data.length) {
+                return AVERROR_EOF;
+            }
+            int count = Math.min(bufferSize, data.length - position);
+            buffer.position(0).put(data, position, count);
+            position += count;
+            return count;
+        }
+
+        long seek(long offset, int whence) {
+            if ((whence & AVSEEK_SIZE) != 0) {
+                return data.length;
+            }
+            long target;
+            switch (whence & ~AVSEEK_FORCE) {
+                case 0: // SEEK_SET
+                    target = offset;
+                    break;
+                case 1: // SEEK_CUR
+                    target = position + offset;
+                    break;
+                case 2: // SEEK_END
+                    target = data.length + offset;
+                    break;
+                default:
+                    return -1;
+            }
+            if (target < 0 || target > data.length) {
+                return -1;
+            }
+            position = (int) target;
+            return target;
+        }
+    }
+
+    private static class ReadCallback extends Read_packet_Pointer_BytePointer_int {
+        @Override
+        public int call(Pointer opaque, BytePointer buffer, int bufferSize) {
+            InMemoryInput input = IN_MEMORY_INPUTS.get(opaque.address());
+            return input != null ? input.read(buffer, bufferSize) : AVERROR_EOF;
+        }
+    }
+
+    private static class SeekCallback extends Seek_Pointer_long_int {
+        @Override
+        public long call(Pointer opaque, long offset, int whence) {
+            InMemoryInput input = IN_MEMORY_INPUTS.get(opaque.address());
+            return input != null ? input.seek(offset, whence) : -1;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,129 @@
+package org.mule.extension.whisperer.internal.helpers.audio;
+
+import java.util.Arrays;
+
+/**
+ * Growable primitive buffer of float audio samples.
+ *
+ * <p>Decoders append samples straight into the backing array, which can then be handed to
+ * {@code WhisperJNI.full(..., samples, numSamples)} together with {@link #size()} without a trimming copy.
+ */
+public class FloatSampleBuffer {
+
+    /** Thirty seconds of 16kHz audio, the length of a single Whisper window. */
+    public static final int DEFAULT_CAPACITY = AudioDecoder.WHISPER_SAMPLE_RATE * 30;
+
+    private float[] samples;
+    private int size;
+
+    public FloatSampleBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public FloatSampleBuffer(int initialCapacity) {
+        this.samples = new float[Math.max(initialCapacity, 0)];
+    }
+
+    /**
+     * Wraps an existing array of samples without copying it.
+     *
+     * @param samples the samples
+     * @return a buffer backed by {@code samples}
+     */
+    public static FloatSampleBuffer wrap(float[] samples) {
+        FloatSampleBuffer buffer = new FloatSampleBuffer(0);
+        buffer.samples = samples;
+        buffer.size = samples.length;
+        return buffer;
+    }
+
+    /**
+     * Appends a single sample.
+     *
+     * @param sample the sample to append
+     */
+    public void append(float sample) {
+        if (size == samples.length) {
+            grow(size + 1);
+        }
+        samples[size++] = sample;
+    }
+
+    /**
+     * Appends a range of samples.
+     *
+     * @param source the source array
+     * @param offset the first sample to copy
+     * @param length number of samples to copy
+     */
+    public void append(float[] source, int offset, int length) {
+        ensureCapacity(size + length);
+        System.arraycopy(source, offset, samples, size, length);
+        size += length;
+    }
+
+    /**
+     * Makes sure the backing array can hold at least {@code minCapacity} samples so callers can write
+     * directly into {@link #array()} starting at {@link #size()} and then call {@link #advance(int)}.
+     *
+     * @param minCapacity the minimum capacity required
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > samples.length) {
+            grow(minCapacity);
+        }
+    }
+
+    /**
+     * Marks {@code count} samples, written directly into {@link #array()}, as valid.
+     *
+     * @param count number of samples written after the current size
+     */
+    public void advance(int count) {
+        if (count < 0 || size + count > samples.length) {
+            throw new IndexOutOfBoundsException("Cannot advance " + count + " samples past capacity " + samples.length);
+        }
+        size += count;
+    }
+
+    /**
+     * @return the backing array; only the first {@link #size()} samples are valid
+     */
+    public float[] array() {
+        return samples;
+    }
+
+    /**
+     * @return number of valid samples in the buffer
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return duration of the buffered audio in milliseconds, assuming 16kHz samples
+     */
+    public long durationMillis() {
+        return size * 1000L / AudioDecoder.WHISPER_SAMPLE_RATE;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return a copy of the valid samples, sized exactly to {@link #size()}
+     */
+    public float[] toArray() {
+        return Arrays.copyOf(samples, size);
+    }
+
+    private void grow(int minCapacity) {
+        // Grow by 50% like ArrayList, but never less than requested
+        int newCapacity = Math.max(minCapacity, samples.length + (samples.length >> 1));
+        if (newCapacity < 0) {
+            throw new OutOfMemoryError("Audio sample buffer too large");
+        }
+        samples = Arrays.copyOf(samples, newCapacity);
+    }
+}
@@ -0,0 +1,83 @@
+package org.mule.extension.whisperer.internal.helpers.audio;
+
+import javazoom.jl.decoder.Bitstream;
+import javazoom.jl.decoder.Decoder;
+import javazoom.jl.decoder.Header;
+import javazoom.jl.decoder.JavaLayerException;
+import javazoom.jl.decoder.SampleBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streaming MP3 decoder producing 16kHz mono float samples.
+ *
+ * <p>Frames are decoded one at a time by JLayer, which reuses a single {@link SampleBuffer} for its output.
+ * Each frame is downmixed and resampled on the fly by a {@link PolyphaseResampler} into a {@link FloatSampleBuffer},
+ * so the only allocation that grows with the input is the output buffer itself.
+ */
+class Mp3StreamDecoder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Mp3StreamDecoder.class);
+
+    /** Typical MP3 bitrate used to presize the output buffer from the input size: 128 kbit/s. */
+    private static final int TYPICAL_BYTES_PER_SECOND = 16000;
+
+    private Mp3StreamDecoder() {
+    }
+
+    /**
+     * Decodes an MP3 stream into 16kHz mono float samples in the range [-1.0, 1.0].
+     *
+     * @param mp3Stream the MP3 encoded stream
+     * @param expectedBytes size of the stream if known, or a negative value; only used to presize the output
+     * @return buffer holding the decoded samples
+     * @throws IOException if the stream cannot be read or decoded
+     */
+    static FloatSampleBuffer decodeToMono16kHz(InputStream mp3Stream, long expectedBytes) throws IOException {
+        Bitstream bitstream = new Bitstream(mp3Stream);
+        Decoder decoder = new Decoder();
+
+        long expectedSamples = expectedBytes / TYPICAL_BYTES_PER_SECOND * AudioDecoder.WHISPER_SAMPLE_RATE;
+        FloatSampleBuffer samples = expectedBytes > 0 && expectedSamples < Integer.MAX_VALUE
+            ? new FloatSampleBuffer((int) expectedSamples)
+            : new FloatSampleBuffer();
+
+        PolyphaseResampler resampler = null;
+
+        try {
+            Header header;
+            while ((header = bitstream.readFrame()) != null) {
+                SampleBuffer output = (SampleBuffer) decoder.decodeFrame(header, bitstream);
+
+                if (resampler == null) {
+                    LOGGER.debug("Input MP3 audio: {} Hz, {} channels", output.getSampleFrequency(), output.getChannelCount());
+                    resampler = PolyphaseResampler.create(output.getSampleFrequency(), AudioDecoder.WHISPER_SAMPLE_RATE);
+                }
+
+                int channels = output.getChannelCount();
+                resampler.process(output.getBuffer(), 0, output.getBufferLength() / channels, channels, samples);
+
+                bitstream.closeFrame();
+            }
+        } catch (JavaLayerException e) {
+            throw new IOException("Unable to decode MP3 stream", e);
+        } finally {
+            try {
+                bitstream.close();
+            } catch (JavaLayerException e) {
+                LOGGER.debug("Unable to close MP3 bitstream", e);
+            }
+        }
+
+        if (resampler == null) {
+            throw new IOException("No MP3 frames found in stream");
+        }
+        resampler.flush(samples);
+
+        LOGGER.debug("Decoded {} samples ({} ms) of 16kHz mono audio", samples.size(), samples.durationMillis());
+        return samples;
+    }
+}
@@ -0,0 +1,369 @@
+package org.mule.extension.whisperer.internal.helpers.audio;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streaming polyphase resampler producing mono float samples, with channel downmixing folded into the same pass.
+ *
+ * <p>The rate change is expressed as an exact rational ratio L/M (e.g. 160/441 for 44.1kHz to 16kHz). Each output
+ * sample is a dot product of the surrounding input samples with one of L phases of a Kaiser-windowed sinc low-pass
+ * filter, whose cutoff sits just below the lower of the two Nyquist frequencies so downsampling does not alias.
+ * Filter banks only depend on the rate pair; those of the common rates are computed once and shared by all resamplers.
+ * Uncommon rates can need thousands of phases (a prime rate needs one per output sample of a second), so their ratio is
+ * approximated closely enough to keep the filter within {@link #MAX_COEFFICIENTS}, and the bank is not cached.
+ *
+ * <p>Input can be fed in blocks of any size; the resampler keeps just enough history between blocks for the filter,
+ * so streaming a signal block by block produces exactly the same output as resampling it in one go. Call
+ * {@link #flush(FloatSampleBuffer)} after the last block to emit the tail. Instances are not thread safe.
+ */
+final class PolyphaseResampler {
+
+    /** Zero crossings of the sinc on each side of the filter center; trades steepness for taps. */
+    private static final int ZERO_CROSSINGS = 16;
+
+    /** Kaiser window shape, giving roughly 80 dB stop-band attenuation. */
+    private static final double KAISER_BETA = 8.0;
+
+    /** Cutoff as a fraction of the lower Nyquist frequency, leaving room for the transition band. */
+    private static final double ROLLOFF = 0.94;
+
+    /** Upper bound on the coefficients of one filter bank (1 MB of floats); all common rate pairs fit well below it. */
+    static final int MAX_COEFFICIENTS = 1 << 18;
+
+    /** Rates whose filter banks are cached; any other rate comes from an untrusted header and gets its own bank. */
+    private static final Set<Integer> COMMON_RATES = Set.of(8000, 11025, 16000, 22050, 32000, 44100, 48000, 96000);
+
+    private static final Map<Long, FilterBank> FILTER_BANKS = new ConcurrentHashMap<>();
+
+    private final FilterBank bank;
+
+    // Mono input samples still needed by the filter; history[0] is the input sample at index historyStart
+    private float[] history;
+    private int historySize;
+    private long historyStart;
+
+    private long inputCount;
+    private long outputCount;
+
+    private PolyphaseResampler(FilterBank bank) {
+        this.bank = bank;
+        reset();
+    }
+
+    /**
+     * Creates a resampler between two sample rates.
+     *
+     * @param inputRate rate of the input signal in Hz
+     * @param outputRate rate of the output signal in Hz
+     * @return a new resampler, sharing the cached filter bank if both rates are common ones
+     */
+    static PolyphaseResampler create(int inputRate, int outputRate) {
+        if (inputRate <= 0 || outputRate <= 0) {
+            throw new IllegalArgumentException("Invalid resampling rates: " + inputRate + " Hz to " + outputRate + " Hz");
+        }
+        int divisor = gcd(inputRate, outputRate);
+        int up = outputRate / divisor;
+        int down = inputRate / divisor;
+        if (COMMON_RATES.contains(inputRate) && COMMON_RATES.contains(outputRate)) {
+            return new PolyphaseResampler(FILTER_BANKS.computeIfAbsent(((long) up << 32) | down,
+                                                                       key -> new FilterBank(up, down)));
+        }
+
+        int taps = 2 * FilterBank.halfTaps(up, down);
+        if (taps > MAX_COEFFICIENTS) {
+            throw new IllegalArgumentException("Unsupported resampling rates: " + inputRate + " Hz to " + outputRate + " Hz");
+        }
+        int maxUp = MAX_COEFFICIENTS / taps;
+        if (up <= maxUp) {
+            return new PolyphaseResampler(new FilterBank(up, down));
+        }
+        // Off by at most half an input sample per maxUp outputs, far below anything audible
+        int approximateDown = (int) Math.max(1, Math.round((double) inputRate * maxUp / outputRate));
+        int approximateDivisor = gcd(maxUp, approximateDown);
+        return new PolyphaseResampler(new FilterBank(maxUp / approximateDivisor, approximateDown / approximateDivisor));
+    }
+
+    /**
+     * Downmixes and resamples interleaved float samples in one go.
+     *
+     * @param interleaved interleaved samples in the range [-1.0, 1.0]
+     * @param frames number of frames (samples per channel)
+     * @param channels number of interleaved channels
+     * @param inputRate rate of the input signal in Hz
+     * @return 16kHz mono samples
+     */
+    static FloatSampleBuffer resampleToMono16kHz(float[] interleaved, int frames, int channels, int inputRate) {
+        PolyphaseResampler resampler = create(inputRate, AudioDecoder.WHISPER_SAMPLE_RATE);
+        FloatSampleBuffer output = new FloatSampleBuffer((int) ((long) frames * resampler.bank.up / resampler.bank.down) + 1);
+        resampler.process(interleaved, 0, frames, channels, output);
+        resampler.flush(output);
+        return output;
+    }
+
+    /**
+     * Downmixes and resamples a block of interleaved float samples, appending the result to {@code output}.
+     */
+    void process(float[] interleaved, int offset, int frames, int channels, FloatSampleBuffer output) {
+        float[] target = reserve(frames, output);
+        int at = writeIndex(output);
+        if (channels == 1) {
+            System.arraycopy(interleaved, offset, target, at, frames);
+        } else {
+            float scale = 1f / channels;
+            for (int i = 0, in = offset; i < frames; i++) {
+                float sum = 0;
+                for (int c = 0; c < channels; c++) {
+                    sum += interleaved[in++];
+                }
+                target[at + i] = sum * scale;
+            }
+        }
+        commit(frames, output);
+    }
+
+    /**
+     * Downmixes and resamples a block of interleaved 16-bit samples, appending the result to {@code output}.
+     */
+    void process(short[] interleaved, int offset, int frames, int channels, FloatSampleBuffer output) {
+        float[] target = reserve(frames, output);
+        int at = writeIndex(output);
+        float scale = 1f / (32768f * channels);
+        for (int i = 0, in = offset; i < frames; i++) {
+            int sum = 0;
+            for (int c = 0; c < channels; c++) {
+                sum += interleaved[in++];
+            }
+            target[at + i] = sum * scale;
+        }
+        commit(frames, output);
+    }
+
+    /**
+     * Downmixes and resamples a block of interleaved 16-bit signed little-endian PCM bytes, appending the result
+     * to {@code output}.
+     */
+    void processPcm16(byte[] pcm, int offset, int frames, int channels, FloatSampleBuffer output) {
+        float[] target = reserve(frames, output);
+        int at = writeIndex(output);
+        float scale = 1f / (32768f * channels);
+        for (int i = 0, in = offset; i < frames; i++) {
+            int sum = 0;
+            for (int c = 0; c < channels; c++, in += 2) {
+                sum += (short) ((pcm[in] & 0xff) | (pcm[in + 1] << 8));
+            }
+            target[at + i] = sum * scale;
+        }
+        commit(frames, output);
+    }
+
+    /**
+     * Emits the samples still held back by the filter and resets the resampler for a new signal.
+     * The total output length is {@code ceil(inputSamples * outputRate / inputRate)}.
+     */
+    void flush(FloatSampleBuffer output) {
+        if (!bank.isPassThrough()) {
+            // The signal is zero past its end; pad just enough for the filter to reach the last output
+            long expected = (inputCount * bank.up + bank.down - 1) / bank.down;
+            ensureHistoryCapacity(historySize + bank.halfTaps);
+            Arrays.fill(history, historySize, historySize + bank.halfTaps, 0f);
+            historySize += bank.halfTaps;
+            produce(output, bank.halfTaps, expected);
+        }
+        reset();
+    }
+
+    /**
+     * @return number of filter coefficients this resampler uses
+     */
+    int filterSize() {
+        return bank.coefficients.length;
+    }
+
+    private float[] reserve(int frames, FloatSampleBuffer output) {
+        if (bank.isPassThrough()) {
+            output.ensureCapacity(output.size() + frames);
+            return output.array();
+        }
+        ensureHistoryCapacity(historySize + frames);
+        return history;
+    }
+
+    private int writeIndex(FloatSampleBuffer output) {
+        return bank.isPassThrough() ? output.size() : historySize;
+    }
+
+    private void commit(int frames, FloatSampleBuffer output) {
+        if (bank.isPassThrough()) {
+            output.advance(frames);
+            return;
+        }
+        historySize += frames;
+        inputCount += frames;
+        produce(output, frames, Long.MAX_VALUE);
+    }
+
+    private void produce(FloatSampleBuffer output, int newInputs, long limit) {
+        int up = bank.up;
+        int down = bank.down;
+        int taps = bank.taps;
+        float[] coefficients = bank.coefficients;
+        long lastAvailable = historyStart + historySize - 1;
+
+        output.ensureCapacity(output.size() + (int) ((long) newInputs * up / down) + 2);
+        float[] target = output.array();
+        int written = output.size();
+
+        while (outputCount < limit) {
+            long position = outputCount * down;
+            long center = position / up;
+            if (center + bank.halfTaps > lastAvailable) {
+                break;
+            }
+            int phaseOffset = (int) (position % up) * taps;
+            int base = (int) (center + 1 - bank.halfTaps - historyStart);
+
+            float sum = 0;
+            for (int k = 0; k < taps; k++) {
+                sum += coefficients[phaseOffset + k] * history[base + k];
+            }
+            target[written++] = sum;
+            outputCount++;
+        }
+        output.advance(written - output.size());
+
+        // Drop the input samples no later output needs
+        long firstNeeded = (outputCount * down) / up + 1 - bank.halfTaps;
+        int discard = (int) Math.min(firstNeeded - historyStart, historySize);
+        if (discard > 0) {
+            System.arraycopy(history, discard, history, 0, historySize - discard);
+            historySize -= discard;
+            historyStart += discard;
+        }
+    }
+
+    private void ensureHistoryCapacity(int minCapacity) {
+        if (minCapacity > history.length) {
+            history = Arrays.copyOf(history, Math.max(minCapacity, history.length * 2));
+        }
+    }
+
+    private void reset() {
+        inputCount = 0;
+        outputCount = 0;
+        if (bank.isPassThrough()) {
+            history = new float[0];
+            historySize = 0;
+            historyStart = 0;
+        } else {
+            // The signal is zero before its start: the first output needs halfTaps - 1 samples of past input
+            int padding = bank.halfTaps - 1;
+            if (history == null) {
+                history = new float[padding + AudioDecoder.WHISPER_SAMPLE_RATE];
+            }
+            Arrays.fill(history, 0, padding, 0f);
+            historySize = padding;
+            historyStart = -padding;
+        }
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * Polyphase decomposition of a windowed-sinc low-pass filter for an L/M rate change.
+     * Phase p holds the taps used for outputs falling p/L of an input sample after the latest input they center on.
+     */
+    private static final class FilterBank {
+
+        private final int up;
+        private final int down;
+        private final int halfTaps;
+        private final int taps;
+        private final float[] coefficients;
+
+        private FilterBank(int up, int down) {
+            this.up = up;
+            this.down = down;
+
+            if (isPassThrough()) {
+                this.halfTaps = 0;
+                this.taps = 0;
+                this.coefficients = new float[0];
+                return;
+            }
+
+            double cutoff = cutoff(up, down);
+            double halfWidth = ZERO_CROSSINGS / (2 * cutoff);
+            this.halfTaps = halfTaps(up, down);
+            this.taps = 2 * halfTaps;
+            this.coefficients = new float[up * taps];
+
+            double kaiserNorm = besselI0(KAISER_BETA);
+            for (int phase = 0; phase < up; phase++) {
+                double sum = 0;
+                double[] phaseTaps = new double[taps];
+                for (int k = 0; k < taps; k++) {
+                    // Distance from the output instant to the input sample this tap is applied to
+                    double t = (double) phase / up + halfTaps - 1 - k;
+                    double value = 0;
+                    if (Math.abs(t) < halfWidth) {
+                        double ratio = t / halfWidth;
+                        double window = besselI0(KAISER_BETA * Math.sqrt(1 - ratio * ratio)) / kaiserNorm;
+                        value = 2 * cutoff * sinc(2 * cutoff * t) * window;
+                    }
+                    phaseTaps[k] = value;
+                    sum += value;
+                }
+                // Normalize each phase to unity DC gain so constant signals stay constant
+                for (int k = 0; k < taps; k++) {
+                    coefficients[phase * taps + k] = (float) (phaseTaps[k] / sum);
+                }
+            }
+        }
+
+        private boolean isPassThrough() {
+            return up == down;
+        }
+
+        /** Cutoff in cycles per input sample. */
+        private static double cutoff(int up, int down) {
+            return 0.5 * Math.min(1.0, (double) up / down) * ROLLOFF;
+        }
+
+        private static int halfTaps(int up, int down) {
+            return (int) Math.ceil(ZERO_CROSSINGS / (2 * cutoff(up, down)));
+        }
+
+        private static double sinc(double x) {
+            if (x == 0) {
+                return 1;
+            }
+            double pix = Math.PI * x;
+            return Math.sin(pix) / pix;
+        }
+
+        private static double besselI0(double x) {
+            // Power series, converges quickly for the small arguments used by the window
+            double sum = 1;
+            double term = 1;
+            double halfX = x / 2;
+            for (int k = 1; k < 50; k++) {
+                term *= (halfX / k) * (halfX / k);
+                sum += term;
+                if (term < sum * 1e-12) {
+                    break;
+                }
+            }
+            return sum;
+        }
+    }
+}
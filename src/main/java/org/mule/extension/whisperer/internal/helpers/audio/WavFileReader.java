@@ -0,0 +1,249 @@
+package org.mule.extension.whisperer.internal.helpers.audio;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * WAV reader that parses the RIFF chunks itself and memory-maps the {@code data} chunk.
+ *
+ * <p>Samples are converted from the mapped file in blocks, without reading the file into the heap first.
+ * 16kHz mono input, the format Whisper expects, goes from the mapped file to float samples in a single pass;
+ * anything else is downmixed and resampled by {@link PolyphaseResampler} on the way.
+ *
+ * <p>Supports 16-bit and 24-bit integer PCM and 32-bit float, including WAVE_FORMAT_EXTENSIBLE headers.
+ * Other encodings are rejected with {@link UnsupportedAudioFileException} so callers can fall back to Java Sound.
+ */
+class WavFileReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WavFileReader.class);
+
+    private static final int WAVE_FORMAT_PCM = 0x0001;
+    private static final int WAVE_FORMAT_IEEE_FLOAT = 0x0003;
+    private static final int WAVE_FORMAT_EXTENSIBLE = 0xFFFE;
+
+    /** Frames converted per block when resampling. */
+    private static final int BLOCK_FRAMES = 8192;
+
+    /** Largest region mapped at once; the data chunk is mapped in windows of at most this size. */
+    private static final long MAX_MAPPING_SIZE = 256L * 1024 * 1024;
+
+    private static final int RIFF_HEADER_SIZE = 12;
+    private static final int CHUNK_HEADER_SIZE = 8;
+
+    private WavFileReader() {
+    }
+
+    /**
+     * Reads a WAV file into 16kHz mono float samples in the range [-1.0, 1.0].
+     *
+     * @param wavFile the WAV file
+     * @return buffer holding the samples
+     * @throws UnsupportedAudioFileException if the file is not a WAV file or uses an unsupported encoding
+     * @throws IOException if the file cannot be read
+     */
+    static FloatSampleBuffer read(Path wavFile) throws UnsupportedAudioFileException, IOException {
+        try (FileChannel channel = FileChannel.open(wavFile, StandardOpenOption.READ)) {
+            WavFormat format = parseHeader(channel);
+
+            long frames = format.dataSize / format.blockAlign;
+            LOGGER.debug("Reading WAV file {}: {} Hz, {} channels, {}-bit {}, {} frames", wavFile, format.sampleRate,
+                         format.channels, format.bitsPerSample, format.isFloat ? "float" : "PCM", frames);
+
+            boolean direct = format.sampleRate == AudioDecoder.WHISPER_SAMPLE_RATE && format.channels == 1;
+            long expectedSamples = frames * AudioDecoder.WHISPER_SAMPLE_RATE / format.sampleRate + 1;
+            if (expectedSamples > Integer.MAX_VALUE) {
+                throw new IOException("WAV file too long to transcribe: " + wavFile);
+            }
+            // Exact size for the direct path, so the backing array needs no trimming copy
+            FloatSampleBuffer samples = new FloatSampleBuffer((int) (direct ? frames : expectedSamples));
+            PolyphaseResampler resampler = direct ? null
+                : PolyphaseResampler.create(format.sampleRate, AudioDecoder.WHISPER_SAMPLE_RATE);
+            float[] block = direct ? null : new float[BLOCK_FRAMES * format.channels];
+
+            // Map whole frames only, so no frame straddles two windows
+            long windowSize = MAX_MAPPING_SIZE - MAX_MAPPING_SIZE % format.blockAlign;
+            for (long offset = 0; offset < frames * format.blockAlign; offset += windowSize) {
+                long size = Math.min(windowSize, frames * format.blockAlign - offset);
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, format.dataOffset + offset, size);
+                mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+                if (direct) {
+                    convertDirect(mapped, format, samples);
+                } else {
+                    convertResampled(mapped, format, block, resampler, samples);
+                }
+            }
+
+            if (resampler != null) {
+                resampler.flush(samples);
+            }
+
+            LOGGER.debug("Decoded {} samples ({} ms) of 16kHz mono audio", samples.size(), samples.durationMillis());
+            return samples;
+        }
+    }
+
+    /**
+     * Converts 16kHz mono samples straight from the mapped file into the output array.
+     */
+    private static void convertDirect(ByteBuffer data, WavFormat format, FloatSampleBuffer samples) {
+        int count = data.remaining() / format.blockAlign;
+        samples.ensureCapacity(samples.size() + count);
+        float[] target = samples.array();
+        int offset = samples.size();
+
+        if (format.isFloat) {
+            data.asFloatBuffer().get(target, offset, count);
+        } else if (format.bitsPerSample == 16) {
+            for (int i = 0; i < count; i++) {
+                target[offset + i] = data.getShort() / 32768f;
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                target[offset + i] = readPcm24(data) / 8388608f;
+            }
+        }
+        samples.advance(count);
+    }
+
+    /**
+     * Converts blocks of interleaved samples from the mapped file and feeds them to the resampler.
+     */
+    private static void convertResampled(ByteBuffer data, WavFormat format, float[] block,
+                                         PolyphaseResampler resampler, FloatSampleBuffer samples) {
+        int channels = format.channels;
+        while (data.hasRemaining()) {
+            int frames = Math.min(BLOCK_FRAMES, data.remaining() / format.blockAlign);
+            int count = frames * channels;
+
+            if (format.isFloat) {
+                data.asFloatBuffer().get(block, 0, count);
+                data.position(data.position() + count * 4);
+            } else if (format.bitsPerSample == 16) {
+                for (int i = 0; i < count; i++) {
+                    block[i] = data.getShort() / 32768f;
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    block[i] = readPcm24(data) / 8388608f;
+                }
+            }
+            resampler.process(block, 0, frames, channels, samples);
+        }
+    }
+
+    private static int readPcm24(ByteBuffer data) {
+        // Little-endian, sign-extended from the top byte
+        return (data.get() & 0xff) | ((data.get() & 0xff) << 8) | (data.get() << 16);
+    }
+
+    /**
+     * Walks the RIFF chunks up to the {@code data} chunk.
+     */
+    private static WavFormat parseHeader(FileChannel channel) throws UnsupportedAudioFileException, IOException {
+        long fileSize = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(RIFF_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        if (readFully(channel, header, 0) < RIFF_HEADER_SIZE
+            || !"RIFF".equals(fourCC(header, 0)) || !"WAVE".equals(fourCC(header, 8))) {
+            throw new UnsupportedAudioFileException("Not a RIFF/WAVE file");
+        }
+
+        WavFormat format = null;
+        ByteBuffer chunkHeader = ByteBuffer.allocate(CHUNK_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        long position = RIFF_HEADER_SIZE;
+        while (position + CHUNK_HEADER_SIZE <= fileSize) {
+            chunkHeader.clear();
+            readFully(channel, chunkHeader, position);
+            String id = fourCC(chunkHeader, 0);
+            long size = chunkHeader.getInt(4) & 0xFFFFFFFFL;
+            long body = position + CHUNK_HEADER_SIZE;
+
+            if ("fmt ".equals(id)) {
+                format = parseFormat(channel, body, size);
+            } else if ("data".equals(id)) {
+                if (format == null) {
+                    throw new UnsupportedAudioFileException("WAV data chunk found before fmt chunk");
+                }
+                // Streaming writers may leave the size unset or too large; never read past the end of the file
+                format.dataOffset = body;
+                format.dataSize = Math.min(size, fileSize - body);
+                return format;
+            }
+
+            // Chunks are padded to an even size
+            position = body + size + (size & 1);
+        }
+        throw new UnsupportedAudioFileException("WAV file has no data chunk");
+    }
+
+    private static WavFormat parseFormat(FileChannel channel, long position, long size)
+        throws UnsupportedAudioFileException, IOException {
+        if (size < 16) {
+            throw new UnsupportedAudioFileException("Invalid WAV fmt chunk");
+        }
+        ByteBuffer fmt = ByteBuffer.allocate((int) Math.min(size, 40)).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, fmt, position);
+
+        int formatTag = fmt.getShort(0) & 0xFFFF;
+        if (formatTag == WAVE_FORMAT_EXTENSIBLE && fmt.limit() >= 26) {
+            // The actual format is the first two bytes of the sub-format GUID
+            formatTag = fmt.getShort(24) & 0xFFFF;
+        }
+
+        WavFormat format = new WavFormat();
+        format.channels = fmt.getShort(2) & 0xFFFF;
+        format.sampleRate = fmt.getInt(4);
+        format.blockAlign = fmt.getShort(12) & 0xFFFF;
+        format.bitsPerSample = fmt.getShort(14) & 0xFFFF;
+        format.isFloat = formatTag == WAVE_FORMAT_IEEE_FLOAT;
+
+        boolean supported = (formatTag == WAVE_FORMAT_PCM && (format.bitsPerSample == 16 || format.bitsPerSample == 24))
+            || (format.isFloat && format.bitsPerSample == 32);
+        if (!supported || format.channels == 0 || format.sampleRate <= 0
+            || format.blockAlign != format.channels * format.bitsPerSample / 8) {
+            throw new UnsupportedAudioFileException("Unsupported WAV encoding: format " + formatTag + ", "
+                                                    + format.bitsPerSample + "-bit, " + format.channels + " channels");
+        }
+        return format;
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        buffer.flip();
+        return total;
+    }
+
+    private static String fourCC(ByteBuffer buffer, int offset) {
+        char[] chars = new char[4];
+        for (int i = 0; i < 4; i++) {
+            chars[i] = (char) (buffer.get(offset + i) & 0xff);
+        }
+        return new String(chars);
+    }
+
+    private static class WavFormat {
+        private int channels;
+        private int sampleRate;
+        private int blockAlign;
+        private int bitsPerSample;
+        private boolean isFloat;
+        private long dataOffset;
+        private long dataSize;
+    }
+}
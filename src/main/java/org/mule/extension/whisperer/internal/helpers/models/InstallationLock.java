@@ -0,0 +1,196 @@
+package org.mule.extension.whisperer.internal.helpers.models;
+
+import org.mule.extension.whisperer.internal.helpers.system.JvmClaims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exclusive lock on the installation of a file or directory, held across processes through a file lock on a
+ * {@code <target>.lock} sidecar file.
+ *
+ * <p>Several Mule applications, in one JVM or in several, may install the same model or native libraries into the
+ * same path. Holding this lock around the check and the installation makes sure only one of them does the work; the
+ * others wait and then find it done, see {@link InstallationMarker}. The lock file is never deleted, since deleting it
+ * while another process waits on it would let a third process lock a new file at the same path.
+ *
+ * <p>File locks belong to the process, and closing any channel on a file releases every lock the process holds on
+ * it, whichever application opened the channel. Installers of one JVM therefore first take turns through a
+ * {@link JvmClaims claim} on the lock file, which every copy of the connector sees, and only the holder of the claim
+ * ever opens the lock file: it polls {@link FileChannel#tryLock()} until other processes are done, and closes its
+ * channel only once it no longer needs the lock. A waiter giving up, for example because its application is
+ * undeployed, never touches the file another installer holds.
+ *
+ * <p>Waiting gives up with an {@link IOException} once the installation in progress shows no sign of life for the
+ * given timeout: any change of size or modification time among the files next to the target counts as progress, so
+ * a slow download is waited for while a stuck one is not.
+ */
+public final class InstallationLock implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstallationLock.class);
+
+    private static final long POLL_MILLIS = 200;
+
+    /** Stall timeout of {@link #acquire(Path)}, long enough for any single step of an installation to show up. */
+    static final long DEFAULT_TIMEOUT_MILLIS = 60_000;
+
+    private final String claim;
+    private final String claimToken;
+    private final FileChannel channel;
+    private final FileLock lock;
+
+    private InstallationLock(String claim, String claimToken, FileChannel channel, FileLock lock) {
+        this.claim = claim;
+        this.claimToken = claimToken;
+        this.channel = channel;
+        this.lock = lock;
+    }
+
+    /**
+     * Waits until no other thread or process is installing the target and locks it, giving up after
+     * {@link #DEFAULT_TIMEOUT_MILLIS} without progress.
+     *
+     * @see #acquire(Path, long)
+     */
+    public static InstallationLock acquire(Path target) throws IOException {
+        return acquire(target, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Waits until no other thread or process is installing the target and locks it.
+     *
+     * @param target file or directory about to be installed
+     * @param timeoutMillis how long the installation in progress may show no progress before waiting gives up;
+     *                      0 or less waits as long as it takes
+     * @return the lock, to be closed once the installation is complete or has failed
+     * @throws IOException if the lock file cannot be created, the wait times out, or the thread is interrupted
+     *                     while waiting
+     */
+    public static InstallationLock acquire(Path target, long timeoutMillis) throws IOException {
+        Path lockFile = target.resolveSibling(target.getFileName() + ".lock");
+        Path directory = lockFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        String claim = "installation-lock:" + directory.toRealPath().resolve(lockFile.getFileName());
+
+        String claimToken = null;
+        FileChannel channel = null;
+        try {
+            long start = System.nanoTime();
+            long lastProgress = start;
+            long fingerprint = progress(directory);
+            boolean logged = false;
+            while (true) {
+                if (claimToken == null) {
+                    claimToken = JvmClaims.claim(claim);
+                }
+                if (claimToken != null) {
+                    if (channel == null) {
+                        channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                    }
+                    FileLock lock = tryLock(channel);
+                    if (lock != null) {
+                        if (logged) {
+                            LOGGER.info("Acquired installation lock {} after {} ms", lockFile,
+                                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                        }
+                        return new InstallationLock(claim, claimToken, channel, lock);
+                    }
+                }
+                if (!logged) {
+                    LOGGER.info("Waiting for another application to finish installing {}", target);
+                    logged = true;
+                }
+
+                long now = System.nanoTime();
+                long current = progress(directory);
+                if (current != fingerprint) {
+                    fingerprint = current;
+                    lastProgress = now;
+                } else if (timeoutMillis > 0 && TimeUnit.NANOSECONDS.toMillis(now - lastProgress) >= timeoutMillis) {
+                    throw new IOException("Timed out after " + timeoutMillis + " ms without progress waiting for "
+                                          + "another application to finish installing " + target);
+                }
+                Thread.sleep(POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandon(claim, claimToken, channel);
+            throw new IOException("Interrupted while waiting for installation lock " + lockFile, e);
+        } catch (IOException | RuntimeException e) {
+            abandon(claim, claimToken, channel);
+            throw e;
+        }
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Held in this JVM by a copy of the connector that predates the claims
+            return null;
+        }
+    }
+
+    /**
+     * Gives up waiting. Only the holder of the claim has a channel, and it holds no lock through it yet, so closing
+     * it cannot release a lock of anyone else in this JVM.
+     */
+    private static void abandon(String claim, String claimToken, FileChannel channel) {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Failed to close installation lock channel", e);
+        } finally {
+            if (claimToken != null) {
+                JvmClaims.release(claim, claimToken);
+            }
+        }
+    }
+
+    /**
+     * @return a value that changes whenever a file next to the target is created, deleted, resized or written
+     */
+    private static long progress(Path directory) {
+        long fingerprint = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                    fingerprint += entry.getFileName().hashCode() * 31L
+                        + attributes.size() * 17L + attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+                } catch (IOException e) {
+                    // Deleted while listing, which is progress too
+                    fingerprint++;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Failed to check installation progress in {}", directory, e);
+        }
+        return fingerprint;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            lock.release();
+        } finally {
+            try {
+                channel.close();
+            } finally {
+                JvmClaims.release(claim, claimToken);
+            }
+        }
+    }
+}
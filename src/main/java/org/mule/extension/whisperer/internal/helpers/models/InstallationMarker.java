@@ -0,0 +1,90 @@
+package org.mule.extension.whisperer.internal.helpers.models;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Records that a file or directory was completely installed, in a {@code <target>.installed} sidecar file written
+ * only once the installation is done. A target without a marker, or whose marker names another source or size, may
+ * be a leftover of an interrupted installation and is installed again.
+ *
+ * <p>Checking and installing should happen under an {@link InstallationLock} on the same target.
+ */
+public final class InstallationMarker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InstallationMarker.class);
+
+    private InstallationMarker() {
+    }
+
+    /**
+     * @param target installed file or directory
+     * @param source what the target was installed from, e.g. a URL, including anything that must match such as an
+     *               expected checksum
+     * @return whether the target was completely installed from that source and, for a file, still has its size
+     */
+    public static boolean isInstalled(Path target, String source) {
+        Path marker = markerFile(target);
+        if (!Files.isReadable(marker) || !Files.exists(target)) {
+            return false;
+        }
+        Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(marker)) {
+            properties.load(input);
+            if (!source.equals(properties.getProperty("source"))) {
+                return false;
+            }
+            return Files.isDirectory(target) || Long.toString(Files.size(target)).equals(properties.getProperty("size"));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring unreadable installation marker {}", marker, e);
+            return false;
+        }
+    }
+
+    /**
+     * Records a completed installation, replacing any previous marker atomically.
+     */
+    public static void markInstalled(Path target, String source) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("source", source);
+        if (Files.isRegularFile(target)) {
+            properties.setProperty("size", Long.toString(Files.size(target)));
+        }
+        properties.setProperty("installedAt", Long.toString(System.currentTimeMillis()));
+
+        Path marker = markerFile(target);
+        Path temp = marker.resolveSibling(marker.getFileName() + ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(temp)) {
+                properties.store(output, "Installation marker");
+            }
+            try {
+                Files.move(temp, marker, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, marker, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Removes the marker before the target is modified, so an interrupted reinstallation is not taken as complete.
+     */
+    public static void clear(Path target) throws IOException {
+        Files.deleteIfExists(markerFile(target));
+    }
+
+    private static Path markerFile(Path target) {
+        return target.resolveSibling(target.getFileName() + ".installed");
+    }
+}
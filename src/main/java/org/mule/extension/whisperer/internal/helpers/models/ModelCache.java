@@ -0,0 +1,215 @@
+package org.mule.extension.whisperer.internal.helpers.models;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+/**
+ * Persistent on-disk cache of models bundled as resources, so an application restart does not extract a
+ * multi-gigabyte model again.
+ *
+ * <p>Layout on disk:
+ * <pre>
+ *   &lt;directory&gt;/model-&lt;sha-256&gt;-&lt;file name&gt;      extracted model, named after its content
+ *   &lt;directory&gt;/source-&lt;source key&gt;.properties    manifest of a resource
+ * </pre>
+ *
+ * <p>A resource is identified by its URL, size and last modification time. When its manifest exists and the model
+ * it points to has the recorded size, the cached copy is used without reading the resource. Otherwise the resource
+ * is streamed to a temporary file while its SHA-256 is computed, then renamed into place; a redeployed application
+ * carrying the same model finds the copy already there and only records a new manifest. Models and manifests are
+ * always written atomically, so a crash never leaves a truncated model that looks complete, and extraction of a
+ * resource is serialized across applications with an {@link InstallationLock}.
+ */
+public class ModelCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ModelCache.class);
+
+    public static final String DEFAULT_DIRECTORY_NAME = "whisperer-models";
+
+    private static final long TRANSFER_CHUNK_BYTES = 64L * 1024 * 1024;
+
+    private final Path directory;
+
+    /**
+     * @param directory where cached models are kept; created if missing
+     */
+    public ModelCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the cached copy of a resource, extracting it first if there is no verified copy yet.
+     *
+     * @param resource the bundled model
+     * @param fileName file name of the model, kept as a suffix of the cached file
+     * @return path of the cached model
+     * @throws IOException if the resource cannot be read or the cache written
+     */
+    public Path resolve(URL resource, String fileName) throws IOException {
+        URLConnection connection = resource.openConnection();
+        long size = connection.getContentLengthLong();
+        long lastModified = connection.getLastModified();
+        Path manifest = directory.resolve("source-" + sourceKey(resource, size, lastModified) + ".properties");
+
+        Path cached = lookup(manifest, size);
+        if (cached != null) {
+            LOGGER.info("Using cached model {} for {}", cached, resource);
+            release(connection);
+            return cached;
+        }
+
+        Files.createDirectories(directory);
+        // Only one application extracts a given resource; the others wait and use its copy
+        try (InstallationLock lock = InstallationLock.acquire(manifest)) {
+            cached = lookup(manifest, size);
+            if (cached != null) {
+                LOGGER.info("Using model {} for {} cached by another application", cached, resource);
+                release(connection);
+                return cached;
+            }
+            return extract(resource, connection, fileName, size, lastModified, manifest);
+        }
+    }
+
+    private Path extract(URL resource, URLConnection connection, String fileName, long size, long lastModified,
+                         Path manifest) throws IOException {
+        long start = System.nanoTime();
+        Path temp = Files.createTempFile(directory, "model-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            long copied;
+            try (InputStream input = new DigestInputStream(connection.getInputStream(), digest);
+                 ReadableByteChannel source = Channels.newChannel(input);
+                 FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                copied = transfer(source, target);
+            }
+            String hash = hex(digest.digest());
+
+            Path model = directory.resolve("model-" + hash + "-" + fileName);
+            if (Files.isRegularFile(model) && Files.size(model) == copied) {
+                LOGGER.info("Model {} is already cached as {}", resource, model);
+            } else {
+                moveAtomically(temp, model);
+                LOGGER.info("Extracted model {} to {} in {} ms", resource, model, (System.nanoTime() - start) / 1_000_000);
+            }
+
+            Properties properties = new Properties();
+            properties.setProperty("source", resource.toExternalForm());
+            properties.setProperty("sourceSize", Long.toString(size));
+            properties.setProperty("sourceLastModified", Long.toString(lastModified));
+            properties.setProperty("sha256", hash);
+            properties.setProperty("size", Long.toString(copied));
+            properties.setProperty("file", model.getFileName().toString());
+            writeManifest(manifest, properties);
+            return model;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * @return the cached model recorded in a manifest, or {@code null} if there is none or it does not check out
+     */
+    private Path lookup(Path manifest, long sourceSize) {
+        if (!Files.isReadable(manifest)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(manifest)) {
+            properties.load(input);
+            Path model = directory.resolve(properties.getProperty("file"));
+            long size = Long.parseLong(properties.getProperty("size"));
+            if (!Files.isRegularFile(model) || Files.size(model) != size || (sourceSize >= 0 && sourceSize != size)) {
+                LOGGER.warn("Cached model {} does not match its manifest {}, extracting it again", model, manifest);
+                return null;
+            }
+            return model;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring unreadable model cache manifest {}", manifest, e);
+            return null;
+        }
+    }
+
+    /**
+     * Reading the size of some resources, such as files, opens them.
+     */
+    private static void release(URLConnection connection) {
+        try {
+            connection.getInputStream().close();
+        } catch (IOException e) {
+            LOGGER.debug("Unable to close {}", connection.getURL(), e);
+        }
+    }
+
+    private static long transfer(ReadableByteChannel source, FileChannel target) throws IOException {
+        long position = 0;
+        long transferred;
+        // transferFrom returns 0 once the source is exhausted
+        while ((transferred = target.transferFrom(source, position, TRANSFER_CHUNK_BYTES)) > 0) {
+            position += transferred;
+        }
+        return position;
+    }
+
+    private void writeManifest(Path manifest, Properties properties) throws IOException {
+        Path temp = Files.createTempFile(directory, "source-", ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(temp)) {
+                properties.store(output, "Whisper model cache manifest");
+            }
+            moveAtomically(temp, manifest);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String sourceKey(URL resource, long size, long lastModified) {
+        MessageDigest digest = sha256();
+        String source = resource.toExternalForm() + "|" + size + "|" + lastModified;
+        digest.update(source.getBytes(StandardCharsets.UTF_8));
+        return hex(digest.digest()).substring(0, 16);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,451 @@
+package org.mule.extension.whisperer.internal.helpers.models;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Downloads a model over HTTP into place, safely and as fast as the server allows.
+ *
+ * <p>Layout next to the target file while a download is in progress:
+ * <pre>
+ *   &lt;target&gt;.part            the file being downloaded, at its final size
+ *   &lt;target&gt;.part.progress   which chunks of the part file are complete
+ * </pre>
+ *
+ * <p>When the server supports range requests, the file is split into fixed-size chunks fetched over several
+ * connections at once, each chunk retried a few times before the download gives up. Completed chunks are recorded
+ * as they finish, so an interrupted download resumes where it stopped as long as the server still reports the same
+ * length and validator ({@code ETag} or {@code Last-Modified}). Servers without range support get a single
+ * stream. Once complete, the file is checked against the expected SHA-256, if any, and only then renamed onto the
+ * target, so the target never holds a partial or corrupt model.
+ */
+public class ModelDownloader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ModelDownloader.class);
+
+    private static final long DEFAULT_CHUNK_BYTES = 16L * 1024 * 1024;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private static final String PART_SUFFIX = ".part";
+    private static final String PROGRESS_SUFFIX = ".part.progress";
+
+    private final int connections;
+    private final int timeoutMillis;
+    private final long chunkBytes;
+
+    /**
+     * @param connections parallel connections used when the server supports range requests
+     * @param timeoutMillis connect and read timeout of each request
+     */
+    public ModelDownloader(int connections, int timeoutMillis) {
+        this(connections, timeoutMillis, DEFAULT_CHUNK_BYTES);
+    }
+
+    ModelDownloader(int connections, int timeoutMillis, long chunkBytes) {
+        this.connections = Math.max(1, connections);
+        this.timeoutMillis = Math.max(0, timeoutMillis);
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Downloads a file, unless the target already exists and matches the expected checksum or, without a checksum,
+     * has the length the server reports. A target of any other length, such as one truncated by an interrupted copy,
+     * is downloaded again.
+     *
+     * @param url where to download from
+     * @param target where the file must end up
+     * @param expectedSha256 hex SHA-256 the file must have, or {@code null} to skip the check
+     * @throws IOException if the download fails or the file does not match the checksum
+     */
+    public void download(URL url, Path target, String expectedSha256) throws IOException {
+        download(url, target, expectedSha256, false);
+    }
+
+    /**
+     * Downloads a file, as {@link #download(URL, Path, String)} does.
+     *
+     * @param force whether to download even if the target has the length the server reports, for a target that may
+     *              come from another source; a target matching {@code expectedSha256} is still kept
+     * @throws IOException if the download fails or the file does not match the checksum
+     */
+    public void download(URL url, Path target, String expectedSha256, boolean force) throws IOException {
+        String expected = expectedSha256 == null || expectedSha256.trim().isEmpty()
+            ? null : expectedSha256.trim().toLowerCase(Locale.ROOT);
+
+        if (expected != null && Files.isRegularFile(target)) {
+            if (expected.equals(sha256(target))) {
+                LOGGER.debug("{} already exists and matches its checksum, skipping download", target);
+                return;
+            }
+            LOGGER.warn("{} does not match its expected checksum, downloading it again", target);
+        }
+
+        long start = System.nanoTime();
+        Probe probe = probe(url);
+        if (expected == null && !force && Files.isRegularFile(target)) {
+            if (probe.length > 0 && Files.size(target) == probe.length) {
+                LOGGER.debug("{} already exists with the length {} reports, skipping download", target, url);
+                return;
+            }
+            LOGGER.warn("{} does not have the length {} reports, downloading it again", target, url);
+        }
+
+        if (target.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(target.toAbsolutePath().getParent());
+        }
+        Path part = sibling(target, PART_SUFFIX);
+        Path progressFile = sibling(target, PROGRESS_SUFFIX);
+
+        if (probe.ranges && probe.length > 0) {
+            downloadChunks(url, probe, part, progressFile);
+        } else {
+            LOGGER.info("{} does not support range requests, downloading in a single stream", url);
+            Files.deleteIfExists(progressFile);
+            downloadStream(url, part);
+        }
+
+        if (expected != null) {
+            String actual = sha256(part);
+            if (!expected.equals(actual)) {
+                Files.deleteIfExists(part);
+                Files.deleteIfExists(progressFile);
+                throw new IOException(String.format("Checksum mismatch for %s: expected SHA-256 %s but got %s",
+                                                    url, expected, actual));
+            }
+        }
+
+        moveAtomically(part, target);
+        Files.deleteIfExists(progressFile);
+        LOGGER.info("Downloaded {} to {} ({} bytes) in {} ms", url, target, Files.size(target),
+                    (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void downloadChunks(URL url, Probe probe, Path part, Path progressFile) throws IOException {
+        int chunkCount = (int) ((probe.length + chunkBytes - 1) / chunkBytes);
+        BitSet completed = loadProgress(progressFile, probe, part);
+        if (completed.isEmpty()) {
+            Files.deleteIfExists(part);
+        } else {
+            LOGGER.info("Resuming download of {}: {} of {} chunks already complete", url, completed.cardinality(),
+                        chunkCount);
+        }
+
+        List<Integer> pending = new ArrayList<>();
+        for (int chunk = completed.nextClearBit(0); chunk < chunkCount; chunk = completed.nextClearBit(chunk + 1)) {
+            pending.add(chunk);
+        }
+        LOGGER.info("Downloading {} ({} bytes) in {} chunks over {} connections", url, probe.length, pending.size(),
+                    Math.min(connections, Math.max(1, pending.size())));
+
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE)) {
+            if (channel.size() != probe.length) {
+                // Extend to the full length so chunks can be written at their offsets in any order
+                channel.write(ByteBuffer.allocate(1), probe.length - 1);
+            }
+
+            AtomicInteger next = new AtomicInteger();
+            AtomicLong downloaded = new AtomicLong();
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(connections, Math.max(1, pending.size())),
+                                                                    ModelDownloader::downloadThread);
+            try {
+                List<Future<?>> workers = new ArrayList<>();
+                for (int i = 0; i < Math.min(connections, pending.size()); i++) {
+                    workers.add(executor.submit(() -> {
+                        for (int index = next.getAndIncrement(); index < pending.size(); index = next.getAndIncrement()) {
+                            int chunk = pending.get(index);
+                            fetchChunk(url, probe, channel, chunk);
+                            synchronized (completed) {
+                                completed.set(chunk);
+                                saveProgress(progressFile, probe, completed);
+                            }
+                            downloaded.addAndGet(chunkLength(probe, chunk));
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> worker : workers) {
+                    await(worker);
+                }
+            } catch (IOException e) {
+                // Stop the other workers; the chunks they completed stay recorded for the next attempt
+                next.set(pending.size());
+                LOGGER.warn("Download of {} interrupted after {} bytes, it will resume on the next attempt", url,
+                            downloaded.get());
+                throw e;
+            } finally {
+                executor.shutdownNow();
+                awaitTermination(executor);
+            }
+            channel.force(false);
+        }
+    }
+
+    private void fetchChunk(URL url, Probe probe, FileChannel channel, int chunk) throws IOException {
+        long from = chunk * chunkBytes;
+        long length = chunkLength(probe, chunk);
+        IOException failure = null;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            HttpURLConnection connection = open(url);
+            connection.setRequestProperty("Range", "bytes=" + from + "-" + (from + length - 1));
+            try {
+                if (connection.getResponseCode() != HttpURLConnection.HTTP_PARTIAL) {
+                    throw new IOException("Expected a partial response for chunk " + chunk + " of " + url
+                                              + " but got HTTP " + connection.getResponseCode());
+                }
+                try (InputStream input = connection.getInputStream()) {
+                    long written = copy(input, channel, from, length);
+                    if (written != length) {
+                        throw new IOException("Chunk " + chunk + " of " + url + " ended after " + written + " of "
+                                                  + length + " bytes");
+                    }
+                }
+                return;
+            } catch (IOException e) {
+                failure = e;
+                LOGGER.debug("Attempt {} to download chunk {} of {} failed", attempt, chunk, url, e);
+            } finally {
+                connection.disconnect();
+            }
+        }
+        throw failure;
+    }
+
+    private void downloadStream(URL url, Path part) throws IOException {
+        HttpURLConnection connection = open(url);
+        try {
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Unable to download " + url + ": HTTP " + connection.getResponseCode());
+            }
+            try (InputStream input = connection.getInputStream();
+                 FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                long expected = connection.getContentLengthLong();
+                long written = copy(input, channel, 0, Long.MAX_VALUE);
+                if (expected >= 0 && written != expected) {
+                    throw new IOException("Download of " + url + " ended after " + written + " of " + expected + " bytes");
+                }
+                channel.force(false);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Asks for the first byte only: a partial response proves range support and carries the total length.
+     */
+    private Probe probe(URL url) throws IOException {
+        HttpURLConnection connection = open(url);
+        connection.setRequestProperty("Range", "bytes=0-0");
+        try {
+            int status = connection.getResponseCode();
+            String validator = connection.getHeaderField("ETag");
+            if (validator == null) {
+                validator = connection.getHeaderField("Last-Modified");
+            }
+            if (status == HttpURLConnection.HTTP_PARTIAL) {
+                String contentRange = connection.getHeaderField("Content-Range");
+                long length = -1;
+                if (contentRange != null && contentRange.contains("/") && !contentRange.endsWith("/*")) {
+                    length = Long.parseLong(contentRange.substring(contentRange.lastIndexOf('/') + 1).trim());
+                }
+                return new Probe(true, length, validator);
+            }
+            if (status == HttpURLConnection.HTTP_OK) {
+                return new Probe(false, connection.getContentLengthLong(), validator);
+            }
+            throw new IOException("Unable to download " + url + ": HTTP " + status);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid Content-Range returned by " + url, e);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private HttpURLConnection open(URL url) throws IOException {
+        URLConnection connection = url.openConnection();
+        if (!(connection instanceof HttpURLConnection)) {
+            throw new IOException("Only HTTP and HTTPS model URLs are supported: " + url);
+        }
+        HttpURLConnection http = (HttpURLConnection) connection;
+        http.setConnectTimeout(timeoutMillis);
+        http.setReadTimeout(timeoutMillis);
+        http.setInstanceFollowRedirects(true);
+        return http;
+    }
+
+    private static long copy(InputStream input, FileChannel channel, long position, long maxBytes) throws IOException {
+        byte[] buffer = new byte[BUFFER_BYTES];
+        long written = 0;
+        int read;
+        while (written < maxBytes
+            && (read = input.read(buffer, 0, (int) Math.min(buffer.length, maxBytes - written))) != -1) {
+            ByteBuffer data = ByteBuffer.wrap(buffer, 0, read);
+            while (data.hasRemaining()) {
+                channel.write(data, position + written + (read - data.remaining()));
+            }
+            written += read;
+        }
+        return written;
+    }
+
+    private long chunkLength(Probe probe, int chunk) {
+        return Math.min(chunkBytes, probe.length - chunk * chunkBytes);
+    }
+
+    /**
+     * @return chunks already downloaded, or none if there is no usable progress for this exact remote file
+     */
+    private BitSet loadProgress(Path progressFile, Probe probe, Path part) {
+        if (!Files.isReadable(progressFile) || !Files.isRegularFile(part)) {
+            return new BitSet();
+        }
+        Properties properties = new Properties();
+        try (InputStream input = Files.newInputStream(progressFile)) {
+            properties.load(input);
+            boolean sameFile = Files.size(part) == probe.length
+                && Long.toString(probe.length).equals(properties.getProperty("length"))
+                && Long.toString(chunkBytes).equals(properties.getProperty("chunkBytes"))
+                && String.valueOf(probe.validator).equals(properties.getProperty("validator"));
+            if (!sameFile) {
+                LOGGER.info("Remote file changed since the partial download in {}, starting over", part);
+                return new BitSet();
+            }
+            BitSet completed = new BitSet();
+            String chunks = properties.getProperty("completed", "");
+            for (String chunk : chunks.split(",")) {
+                if (!chunk.trim().isEmpty()) {
+                    completed.set(Integer.parseInt(chunk.trim()));
+                }
+            }
+            return completed;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring unreadable download progress {}", progressFile, e);
+            return new BitSet();
+        }
+    }
+
+    private void saveProgress(Path progressFile, Probe probe, BitSet completed) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("length", Long.toString(probe.length));
+        properties.setProperty("chunkBytes", Long.toString(chunkBytes));
+        properties.setProperty("validator", String.valueOf(probe.validator));
+        StringBuilder chunks = new StringBuilder();
+        completed.stream().forEach(chunk -> chunks.append(chunks.length() == 0 ? "" : ",").append(chunk));
+        properties.setProperty("completed", chunks.toString());
+
+        Path temp = sibling(progressFile, ".tmp");
+        try (OutputStream output = Files.newOutputStream(temp)) {
+            properties.store(output, "Model download progress");
+        }
+        moveAtomically(temp, progressFile);
+    }
+
+    private static void await(Future<?> worker) throws IOException {
+        try {
+            worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while downloading", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private void awaitTermination(ExecutorService executor) {
+        try {
+            // Workers blocked on a socket only notice once their read times out
+            if (!executor.awaitTermination(Math.max(1000, timeoutMillis), TimeUnit.MILLISECONDS)) {
+                LOGGER.debug("Download workers still running after shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Thread downloadThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "whisperer-model-download");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static Path sibling(Path file, String suffix) {
+        return file.resolveSibling(file.getFileName() + suffix);
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(1024 * 1024);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static final class Probe {
+
+        private final boolean ranges;
+        private final long length;
+        private final String validator;
+
+        private Probe(boolean ranges, long length, String validator) {
+            this.ranges = ranges;
+            this.length = length;
+            this.validator = validator;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.mule.extension.whisperer.internal.helpers.models;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Makes a model available on the local file system from the locations a model can be configured with:
+ * <ul>
+ *   <li>{@code classpath://<resource>}: extracted into the {@link ModelCache}</li>
+ *   <li>{@code http://} or {@code https://} URL: downloaded into the model directory, see
+ *   {@link WhisperJNIModelConfigurer}</li>
+ *   <li>anything else: a path on the file system, which must exist</li>
+ * </ul>
+ */
+public final class ModelLocations {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ModelLocations.class);
+
+    public static final String CLASSPATH_PREFIX = "classpath://";
+
+    private ModelLocations() {
+    }
+
+    /**
+     * @param location where the model comes from
+     * @param directory where classpath models are cached and remote models downloaded
+     * @return path of the model file
+     * @throws IOException if the model cannot be found or installed
+     */
+    public static Path install(String location, Path directory) throws IOException {
+        if (location.startsWith(CLASSPATH_PREFIX)) {
+            String resourcePath = location.substring(CLASSPATH_PREFIX.length());
+            LOGGER.debug("Loading model from classpath resource: {}", resourcePath);
+
+            URL resource = Thread.currentThread().getContextClassLoader().getResource(resourcePath);
+            if (resource == null) {
+                throw new IOException("Model file not found in classpath: " + resourcePath);
+            }
+            return new ModelCache(directory).resolve(resource, fileName(resourcePath));
+        }
+
+        if (location.startsWith("http://") || location.startsWith("https://")) {
+            Path target = directory.resolve(fileName(new URL(location).getPath()));
+            Files.createDirectories(directory);
+            WhisperJNIModelConfigurer.setup(location, target.toString());
+            return target;
+        }
+
+        // Regular file system path
+        Path filePath = Paths.get(location);
+        if (!Files.exists(filePath)) {
+            throw new IOException("Model file not found: " + location);
+        }
+        return filePath;
+    }
+
+    private static String fileName(String path) throws IOException {
+        Path fileName = Paths.get(path).getFileName();
+        if (fileName == null) {
+            throw new IOException("No model file name in " + path);
+        }
+        return fileName.toString();
+    }
+}
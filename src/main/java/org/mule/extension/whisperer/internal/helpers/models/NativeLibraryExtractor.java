@@ -0,0 +1,264 @@
+package org.mule.extension.whisperer.internal.helpers.models;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Extracts a ZIP archive of native libraries into a directory and keeps a manifest of what was extracted, so later
+ * starts can tell in a few file system calls whether the directory is complete and current.
+ *
+ * <p>The manifest, {@code .manifest.properties} in the directory, records the connector version, the SHA-256 of
+ * the archive, and the size and SHA-256 of every library and the target of every symbolic link. A directory is
+ * reused only if its manifest names the same version and archive and every file still has its recorded size and
+ * every link its recorded target; anything else, including a directory left by an older connector or an interrupted
+ * extraction, is replaced.
+ *
+ * <p>The archive is read from memory, without a temporary copy, and its entries are extracted in parallel into a
+ * fresh sibling directory that is renamed into place once complete.
+ */
+public class NativeLibraryExtractor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NativeLibraryExtractor.class);
+
+    static final String MANIFEST_FILE_NAME = ".manifest.properties";
+
+    private static final int MAX_EXTRACTION_THREADS = 4;
+
+    private final Path directory;
+    private final String version;
+
+    /**
+     * @param directory where the libraries are extracted
+     * @param version version of the connector bundling the archive
+     */
+    public NativeLibraryExtractor(Path directory, String version) {
+        this.directory = directory;
+        this.version = version;
+    }
+
+    /**
+     * Extracts the archive unless the directory already holds a verified extraction of it. Applications sharing the
+     * directory take turns through an {@link InstallationLock}.
+     *
+     * @param archive content of the ZIP archive
+     * @return whether the archive had to be extracted
+     * @throws IOException if the archive cannot be read or extracted
+     */
+    public boolean install(byte[] archive) throws IOException {
+        String archiveHash = sha256(archive);
+        if (isInstalled(archiveHash)) {
+            LOGGER.info("Native libraries in {} are up to date", directory);
+            return false;
+        }
+        try (InstallationLock lock = InstallationLock.acquire(directory)) {
+            if (isInstalled(archiveHash)) {
+                LOGGER.info("Native libraries in {} were extracted by another application", directory);
+                return false;
+            }
+            extract(archive, archiveHash);
+            return true;
+        }
+    }
+
+    /**
+     * Fast check of an earlier extraction: compares sizes and link targets with the manifest, without hashing.
+     */
+    boolean isInstalled(String archiveHash) {
+        Path manifestFile = directory.resolve(MANIFEST_FILE_NAME);
+        if (!Files.isReadable(manifestFile)) {
+            return false;
+        }
+        Properties manifest = new Properties();
+        try (InputStream input = Files.newInputStream(manifestFile)) {
+            manifest.load(input);
+            if (!version.equals(manifest.getProperty("connectorVersion"))
+                || !archiveHash.equals(manifest.getProperty("archiveSha256"))) {
+                LOGGER.info("Native libraries in {} come from another connector build, extracting them again", directory);
+                return false;
+            }
+            for (String key : manifest.stringPropertyNames()) {
+                if (key.startsWith("file.")) {
+                    Path file = directory.resolve(key.substring("file.".length()));
+                    String size = manifest.getProperty(key).split(":")[0];
+                    if (!Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS) || !size.equals(Long.toString(Files.size(file)))) {
+                        LOGGER.warn("Native library {} is missing or damaged, extracting the libraries again", file);
+                        return false;
+                    }
+                } else if (key.startsWith("link.")) {
+                    Path link = directory.resolve(key.substring("link.".length()));
+                    if (!Files.isSymbolicLink(link) || !Files.readSymbolicLink(link).toString().equals(manifest.getProperty(key))) {
+                        LOGGER.warn("Native library link {} is missing or changed, extracting the libraries again", link);
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring unreadable native library manifest {}", manifestFile, e);
+            return false;
+        }
+    }
+
+    private void extract(byte[] archive, String archiveHash) throws IOException {
+        long start = System.nanoTime();
+        Path absolute = directory.toAbsolutePath();
+        Path staging = absolute.resolveSibling(absolute.getFileName() + ".tmp-" + UUID.randomUUID());
+        Files.createDirectories(staging);
+        try {
+            Properties manifest = new Properties();
+            manifest.setProperty("connectorVersion", version);
+            manifest.setProperty("archiveSha256", archiveHash);
+
+            try (ZipFile zipFile = new ZipFile(new SeekableInMemoryByteChannel(archive))) {
+                List<ZipArchiveEntry> files = new ArrayList<>();
+                for (ZipArchiveEntry entry : Collections.list(zipFile.getEntries())) {
+                    // Skip directories and the resource forks macOS adds to archives it creates
+                    if (entry.isDirectory() || entry.getName().startsWith("__MACOSX/")) {
+                        continue;
+                    }
+                    String fileName = Paths.get(entry.getName()).getFileName().toString();
+                    if (entry.isUnixSymlink()) {
+                        // Links point to a library in the same directory
+                        String target = Paths.get(zipFile.getUnixSymlink(entry)).getFileName().toString();
+                        Files.createSymbolicLink(staging.resolve(fileName), Paths.get(target));
+                        manifest.setProperty("link." + fileName, target);
+                    } else {
+                        files.add(entry);
+                    }
+                }
+                extractFiles(zipFile, files, staging, manifest);
+            }
+
+            try (OutputStream output = Files.newOutputStream(staging.resolve(MANIFEST_FILE_NAME))) {
+                manifest.store(output, "Extracted native libraries");
+            }
+            replaceDirectory(staging, absolute);
+        } finally {
+            if (Files.exists(staging, LinkOption.NOFOLLOW_LINKS)) {
+                deleteRecursively(staging);
+            }
+        }
+        LOGGER.info("Extracted native libraries to {} in {} ms", directory, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void extractFiles(ZipFile zipFile, List<ZipArchiveEntry> entries, Path staging,
+                                     Properties manifest) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(MAX_EXTRACTION_THREADS, entries.size())),
+                                                                NativeLibraryExtractor::extractionThread);
+        try {
+            List<CompletableFuture<Void>> extractions = new ArrayList<>();
+            for (ZipArchiveEntry entry : entries) {
+                extractions.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        extractFile(zipFile, entry, staging, manifest);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(extractions.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void extractFile(ZipFile zipFile, ZipArchiveEntry entry, Path staging, Properties manifest)
+        throws IOException {
+        String fileName = Paths.get(entry.getName()).getFileName().toString();
+        Path file = staging.resolve(fileName);
+        MessageDigest digest = newSha256();
+        // ZipFile synchronizes reads of the underlying channel, so entries can be read concurrently
+        try (InputStream input = new DigestInputStream(zipFile.getInputStream(entry), digest)) {
+            Files.copy(input, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rwxr-xr-x"));
+        // Properties is synchronized
+        manifest.setProperty("file." + fileName, Files.size(file) + ":" + hex(digest.digest()));
+    }
+
+    /**
+     * Swaps the staging directory in. The previous directory is renamed aside first rather than deleted in place,
+     * so the new one appears in a single rename; libraries a running process already mapped stay valid.
+     */
+    private static void replaceDirectory(Path staging, Path target) throws IOException {
+        Path previous = null;
+        if (Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+            previous = target.resolveSibling(target.getFileName() + ".old-" + UUID.randomUUID());
+            Files.move(target, previous);
+        }
+        Files.move(staging, target);
+        if (previous != null) {
+            deleteRecursively(previous);
+        }
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        if (!Files.isDirectory(root, LinkOption.NOFOLLOW_LINKS)) {
+            Files.deleteIfExists(root);
+            return;
+        }
+        try (Stream<Path> children = Files.list(root)) {
+            for (Path child : (Iterable<Path>) children::iterator) {
+                deleteRecursively(child);
+            }
+        }
+        Files.delete(root);
+    }
+
+    private static Thread extractionThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "whisperer-native-extraction");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static String sha256(byte[] bytes) {
+        return hex(newSha256().digest(bytes));
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -1,17 +1,16 @@
 package org.mule.extension.whisperer.internal.helpers.models;
 
-import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
-import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.IOUtils;
+import org.mule.extension.whisperer.internal.helpers.system.CpuFeatures;
+import org.mule.extension.whisperer.internal.helpers.system.CpuFeatures.Level;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.nio.file.attribute.PosixFilePermissions;
-import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
 
 public class WhisperJNICloudhubConfigurer {
 
@@ -20,6 +19,12 @@ public class WhisperJNICloudhubConfigurer {
   public static final String WHISPER_DEPENDENCY_RESOURCE_PATH = "/cloudhub-whisper-dependencies.zip";
   public static final String WHISPER_DEPENDENCY_LIBS_PATH = "/tmp/whisper-deps-linux64";
 
+  /**
+   * System property capping the instruction set level of the native libraries, e.g. {@code avx2} or
+   * {@code baseline}, for hosts whose CPU flags overstate what they can run.
+   */
+  public static final String NATIVE_LEVEL_PROPERTY = "whisperer.native.level";
+
   public static boolean isCloudHubDeployment() {
     // Check if the system property cloudhub.deployment is set to true
     return Boolean.getBoolean("cloudhub.deployment");
@@ -29,78 +34,75 @@ public class WhisperJNICloudhubConfigurer {
 
     // CloudHub specific setup can be done here
 
-    try {
-
-      LOGGER.info("Setting up Whisper JNI for CloudHub deployment. io.github.givimad.whisperjni.libdir={}", WHISPER_DEPENDENCY_LIBS_PATH);
-      // Set the system property for the Whisper JNI library directory
-      System.setProperty("io.github.givimad.whisperjni.libdir", WHISPER_DEPENDENCY_LIBS_PATH);
-      // Extract the Whisper JNI dependencies
-      LOGGER.info("Extracting Whisper JNI dependencies from JAR resource.");
-      extractSoLibs();
-
-    } catch (Exception e) {
-      LOGGER.error("Error in Whisper setup", e);
+    // Builds for higher instruction set levels are bundled as cloudhub-whisper-dependencies-<level>.zip next to the
+    // baseline archive; the fastest one the CPU supports is used, falling back level by level to the baseline
+    Set<String> flags = CpuFeatures.flags();
+    List<Level> levels = CpuFeatures.supportedLevels(flags, levelLimit());
+    LOGGER.info("Native library levels supported by this CPU: {}", levels);
+
+    for (Level level : levels) {
+      String libsPath = libsPath(level);
+      try {
+        byte[] archive = readDependencies(resourcePath(level));
+        if (archive == null) {
+          LOGGER.debug("No native libraries bundled for level {}", level.id());
+          continue;
+        }
+
+        // Extract the Whisper JNI dependencies, unless a verified extraction of this exact archive is already there
+        new NativeLibraryExtractor(Paths.get(libsPath), connectorVersion()).install(archive);
+
+        LOGGER.info("Setting up Whisper JNI for CloudHub deployment with {} native libraries. io.github.givimad.whisperjni.libdir={}",
+                    level.id(), libsPath);
+        // Set the system property for the Whisper JNI library directory
+        System.setProperty("io.github.givimad.whisperjni.libdir", libsPath);
+        return;
+      } catch (Exception e) {
+        LOGGER.error("Error in Whisper setup with {} native libraries", level.id(), e);
+      }
     }
+
+    // Keep the previous behaviour of pointing at the baseline directory, which may hold an earlier extraction
+    LOGGER.error("No bundled native libraries could be installed, using {}", WHISPER_DEPENDENCY_LIBS_PATH);
+    System.setProperty("io.github.givimad.whisperjni.libdir", WHISPER_DEPENDENCY_LIBS_PATH);
   }
 
-  private static void extractSoLibs() throws IOException {
-    // Extract JAR resource to a temp file
-    File tempZip = File.createTempFile("whisper-dependencies", ".zip", new File("/tmp"));
+  static String resourcePath(Level level) {
+    return level == Level.BASELINE ? WHISPER_DEPENDENCY_RESOURCE_PATH
+        : "/cloudhub-whisper-dependencies-" + level.id() + ".zip";
+  }
 
-    LOGGER.info("Extracting {}.", WHISPER_DEPENDENCY_RESOURCE_PATH);
+  static String libsPath(Level level) {
+    return level == Level.BASELINE ? WHISPER_DEPENDENCY_LIBS_PATH : WHISPER_DEPENDENCY_LIBS_PATH + "-" + level.id();
+  }
 
-    try (InputStream zipStream = WhisperJNICloudhubConfigurer.class.getResourceAsStream(WHISPER_DEPENDENCY_RESOURCE_PATH);
-        OutputStream outStream = new FileOutputStream(tempZip)) {
-      byte[] buffer = new byte[8192];
-      int bytesRead;
-      while ((bytesRead = zipStream.read(buffer)) != -1) {
-        outStream.write(buffer, 0, bytesRead);
-      }
+  private static Level levelLimit() {
+    String property = System.getProperty(NATIVE_LEVEL_PROPERTY);
+    if (property == null || property.trim().isEmpty()) {
+      return null;
     }
-
-    // Create the destination directory if it doesn't exist
-    File destDir = new File(WHISPER_DEPENDENCY_LIBS_PATH);
-    if (!destDir.exists()) {
-      destDir.mkdirs();
+    Level limit = Level.fromId(property);
+    if (limit == null) {
+      LOGGER.warn("Ignoring unknown {}={}", NATIVE_LEVEL_PROPERTY, property);
     }
+    return limit;
+  }
 
-    try (ZipFile zipFile = new ZipFile(tempZip)) {
-      for (Enumeration<ZipArchiveEntry> entries = zipFile.getEntries(); entries.hasMoreElements(); ) {
-        ZipArchiveEntry entry = entries.nextElement();
-        // Get just the file name without path
-        String fileName = new File(entry.getName()).getName();
-        // Create a new entry with just the filename
-        ZipArchiveEntry newEntry = new ZipArchiveEntry(fileName);
-        newEntry.setUnixMode(entry.getUnixMode());
-        // Extract using the simplified entry
-        LOGGER.info("Extracting Whisper JNI dependency {}", fileName);
-        extractZipEntry(zipFile, entry, destDir, fileName);
+  /**
+   * @return the archive, or {@code null} if no such resource is bundled
+   */
+  private static byte[] readDependencies(String resourcePath) throws IOException {
+    // The archive is small enough to read straight from the JAR into memory
+    try (InputStream zipStream = WhisperJNICloudhubConfigurer.class.getResourceAsStream(resourcePath)) {
+      if (zipStream == null) {
+        return null;
       }
+      return IOUtils.toByteArray(zipStream);
     }
-
-    tempZip.delete();
   }
 
-  private static void extractZipEntry(ZipFile zipFile, ZipArchiveEntry entry, File destDir, String fileName) throws IOException {
-    File outputFile = new File(destDir, fileName);
-
-    if (!entry.isDirectory()) {
-      // Handle symlinks
-      if (entry.isUnixSymlink()) {
-        String targetPath = zipFile.getUnixSymlink(entry); // Get symlink target
-        // Use just the filename part of the target
-        String targetFileName = new File(targetPath).getName();
-        Path target = Paths.get(destDir.getAbsolutePath(), targetFileName);
-        Files.createSymbolicLink(outputFile.toPath(), target);
-      } else {
-        Files.copy(zipFile.getInputStream(entry), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-        Files.setPosixFilePermissions(outputFile.toPath(), PosixFilePermissions.fromString("rwxr-xr-x"));
-      }
-
-      // Set executable permissions if applicable
-      if ((entry.getUnixMode() & 0b001000000) != 0) { // Check Unix executable bit
-        outputFile.setExecutable(true);
-      }
-    }
+  private static String connectorVersion() {
+    String version = WhisperJNICloudhubConfigurer.class.getPackage().getImplementationVersion();
+    return version != null ? version : "unknown";
   }
 }
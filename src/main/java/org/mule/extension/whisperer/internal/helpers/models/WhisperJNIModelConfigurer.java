@@ -1,25 +1,60 @@
 package org.mule.extension.whisperer.internal.helpers.models;
 
-import org.apache.commons.io.FileUtils;
 import org.mule.extension.whisperer.api.error.ConnectorError;
 import org.mule.runtime.extension.api.exception.ModuleException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
 import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
 
 public class WhisperJNIModelConfigurer {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(WhisperJNIModelConfigurer.class);
 
+  private static final int DEFAULT_CONNECTIONS = 4;
+  private static final int DEFAULT_TIMEOUT_MILLIS = 30_000;
+
   public static void setup(String modelURL, String modelFilePath) {
+    setup(modelURL, modelFilePath, null, DEFAULT_CONNECTIONS, DEFAULT_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * Downloads the model into place unless a complete copy is already installed. Applications sharing the
+   * installation path, in this JVM or others, take turns: one downloads while the others wait and reuse its copy.
+   *
+   * @param expectedSha256 hex SHA-256 the model must have, or {@code null} to skip the check
+   * @param connections parallel connections used when the server supports range requests
+   * @param timeoutMillis connect and read timeout of each request; waiting for another application's download gives
+   *                      up after twice as long without progress
+   */
+  public static void setup(String modelURL, String modelFilePath, String expectedSha256, int connections,
+                           int timeoutMillis) {
 
     try {
 
-      LOGGER.info("Downloading Whisper Model from: {}", modelURL);
-      FileUtils.copyURLToFile(new URL(modelURL), new File(modelFilePath));
-      LOGGER.info("Whisper Model downloaded from {} and installed at {}", modelURL, modelFilePath);
+      Path target = Paths.get(modelFilePath);
+      String source = expectedSha256 == null || expectedSha256.trim().isEmpty()
+          ? modelURL
+          : modelURL + "#sha256=" + expectedSha256.trim().toLowerCase(Locale.ROOT);
+
+      // A stuck download of the application holding the lock fails on its own read timeout well before this one
+      long lockTimeoutMillis = timeoutMillis > 0 ? 2L * timeoutMillis : 0;
+      try (InstallationLock lock = InstallationLock.acquire(target, lockTimeoutMillis)) {
+        if (InstallationMarker.isInstalled(target, source)) {
+          LOGGER.info("Whisper Model from {} already installed at {}", modelURL, modelFilePath);
+          return;
+        }
+
+        LOGGER.info("Installing Whisper Model from: {}", modelURL);
+        InstallationMarker.clear(target);
+        // Whatever is at the target was not installed from this source, even if it has the same length
+        new ModelDownloader(connections, timeoutMillis).download(new URL(modelURL), target, expectedSha256, true);
+        InstallationMarker.markInstalled(target, source);
+        LOGGER.info("Whisper Model from {} installed at {}", modelURL, modelFilePath);
+      }
 
     } catch (Exception e) {
 
@@ -0,0 +1,335 @@
+package org.mule.extension.whisperer.internal.helpers.pool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A pool of expensive objects with a minimum and maximum size.
+ *
+ * <p>Objects are created on demand up to the maximum size, outside the pool lock so a slow factory never blocks
+ * callers returning objects. When the pool is exhausted, callers wait for an object to be returned up to a
+ * timeout. Idle objects are handed out most recently used first, so under light load the same few objects stay
+ * warm while the rest age out: {@link #evictIdle()} destroys objects idle for longer than the idle timeout,
+ * keeping at least the minimum size.
+ *
+ * @param <T> type of the pooled objects
+ */
+public class BoundedPool<T> implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoundedPool.class);
+
+    private final String name;
+    private final Supplier<T> factory;
+    private final Consumer<T> destroyer;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    // Most recently returned first
+    private final Deque<IdleEntry<T>> idle = new ArrayDeque<>();
+    // Objects created or being created, idle or leased
+    private int size;
+    private boolean closed;
+
+    /**
+     * @param name name used in log messages
+     * @param factory creates new objects; may throw, in which case the acquiring caller gets the exception
+     * @param destroyer releases an object evicted, invalidated or returned after the pool was closed
+     * @param minSize objects created by {@link #start()} and kept by {@link #evictIdle()}
+     * @param maxSize maximum number of objects, idle or leased
+     * @param idleTimeoutMillis idle time after which an object may be evicted, or 0 to never evict
+     */
+    public BoundedPool(String name, Supplier<T> factory, Consumer<T> destroyer, int minSize, int maxSize,
+                       long idleTimeoutMillis) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min " + minSize + ", max " + maxSize);
+        }
+        this.name = name;
+        this.factory = factory;
+        this.destroyer = destroyer;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * Creates the minimum number of objects up front, so the first requests do not pay for it.
+     */
+    public void start() {
+        List<T> created = new ArrayList<>(minSize);
+        try {
+            for (int i = 0; i < minSize; i++) {
+                created.add(factory.get());
+            }
+        } catch (RuntimeException e) {
+            created.forEach(this::destroy);
+            throw e;
+        }
+
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            for (T object : created) {
+                idle.addLast(new IdleEntry<>(object, now));
+            }
+            size += created.size();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        LOGGER.debug("Pool {} started with {} objects (max {})", name, minSize, maxSize);
+    }
+
+    /**
+     * Takes an object out of the pool, creating one if none is idle and the pool is not full. Callers must close
+     * the returned lease to give the object back.
+     *
+     * @param timeout maximum time to wait for an object when the pool is full; 0 to fail immediately
+     * @param unit unit of {@code timeout}
+     * @return a lease on the object
+     * @throws TimeoutException if no object became available in time
+     * @throws InterruptedException if interrupted while waiting
+     * @throws IllegalStateException if the pool is closed
+     */
+    public Lease<T> acquire(long timeout, TimeUnit unit) throws TimeoutException, InterruptedException {
+        long remainingNanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                if (closed) {
+                    throw new IllegalStateException("Pool " + name + " is closed");
+                }
+                IdleEntry<T> entry = idle.pollFirst();
+                if (entry != null) {
+                    return new Lease<>(this, entry.object);
+                }
+                if (size < maxSize) {
+                    // Reserve the slot, then create outside the lock
+                    size++;
+                    break;
+                }
+                if (remainingNanos <= 0) {
+                    throw new TimeoutException(String.format("No object available in pool %s after %d ms (%d in use)",
+                                                             name, unit.toMillis(timeout), size));
+                }
+                remainingNanos = available.awaitNanos(remainingNanos);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            T object = factory.get();
+            LOGGER.debug("Pool {} grew to {} objects", name, getSize());
+            return new Lease<>(this, object);
+        } catch (RuntimeException | Error e) {
+            releaseSlot();
+            throw e;
+        }
+    }
+
+    /**
+     * Destroys objects that have been idle for longer than the idle timeout, keeping at least the minimum size.
+     * Meant to be called periodically.
+     *
+     * @return number of objects destroyed
+     */
+    public int evictIdle() {
+        if (idleTimeoutMillis <= 0) {
+            return 0;
+        }
+        List<T> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+            // Least recently used are at the tail
+            Iterator<IdleEntry<T>> entries = idle.descendingIterator();
+            while (entries.hasNext() && size > minSize) {
+                IdleEntry<T> entry = entries.next();
+                if (entry.lastUsedMillis > cutoff) {
+                    break;
+                }
+                entries.remove();
+                size--;
+                evicted.add(entry.object);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        evicted.forEach(this::destroy);
+        if (!evicted.isEmpty()) {
+            LOGGER.debug("Pool {} evicted {} idle objects, {} left", name, evicted.size(), getSize());
+        }
+        return evicted.size();
+    }
+
+    /**
+     * Destroys all idle objects and rejects further acquisitions. Objects still leased are destroyed when their
+     * lease is closed.
+     */
+    @Override
+    public void close() {
+        List<T> destroyed = new ArrayList<>();
+        lock.lock();
+        try {
+            closed = true;
+            for (IdleEntry<T> entry : idle) {
+                destroyed.add(entry.object);
+            }
+            idle.clear();
+            size -= destroyed.size();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        destroyed.forEach(this::destroy);
+        if (getSize() > 0) {
+            LOGGER.warn("Pool {} closed with {} objects still in use", name, getSize());
+        }
+    }
+
+    /**
+     * @return objects currently created, idle or leased
+     */
+    public int getSize() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return objects currently waiting in the pool
+     */
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return objects currently leased
+     */
+    public int getActiveCount() {
+        lock.lock();
+        try {
+            return size - idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    private void giveBack(T object, boolean valid) {
+        lock.lock();
+        try {
+            if (valid && !closed) {
+                idle.addFirst(new IdleEntry<>(object, System.currentTimeMillis()));
+                available.signal();
+                return;
+            }
+            size--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+        destroy(object);
+    }
+
+    private void releaseSlot() {
+        lock.lock();
+        try {
+            size--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void destroy(T object) {
+        try {
+            destroyer.accept(object);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to destroy object of pool {}", name, e);
+        }
+    }
+
+    private static final class IdleEntry<T> {
+
+        private final T object;
+        private final long lastUsedMillis;
+
+        private IdleEntry(T object, long lastUsedMillis) {
+            this.object = object;
+            this.lastUsedMillis = lastUsedMillis;
+        }
+    }
+
+    /**
+     * Exclusive use of a pooled object until the lease is closed.
+     *
+     * @param <T> type of the pooled object
+     */
+    public static final class Lease<T> implements AutoCloseable {
+
+        private final BoundedPool<T> pool;
+        private final T object;
+        private boolean valid = true;
+        private boolean closed;
+
+        private Lease(BoundedPool<T> pool, T object) {
+            this.pool = pool;
+            this.object = object;
+        }
+
+        public T get() {
+            if (closed) {
+                throw new IllegalStateException("Lease already closed");
+            }
+            return object;
+        }
+
+        /**
+         * Marks the object as unusable, e.g. after a failure that may have left it in a bad state. It is destroyed
+         * instead of being returned to the pool when the lease is closed.
+         */
+        public void invalidate() {
+            valid = false;
+        }
+
+        /**
+         * Returns the object to the pool. Closing a lease twice has no effect.
+         */
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                pool.giveBack(object, valid);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.mule.extension.whisperer.internal.helpers.scratch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A private scratch directory for a single request, allocated by {@link ScratchSpaceManager}.
+ * Closing it deletes the directory and returns its bytes to the manager's quota.
+ */
+public class ScratchSpace implements AutoCloseable {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final ScratchSpaceManager manager;
+    private final Path directory;
+    private long reservedBytes;
+    private boolean closed;
+
+    ScratchSpace(ScratchSpaceManager manager, Path directory) {
+        this.manager = manager;
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Streams content into a new file of this scratch space, reserving quota as bytes are written.
+     *
+     * @param fileName name of the file to create
+     * @param content content to write
+     * @return the path of the written file
+     * @throws ScratchSpaceQuotaExceededException if the content does not fit in the remaining quota
+     * @throws IOException if the content cannot be written
+     */
+    public synchronized Path write(String fileName, InputStream content) throws IOException {
+        Path file = directory.resolve(fileName);
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        try (OutputStream out = Files.newOutputStream(file)) {
+            int bytesRead;
+            while ((bytesRead = content.read(buffer)) != -1) {
+                manager.reserve(bytesRead);
+                reservedBytes += bytesRead;
+                out.write(buffer, 0, bytesRead);
+            }
+        }
+        return file;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            manager.release(this, reservedBytes);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.mule.extension.whisperer.internal.helpers.scratch;
+
+import org.apache.commons.io.FileUtils;
+import org.mule.extension.whisperer.internal.helpers.system.JvmClaims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out isolated scratch directories so that concurrent transcriptions never share temporary files.
+ *
+ * <p>Layout on disk:
+ * <pre>
+ *   &lt;base&gt;/whisperer-scratch/&lt;instance-id&gt;/.lock
+ *   &lt;base&gt;/whisperer-scratch/&lt;instance-id&gt;/request-&lt;uuid&gt;/...
+ * </pre>
+ *
+ * <p>Each manager instance holds a file lock on its own instance directory for as long as it is started. On start,
+ * sibling instance directories whose lock can be acquired belong to a process that is gone and are removed as
+ * orphans. File locks belong to the process, and closing any channel on a lock file releases the lock another
+ * manager of the JVM holds on it, so every manager {@link JvmClaims claims} its instance directory before locking it,
+ * and claimed directories are never probed, whichever application they belong to. Bytes written through
+ * {@link ScratchSpace} count against an optional quota shared by all scratch spaces of the manager.
+ */
+public class ScratchSpaceManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScratchSpaceManager.class);
+
+    public static final String ROOT_DIRECTORY_NAME = "whisperer-scratch";
+
+    private static final String LOCK_FILE_NAME = ".lock";
+    private static final String REQUEST_DIRECTORY_PREFIX = "request-";
+
+    // An instance directory without a lock file may be a manager that is still starting up
+    private static final long UNLOCKED_GRACE_PERIOD_MILLIS = 60_000;
+
+    private final Path rootDirectory;
+    private final Path instanceDirectory;
+    private final long quotaBytes;
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    private FileChannel lockChannel;
+    private FileLock instanceLock;
+    private String claim;
+    private String claimToken;
+
+    /**
+     * @param baseDirectory directory under which scratch data is kept, e.g. a tmpfs mount or a local disk
+     * @param quotaBytes maximum number of bytes all scratch spaces may hold at once, or 0 for no limit
+     */
+    public ScratchSpaceManager(Path baseDirectory, long quotaBytes) {
+        this.rootDirectory = baseDirectory.resolve(ROOT_DIRECTORY_NAME);
+        this.instanceDirectory = rootDirectory.resolve(UUID.randomUUID().toString());
+        this.quotaBytes = quotaBytes;
+    }
+
+    /**
+     * Creates the instance directory, locks it and removes orphaned directories left behind by dead processes.
+     *
+     * @throws IOException if the instance directory cannot be created or locked
+     */
+    public synchronized void start() throws IOException {
+        Files.createDirectories(rootDirectory);
+        // Claimed before the directory exists, so no sweep of this JVM ever opens its lock file
+        claim = claimName(instanceDirectory);
+        claimToken = JvmClaims.claim(claim);
+        try {
+            Files.createDirectories(instanceDirectory);
+            lockChannel = FileChannel.open(instanceDirectory.resolve(LOCK_FILE_NAME),
+                                           StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            instanceLock = lockChannel.lock();
+        } catch (IOException | RuntimeException e) {
+            stop();
+            throw e;
+        }
+
+        LOGGER.debug("Scratch space started at {} with quota of {} bytes", instanceDirectory, quotaBytes);
+
+        removeOrphans();
+    }
+
+    /**
+     * Deletes the instance directory together with any scratch space still allocated and releases the lock.
+     */
+    public synchronized void stop() {
+        try {
+            if (instanceLock != null) {
+                instanceLock.release();
+            }
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to release scratch space lock for {}", instanceDirectory, e);
+        } finally {
+            instanceLock = null;
+            lockChannel = null;
+        }
+
+        delete(instanceDirectory);
+        if (claimToken != null) {
+            JvmClaims.release(claim, claimToken);
+            claimToken = null;
+        }
+        usedBytes.set(0);
+    }
+
+    /**
+     * Allocates a new, empty scratch directory. Callers must close the returned scratch space when done.
+     *
+     * @return the allocated scratch space
+     * @throws IOException if the directory cannot be created
+     */
+    public ScratchSpace allocate() throws IOException {
+        Path directory = Files.createDirectory(instanceDirectory.resolve(REQUEST_DIRECTORY_PREFIX + UUID.randomUUID()));
+        LOGGER.trace("Allocated scratch space {}", directory);
+        return new ScratchSpace(this, directory);
+    }
+
+    /**
+     * @return bytes currently held by all allocated scratch spaces
+     */
+    long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    Path getInstanceDirectory() {
+        return instanceDirectory;
+    }
+
+    /**
+     * Reserves space against the quota.
+     *
+     * @throws ScratchSpaceQuotaExceededException if the reservation would exceed the quota; nothing is reserved then
+     */
+    void reserve(long bytes) throws ScratchSpaceQuotaExceededException {
+        if (quotaBytes <= 0) {
+            usedBytes.addAndGet(bytes);
+            return;
+        }
+        long current;
+        do {
+            current = usedBytes.get();
+            if (current + bytes > quotaBytes) {
+                throw new ScratchSpaceQuotaExceededException(quotaBytes, current, bytes);
+            }
+        } while (!usedBytes.compareAndSet(current, current + bytes));
+    }
+
+    void release(ScratchSpace scratchSpace, long reservedBytes) {
+        delete(scratchSpace.getDirectory());
+        usedBytes.addAndGet(-reservedBytes);
+        LOGGER.trace("Released scratch space {} ({} bytes)", scratchSpace.getDirectory(), reservedBytes);
+    }
+
+    private void removeOrphans() {
+        try (DirectoryStream<Path> instances = Files.newDirectoryStream(rootDirectory, Files::isDirectory)) {
+            for (Path instance : instances) {
+                if (!JvmClaims.isClaimed(claimName(instance)) && isOrphan(instance)) {
+                    LOGGER.info("Removing orphaned scratch space {}", instance);
+                    delete(instance);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Unable to scan {} for orphaned scratch spaces", rootDirectory, e);
+        }
+    }
+
+    private boolean isOrphan(Path instance) throws IOException {
+        Path lockFile = instance.resolve(LOCK_FILE_NAME);
+        if (!Files.exists(lockFile)) {
+            return System.currentTimeMillis() - Files.getLastModifiedTime(instance).toMillis() > UNLOCKED_GRACE_PERIOD_MILLIS;
+        }
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.WRITE);
+             FileLock lock = channel.tryLock()) {
+            // Held by another process when null
+            return lock != null;
+        } catch (OverlappingFileLockException e) {
+            // Locked in this JVM without a claim, which only a manager that is not started yet could do
+            return false;
+        }
+    }
+
+    /**
+     * @return the claim of an instance directory, from the real path of the root so every manager names it alike
+     */
+    private String claimName(Path instance) throws IOException {
+        return "scratch:" + rootDirectory.toRealPath().resolve(instance.getFileName().toString());
+    }
+
+    private static void delete(Path directory) {
+        File file = directory.toFile();
+        if (file.exists() && !FileUtils.deleteQuietly(file)) {
+            LOGGER.warn("Failed to delete scratch directory {}", directory);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.mule.extension.whisperer.internal.helpers.scratch;
+
+import java.io.IOException;
+
+/**
+ * Thrown when writing to a {@link ScratchSpace} would exceed the quota of its {@link ScratchSpaceManager}.
+ */
+public class ScratchSpaceQuotaExceededException extends IOException {
+
+    public ScratchSpaceQuotaExceededException(long quotaBytes, long usedBytes, long requestedBytes) {
+        super(String.format("Scratch space quota of %d bytes exceeded: %d bytes in use, %d bytes requested",
+                            quotaBytes, usedBytes, requestedBytes));
+    }
+}
@@ -0,0 +1,83 @@
+package org.mule.extension.whisperer.internal.helpers.system;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Number of CPUs the process may actually use, taking the container's cgroup CPU quota into account.
+ *
+ * <p>The JVM already honours cpusets and, on recent versions, CPU quotas in
+ * {@link Runtime#availableProcessors()}, but that support can be disabled with {@code -XX:-UseContainerSupport}
+ * and differs between JDK builds. Reading the quota directly keeps the thread budget right either way. Both the
+ * cgroup v2 {@code cpu.max} file and the cgroup v1 {@code cpu.cfs_quota_us}/{@code cpu.cfs_period_us} pair are
+ * understood; a fractional quota is rounded up.
+ */
+public final class ContainerCpus {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContainerCpus.class);
+
+    private static final Path CGROUP_ROOT = Paths.get("/sys/fs/cgroup");
+
+    private ContainerCpus() {
+    }
+
+    /**
+     * @return CPUs available to the process, at least 1
+     */
+    public static int availableCpus() {
+        return availableCpus(CGROUP_ROOT, Runtime.getRuntime().availableProcessors());
+    }
+
+    static int availableCpus(Path cgroupRoot, int processors) {
+        int quota = cgroupQuota(cgroupRoot);
+        int cpus = quota > 0 ? Math.min(processors, quota) : processors;
+        LOGGER.debug("{} CPUs available ({} processors, cgroup quota {})", cpus, processors, quota > 0 ? quota : "none");
+        return Math.max(1, cpus);
+    }
+
+    /**
+     * @return the CPU quota of the cgroup rounded up to whole CPUs, or 0 if there is none or it cannot be read
+     */
+    static int cgroupQuota(Path cgroupRoot) {
+        try {
+            // cgroup v2: "<quota> <period>" or "max <period>"
+            Path cpuMax = cgroupRoot.resolve("cpu.max");
+            if (Files.isReadable(cpuMax)) {
+                String[] fields = read(cpuMax).split("\\s+");
+                if (fields.length == 2 && !"max".equals(fields[0])) {
+                    return toCpus(Long.parseLong(fields[0]), Long.parseLong(fields[1]));
+                }
+                return 0;
+            }
+
+            // cgroup v1: quota of -1 means unlimited
+            for (String controller : new String[] {"cpu", "cpu,cpuacct"}) {
+                Path quotaFile = cgroupRoot.resolve(controller).resolve("cpu.cfs_quota_us");
+                Path periodFile = cgroupRoot.resolve(controller).resolve("cpu.cfs_period_us");
+                if (Files.isReadable(quotaFile) && Files.isReadable(periodFile)) {
+                    return toCpus(Long.parseLong(read(quotaFile)), Long.parseLong(read(periodFile)));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.debug("Unable to read the cgroup CPU quota under {}", cgroupRoot, e);
+        }
+        return 0;
+    }
+
+    private static int toCpus(long quota, long period) {
+        if (quota <= 0 || period <= 0) {
+            return 0;
+        }
+        return (int) Math.max(1, (quota + period - 1) / period);
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.US_ASCII).trim();
+    }
+}
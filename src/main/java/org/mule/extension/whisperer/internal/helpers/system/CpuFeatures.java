@@ -0,0 +1,129 @@
+package org.mule.extension.whisperer.internal.helpers.system;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Instruction set extensions of the host CPU, read from the {@code flags} line of {@code /proc/cpuinfo}, used to pick
+ * the fastest build of the native libraries the CPU can run.
+ *
+ * <p>The kernel only lists extensions the operating system has enabled, so a listed AVX-512 flag also means the
+ * kernel saves the wider registers. If the flags cannot be read, only the {@link Level#BASELINE} build is considered
+ * safe: loading a build that uses an unsupported instruction crashes the JVM rather than failing with an exception.
+ */
+public final class CpuFeatures {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CpuFeatures.class);
+
+    private static final Path CPUINFO = Paths.get("/proc/cpuinfo");
+
+    /**
+     * Instruction set levels the native libraries can be built for, from the fastest to the most compatible.
+     */
+    public enum Level {
+
+        AVX512("avx512", "avx", "avx2", "fma", "f16c", "avx512f", "avx512bw", "avx512vl"),
+        AVX2("avx2", "avx", "avx2", "fma", "f16c"),
+        BASELINE("baseline");
+
+        private final String id;
+        private final Set<String> requiredFlags;
+
+        Level(String id, String... requiredFlags) {
+            this.id = id;
+            this.requiredFlags = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(requiredFlags)));
+        }
+
+        /**
+         * @return lower case name used in resource and directory names
+         */
+        public String id() {
+            return id;
+        }
+
+        /**
+         * @return whether a CPU with the given flags can run a build for this level
+         */
+        public boolean isSupportedBy(Set<String> flags) {
+            return flags.containsAll(requiredFlags);
+        }
+
+        /**
+         * @return the level with the given id, ignoring case, or {@code null} if there is none
+         */
+        public static Level fromId(String id) {
+            for (Level level : values()) {
+                if (level.id.equalsIgnoreCase(id.trim())) {
+                    return level;
+                }
+            }
+            return null;
+        }
+    }
+
+    private CpuFeatures() {
+    }
+
+    /**
+     * @return flags of the host CPU, empty if they cannot be read
+     */
+    public static Set<String> flags() {
+        return flags(CPUINFO);
+    }
+
+    static Set<String> flags(Path cpuinfo) {
+        try {
+            return parseFlags(new String(Files.readAllBytes(cpuinfo), StandardCharsets.US_ASCII));
+        } catch (IOException e) {
+            LOGGER.debug("Unable to read CPU flags from {}", cpuinfo, e);
+            return Collections.emptySet();
+        }
+    }
+
+    /**
+     * Takes the flags of the first processor; all processors of a host report the same extensions.
+     */
+    static Set<String> parseFlags(String cpuinfo) {
+        for (String line : cpuinfo.split("\n")) {
+            int colon = line.indexOf(':');
+            if (colon > 0 && "flags".equals(line.substring(0, colon).trim())) {
+                Set<String> flags = new HashSet<>();
+                for (String flag : line.substring(colon + 1).trim().split("\\s+")) {
+                    if (!flag.isEmpty()) {
+                        flags.add(flag.toLowerCase(Locale.ROOT));
+                    }
+                }
+                return flags;
+            }
+        }
+        return Collections.emptySet();
+    }
+
+    /**
+     * @param flags CPU flags
+     * @param limit highest level to consider, or {@code null} for no limit
+     * @return levels the CPU supports up to the limit, fastest first, always ending with {@link Level#BASELINE}
+     */
+    public static List<Level> supportedLevels(Set<String> flags, Level limit) {
+        List<Level> levels = new ArrayList<>();
+        for (Level level : Level.values()) {
+            if ((limit == null || level.compareTo(limit) >= 0) && level.isSupportedBy(flags)) {
+                levels.add(level);
+            }
+        }
+        return levels;
+    }
+}
@@ -0,0 +1,44 @@
+package org.mule.extension.whisperer.internal.helpers.system;
+
+import java.util.UUID;
+
+/**
+ * Names claimed by one owner at a time across the whole JVM, whichever copy of the connector the owner belongs to.
+ *
+ * <p>Each Mule application loads the connector with its own class loader, so a static field is only shared by the
+ * configurations of one application. File locks on the other hand belong to the process: closing any channel on a
+ * locked file releases the locks every application of the JVM holds on it. Files an application holds a lock on are
+ * therefore claimed here first, and the other applications leave them alone while they are claimed. Claims are kept in
+ * the system properties, which every class loader sees, and only as strings, so no class of the connector is shared
+ * between applications.
+ */
+public final class JvmClaims {
+
+    private static final String PREFIX = "org.mule.extension.whisperer.claim.";
+
+    private JvmClaims() {
+    }
+
+    /**
+     * @param name what to claim, such as the real path of a lock file
+     * @return a token to {@link #release} the claim with, or {@code null} if someone else holds it
+     */
+    public static String claim(String name) {
+        String token = UUID.randomUUID().toString();
+        return System.getProperties().putIfAbsent(PREFIX + name, token) == null ? token : null;
+    }
+
+    /**
+     * @return whether anyone in this JVM holds the claim
+     */
+    public static boolean isClaimed(String name) {
+        return System.getProperties().containsKey(PREFIX + name);
+    }
+
+    /**
+     * Releases a claim, if it is still held with that token.
+     */
+    public static void release(String name, String token) {
+        System.getProperties().remove(PREFIX + name, token);
+    }
+}
@@ -0,0 +1,64 @@
+package org.mule.extension.whisperer.internal.helpers.vad;
+
+import org.mule.extension.whisperer.internal.helpers.audio.AudioDecoder;
+
+/**
+ * A window of a longer recording, as produced by {@link SilenceSplitter}.
+ *
+ * <p>Windows overlap their neighbours so each one has some context on both sides, but every instant of the
+ * recording is owned by exactly one window: results for the overlapping parts are taken from the owner.
+ */
+public class AudioWindow {
+
+    private final int startSample;
+    private final int endSample;
+    private final int ownedStartSample;
+    private final int ownedEndSample;
+
+    public AudioWindow(int startSample, int endSample, int ownedStartSample, int ownedEndSample) {
+        this.startSample = startSample;
+        this.endSample = endSample;
+        this.ownedStartSample = ownedStartSample;
+        this.ownedEndSample = ownedEndSample;
+    }
+
+    public int getStartSample() {
+        return startSample;
+    }
+
+    public int getEndSample() {
+        return endSample;
+    }
+
+    public int getLength() {
+        return endSample - startSample;
+    }
+
+    public long getStartMillis() {
+        return toMillis(startSample);
+    }
+
+    /**
+     * @return start of the part of the recording this window is responsible for
+     */
+    public long getOwnedStartMillis() {
+        return toMillis(ownedStartSample);
+    }
+
+    /**
+     * @return end of the part of the recording this window is responsible for
+     */
+    public long getOwnedEndMillis() {
+        return toMillis(ownedEndSample);
+    }
+
+    private static long toMillis(int sample) {
+        return sample * 1000L / AudioDecoder.WHISPER_SAMPLE_RATE;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + toMillis(startSample) + " ms, " + toMillis(endSample) + " ms) owning ["
+            + getOwnedStartMillis() + " ms, " + getOwnedEndMillis() + " ms)";
+    }
+}
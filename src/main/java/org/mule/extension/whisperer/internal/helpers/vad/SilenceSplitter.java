@@ -0,0 +1,76 @@
+package org.mule.extension.whisperer.internal.helpers.vad;
+
+import org.mule.extension.whisperer.internal.helpers.audio.AudioDecoder;
+import org.mule.extension.whisperer.internal.helpers.audio.FloatSampleBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits long recordings into overlapping windows that can be transcribed independently.
+ *
+ * <p>Each cut is placed at the quietest 30 ms of audio within a search range before the nominal window end, so
+ * windows usually meet in a pause rather than in the middle of a word.
+ */
+public class SilenceSplitter {
+
+    /** Length of the frames compared when looking for a quiet cut point. */
+    private static final int FRAME_SIZE = AudioDecoder.WHISPER_SAMPLE_RATE * 30 / 1000;
+
+    /** Step between candidate cut points. */
+    private static final int HOP_SIZE = AudioDecoder.WHISPER_SAMPLE_RATE * 10 / 1000;
+
+    private SilenceSplitter() {
+    }
+
+    /**
+     * @param samples 16kHz mono samples
+     * @param windowSamples maximum number of samples owned by a window
+     * @param overlapSamples context added on each side of a window, beyond the part it owns
+     * @param searchSamples how far before the nominal window end to look for a quiet cut point
+     * @return windows in ascending order; a single window if the recording fits in one
+     */
+    public static List<AudioWindow> split(FloatSampleBuffer samples, int windowSamples, int overlapSamples,
+                                          int searchSamples) {
+        if (windowSamples <= 0) {
+            throw new IllegalArgumentException("Window size must be positive");
+        }
+
+        int size = samples.size();
+        List<AudioWindow> windows = new ArrayList<>();
+        int ownedStart = 0;
+        while (ownedStart < size) {
+            int ownedEnd = size - ownedStart <= windowSamples
+                ? size
+                : findQuietestPoint(samples.array(), size,
+                                    Math.max(ownedStart + 1, ownedStart + windowSamples - searchSamples),
+                                    ownedStart + windowSamples);
+            windows.add(new AudioWindow(Math.max(0, ownedStart - overlapSamples), Math.min(size, ownedEnd + overlapSamples),
+                                        ownedStart, ownedEnd));
+            ownedStart = ownedEnd;
+        }
+        return windows;
+    }
+
+    /**
+     * @return the center of the quietest frame whose center lies in {@code [from, to]}, or {@code to} if the
+     *         range is too short to compare frames
+     */
+    private static int findQuietestPoint(float[] data, int size, int from, int to) {
+        int best = to;
+        double bestEnergy = Double.MAX_VALUE;
+        int last = Math.min(to, size - FRAME_SIZE / 2);
+        for (int center = Math.max(from, FRAME_SIZE / 2); center <= last; center += HOP_SIZE) {
+            int frameStart = center - FRAME_SIZE / 2;
+            double energy = 0;
+            for (int i = frameStart; i < frameStart + FRAME_SIZE; i++) {
+                energy += data[i] * data[i];
+            }
+            if (energy < bestEnergy) {
+                bestEnergy = energy;
+                best = center;
+            }
+        }
+        return best;
+    }
+}
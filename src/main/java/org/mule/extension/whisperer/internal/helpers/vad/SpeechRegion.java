@@ -0,0 +1,51 @@
+package org.mule.extension.whisperer.internal.helpers.vad;
+
+import org.mule.extension.whisperer.internal.helpers.audio.AudioDecoder;
+
+/**
+ * A region of 16kHz audio containing speech, as a half-open range of sample indexes.
+ */
+public class SpeechRegion {
+
+    private final int startSample;
+    private final int endSample;
+
+    public SpeechRegion(int startSample, int endSample) {
+        if (startSample < 0 || endSample < startSample) {
+            throw new IllegalArgumentException("Invalid speech region [" + startSample + ", " + endSample + ")");
+        }
+        this.startSample = startSample;
+        this.endSample = endSample;
+    }
+
+    /**
+     * @return index of the first sample of the region
+     */
+    public int getStartSample() {
+        return startSample;
+    }
+
+    /**
+     * @return index of the sample just after the region
+     */
+    public int getEndSample() {
+        return endSample;
+    }
+
+    public int getLength() {
+        return endSample - startSample;
+    }
+
+    public long getStartMillis() {
+        return startSample * 1000L / AudioDecoder.WHISPER_SAMPLE_RATE;
+    }
+
+    public long getEndMillis() {
+        return endSample * 1000L / AudioDecoder.WHISPER_SAMPLE_RATE;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + getStartMillis() + " ms, " + getEndMillis() + " ms)";
+    }
+}
@@ -0,0 +1,104 @@
+package org.mule.extension.whisperer.internal.helpers.vad;
+
+import org.mule.extension.whisperer.internal.helpers.audio.AudioDecoder;
+import org.mule.extension.whisperer.internal.helpers.audio.FloatSampleBuffer;
+
+import java.util.List;
+
+/**
+ * Audio reduced to its speech regions, laid end to end, together with the mapping needed to translate
+ * timestamps in the compacted audio back to the original recording.
+ */
+public class SpeechTimeline {
+
+    private final FloatSampleBuffer samples;
+    private final int[] compactedStarts;
+    private final int[] originalStarts;
+    private final int[] lengths;
+
+    private SpeechTimeline(FloatSampleBuffer samples, int[] compactedStarts, int[] originalStarts, int[] lengths) {
+        this.samples = samples;
+        this.compactedStarts = compactedStarts;
+        this.originalStarts = originalStarts;
+        this.lengths = lengths;
+    }
+
+    /**
+     * Copies the speech regions of a clip into a new buffer.
+     *
+     * @param samples the original 16kHz mono samples
+     * @param regions non-overlapping speech regions in ascending order, as returned by {@link VoiceActivityDetector}
+     * @return the compacted audio and its mapping to the original timeline
+     */
+    public static SpeechTimeline compact(FloatSampleBuffer samples, List<SpeechRegion> regions) {
+        int total = 0;
+        for (SpeechRegion region : regions) {
+            total += region.getLength();
+        }
+
+        FloatSampleBuffer compacted = new FloatSampleBuffer(total);
+        int[] compactedStarts = new int[regions.size()];
+        int[] originalStarts = new int[regions.size()];
+        int[] lengths = new int[regions.size()];
+        for (int i = 0; i < regions.size(); i++) {
+            SpeechRegion region = regions.get(i);
+            compactedStarts[i] = compacted.size();
+            originalStarts[i] = region.getStartSample();
+            lengths[i] = region.getLength();
+            compacted.append(samples.array(), region.getStartSample(), region.getLength());
+        }
+        return new SpeechTimeline(compacted, compactedStarts, originalStarts, lengths);
+    }
+
+    /**
+     * @return the speech regions laid end to end
+     */
+    public FloatSampleBuffer getSamples() {
+        return samples;
+    }
+
+    /**
+     * Maps the start of an event in the compacted audio to the original timeline. A position on the boundary
+     * between two regions belongs to the later one.
+     *
+     * @param compactedMillis time in the compacted audio
+     * @return the same instant in the original audio
+     */
+    public long toOriginalStartMillis(long compactedMillis) {
+        return toOriginalMillis(compactedMillis, false);
+    }
+
+    /**
+     * Maps the end of an event in the compacted audio to the original timeline. A position on the boundary
+     * between two regions belongs to the earlier one, so events do not stretch over the removed silence.
+     *
+     * @param compactedMillis time in the compacted audio
+     * @return the same instant in the original audio
+     */
+    public long toOriginalEndMillis(long compactedMillis) {
+        return toOriginalMillis(compactedMillis, true);
+    }
+
+    private long toOriginalMillis(long compactedMillis, boolean end) {
+        if (compactedStarts.length == 0) {
+            return compactedMillis;
+        }
+        long sample = compactedMillis * AudioDecoder.WHISPER_SAMPLE_RATE / 1000;
+
+        // Last region starting before (or, for starts, at) the position
+        int low = 0;
+        int high = compactedStarts.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            boolean before = end ? compactedStarts[mid] < sample : compactedStarts[mid] <= sample;
+            if (before) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        long offset = Math.min(Math.max(sample - compactedStarts[low], 0), lengths[low]);
+        return (originalStarts[low] + offset) * 1000 / AudioDecoder.WHISPER_SAMPLE_RATE;
+    }
+}
@@ -0,0 +1,239 @@
+package org.mule.extension.whisperer.internal.helpers.vad;
+
+import org.mule.extension.whisperer.internal.helpers.audio.AudioDecoder;
+import org.mule.extension.whisperer.internal.helpers.audio.FloatSampleBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pure-Java voice activity detector for 16kHz mono audio, based on frame energy and spectral flatness.
+ *
+ * <p>The audio is cut into 30 ms frames. A frame is considered speech when its energy is clearly above the noise
+ * floor of the clip, estimated from its quietest frames, and its spectrum in the speech band is structured rather
+ * than flat: voiced speech concentrates energy in harmonics, while hiss and broadband noise spread it evenly.
+ * Speech frames are then grouped into regions, short pauses are bridged and short bursts are discarded, and every
+ * region is padded so word onsets and endings are not clipped.
+ *
+ * <p>Detectors are immutable and can be shared between threads.
+ */
+public class VoiceActivityDetector {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VoiceActivityDetector.class);
+
+    /** 30 ms frames at 16kHz. */
+    static final int FRAME_SIZE = 480;
+
+    private static final int FFT_SIZE = 512;
+
+    /** Speech band used for the flatness measure, in FFT bins (31.25 Hz each). */
+    private static final int MIN_BIN = 100 * FFT_SIZE / AudioDecoder.WHISPER_SAMPLE_RATE + 1;
+    private static final int MAX_BIN = 4000 * FFT_SIZE / AudioDecoder.WHISPER_SAMPLE_RATE;
+
+    /** Frames quieter than this are never speech, whatever the noise floor. */
+    private static final double ABSOLUTE_FLOOR_DB = -55.0;
+
+    /** Spectral flatness above which a frame sounds like noise (white noise is about 0.56). */
+    private static final double MAX_SPEECH_FLATNESS = 0.45;
+
+    /** Percentiles of frame energy used as noise floor and speech level estimates. */
+    private static final double NOISE_PERCENTILE = 0.10;
+    private static final double SPEECH_PERCENTILE = 0.95;
+
+    /** Isolated bursts shorter than this are dropped as clicks. */
+    private static final int MIN_SPEECH_MILLIS = 250;
+
+    private static final double[] WINDOW = new double[FRAME_SIZE];
+    private static final double[] COS = new double[FFT_SIZE / 2];
+    private static final double[] SIN = new double[FFT_SIZE / 2];
+
+    static {
+        for (int i = 0; i < FRAME_SIZE; i++) {
+            WINDOW[i] = 0.5 - 0.5 * Math.cos(2 * Math.PI * i / (FRAME_SIZE - 1));
+        }
+        for (int i = 0; i < FFT_SIZE / 2; i++) {
+            COS[i] = Math.cos(2 * Math.PI * i / FFT_SIZE);
+            SIN[i] = -Math.sin(2 * Math.PI * i / FFT_SIZE);
+        }
+    }
+
+    private final double thresholdDb;
+    private final int minSilenceFrames;
+    private final int paddingSamples;
+
+    /**
+     * @param thresholdDb how far above the noise floor, in dB, a frame must be to count as speech
+     * @param minSilenceMillis pauses shorter than this are kept inside the surrounding speech region
+     * @param paddingMillis audio kept before and after each speech region
+     */
+    public VoiceActivityDetector(double thresholdDb, int minSilenceMillis, int paddingMillis) {
+        this.thresholdDb = thresholdDb;
+        this.minSilenceFrames = Math.max(0, minSilenceMillis) * AudioDecoder.WHISPER_SAMPLE_RATE / 1000 / FRAME_SIZE;
+        this.paddingSamples = Math.max(0, paddingMillis) * AudioDecoder.WHISPER_SAMPLE_RATE / 1000;
+    }
+
+    /**
+     * Finds the speech regions of a clip.
+     *
+     * @param samples 16kHz mono samples
+     * @return non-overlapping speech regions in ascending order; empty if the clip holds no speech
+     */
+    public List<SpeechRegion> detect(FloatSampleBuffer samples) {
+        int frameCount = (samples.size() + FRAME_SIZE - 1) / FRAME_SIZE;
+        if (frameCount == 0) {
+            return new ArrayList<>();
+        }
+
+        double[] energies = new double[frameCount];
+        double[] flatness = new double[frameCount];
+        analyzeFrames(samples, energies, flatness);
+
+        double threshold = threshold(energies);
+        boolean[] speech = new boolean[frameCount];
+        for (int i = 0; i < frameCount; i++) {
+            speech[i] = energies[i] > threshold && flatness[i] < MAX_SPEECH_FLATNESS;
+        }
+
+        List<SpeechRegion> regions = toRegions(speech, samples.size());
+        if (LOGGER.isDebugEnabled()) {
+            long speechSamples = regions.stream().mapToLong(SpeechRegion::getLength).sum();
+            LOGGER.debug("Voice activity detection kept {} of {} ms in {} regions (threshold {} dB)",
+                         speechSamples * 1000 / AudioDecoder.WHISPER_SAMPLE_RATE, samples.durationMillis(),
+                         regions.size(), String.format("%.1f", threshold));
+        }
+        return regions;
+    }
+
+    private void analyzeFrames(FloatSampleBuffer samples, double[] energies, double[] flatness) {
+        float[] data = samples.array();
+        double[] re = new double[FFT_SIZE];
+        double[] im = new double[FFT_SIZE];
+
+        for (int frame = 0; frame < energies.length; frame++) {
+            int offset = frame * FRAME_SIZE;
+            int length = Math.min(FRAME_SIZE, samples.size() - offset);
+
+            double sumSquares = 0;
+            for (int i = 0; i < length; i++) {
+                double value = data[offset + i];
+                sumSquares += value * value;
+                re[i] = value * WINDOW[i];
+            }
+            Arrays.fill(re, length, FFT_SIZE, 0);
+            Arrays.fill(im, 0);
+            energies[frame] = 10 * Math.log10(sumSquares / length + 1e-12);
+
+            fft(re, im);
+
+            double logSum = 0;
+            double sum = 0;
+            for (int bin = MIN_BIN; bin <= MAX_BIN; bin++) {
+                double power = re[bin] * re[bin] + im[bin] * im[bin] + 1e-12;
+                logSum += Math.log(power);
+                sum += power;
+            }
+            int bins = MAX_BIN - MIN_BIN + 1;
+            flatness[frame] = Math.exp(logSum / bins) / (sum / bins);
+        }
+    }
+
+    /**
+     * Speech must be {@code thresholdDb} above the noise floor, but never so far above it that a clip made
+     * almost entirely of speech, whose quietest frames are still speech, loses its quieter words.
+     */
+    private double threshold(double[] energies) {
+        double[] sorted = energies.clone();
+        Arrays.sort(sorted);
+        double noiseFloor = sorted[(int) (NOISE_PERCENTILE * (sorted.length - 1))];
+        double speechLevel = sorted[(int) (SPEECH_PERCENTILE * (sorted.length - 1))];
+        return Math.max(ABSOLUTE_FLOOR_DB, Math.min(noiseFloor + thresholdDb, speechLevel - thresholdDb));
+    }
+
+    private List<SpeechRegion> toRegions(boolean[] speech, int sampleCount) {
+        // Bridge short pauses
+        int lastSpeech = -1;
+        for (int i = 0; i < speech.length; i++) {
+            if (speech[i]) {
+                if (lastSpeech >= 0 && i - lastSpeech - 1 <= minSilenceFrames) {
+                    Arrays.fill(speech, lastSpeech + 1, i, true);
+                }
+                lastSpeech = i;
+            }
+        }
+
+        List<SpeechRegion> regions = new ArrayList<>();
+        int minSpeechFrames = MIN_SPEECH_MILLIS * AudioDecoder.WHISPER_SAMPLE_RATE / 1000 / FRAME_SIZE;
+        int start = -1;
+        for (int i = 0; i <= speech.length; i++) {
+            boolean isSpeech = i < speech.length && speech[i];
+            if (isSpeech && start < 0) {
+                start = i;
+            } else if (!isSpeech && start >= 0) {
+                if (i - start >= minSpeechFrames) {
+                    addPadded(regions, start * FRAME_SIZE, Math.min(i * FRAME_SIZE, sampleCount), sampleCount);
+                }
+                start = -1;
+            }
+        }
+        return regions;
+    }
+
+    private void addPadded(List<SpeechRegion> regions, int start, int end, int sampleCount) {
+        int paddedStart = Math.max(0, start - paddingSamples);
+        int paddedEnd = Math.min(sampleCount, end + paddingSamples);
+
+        // Padding can make neighbouring regions touch; merge them
+        if (!regions.isEmpty()) {
+            SpeechRegion previous = regions.get(regions.size() - 1);
+            if (paddedStart <= previous.getEndSample()) {
+                regions.set(regions.size() - 1, new SpeechRegion(previous.getStartSample(), paddedEnd));
+                return;
+            }
+        }
+        regions.add(new SpeechRegion(paddedStart, paddedEnd));
+    }
+
+    /**
+     * In-place iterative radix-2 FFT of size {@link #FFT_SIZE}.
+     */
+    private static void fft(double[] re, double[] im) {
+        int n = FFT_SIZE;
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+            if (i < j) {
+                double t = re[i];
+                re[i] = re[j];
+                re[j] = t;
+                t = im[i];
+                im[i] = im[j];
+                im[j] = t;
+            }
+        }
+
+        for (int length = 2; length <= n; length <<= 1) {
+            int half = length >> 1;
+            int step = n / length;
+            for (int i = 0; i < n; i += length) {
+                for (int k = 0; k < half; k++) {
+                    double wr = COS[k * step];
+                    double wi = SIN[k * step];
+                    int a = i + k;
+                    int b = a + half;
+                    double xr = re[b] * wr - im[b] * wi;
+                    double xi = re[b] * wi + im[b] * wr;
+                    re[b] = re[a] - xr;
+                    im[b] = im[a] - xi;
+                    re[a] += xr;
+                    im[a] += xi;
+                }
+            }
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package org.mule.extension.whisperer.internal.operation;
 
+import org.mule.extension.whisperer.api.InferenceStats;
 import org.mule.extension.whisperer.api.STTParamsModelDetails;
 import org.mule.extension.whisperer.internal.connection.SpeechToTextConnection;
+import org.mule.extension.whisperer.internal.error.InferenceStatsErrorTypeProvider;
+import org.mule.extension.whisperer.internal.error.ModelReloadErrorTypeProvider;
 import org.mule.extension.whisperer.internal.error.TranscriptionErrorTypeProvider;
 import org.mule.extension.whisperer.internal.metadata.TranscriptionOutputResolver;
 import org.mule.runtime.api.metadata.TypedValue;
@@ -11,12 +14,14 @@ import org.mule.runtime.extension.api.annotation.metadata.MetadataKeyId;
 import org.mule.runtime.extension.api.annotation.metadata.OutputResolver;
 import org.mule.runtime.extension.api.annotation.param.*;
 import org.mule.runtime.extension.api.annotation.param.display.DisplayName;
+import org.mule.runtime.extension.api.annotation.param.display.Summary;
 import org.mule.runtime.extension.api.runtime.operation.Result;
 import org.mule.runtime.extension.api.runtime.process.CompletionCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.InputStream;
+import java.util.concurrent.CompletionException;
 
 public class SpeechToTextOperations {
     private static final Logger LOGGER = LoggerFactory.getLogger(SpeechToTextOperations.class);
@@ -35,10 +40,36 @@ public class SpeechToTextOperations {
             if (null == e) {
                 callback.success(Result.<String, Object>builder()
                         .output(result.getOutput())
+                        .attributes(result.getAttributes().orElse(null))
                         .build());
             } else {
-                callback.error(e.getCause());
+                callback.error(e instanceof CompletionException && null != e.getCause() ? e.getCause() : e);
             }
         });
     }
+
+    @DisplayName("Reload model")
+    @Alias("reload-model")
+    @MediaType(value = MediaType.TEXT_PLAIN, strict = false)
+    @Throws(ModelReloadErrorTypeProvider.class)
+    public void reloadModel(@Connection SpeechToTextConnection connection,
+                            @Optional @Summary("Location of the model to switch to: a file path, a URL or a classpath:// resource. Reloads the configured model when empty. Running transcriptions finish on the previous model.") String modelLocation,
+                            CompletionCallback<String, Void> callback) {
+        connection.reloadModel(modelLocation).whenComplete((modelFile, e) -> {
+            if (null == e) {
+                callback.success(Result.<String, Void>builder()
+                        .output(modelFile)
+                        .build());
+            } else {
+                callback.error(e instanceof CompletionException && null != e.getCause() ? e.getCause() : e);
+            }
+        });
+    }
+
+    @DisplayName("Get inference stats")
+    @Alias("get-inference-stats")
+    @Throws(InferenceStatsErrorTypeProvider.class)
+    public InferenceStats getInferenceStats(@Connection SpeechToTextConnection connection) {
+        return connection.getInferenceStats();
+    }
 }
@@ -0,0 +1,124 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import io.github.givimad.whisperjni.WhisperFullParams;
+import org.junit.jupiter.api.Test;
+import org.mule.extension.whisperer.internal.error.TranscriptionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DecodingOptions.
+ * Tests presets, overrides and fitting of the audio context to the clip length.
+ */
+class DecodingOptionsTest {
+
+    private static final int SAMPLE_RATE = 16000;
+
+    // ==================== Presets ====================
+
+    @Test
+    void testOf_NoPresetKeepsWhisperDefaults() {
+        // Given: Default parameters
+        WhisperFullParams defaults = new WhisperFullParams();
+
+        // When: No preset or override is set
+        WhisperFullParams params = DecodingOptions.of(null, null, null, null, null, null).newParams();
+        DecodingOptions.of(null, null, null, null, null, null).fitToClip(params, 3 * SAMPLE_RATE);
+
+        // Then: Nothing differs from the defaults
+        assertEquals(defaults.temperatureInc, params.temperatureInc);
+        assertEquals(defaults.greedyBestOf, params.greedyBestOf);
+        assertEquals(defaults.noContext, params.noContext);
+        assertFalse(params.singleSegment);
+        assertEquals(0, params.audioCtx);
+    }
+
+    @Test
+    void testOf_RealtimeDecodesShortClipsCheaply() {
+        // Given: The realtime preset
+        DecodingOptions options = DecodingOptions.of("realtime", null, null, null, null, null);
+
+        // When: A 3 second clip is prepared
+        WhisperFullParams params = options.newParams();
+        options.fitToClip(params, 3 * SAMPLE_RATE);
+
+        // Then: Greedy single candidate, no fallback or context, one segment over a scaled context
+        assertEquals(1, params.greedyBestOf);
+        assertEquals(0f, params.temperatureInc);
+        assertTrue(params.noContext);
+        assertTrue(params.singleSegment);
+        assertEquals(256, params.audioCtx);
+    }
+
+    @Test
+    void testOf_AccurateUsesBeamSearchOverFullWindows() {
+        // Given: The accurate preset
+        DecodingOptions options = DecodingOptions.of("ACCURATE", null, null, null, null, null);
+
+        // When: A short clip is prepared
+        WhisperFullParams params = options.newParams();
+        options.fitToClip(params, 3 * SAMPLE_RATE);
+
+        // Then: Five beams and the full audio context
+        assertEquals(5, params.beamSearchBeamSize);
+        assertEquals(0, params.audioCtx);
+        assertFalse(params.noContext);
+    }
+
+    @Test
+    void testOf_UnknownPresetIsRejected() {
+        // When/Then: An unknown preset fails the transcription
+        assertThrows(TranscriptionException.class, () -> DecodingOptions.of("fastest", null, null, null, null, null));
+    }
+
+    // ==================== Overrides ====================
+
+    @Test
+    void testOf_OverridesTakePrecedenceOverPreset() {
+        // Given: The realtime preset with overrides
+        DecodingOptions options = DecodingOptions.of("REALTIME", 3, 0.4, false, false, false);
+
+        // When: A short clip is prepared
+        WhisperFullParams params = options.newParams();
+        options.fitToClip(params, 3 * SAMPLE_RATE);
+
+        // Then: Every override applies
+        assertEquals(3, params.beamSearchBeamSize);
+        assertEquals(0.4f, params.temperatureInc, 1e-6f);
+        assertFalse(params.noContext);
+        assertFalse(params.singleSegment);
+        assertEquals(0, params.audioCtx);
+    }
+
+    @Test
+    void testOf_InvalidOverridesAreRejected() {
+        // When/Then: Out of range overrides fail the transcription
+        assertThrows(TranscriptionException.class, () -> DecodingOptions.of(null, 0, null, null, null, null));
+        assertThrows(TranscriptionException.class, () -> DecodingOptions.of(null, null, -0.2, null, null, null));
+    }
+
+    // ==================== Clip fitting ====================
+
+    @Test
+    void testFitToClip_LongClipKeepsFullWindow() {
+        // Given: The realtime preset
+        DecodingOptions options = DecodingOptions.of("REALTIME", null, null, null, null, null);
+        WhisperFullParams params = options.newParams();
+
+        // When: A short clip and then a clip longer than a window are prepared on the same parameters
+        options.fitToClip(params, 3 * SAMPLE_RATE);
+        options.fitToClip(params, 45 * SAMPLE_RATE);
+
+        // Then: The long clip gets full windows and its segments
+        assertEquals(0, params.audioCtx);
+        assertFalse(params.singleSegment);
+    }
+
+    @Test
+    void testAudioContext_ScalesWithClipLength() {
+        // Then: A second of margin, rounded up, between the minimum and the full window
+        assertEquals(256, DecodingOptions.audioContext(SAMPLE_RATE / 2));
+        assertEquals(576, DecodingOptions.audioContext(10 * SAMPLE_RATE));
+        assertEquals(DecodingOptions.FULL_AUDIO_CONTEXT, DecodingOptions.audioContext(30 * SAMPLE_RATE));
+    }
+}
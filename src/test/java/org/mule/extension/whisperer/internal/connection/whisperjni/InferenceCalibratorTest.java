@@ -0,0 +1,116 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for InferenceCalibrator and CalibrationStore.
+ * Tests the candidate settings, the selection of the best one and persistence of the results.
+ */
+class InferenceCalibratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    // ========================================
+    // Calibration Tests
+    // ========================================
+
+    @Test
+    void testCandidates_FitInCpus() {
+        // When: Listing the settings for 6 CPUs
+        List<String> candidates = InferenceCalibrator.candidates(6).stream()
+            .map(candidate -> candidate[0] + "x" + candidate[1])
+            .collect(Collectors.toList());
+
+        // Then: Power-of-two threads plus all CPUs, each with the concurrencies that fit
+        assertEquals(List.of("1x1", "1x2", "1x4", "2x1", "2x2", "4x1", "6x1"), candidates);
+    }
+
+    @Test
+    void testCalibrate_PicksLowestRealTimeFactor() {
+        // Given: A benchmark where two threads on two concurrent transcriptions is fastest
+        InferenceCalibrator calibrator = new InferenceCalibrator(4, (threads, concurrency) ->
+            threads == 2 && concurrency == 2 ? 0.1 : 0.5);
+
+        // When: Calibrating
+        Calibration calibration = calibrator.calibrate();
+
+        // Then: That setting is selected and every setting was measured
+        assertEquals(2, calibration.getThreads());
+        assertEquals(2, calibration.getConcurrency());
+        assertEquals(InferenceCalibrator.candidates(4).size(), calibration.getCurve().size());
+    }
+
+    @Test
+    void testCalibrate_TiePrefersFewerThreads() {
+        // Given: A benchmark where every setting performs the same
+        InferenceCalibrator calibrator = new InferenceCalibrator(8, (threads, concurrency) -> 0.25);
+
+        // When/Then: The smallest setting is selected
+        Calibration calibration = calibrator.calibrate();
+        assertEquals(1, calibration.getThreads());
+        assertEquals(1, calibration.getConcurrency());
+    }
+
+    @Test
+    void testSyntheticClip_Length() {
+        // When/Then: The clip has the requested length at 16kHz and is not silent
+        float[] clip = InferenceCalibrator.syntheticClip(2);
+        assertEquals(32000, clip.length);
+        assertTrue(Math.abs(clip[1000]) > 0);
+    }
+
+    // ========================================
+    // Store Tests
+    // ========================================
+
+    @Test
+    void testStore_RoundTrip() throws IOException {
+        // Given: A stored calibration
+        CalibrationStore store = new CalibrationStore(tempDir.resolve("calibration"));
+        Calibration calibration = new Calibration(4, 2, List.of(new Calibration.Measurement(4, 2, 0.125),
+                                                                new Calibration.Measurement(8, 1, 0.25)));
+        store.save("model-cpu", calibration);
+
+        // When: Loading it back
+        Calibration loaded = store.load("model-cpu");
+
+        // Then: Settings and curve are preserved
+        assertEquals(4, loaded.getThreads());
+        assertEquals(2, loaded.getConcurrency());
+        assertEquals(2, loaded.getCurve().size());
+        assertEquals(0.25, loaded.getCurve().get(1).getRealTimeFactor());
+        assertNull(store.load("other-cpu"));
+    }
+
+    @Test
+    void testStore_CorruptFileIgnored() throws IOException {
+        // Given: A calibration file without settings
+        Path directory = Files.createDirectories(tempDir.resolve("calibration"));
+        Files.write(directory.resolve("calibration-model-cpu.properties"), "threads=x\n".getBytes());
+
+        // When/Then: It is treated as missing
+        assertNull(new CalibrationStore(directory).load("model-cpu"));
+    }
+
+    @Test
+    void testKey_DependsOnModelContents() throws IOException {
+        // Given: Two model files of the same size with different contents
+        Path first = Files.write(tempDir.resolve("first.bin"), new byte[] {1, 2, 3, 4});
+        Path second = Files.write(tempDir.resolve("second.bin"), new byte[] {1, 2, 3, 5});
+
+        // When/Then: Their keys differ, and are stable
+        assertNotEquals(CalibrationStore.key(first, 4), CalibrationStore.key(second, 4));
+        assertEquals(CalibrationStore.key(first, 4), CalibrationStore.key(first, 4));
+        assertNotEquals(CalibrationStore.key(first, 4), CalibrationStore.key(first, 8));
+    }
+}
@@ -0,0 +1,235 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mule.extension.whisperer.internal.error.QueueFullException;
+import org.mule.extension.whisperer.internal.error.TranscriptionException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for InferenceScheduler.
+ * Tests the concurrency limit, fail-fast rejection, priority and shortest-audio-first ordering, shutdown and statistics.
+ */
+class InferenceSchedulerTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // ========================================
+    // Admission Tests
+    // ========================================
+
+    @Test
+    void testSubmit_RunsOnExecutorWithoutBlockingCaller() throws Exception {
+        // Given: A scheduler allowing two concurrent transcriptions
+        InferenceScheduler scheduler = new InferenceScheduler(executor, 2, 4, false);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // When: Submitting two jobs that block until released
+        CompletableFuture<String> first = scheduler.submit(InferenceScheduler.Priority.INTERACTIVE, 100, () -> await(release, "first"));
+        CompletableFuture<String> second = scheduler.submit(InferenceScheduler.Priority.INTERACTIVE, 100, () -> await(release, "second"));
+
+        // Then: Both run at once on the executor, and complete once released
+        assertEquals(2, scheduler.getRunning());
+        assertEquals(0, scheduler.getQueueDepth());
+        release.countDown();
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("second", second.get(5, TimeUnit.SECONDS));
+        awaitRunning(scheduler, 0);
+    }
+
+    @Test
+    void testSubmit_RejectsWhenQueueFull() throws Exception {
+        // Given: A busy scheduler with a queue of one, already holding a waiting job
+        InferenceScheduler scheduler = new InferenceScheduler(executor, 1, 1, false);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> running = scheduler.submit(InferenceScheduler.Priority.INTERACTIVE, 100, () -> await(release, "running"));
+        CompletableFuture<String> waiting = scheduler.submit(InferenceScheduler.Priority.INTERACTIVE, 100, () -> "waiting");
+
+        // When: Submitting a further job
+        CompletableFuture<String> rejected = scheduler.submit(InferenceScheduler.Priority.INTERACTIVE, 100, () -> "rejected");
+
+        // Then: It fails immediately
+        CompletionException e = assertThrows(CompletionException.class, rejected::join);
+        assertTrue(e.getCause() instanceof QueueFullException, "Unexpected cause " + e.getCause());
+        assertEquals(1, scheduler.getRejectedCount());
+
+        // And the waiting job runs once the slot frees up
+        release.countDown();
+        assertEquals("running", running.get(5, TimeUnit.SECONDS));
+        assertEquals("waiting", waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(2, scheduler.getAdmittedCount());
+    }
+
+    @Test
+    void testSubmit_InteractiveBeforeBatch() throws Exception {
+        // Given: A busy scheduler with a batch job queued before an interactive one
+        InferenceScheduler scheduler = new InferenceScheduler(executor, 1, 4, false);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        scheduler.submit(InferenceScheduler.Priority.INTERACTIVE, 100, () -> await(release, "running"));
+        CompletableFuture<Boolean> batch = scheduler.submit(InferenceScheduler.Priority.BATCH, 100, () -> order.add("batch"));
+        CompletableFuture<Boolean> interactive = scheduler.submit(InferenceScheduler.Priority.INTERACTIVE, 100, () -> order.add("interactive"));
+
+        // When: The running job completes
+        release.countDown();
+        CompletableFuture.allOf(batch, interactive).get(5, TimeUnit.SECONDS);
+
+        // Then: The interactive job went first
+        assertEquals(List.of("interactive", "batch"), order);
+    }
+
+    @Test
+    void testSubmit_ShortestAudioFirst() throws Exception {
+        // Given: A busy scheduler with a long clip queued before a short one
+        InferenceScheduler scheduler = new InferenceScheduler(executor, 1, 4, true);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        scheduler.submit(InferenceScheduler.Priority.BATCH, 100, () -> await(release, "running"));
+        CompletableFuture<Boolean> longClip = scheduler.submit(InferenceScheduler.Priority.BATCH, 1_000_000, () -> order.add("long"));
+        CompletableFuture<Boolean> shortClip = scheduler.submit(InferenceScheduler.Priority.BATCH, 1_000, () -> order.add("short"));
+
+        // When: The running job completes
+        release.countDown();
+        CompletableFuture.allOf(longClip, shortClip).get(5, TimeUnit.SECONDS);
+
+        // Then: The short clip went first
+        assertEquals(List.of("short", "long"), order);
+    }
+
+    @Test
+    void testSubmit_FailureReleasesSlot() throws Exception {
+        // Given: A scheduler with a single slot
+        InferenceScheduler scheduler = new InferenceScheduler(executor, 1, 4, false);
+
+        // When: A job fails
+        CompletableFuture<String> failed = scheduler.submit(InferenceScheduler.Priority.INTERACTIVE, 100, () -> {
+            throw new TranscriptionException("Transcription failed with code 1");
+        });
+
+        // Then: The failure reaches the caller and the next job still runs
+        CompletionException e = assertThrows(CompletionException.class, failed::join);
+        assertTrue(e.getCause() instanceof TranscriptionException, "Unexpected cause " + e.getCause());
+        assertEquals("next", scheduler.submit(InferenceScheduler.Priority.INTERACTIVE, 100, () -> "next").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testSubmit_DependentCanSubmitOnCompletion() throws Exception {
+        // Given: A scheduler with a single slot and no queue
+        InferenceScheduler scheduler = new InferenceScheduler(executor, 1, 0, false);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // When: A dependent of the running job submits follow-up work as soon as it completes
+        CompletableFuture<String> followUp = scheduler.submit(InferenceScheduler.Priority.INTERACTIVE, 100, () -> await(release, "first"))
+            .thenCompose(first -> scheduler.submit(InferenceScheduler.Priority.INTERACTIVE, 100, () -> first + " then second"));
+        release.countDown();
+
+        // Then: The slot was already free, so the follow-up is admitted instead of rejected
+        assertEquals("first then second", followUp.get(5, TimeUnit.SECONDS));
+        assertEquals(0, scheduler.getRejectedCount());
+    }
+
+    @Test
+    void testSubmit_RecordsWaitTime() throws Exception {
+        // Given: A busy scheduler with one waiting job
+        InferenceScheduler scheduler = new InferenceScheduler(executor, 1, 4, false);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(InferenceScheduler.Priority.INTERACTIVE, 100, () -> await(release, "running"));
+        CompletableFuture<String> waiting = scheduler.submit(InferenceScheduler.Priority.INTERACTIVE, 100, () -> "waiting");
+
+        // When: The slot frees up after a while
+        Thread.sleep(100);
+        release.countDown();
+        waiting.get(5, TimeUnit.SECONDS);
+
+        // Then: The wait is reflected in the statistics
+        assertTrue(scheduler.getMaxWaitMillis() >= 90, "Max wait " + scheduler.getMaxWaitMillis());
+        assertTrue(scheduler.getAverageWaitMillis() >= 45, "Average wait " + scheduler.getAverageWaitMillis());
+    }
+
+    // ========================================
+    // Shutdown Tests
+    // ========================================
+
+    @Test
+    void testClose_FailsQueuedJobs() throws Exception {
+        // Given: A busy scheduler with one waiting job
+        InferenceScheduler scheduler = new InferenceScheduler(executor, 1, 4, false);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> running = scheduler.submit(InferenceScheduler.Priority.INTERACTIVE, 100, () -> await(release, "running"));
+        CompletableFuture<String> waiting = scheduler.submit(InferenceScheduler.Priority.INTERACTIVE, 100, () -> "waiting");
+
+        // When: Closing the scheduler
+        scheduler.close();
+
+        // Then: The waiting job fails right away, the running one still finishes
+        CompletionException e = assertThrows(CompletionException.class, waiting::join);
+        assertTrue(e.getCause() instanceof TranscriptionException, "Unexpected cause " + e.getCause());
+        assertEquals(0, scheduler.getQueueDepth());
+        release.countDown();
+        assertEquals("running", running.get(5, TimeUnit.SECONDS));
+        awaitRunning(scheduler, 0);
+    }
+
+    @Test
+    void testClose_RejectsNewJobs() {
+        // Given: A closed scheduler
+        InferenceScheduler scheduler = new InferenceScheduler(executor, 1, 4, false);
+        scheduler.close();
+
+        // When: Submitting a job
+        CompletableFuture<String> job = scheduler.submit(InferenceScheduler.Priority.INTERACTIVE, 100, () -> "late");
+
+        // Then: It fails without running
+        CompletionException e = assertThrows(CompletionException.class, job::join);
+        assertTrue(e.getCause() instanceof TranscriptionException, "Unexpected cause " + e.getCause());
+        assertEquals(0, scheduler.getAdmittedCount());
+    }
+
+    // ========================================
+    // Priority Parsing Tests
+    // ========================================
+
+    @Test
+    void testParsePriority() {
+        assertEquals(InferenceScheduler.Priority.INTERACTIVE, InferenceScheduler.Priority.parse(null));
+        assertEquals(InferenceScheduler.Priority.BATCH, InferenceScheduler.Priority.parse(" batch "));
+        assertThrows(TranscriptionException.class, () -> InferenceScheduler.Priority.parse("urgent"));
+    }
+
+    // ========================================
+    // Helper Methods
+    // ========================================
+
+    private String await(CountDownLatch latch, String result) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result;
+    }
+
+    private void awaitRunning(InferenceScheduler scheduler, int running) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (scheduler.getRunning() != running) {
+            assertTrue(System.nanoTime() < deadline, "Running never reached " + running);
+            Thread.onSpinWait();
+        }
+    }
+}
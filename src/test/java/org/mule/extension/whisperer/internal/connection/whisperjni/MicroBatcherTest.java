@@ -0,0 +1,190 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MicroBatcher.
+ * Tests packing of short clips into shared windows and splitting the window segments back to each clip.
+ */
+class MicroBatcherTest {
+
+    private static final int SAMPLES_PER_SECOND = 16000;
+
+    private ScheduledExecutorService timer;
+
+    @BeforeEach
+    void setUp() {
+        timer = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        timer.shutdownNow();
+    }
+
+    // ==================== Packing ====================
+
+    @Test
+    void testSubmit_ConcurrentClipsShareOneWindow() throws Exception {
+        // Given: A batcher and a transcriber recognizing one segment per clip of a two clip window
+        MicroBatcher batcher = new MicroBatcher(timer, 200, 10);
+        List<Integer> windows = new CopyOnWriteArrayList<>();
+        MicroBatcher.WindowTranscriber transcriber = window -> {
+            windows.add(window.size());
+            // First clip 0-3 s, separator 3-4 s, second clip 4-6 s
+            return CompletableFuture.completedFuture(Arrays.asList(new TranscriptionSegment(0, 2900, " first"),
+                                                                   new TranscriptionSegment(4100, 6000, " second")));
+        };
+
+        // When: Two clips arrive within the delay
+        CompletableFuture<List<TranscriptionSegment>> first = batcher.submit("key", clip(3), transcriber);
+        CompletableFuture<List<TranscriptionSegment>> second = batcher.submit("key", clip(2), transcriber);
+
+        // Then: One window is transcribed and each clip gets its segment relative to its own start
+        List<TranscriptionSegment> firstSegments = first.get(5, TimeUnit.SECONDS);
+        List<TranscriptionSegment> secondSegments = second.get(5, TimeUnit.SECONDS);
+        assertEquals(Collections.singletonList(6 * SAMPLES_PER_SECOND), windows);
+        assertEquals(" first", firstSegments.get(0).getText());
+        assertEquals(" second", secondSegments.get(0).getText());
+        assertEquals(100, secondSegments.get(0).getStartMillis());
+        assertEquals(2000, secondSegments.get(0).getEndMillis());
+    }
+
+    @Test
+    void testSubmit_DifferentKeysAreNotBatched() throws Exception {
+        // Given: A batcher
+        MicroBatcher batcher = new MicroBatcher(timer, 50, 10);
+        List<Integer> windows = new CopyOnWriteArrayList<>();
+        MicroBatcher.WindowTranscriber transcriber = window -> {
+            windows.add(window.size());
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        };
+
+        // When: Clips with different settings arrive together
+        CompletableFuture<List<TranscriptionSegment>> english = batcher.submit("en", clip(3), transcriber);
+        CompletableFuture<List<TranscriptionSegment>> spanish = batcher.submit("es", clip(3), transcriber);
+        english.get(5, TimeUnit.SECONDS);
+        spanish.get(5, TimeUnit.SECONDS);
+
+        // Then: Each is transcribed on its own
+        assertEquals(Arrays.asList(3 * SAMPLES_PER_SECOND, 3 * SAMPLES_PER_SECOND), windows);
+    }
+
+    @Test
+    void testSubmit_FullWindowIsTranscribedWithoutWaiting() throws Exception {
+        // Given: A batcher with a delay longer than the test
+        MicroBatcher batcher = new MicroBatcher(timer, TimeUnit.MINUTES.toMillis(10), 10);
+        List<Integer> windows = new CopyOnWriteArrayList<>();
+        MicroBatcher.WindowTranscriber transcriber = window -> {
+            windows.add(window.size());
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        };
+
+        // When: A third clip of 10 s does not fit after two others
+        CompletableFuture<List<TranscriptionSegment>> first = batcher.submit("key", clip(10), transcriber);
+        batcher.submit("key", clip(10), transcriber);
+        batcher.submit("key", clip(10), transcriber);
+
+        // Then: The first two are transcribed right away, the third waits for company
+        first.get(5, TimeUnit.SECONDS);
+        assertEquals(Collections.singletonList(21 * SAMPLES_PER_SECOND), windows);
+    }
+
+    @Test
+    void testAccepts_OnlyShortClips() {
+        // Given: A batcher for clips of up to 10 s
+        MicroBatcher batcher = new MicroBatcher(timer, 50, 10);
+
+        // When/Then: Longer clips are transcribed on their own
+        assertTrue(batcher.accepts(10 * SAMPLES_PER_SECOND));
+        assertFalse(batcher.accepts(10 * SAMPLES_PER_SECOND + 1));
+        assertFalse(batcher.accepts(0));
+    }
+
+    // ==================== Splitting ====================
+
+    @Test
+    void testSubmit_SegmentSpanningClipsFallsBackToSingleClips() throws Exception {
+        // Given: A transcriber that merges both clips of a window into one segment
+        MicroBatcher batcher = new MicroBatcher(timer, 200, 10);
+        List<Integer> windows = new CopyOnWriteArrayList<>();
+        MicroBatcher.WindowTranscriber transcriber = window -> {
+            windows.add(window.size());
+            String text = window.size() == 6 * SAMPLES_PER_SECOND ? " first second" : " alone";
+            return CompletableFuture.completedFuture(Collections.singletonList(
+                new TranscriptionSegment(0, window.durationMillis(), text)));
+        };
+
+        // When: Both clips are batched
+        CompletableFuture<List<TranscriptionSegment>> first = batcher.submit("key", clip(3), transcriber);
+        CompletableFuture<List<TranscriptionSegment>> second = batcher.submit("key", clip(2), transcriber);
+
+        // Then: Neither gets the other's text; both are transcribed again alone
+        assertEquals(" alone", first.get(5, TimeUnit.SECONDS).get(0).getText());
+        assertEquals(" alone", second.get(5, TimeUnit.SECONDS).get(0).getText());
+        assertEquals(3, windows.size());
+    }
+
+    @Test
+    void testSubmit_SegmentReachingSlightlyIntoNeighbourFallsBackToSingleClips() throws Exception {
+        // Given: A transcriber whose first segment ends 150 ms into the second clip of a window
+        MicroBatcher batcher = new MicroBatcher(timer, 200, 10);
+        List<Integer> windows = new CopyOnWriteArrayList<>();
+        MicroBatcher.WindowTranscriber transcriber = window -> {
+            windows.add(window.size());
+            if (window.size() != 6 * SAMPLES_PER_SECOND) {
+                return CompletableFuture.completedFuture(Collections.singletonList(
+                    new TranscriptionSegment(0, window.durationMillis(), " alone")));
+            }
+            // First clip 0-3 s, separator 3-4 s, second clip 4-6 s
+            return CompletableFuture.completedFuture(Arrays.asList(new TranscriptionSegment(0, 4150, " first and"),
+                                                                   new TranscriptionSegment(4150, 6000, " second")));
+        };
+
+        // When: Both clips are batched
+        CompletableFuture<List<TranscriptionSegment>> first = batcher.submit("key", clip(3), transcriber);
+        CompletableFuture<List<TranscriptionSegment>> second = batcher.submit("key", clip(2), transcriber);
+
+        // Then: The second clip does not get the first one's trailing word; both are transcribed again alone
+        assertEquals(" alone", first.get(5, TimeUnit.SECONDS).get(0).getText());
+        assertEquals(" alone", second.get(5, TimeUnit.SECONDS).get(0).getText());
+        assertEquals(1, second.get(5, TimeUnit.SECONDS).size());
+        assertEquals(3, windows.size());
+    }
+
+    @Test
+    void testSubmit_FailedWindowFailsEveryClip() {
+        // Given: A transcriber that fails
+        MicroBatcher batcher = new MicroBatcher(timer, 200, 10);
+        MicroBatcher.WindowTranscriber transcriber = window -> CompletableFuture.failedFuture(
+            new IllegalStateException("queue full"));
+
+        // When: Two clips are batched
+        CompletableFuture<List<TranscriptionSegment>> first = batcher.submit("key", clip(3), transcriber);
+        CompletableFuture<List<TranscriptionSegment>> second = batcher.submit("key", clip(2), transcriber);
+
+        // Then: Both fail
+        assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertThrows(Exception.class, () -> second.get(5, TimeUnit.SECONDS));
+    }
+
+    // ==================== Helpers ====================
+
+    private static float[] clip(int seconds) {
+        return new float[seconds * SAMPLES_PER_SECOND];
+    }
+}
@@ -0,0 +1,131 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.junit.jupiter.api.Test;
+import org.mule.extension.whisperer.internal.helpers.audio.FloatSampleBuffer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ModelCascade.
+ * Tests how low-confidence segments are grouped into spans and how the escalated segments are merged back.
+ */
+class ModelCascadeTest {
+
+    private static final int SAMPLES_PER_MILLI = 16;
+    private static final String CONFIDENT = " This sentence was transcribed fine.";
+    private static final String LOW = " (inaudible)";
+
+    // ==================== Spans ====================
+
+    @Test
+    void testFindSpans_ConfidentTranscriptionIsNotEscalated() {
+        // Given: Only confident segments
+        List<TranscriptionSegment> segments = Arrays.asList(segment(0, 3000, CONFIDENT), segment(3000, 6000, CONFIDENT));
+
+        // When/Then: There is nothing to escalate
+        assertTrue(new ModelCascade("large", 0.5).findSpans(segments, 6000).isEmpty());
+    }
+
+    @Test
+    void testFindSpans_AdjacentLowSegmentsFormOnePaddedSpan() {
+        // Given: Two low-confidence segments between confident ones
+        List<TranscriptionSegment> segments = Arrays.asList(segment(0, 3000, CONFIDENT), segment(4000, 5000, LOW),
+                                                            segment(5200, 6000, LOW), segment(6100, 9000, CONFIDENT));
+
+        // When: Spans are found
+        List<ModelCascade.Span> spans = new ModelCascade("large", 0.5).findSpans(segments, 9000);
+
+        // Then: One span, padded but not reaching into the confident neighbours
+        assertEquals(1, spans.size());
+        assertEquals(3750, spans.get(0).getStartMillis());
+        assertEquals(6100, spans.get(0).getEndMillis());
+    }
+
+    @Test
+    void testFindSpans_DistantLowSegmentsFormSeparateSpans() {
+        // Given: Low-confidence segments more than a second apart
+        List<TranscriptionSegment> segments = Arrays.asList(segment(0, 1000, LOW), segment(5000, 6000, LOW));
+
+        // When/Then: They are escalated separately, within the audio
+        List<ModelCascade.Span> spans = new ModelCascade("large", 0.5).findSpans(segments, 6100);
+        assertEquals(2, spans.size());
+        assertEquals(0, spans.get(0).getStartMillis());
+        assertEquals(6100, spans.get(1).getEndMillis());
+    }
+
+    // ==================== Escalation ====================
+
+    @Test
+    void testEscalate_ReplacesSpanSegmentsAndRecordsModels() {
+        // Given: A low-confidence segment between confident ones of the small model
+        List<TranscriptionSegment> segments = Arrays.asList(segment(0, 3000, CONFIDENT).withModel("tiny"),
+                                                            segment(3000, 4000, LOW).withModel("tiny"),
+                                                            segment(4000, 7000, CONFIDENT).withModel("tiny"));
+        ModelCascade cascade = new ModelCascade("large", 0.5);
+        List<ModelCascade.Span> spans = cascade.findSpans(segments, 7000);
+        List<Integer> spanLengths = new ArrayList<>();
+
+        // When: The span is transcribed again
+        List<TranscriptionSegment> merged = cascade.escalate(segments, spans, silence(7000), "large", samples -> {
+            spanLengths.add(samples.length);
+            return Collections.singletonList(segment(0, 1000, " the order number"));
+        });
+
+        // Then: Only the span's audio is transcribed again and its segment is placed and labelled
+        assertEquals(Collections.singletonList(1000 * SAMPLES_PER_MILLI), spanLengths);
+        assertEquals(3, merged.size());
+        assertEquals("tiny", merged.get(0).getModel());
+        assertEquals(" the order number", merged.get(1).getText());
+        assertEquals(3000, merged.get(1).getStartMillis());
+        assertEquals("large", merged.get(1).getModel());
+        assertEquals("tiny", merged.get(2).getModel());
+    }
+
+    @Test
+    void testEscalate_EmptyEscalationKeepsOriginalSegments() {
+        // Given: A low-confidence segment and an escalation model that recognizes nothing
+        List<TranscriptionSegment> segments = Arrays.asList(segment(0, 3000, CONFIDENT).withModel("tiny"),
+                                                            segment(3000, 4000, LOW).withModel("tiny"),
+                                                            segment(4000, 7000, CONFIDENT).withModel("tiny"));
+        ModelCascade cascade = new ModelCascade("large", 0.5);
+        List<ModelCascade.Span> spans = cascade.findSpans(segments, 7000);
+
+        // When: The span is transcribed again
+        List<TranscriptionSegment> merged = cascade.escalate(segments, spans, silence(7000), "large",
+                                                             samples -> new ArrayList<>());
+
+        // Then: The small model's words are kept
+        assertEquals(segments, merged);
+    }
+
+    @Test
+    void testEscalate_SpanOutsideAudioKeepsOriginalSegments() {
+        // Given: A low-confidence segment past the end of the samples
+        List<TranscriptionSegment> segments = Arrays.asList(segment(0, 3000, CONFIDENT), segment(3000, 4000, LOW));
+        ModelCascade cascade = new ModelCascade("large", 0.5);
+        List<ModelCascade.Span> spans = cascade.findSpans(segments, 4000);
+
+        // When: The spans are escalated against shorter audio
+        List<TranscriptionSegment> merged = cascade.escalate(segments, spans, silence(3000), "large", samples -> {
+            throw new AssertionError("Nothing to transcribe");
+        });
+
+        // Then: Nothing is lost
+        assertEquals(segments, merged);
+    }
+
+    // ==================== Helpers ====================
+
+    private static TranscriptionSegment segment(long start, long end, String text) {
+        return new TranscriptionSegment(start, end, text);
+    }
+
+    private static FloatSampleBuffer silence(long millis) {
+        return FloatSampleBuffer.wrap(new float[(int) (millis * SAMPLES_PER_MILLI)]);
+    }
+}
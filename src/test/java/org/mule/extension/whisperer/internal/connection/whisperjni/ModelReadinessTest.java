@@ -0,0 +1,119 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.junit.jupiter.api.Test;
+import org.mule.extension.whisperer.api.error.ConnectorError;
+import org.mule.extension.whisperer.internal.error.ModelNotReadyException;
+import org.mule.runtime.extension.api.exception.ModuleException;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ModelReadiness.
+ * Tests how requests wait for, or are rejected before, a model loading in the background.
+ */
+class ModelReadinessTest {
+
+    // ==================== Ready ====================
+
+    @Test
+    void testWhenReady_AlreadyLoadedCompletesImmediately() {
+        // Given: A loaded model
+        ModelReadiness<String> readiness = new ModelReadiness<>(0);
+        readiness.ready("model");
+
+        // When: A request asks for it
+        CompletableFuture<String> ready = readiness.whenReady();
+
+        // Then: It gets the model without waiting
+        assertTrue(ready.isDone());
+        assertEquals("model", ready.join());
+        assertTrue(readiness.isReady());
+        assertEquals("model", readiness.getIfReady());
+    }
+
+    @Test
+    void testWhenReady_WaitsForLoadingToFinish() {
+        // Given: A model still loading and a request waiting for it
+        ModelReadiness<String> readiness = new ModelReadiness<>(10_000);
+        CompletableFuture<String> ready = readiness.whenReady();
+        assertFalse(ready.isDone());
+        assertNull(readiness.getIfReady());
+
+        // When: Loading finishes
+        readiness.ready("model");
+
+        // Then: The waiting request gets the model
+        assertEquals("model", ready.join());
+    }
+
+    // ==================== Not ready ====================
+
+    @Test
+    void testWhenReady_ZeroTimeoutRejectsImmediately() {
+        // Given: A model still loading and no waiting allowed
+        ModelReadiness<String> readiness = new ModelReadiness<>(0);
+
+        // When: A request asks for it
+        CompletableFuture<String> ready = readiness.whenReady();
+
+        // Then: It is rejected at once
+        assertTrue(ready.isCompletedExceptionally());
+        CompletionException e = assertThrows(CompletionException.class, ready::join);
+        assertTrue(e.getCause() instanceof ModelNotReadyException, "Expected ModelNotReadyException");
+    }
+
+    @Test
+    void testWhenReady_TimesOutWhileLoading() {
+        // Given: A model still loading and a short wait allowed
+        ModelReadiness<String> readiness = new ModelReadiness<>(50);
+
+        // When: Loading does not finish in time
+        CompletableFuture<String> ready = readiness.whenReady();
+
+        // Then: The request fails with a not ready error, and later requests still wait for the model
+        CompletionException e = assertThrows(CompletionException.class, ready::join);
+        assertTrue(e.getCause() instanceof ModelNotReadyException, "Expected ModelNotReadyException");
+        assertEquals(ConnectorError.MODEL_NOT_READY, ((ModuleException) e.getCause()).getType());
+
+        CompletableFuture<String> next = readiness.whenReady();
+        readiness.ready("model");
+        assertEquals("model", next.join());
+    }
+
+    // ==================== Failed ====================
+
+    @Test
+    void testWhenReady_LoadFailureIsModelSetupFailure() {
+        // Given: Loading failed with an I/O error
+        ModelReadiness<String> readiness = new ModelReadiness<>(10_000);
+        CompletableFuture<String> waiting = readiness.whenReady();
+        IOException cause = new IOException("Model file not found");
+        readiness.failed(cause);
+
+        // Then: Waiting and later requests fail with a setup error carrying the cause
+        for (CompletableFuture<String> ready : new CompletableFuture[] {waiting, readiness.whenReady()}) {
+            CompletionException e = assertThrows(CompletionException.class, ready::join);
+            ModuleException error = (ModuleException) e.getCause();
+            assertEquals(ConnectorError.MODEL_SETUP_FAILURE, error.getType());
+            assertSame(cause, error.getCause());
+        }
+        assertFalse(readiness.isReady());
+        assertNull(readiness.getIfReady());
+    }
+
+    @Test
+    void testWhenReady_ModuleExceptionFailureIsKept() {
+        // Given: Loading failed with a connector error
+        ModelReadiness<String> readiness = new ModelReadiness<>(0);
+        ModuleException cause = new ModuleException("Download failed", ConnectorError.MODEL_SETUP_FAILURE);
+        readiness.failed(cause);
+
+        // Then: Requests fail with that error as-is
+        CompletionException e = assertThrows(CompletionException.class, readiness.whenReady()::join);
+        assertSame(cause, e.getCause());
+    }
+}
@@ -0,0 +1,70 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SegmentConfidence.
+ * Tests the signs of a failed decode read from the text and timing of a segment.
+ */
+class SegmentConfidenceTest {
+
+    // ==================== Confident segments ====================
+
+    @Test
+    void testOf_OrdinarySpeechIsConfident() {
+        // Given: A sentence spoken at a normal rate
+        TranscriptionSegment segment = new TranscriptionSegment(0, 3000, " Thank you for calling, how can I help?");
+
+        // When/Then: Nothing lowers its confidence
+        assertEquals(1.0, SegmentConfidence.of(segment));
+    }
+
+    @Test
+    void testOf_RecognizedSilenceIsConfident() {
+        // When/Then: Empty and blank audio segments are not escalated
+        assertEquals(1.0, SegmentConfidence.of(new TranscriptionSegment(0, 8000, "")));
+        assertEquals(1.0, SegmentConfidence.of(new TranscriptionSegment(0, 8000, " [BLANK_AUDIO]")));
+    }
+
+    // ==================== Failed decodes ====================
+
+    @Test
+    void testOf_RepetitionLowersConfidence() {
+        // Given: A decoder stuck repeating a phrase
+        TranscriptionSegment segment = new TranscriptionSegment(0, 30000,
+            " I'm sorry, I'm sorry, I'm sorry, I'm sorry, I'm sorry, I'm sorry, I'm sorry, I'm sorry, I'm sorry.");
+
+        // When/Then: Its compression ratio gives it away
+        assertTrue(SegmentConfidence.compressionRatio(segment.getText()) > SegmentConfidence.MAX_COMPRESSION_RATIO);
+        assertTrue(SegmentConfidence.of(segment) < 0.5);
+    }
+
+    @Test
+    void testOf_AnnotationOrBrokenCharactersLowerConfidence() {
+        // When/Then: Unintelligible speech and unfinished characters are escalated
+        assertTrue(SegmentConfidence.of(new TranscriptionSegment(0, 2000, " (inaudible)")) < 0.5);
+        assertTrue(SegmentConfidence.of(new TranscriptionSegment(0, 2000, " The account number is \uFFFD")) < 0.5);
+    }
+
+    @Test
+    void testOf_ImplausibleSpeakingRateLowersConfidence() {
+        // Given: A long sentence in half a second
+        TranscriptionSegment segment = new TranscriptionSegment(0, 500, " Please hold while I transfer your call");
+
+        // When/Then: Nobody speaks that fast
+        assertTrue(SegmentConfidence.of(segment) < 0.5);
+    }
+
+    @Test
+    void testOf_SparseLongSegmentIsSomewhatLessConfident() {
+        // Given: A single word over ten seconds
+        TranscriptionSegment segment = new TranscriptionSegment(0, 10000, " Yes.");
+
+        // When/Then: Speech was probably missed, but not enough to escalate on its own
+        double confidence = SegmentConfidence.of(segment);
+        assertTrue(confidence < 1.0);
+        assertTrue(confidence >= 0.5);
+    }
+}
@@ -0,0 +1,70 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ThreadBudget.
+ * Tests how CPUs are divided among in-flight and queued transcriptions.
+ */
+class ThreadBudgetTest {
+
+    @Test
+    void testAllocate_SingleRequestGetsAllCpus() {
+        // Given: 8 CPUs for up to 4 concurrent transcriptions
+        ThreadBudget budget = new ThreadBudget(8, 4);
+
+        // When: A single transcription starts
+        try (ThreadBudget.Allocation allocation = budget.allocate(0)) {
+            // Then: It gets every CPU
+            assertEquals(8, allocation.getThreads());
+        }
+        assertEquals(0, budget.getAllocatedThreads());
+    }
+
+    @Test
+    void testAllocate_SharesWithQueuedRequests() {
+        // Given: 8 CPUs for up to 4 concurrent transcriptions
+        ThreadBudget budget = new ThreadBudget(8, 4);
+
+        // When: A transcription starts with three more queued behind it
+        try (ThreadBudget.Allocation allocation = budget.allocate(3)) {
+            // Then: It takes only its fair share
+            assertEquals(2, allocation.getThreads());
+        }
+    }
+
+    @Test
+    void testAllocate_UsesWhatIsFreeAboveMinimumShare() {
+        // Given: 8 CPUs for up to 4 concurrent transcriptions, 6 of them taken
+        ThreadBudget budget = new ThreadBudget(8, 4);
+        ThreadBudget.Allocation first = budget.allocate(1);
+        ThreadBudget.Allocation second = budget.allocate(0);
+
+        // Then: The first took half, the second only what was left
+        assertEquals(4, first.getThreads());
+        assertEquals(4, second.getThreads());
+
+        // When: A third starts with everything taken
+        try (ThreadBudget.Allocation third = budget.allocate(0)) {
+            // Then: It still gets its guaranteed share
+            assertEquals(2, third.getThreads());
+        }
+        first.close();
+        second.close();
+        assertEquals(0, budget.getAllocatedThreads());
+    }
+
+    @Test
+    void testAllocate_NeverBelowOneThread() {
+        // Given: 2 CPUs for up to 8 concurrent transcriptions
+        ThreadBudget budget = new ThreadBudget(2, 8);
+
+        // When: A transcription starts behind a long queue
+        try (ThreadBudget.Allocation allocation = budget.allocate(20)) {
+            // Then: It still gets one thread
+            assertEquals(1, allocation.getThreads());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.junit.jupiter.api.Test;
+import org.mule.extension.whisperer.internal.helpers.vad.AudioWindow;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TranscriptStitcher.
+ * Tests ownership of overlapping segments and removal of text repeated across window boundaries.
+ */
+class TranscriptStitcherTest {
+
+    private static final int RATE = 16000;
+
+    @Test
+    void testStitch_KeepsSegmentsOfOwningWindow() {
+        // Given: Two windows meeting at 30 s, overlapping by 2 s, both transcribing the overlap
+        List<AudioWindow> windows = Arrays.asList(new AudioWindow(0, 32 * RATE, 0, 30 * RATE),
+                                                  new AudioWindow(28 * RATE, 60 * RATE, 30 * RATE, 60 * RATE));
+        List<TranscriptionSegment> first = Arrays.asList(segment(0, 10_000, "Hello there."),
+                                                         segment(29_000, 31_500, "Overlap from first."));
+        List<TranscriptionSegment> second = Arrays.asList(segment(28_200, 29_500, "Tail of first."),
+                                                          segment(30_500, 40_000, "Second window."));
+
+        // When: Stitching
+        List<TranscriptionSegment> stitched = TranscriptStitcher.stitch(windows, Arrays.asList(first, second));
+
+        // Then: Each segment comes from the window owning its start
+        assertEquals(3, stitched.size());
+        assertEquals("Hello there.", stitched.get(0).getText());
+        assertEquals("Overlap from first.", stitched.get(1).getText());
+        assertEquals("Second window.", stitched.get(2).getText());
+    }
+
+    @Test
+    void testRemoveRepeatedPrefix() {
+        // Given/When/Then: Repeated words at the boundary are dropped, ignoring case and punctuation
+        assertEquals("and then we left.",
+                     TranscriptStitcher.removeRepeatedPrefix("We went to the market,", "the Market and then we left."));
+        assertEquals("the end.", TranscriptStitcher.removeRepeatedPrefix("Close to", "the end."));
+        assertEquals("to the end.", TranscriptStitcher.removeRepeatedPrefix("We went to", "to the end."));
+    }
+
+    @Test
+    void testStitch_DropsSegmentFullyRepeated() {
+        // Given: The second window repeats the last words of the first in a segment of its own
+        List<AudioWindow> windows = Arrays.asList(new AudioWindow(0, 32 * RATE, 0, 30 * RATE),
+                                                  new AudioWindow(28 * RATE, 60 * RATE, 30 * RATE, 60 * RATE));
+        List<TranscriptionSegment> first = Arrays.asList(segment(25_000, 30_400, "see you next week"));
+        List<TranscriptionSegment> second = Arrays.asList(segment(30_000, 30_600, "next week"),
+                                                          segment(31_000, 35_000, "Goodbye."));
+
+        // When: Stitching
+        List<TranscriptionSegment> stitched = TranscriptStitcher.stitch(windows, Arrays.asList(first, second));
+
+        // Then: The repeated segment is removed
+        assertEquals(2, stitched.size());
+        assertEquals("Goodbye.", stitched.get(1).getText());
+    }
+
+    private TranscriptionSegment segment(long start, long end, String text) {
+        return new TranscriptionSegment(start, end, text);
+    }
+}
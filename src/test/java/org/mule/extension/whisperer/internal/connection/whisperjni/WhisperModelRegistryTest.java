@@ -0,0 +1,232 @@
+package org.mule.extension.whisperer.internal.connection.whisperjni;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WhisperModelRegistry.
+ * Tests sharing of loaded models by file, reference counting by client and least-recently-used eviction under a
+ * memory budget.
+ */
+class WhisperModelRegistryTest {
+
+    private static final long MB = 1024L * 1024L;
+
+    @TempDir
+    Path tempDir;
+
+    // ==================== Sharing ====================
+
+    @Test
+    void testAcquire_SameFileLoadedOnce() throws IOException {
+        // Given: Two configurations and a model file reached through two paths
+        WhisperModelRegistry<FakeModel> registry = new WhisperModelRegistry<>();
+        WhisperModelRegistry.Client<FakeModel> app1 = registry.register("app1", 0);
+        WhisperModelRegistry.Client<FakeModel> app2 = registry.register("app2", 0);
+        Path model = modelFile("tiny.bin", 1);
+        AtomicInteger loads = new AtomicInteger();
+
+        // When: Both lease it
+        WhisperModelRegistry.Lease<FakeModel> first = app1.acquire(model, file -> load(file, loads));
+        WhisperModelRegistry.Lease<FakeModel> second = app2.acquire(tempDir.resolve("./tiny.bin"), file -> load(file, loads));
+
+        // Then: They share a single loaded copy
+        assertEquals(1, loads.get());
+        assertSame(first.get(), second.get());
+        assertEquals(1, registry.getLoadedCount());
+        assertEquals(2, registry.getClientCount(model));
+    }
+
+    @Test
+    void testAcquire_FailedLoadIsRetried() throws IOException {
+        // Given: A model whose first load fails
+        WhisperModelRegistry<FakeModel> registry = new WhisperModelRegistry<>();
+        WhisperModelRegistry.Client<FakeModel> app = registry.register("app", 0);
+        Path model = modelFile("tiny.bin", 1);
+        assertThrows(IOException.class, () -> app.acquire(model, file -> {
+            throw new IOException("corrupt model");
+        }));
+        assertEquals(0, registry.getLoadedCount());
+
+        // When: It is leased again
+        WhisperModelRegistry.Lease<FakeModel> lease = app.acquire(model, file -> load(file, new AtomicInteger()));
+
+        // Then: It is loaded
+        assertFalse(lease.get().closed);
+        assertEquals(MB, registry.getLoadedBytes());
+    }
+
+    // ==================== Reference counting ====================
+
+    @Test
+    void testClose_ModelFreedWithLastClientUsingIt() throws IOException {
+        // Given: Two applications sharing a model and a third one using another
+        WhisperModelRegistry<FakeModel> registry = new WhisperModelRegistry<>();
+        WhisperModelRegistry.Client<FakeModel> app1 = registry.register("app1", 0);
+        WhisperModelRegistry.Client<FakeModel> app2 = registry.register("app2", 0);
+        WhisperModelRegistry.Client<FakeModel> app3 = registry.register("app3", 0);
+        Path shared = modelFile("large.bin", 2);
+        WhisperModelRegistry.Lease<FakeModel> lease1 = app1.acquire(shared, file -> load(file, new AtomicInteger()));
+        WhisperModelRegistry.Lease<FakeModel> lease2 = app2.acquire(shared, file -> load(file, new AtomicInteger()));
+        app3.acquire(modelFile("tiny.bin", 1), file -> load(file, new AtomicInteger())).close();
+        FakeModel model = lease1.get();
+
+        // When: The first application is undeployed
+        lease1.close();
+        app1.close();
+
+        // Then: The model stays loaded for the second one
+        assertFalse(model.closed);
+        assertEquals(1, registry.getClientCount(shared));
+
+        // When: The second application is undeployed
+        lease2.close();
+        app2.close();
+
+        // Then: The model is freed, while the third application keeps its own
+        assertTrue(model.closed);
+        assertEquals(1, registry.getLoadedCount());
+        assertEquals(MB, registry.getLoadedBytes());
+    }
+
+    @Test
+    void testClose_InFlightLeaseKeepsModelUntilReturned() throws IOException {
+        // Given: A configuration stopping while a transcription still uses its model
+        WhisperModelRegistry<FakeModel> registry = new WhisperModelRegistry<>();
+        WhisperModelRegistry.Client<FakeModel> app = registry.register("app", 0);
+        WhisperModelRegistry.Lease<FakeModel> inFlight = app.acquire(modelFile("tiny.bin", 1),
+                                                                     file -> load(file, new AtomicInteger()));
+        FakeModel model = inFlight.get();
+
+        // When: The configuration is closed
+        app.close();
+
+        // Then: The model is only freed once the transcription returns it
+        assertFalse(model.closed);
+        inFlight.close();
+        assertTrue(model.closed);
+        assertThrows(IllegalStateException.class, () -> app.acquire(tempDir.resolve("tiny.bin"),
+                                                                    file -> load(file, new AtomicInteger())));
+    }
+
+    // ==================== Eviction ====================
+
+    @Test
+    void testAcquire_EvictsLeastRecentlyUsedIdleModel() throws IOException {
+        // Given: A budget of 3 MB and two idle models of 1 MB and 2 MB, the first one used last
+        WhisperModelRegistry<FakeModel> registry = new WhisperModelRegistry<>();
+        WhisperModelRegistry.Client<FakeModel> app = registry.register("app", 3 * MB);
+        AtomicInteger loads = new AtomicInteger();
+        Path tiny = modelFile("tiny.bin", 1);
+        Path base = modelFile("base.bin", 2);
+        FakeModel baseModel;
+        app.acquire(tiny, file -> load(file, loads)).close();
+        try (WhisperModelRegistry.Lease<FakeModel> lease = app.acquire(base, file -> load(file, loads))) {
+            baseModel = lease.get();
+        }
+        FakeModel tinyModel;
+        try (WhisperModelRegistry.Lease<FakeModel> lease = app.acquire(tiny, file -> load(file, loads))) {
+            tinyModel = lease.get();
+        }
+
+        // When: A third model of 1 MB is loaded
+        app.acquire(modelFile("small.bin", 1), file -> load(file, loads)).close();
+
+        // Then: Only the least recently used model is closed to make room
+        assertTrue(baseModel.closed);
+        assertFalse(tinyModel.closed);
+        assertEquals(2, registry.getLoadedCount());
+        assertEquals(2 * MB, registry.getLoadedBytes());
+    }
+
+    @Test
+    void testAcquire_LeasedModelsAreNeverEvicted() throws IOException {
+        // Given: A budget of 2 MB filled by a model in use
+        WhisperModelRegistry<FakeModel> registry = new WhisperModelRegistry<>();
+        WhisperModelRegistry.Client<FakeModel> app = registry.register("app", 2 * MB);
+        AtomicInteger loads = new AtomicInteger();
+        WhisperModelRegistry.Lease<FakeModel> inUse = app.acquire(modelFile("base.bin", 2), file -> load(file, loads));
+
+        // When: Another model is needed
+        WhisperModelRegistry.Lease<FakeModel> other = app.acquire(modelFile("tiny.bin", 1), file -> load(file, loads));
+
+        // Then: Both are loaded over budget, and the first is evicted once released
+        assertFalse(inUse.get().closed);
+        assertEquals(3 * MB, registry.getLoadedBytes());
+        FakeModel released = inUse.get();
+        inUse.close();
+        assertTrue(released.closed);
+        assertFalse(other.get().closed);
+    }
+
+    // ==================== Switching models ====================
+
+    @Test
+    void testRelinquish_PreviousModelClosedOnceInFlightLeasesReturn() throws IOException {
+        // Given: A configuration whose model is in use by a transcription
+        WhisperModelRegistry<FakeModel> registry = new WhisperModelRegistry<>();
+        WhisperModelRegistry.Client<FakeModel> app = registry.register("app", 0);
+        AtomicInteger loads = new AtomicInteger();
+        WhisperModelRegistry.Lease<FakeModel> current = app.acquire(modelFile("base.bin", 1), file -> load(file, loads));
+        WhisperModelRegistry.Lease<FakeModel> inFlight = current.share();
+        FakeModel previousModel = current.get();
+
+        // When: It switches to another model
+        WhisperModelRegistry.Lease<FakeModel> next = app.acquire(modelFile("small.bin", 1), file -> load(file, loads));
+        app.relinquish(current);
+
+        // Then: The previous model stays loaded for the transcription and is closed once it returns its lease
+        assertFalse(previousModel.closed);
+        inFlight.close();
+        assertTrue(previousModel.closed);
+        assertFalse(next.get().closed);
+        assertEquals(1, registry.getLoadedCount());
+    }
+
+    @Test
+    void testAcquire_FileReplacedInPlaceIsLoadedAsNewModel() throws IOException {
+        // Given: A loaded model
+        WhisperModelRegistry<FakeModel> registry = new WhisperModelRegistry<>();
+        WhisperModelRegistry.Client<FakeModel> app = registry.register("app", 0);
+        AtomicInteger loads = new AtomicInteger();
+        Path file = modelFile("base.bin", 1);
+        WhisperModelRegistry.Lease<FakeModel> current = app.acquire(file, f -> load(f, loads));
+
+        // When: The file is replaced by a new version and acquired again
+        Files.write(file, new byte[(int) (2 * MB)]);
+        WhisperModelRegistry.Lease<FakeModel> reloaded = app.acquire(file, f -> load(f, loads));
+
+        // Then: The new version is loaded next to the one in use
+        assertEquals(2, loads.get());
+        assertFalse(current.isSameModel(reloaded));
+        assertNotSame(current.get(), reloaded.get());
+    }
+
+    // ==================== Helpers ====================
+
+    private Path modelFile(String name, int megabytes) throws IOException {
+        return Files.write(tempDir.resolve(name), new byte[(int) (megabytes * MB)]);
+    }
+
+    private static FakeModel load(Path file, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new FakeModel();
+    }
+
+    private static final class FakeModel implements AutoCloseable {
+
+        private volatile boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
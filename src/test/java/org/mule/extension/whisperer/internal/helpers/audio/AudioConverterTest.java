@@ -65,7 +65,7 @@ class AudioConverterTest {
         // When: Converting MP3 to WAV using JLayer (pure Java)
         AudioConverter.convertToWav(inputFile.getAbsolutePath(), outputWavFile.getAbsolutePath(), "mp3");
 
-        // Then: Output file exists and is valid WAV (preserves source sample rate/channels)
+        // Then: Output file exists and is valid WAV (16kHz mono)
         assertTrue(outputWavFile.exists(), "Output WAV file should exist");
         assertTrue(outputWavFile.length() > 0, "Output WAV file should not be empty");
 
@@ -98,7 +98,7 @@ class AudioConverterTest {
         // When: Converting M4A to WAV using ByteDeco FFmpeg
         AudioConverter.convertToWav(inputFile.getAbsolutePath(), outputWavFile.getAbsolutePath(), "m4a");
 
-        // Then: Output file exists and is valid WAV (preserves source sample rate/channels)
+        // Then: Output file exists and is valid WAV (16kHz mono)
         assertTrue(outputWavFile.exists(), "Output WAV file should exist");
         assertTrue(outputWavFile.length() > 0, "Output WAV file should not be empty");
 
@@ -0,0 +1,165 @@
+package org.mule.extension.whisperer.internal.helpers.audio;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AudioDecoder.
+ * Tests in-memory decoding of audio streams into 16kHz mono samples.
+ */
+class AudioDecoderTest {
+
+    // ========================================
+    // Core Formats
+    // ========================================
+
+    @Test
+    void testDecode_Wav() throws IOException {
+        // Given: A WAV stream
+        try (InputStream input = new FileInputStream(getTestResourceFile("speech-sample-1.wav"))) {
+
+            // When: Decoding in memory
+            FloatSampleBuffer samples = AudioDecoder.decode(input, "wav");
+
+            // Then: Should return normalized samples
+            assertTrue(samples.size() > 0, "Should have audio samples");
+            assertSamplesNormalized(samples);
+        }
+    }
+
+    @Test
+    void testDecode_WavMatchesReadFile() throws IOException, UnsupportedAudioFileException {
+        // Given: The same WAV file read through the file based reader
+        File inputFile = getTestResourceFile("speech-sample-1.wav");
+        float[] expected = AudioFileReader.readFile(inputFile);
+
+        // When: Decoding the same file as a stream
+        FloatSampleBuffer samples;
+        try (InputStream input = new FileInputStream(inputFile)) {
+            samples = AudioDecoder.decode(input, "wav");
+        }
+
+        // Then: Both paths should produce the same samples
+        assertEquals(expected.length, samples.size(), "Sample count should match file based reader");
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], samples.array()[i], 1e-3f, "Sample " + i + " should match");
+        }
+    }
+
+    @Test
+    void testDecode_Mp3() throws IOException {
+        // Given: An MP3 stream
+        try (InputStream input = new FileInputStream(getTestResourceFile("speech-sample-3.mp3"))) {
+
+            // When: Decoding in memory
+            FloatSampleBuffer samples = AudioDecoder.decode(input, "mp3");
+
+            // Then: Should return normalized samples
+            assertTrue(samples.size() > 0, "Should have audio samples");
+            assertSamplesNormalized(samples);
+        }
+    }
+
+    @Test
+    void testDecode_Mp3FileMatchesStream() throws IOException {
+        // Given: The same MP3 as a stream and as a file
+        File mp3File = getTestResourceFile("speech-sample-3.mp3");
+        FloatSampleBuffer fromStream;
+        try (InputStream input = new FileInputStream(mp3File)) {
+            fromStream = AudioDecoder.decode(input, "mp3");
+        }
+
+        // When: Decoding the file
+        FloatSampleBuffer fromFile = AudioDecoder.decode(mp3File.toPath(), "mp3", mp3File.getParentFile().toPath());
+
+        // Then: Both paths stream through the same decoder
+        assertEquals(fromStream.size(), fromFile.size());
+        assertArrayEquals(fromStream.toArray(), fromFile.toArray());
+    }
+
+    // ========================================
+    // Extended Formats
+    // ========================================
+
+    @Test
+    void testDecode_M4A_WithByteDeco() throws IOException {
+        // Given: ByteDeco is available
+        if (!AudioConverter.isByteDecoAvailable()) {
+            System.out.println("⚠️  Skipping in-memory M4A decoding test - ByteDeco FFmpeg not available");
+            return;
+        }
+
+        // Given: An M4A stream
+        try (InputStream input = new FileInputStream(getTestResourceFile("speech-sample-2.m4a"))) {
+
+            // When: Decoding in memory
+            FloatSampleBuffer samples = AudioDecoder.decode(input, "m4a");
+
+            // Then: Should return normalized samples
+            assertTrue(samples.size() > 0, "Should have audio samples");
+            assertSamplesNormalized(samples);
+        }
+    }
+
+    @Test
+    void testDecode_M4A_WithoutByteDeco_ShouldThrowException() {
+        // Given: ByteDeco is NOT available
+        if (AudioConverter.isByteDecoAvailable()) {
+            System.out.println("⚠️  Skipping 'missing ByteDeco' test - ByteDeco is available");
+            return;
+        }
+
+        // When/Then: Should throw UnsupportedOperationException
+        assertThrows(UnsupportedOperationException.class,
+            () -> AudioDecoder.decode(new FileInputStream(getTestResourceFile("speech-sample-2.m4a")), "m4a"));
+    }
+
+    // ========================================
+    // Error Handling
+    // ========================================
+
+    @Test
+    void testDecode_UnsupportedFormat_ShouldThrowException() {
+        // When/Then: Should throw UnsupportedOperationException
+        UnsupportedOperationException exception = assertThrows(UnsupportedOperationException.class,
+            () -> AudioDecoder.decode(new ByteArrayInputStream(new byte[0]), "unknown"));
+
+        assertTrue(exception.getMessage().contains("Unsupported audio format"));
+    }
+
+    @Test
+    void testDecode_InvalidWav_ShouldThrowIOException() {
+        // Given: Bytes that are not a WAV file
+        byte[] garbage = "not a wav file".getBytes();
+
+        // When/Then: Should throw IOException
+        assertThrows(IOException.class, () -> AudioDecoder.decode(new ByteArrayInputStream(garbage), "wav"));
+    }
+
+    // ========================================
+    // Helper Methods
+    // ========================================
+
+    private void assertSamplesNormalized(FloatSampleBuffer samples) {
+        float[] data = samples.array();
+        for (int i = 0; i < samples.size(); i++) {
+            assertTrue(data[i] >= -1.0f && data[i] <= 1.0f,
+                "Sample should be in range [-1.0, 1.0], got: " + data[i]);
+        }
+    }
+
+    private File getTestResourceFile(String filename) {
+        String resourcePath = "src/test/resources/" + filename;
+        File file = new File(resourcePath);
+        assertTrue(file.exists(), "Test resource file should exist: " + resourcePath);
+        return file;
+    }
+}
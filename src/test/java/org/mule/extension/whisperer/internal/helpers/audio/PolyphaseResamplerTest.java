@@ -0,0 +1,209 @@
+package org.mule.extension.whisperer.internal.helpers.audio;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PolyphaseResampler.
+ * Tests output length, signal preservation, anti-aliasing, downmixing and streaming consistency.
+ */
+class PolyphaseResamplerTest {
+
+    // ========================================
+    // Output Length Tests
+    // ========================================
+
+    @Test
+    void testResample_LengthMatchesRateRatio() {
+        // Given: One second of audio at common input rates
+        for (int inputRate : new int[] {8000, 22050, 44100, 48000}) {
+            float[] input = sine(440, inputRate, inputRate);
+
+            // When: Resampling to 16kHz
+            FloatSampleBuffer output = PolyphaseResampler.resampleToMono16kHz(input, input.length, 1, inputRate);
+
+            // Then: Exactly one second of 16kHz audio is produced
+            assertEquals(16000, output.size(), "Unexpected output length for " + inputRate + " Hz");
+        }
+    }
+
+    @Test
+    void testResample_SameRatePassesThrough() {
+        // Given: 16kHz mono audio
+        float[] input = sine(440, 16000, 1000);
+
+        // When: Resampling to 16kHz
+        FloatSampleBuffer output = PolyphaseResampler.resampleToMono16kHz(input, input.length, 1, 16000);
+
+        // Then: Samples are unchanged
+        assertArrayEquals(input, output.toArray());
+    }
+
+    @Test
+    void testCreate_OddRateStaysWithinFilterBudget() {
+        // Given: Prime input rates, which would need one filter phase per output sample
+        for (int inputRate : new int[] {999983, 44111, 7919}) {
+            float[] input = sine(440, inputRate, inputRate);
+
+            // When: Resampling one second to 16kHz
+            PolyphaseResampler resampler = PolyphaseResampler.create(inputRate, 16000);
+            FloatSampleBuffer output = new FloatSampleBuffer();
+            resampler.process(input, 0, input.length, 1, output);
+            resampler.flush(output);
+
+            // Then: The filter stays within budget and the length is still one second
+            assertTrue(resampler.filterSize() <= PolyphaseResampler.MAX_COEFFICIENTS,
+                       "Filter for " + inputRate + " Hz has " + resampler.filterSize() + " coefficients");
+            assertEquals(16000, output.size(), 2, "Unexpected output length for " + inputRate + " Hz");
+        }
+    }
+
+    @Test
+    void testCreate_RejectsRateBeyondFilterBudget() {
+        // When/Then: A rate whose filter alone exceeds the budget is refused
+        assertThrows(IllegalArgumentException.class, () -> PolyphaseResampler.create(Integer.MAX_VALUE, 16000));
+    }
+
+    // ========================================
+    // Signal Quality Tests
+    // ========================================
+
+    @Test
+    void testResample_PreservesSine() {
+        // Given: A 1kHz tone at 44.1kHz
+        float[] input = sine(1000, 44100, 44100);
+
+        // When: Resampling to 16kHz
+        FloatSampleBuffer output = PolyphaseResampler.resampleToMono16kHz(input, input.length, 1, 44100);
+
+        // Then: Away from the edges, the output matches the same tone sampled at 16kHz
+        float[] expected = sine(1000, 16000, 16000);
+        for (int i = 100; i < output.size() - 100; i++) {
+            assertEquals(expected[i], output.array()[i], 1e-3, "Sample " + i + " deviates from the tone");
+        }
+    }
+
+    @Test
+    void testResample_RemovesFrequenciesAboveNyquist() {
+        // Given: A 12kHz tone at 48kHz, above the 8kHz Nyquist frequency of the output
+        float[] input = sine(12000, 48000, 48000);
+
+        // When: Resampling to 16kHz
+        FloatSampleBuffer output = PolyphaseResampler.resampleToMono16kHz(input, input.length, 1, 48000);
+
+        // Then: The tone is filtered out instead of aliasing to 4kHz
+        assertTrue(rms(output.array(), 100, output.size() - 100) < 1e-3, "Tone above Nyquist should be removed");
+    }
+
+    @Test
+    void testResample_DownmixesChannels() {
+        // Given: A stereo signal with opposite constant levels on each channel
+        int frames = 4800;
+        float[] stereo = new float[frames * 2];
+        for (int i = 0; i < frames; i++) {
+            stereo[2 * i] = 0.75f;
+            stereo[2 * i + 1] = 0.25f;
+        }
+
+        // When: Resampling to 16kHz mono
+        FloatSampleBuffer output = PolyphaseResampler.resampleToMono16kHz(stereo, frames, 2, 48000);
+
+        // Then: Channels are averaged
+        assertEquals(1600, output.size());
+        for (int i = 100; i < output.size() - 100; i++) {
+            assertEquals(0.5f, output.array()[i], 1e-4);
+        }
+    }
+
+    // ========================================
+    // Streaming Tests
+    // ========================================
+
+    @Test
+    void testProcess_StreamingMatchesOneShot() {
+        // Given: A signal resampled in one go
+        float[] input = sine(440, 44100, 44100);
+        FloatSampleBuffer oneShot = PolyphaseResampler.resampleToMono16kHz(input, input.length, 1, 44100);
+
+        // When: Streaming the same signal in uneven blocks
+        PolyphaseResampler resampler = PolyphaseResampler.create(44100, 16000);
+        FloatSampleBuffer streamed = new FloatSampleBuffer();
+        int offset = 0;
+        int block = 1;
+        while (offset < input.length) {
+            int frames = Math.min(block, input.length - offset);
+            resampler.process(input, offset, frames, 1, streamed);
+            offset += frames;
+            block = block * 3 % 4097 + 1;
+        }
+        resampler.flush(streamed);
+
+        // Then: The output is identical
+        assertArrayEquals(oneShot.toArray(), streamed.toArray());
+    }
+
+    @Test
+    void testProcessPcm16_MatchesShortInput() {
+        // Given: The same stereo block as 16-bit samples and as little-endian bytes
+        short[] pcm = new short[2000];
+        byte[] bytes = new byte[pcm.length * 2];
+        for (int i = 0; i < pcm.length; i++) {
+            pcm[i] = (short) (Math.sin(i * 0.05) * 20000);
+            bytes[2 * i] = (byte) pcm[i];
+            bytes[2 * i + 1] = (byte) (pcm[i] >> 8);
+        }
+
+        // When: Resampling both
+        PolyphaseResampler fromShorts = PolyphaseResampler.create(22050, 16000);
+        FloatSampleBuffer shortOutput = new FloatSampleBuffer();
+        fromShorts.process(pcm, 0, pcm.length / 2, 2, shortOutput);
+        fromShorts.flush(shortOutput);
+
+        PolyphaseResampler fromBytes = PolyphaseResampler.create(22050, 16000);
+        FloatSampleBuffer byteOutput = new FloatSampleBuffer();
+        fromBytes.processPcm16(bytes, 0, pcm.length / 2, 2, byteOutput);
+        fromBytes.flush(byteOutput);
+
+        // Then: Both produce the same samples
+        assertArrayEquals(shortOutput.toArray(), byteOutput.toArray());
+    }
+
+    @Test
+    void testFlush_ResetsForNextSignal() {
+        // Given: A resampler already used for one signal
+        float[] input = sine(440, 48000, 4800);
+        PolyphaseResampler resampler = PolyphaseResampler.create(48000, 16000);
+        FloatSampleBuffer first = new FloatSampleBuffer();
+        resampler.process(input, 0, input.length, 1, first);
+        resampler.flush(first);
+
+        // When: Reusing it for the same signal
+        FloatSampleBuffer second = new FloatSampleBuffer();
+        resampler.process(input, 0, input.length, 1, second);
+        resampler.flush(second);
+
+        // Then: No state leaks between signals
+        assertArrayEquals(first.toArray(), second.toArray());
+    }
+
+    // ========================================
+    // Helper Methods
+    // ========================================
+
+    private float[] sine(double frequency, int sampleRate, int length) {
+        float[] samples = new float[length];
+        for (int i = 0; i < length; i++) {
+            samples[i] = (float) (0.5 * Math.sin(2 * Math.PI * frequency * i / sampleRate));
+        }
+        return samples;
+    }
+
+    private double rms(float[] samples, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += samples[i] * samples[i];
+        }
+        return Math.sqrt(sum / (to - from));
+    }
+}
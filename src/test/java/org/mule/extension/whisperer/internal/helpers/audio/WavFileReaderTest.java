@@ -0,0 +1,194 @@
+package org.mule.extension.whisperer.internal.helpers.audio;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WavFileReader.
+ * Tests RIFF parsing, sample encodings, the direct 16kHz mono path and resampling.
+ */
+class WavFileReaderTest {
+
+    private static final int PCM = 1;
+    private static final int IEEE_FLOAT = 3;
+
+    @TempDir
+    Path tempDir;
+
+    // ========================================
+    // Direct Path Tests
+    // ========================================
+
+    @Test
+    void testRead_Pcm16Mono16kHz() throws Exception {
+        // Given: A 16kHz mono 16-bit WAV file
+        short[] pcm = {0, 16384, -16384, 32767, -32768};
+        ByteBuffer data = littleEndian(pcm.length * 2);
+        for (short value : pcm) {
+            data.putShort(value);
+        }
+        Path wavFile = writeWav(PCM, 1, 16000, 16, data.array(), false);
+
+        // When: Reading the file
+        FloatSampleBuffer samples = WavFileReader.read(wavFile);
+
+        // Then: Samples are converted one to one
+        assertArrayEquals(new float[] {0f, 0.5f, -0.5f, 32767 / 32768f, -1f}, samples.toArray());
+        assertEquals(samples.size(), samples.array().length, "Direct path should size the buffer exactly");
+    }
+
+    @Test
+    void testRead_Float32Mono16kHz() throws Exception {
+        // Given: A 16kHz mono 32-bit float WAV file
+        float[] expected = {0f, 0.25f, -0.75f, 1f};
+        ByteBuffer data = littleEndian(expected.length * 4);
+        for (float value : expected) {
+            data.putFloat(value);
+        }
+        Path wavFile = writeWav(IEEE_FLOAT, 1, 16000, 32, data.array(), false);
+
+        // When: Reading the file
+        FloatSampleBuffer samples = WavFileReader.read(wavFile);
+
+        // Then: Samples are copied unchanged
+        assertArrayEquals(expected, samples.toArray());
+    }
+
+    @Test
+    void testRead_Pcm24Mono16kHz() throws Exception {
+        // Given: A 16kHz mono 24-bit WAV file
+        int[] pcm = {0, 4194304, -4194304, -8388608};
+        byte[] data = new byte[pcm.length * 3];
+        for (int i = 0; i < pcm.length; i++) {
+            data[3 * i] = (byte) pcm[i];
+            data[3 * i + 1] = (byte) (pcm[i] >> 8);
+            data[3 * i + 2] = (byte) (pcm[i] >> 16);
+        }
+        Path wavFile = writeWav(PCM, 1, 16000, 24, data, false);
+
+        // When: Reading the file
+        FloatSampleBuffer samples = WavFileReader.read(wavFile);
+
+        // Then: Samples are sign-extended and normalized
+        assertArrayEquals(new float[] {0f, 0.5f, -0.5f, -1f}, samples.toArray());
+    }
+
+    // ========================================
+    // Resampling Tests
+    // ========================================
+
+    @Test
+    void testRead_Pcm16Stereo48kHz() throws Exception {
+        // Given: One second of 48kHz stereo audio with a constant level on each channel
+        ByteBuffer data = littleEndian(48000 * 4);
+        for (int i = 0; i < 48000; i++) {
+            data.putShort((short) 16384);
+            data.putShort((short) 0);
+        }
+        Path wavFile = writeWav(PCM, 2, 48000, 16, data.array(), true);
+
+        // When: Reading the file
+        FloatSampleBuffer samples = WavFileReader.read(wavFile);
+
+        // Then: One second of 16kHz mono audio, channels averaged
+        assertEquals(16000, samples.size());
+        assertEquals(0.25f, samples.array()[8000], 1e-4);
+    }
+
+    @Test
+    void testRead_MatchesJavaSound() throws Exception {
+        // Given: A 48kHz WAV file with a LIST chunk before its data
+        Path wavFile = Paths.get("src/test/resources/speech-sample-1.wav");
+
+        // When: Reading it mapped and through Java Sound
+        FloatSampleBuffer mapped = WavFileReader.read(wavFile);
+        FloatSampleBuffer streamed;
+        try (InputStream input = new FileInputStream(wavFile.toFile())) {
+            streamed = AudioDecoder.decode(input, "wav");
+        }
+
+        // Then: Both produce the same samples
+        assertEquals(streamed.size(), mapped.size());
+        for (int i = 0; i < mapped.size(); i++) {
+            assertEquals(streamed.array()[i], mapped.array()[i], 1e-6f);
+        }
+    }
+
+    // ========================================
+    // Header Tests
+    // ========================================
+
+    @Test
+    void testRead_DataSizeLargerThanFile() throws Exception {
+        // Given: A WAV file whose data chunk claims more bytes than the file holds, as left by streaming writers
+        Path wavFile = writeWav(PCM, 1, 16000, 16, new byte[200], false);
+        ByteBuffer header = littleEndian(4);
+        header.putInt(-1);
+        byte[] content = Files.readAllBytes(wavFile);
+        System.arraycopy(header.array(), 0, content, 40, 4);
+        Files.write(wavFile, content);
+
+        // When: Reading the file
+        FloatSampleBuffer samples = WavFileReader.read(wavFile);
+
+        // Then: Only the bytes present are read
+        assertEquals(100, samples.size());
+    }
+
+    @Test
+    void testRead_NotAWavFile() throws IOException {
+        // Given: A file that is not RIFF/WAVE
+        Path file = tempDir.resolve("audio.mp3");
+        Files.write(file, new byte[64]);
+
+        // When/Then: The file is rejected so callers can fall back
+        assertThrows(UnsupportedAudioFileException.class, () -> WavFileReader.read(file));
+    }
+
+    @Test
+    void testRead_UnsupportedEncoding() throws IOException {
+        // Given: An 8-bit PCM WAV file
+        Path wavFile = writeWav(PCM, 1, 16000, 8, new byte[100], false);
+
+        // When/Then: The encoding is rejected so callers can fall back
+        assertThrows(UnsupportedAudioFileException.class, () -> WavFileReader.read(wavFile));
+    }
+
+    // ========================================
+    // Helper Methods
+    // ========================================
+
+    private Path writeWav(int formatTag, int channels, int sampleRate, int bitsPerSample, byte[] data,
+                          boolean withListChunk) throws IOException {
+        int blockAlign = channels * bitsPerSample / 8;
+        byte[] list = withListChunk ? "LIST\u0005\u0000\u0000\u0000INFO\u0000\u0000".getBytes("ISO-8859-1") : new byte[0];
+        ByteBuffer wav = littleEndian(44 + list.length + data.length);
+        wav.put("RIFF".getBytes("US-ASCII")).putInt(36 + list.length + data.length).put("WAVE".getBytes("US-ASCII"));
+        wav.put("fmt ".getBytes("US-ASCII")).putInt(16)
+            .putShort((short) formatTag).putShort((short) channels).putInt(sampleRate)
+            .putInt(sampleRate * blockAlign).putShort((short) blockAlign).putShort((short) bitsPerSample);
+        // Odd-sized chunk followed by its padding byte
+        wav.put(list);
+        wav.put("data".getBytes("US-ASCII")).putInt(data.length).put(data);
+
+        Path file = Files.createTempFile(tempDir, "audio-", ".wav");
+        Files.write(file, wav.array());
+        return file;
+    }
+
+    private ByteBuffer littleEndian(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
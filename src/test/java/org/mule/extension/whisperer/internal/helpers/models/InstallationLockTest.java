@@ -0,0 +1,267 @@
+package org.mule.extension.whisperer.internal.helpers.models;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for InstallationLock and InstallationMarker.
+ * Tests that concurrent installers take turns, that waiting times out without progress, and that only completed
+ * installations are reused.
+ */
+class InstallationLockTest {
+
+    @TempDir
+    Path tempDir;
+
+    // ========================================
+    // Lock Tests
+    // ========================================
+
+    @Test
+    void testAcquire_SecondInstallerWaits() throws Exception {
+        // Given: One installer holding the lock
+        Path target = tempDir.resolve("model.bin");
+        InstallationLock first = InstallationLock.acquire(target);
+        assertTrue(Files.exists(tempDir.resolve("model.bin.lock")));
+
+        // When: Another installer asks for it
+        CountDownLatch acquired = new CountDownLatch(1);
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> {
+            try (InstallationLock lock = InstallationLock.acquire(target)) {
+                acquired.countDown();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        // Then: It only gets it once the first one is done
+        assertFalse(acquired.await(500, TimeUnit.MILLISECONDS), "Lock acquired while held");
+        first.close();
+        assertTrue(acquired.await(5, TimeUnit.SECONDS), "Lock not acquired after release");
+        second.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testAcquire_OnlyOneInstallerWorks() throws Exception {
+        // Given: Several installers racing for the same target
+        Path target = tempDir.resolve("model.bin");
+        AtomicInteger installations = new AtomicInteger();
+        CompletableFuture<?>[] installers = new CompletableFuture<?>[4];
+
+        // When: Each checks for a completed installation under the lock and installs if missing
+        for (int i = 0; i < installers.length; i++) {
+            installers[i] = CompletableFuture.runAsync(() -> {
+                try (InstallationLock lock = InstallationLock.acquire(target)) {
+                    if (!InstallationMarker.isInstalled(target, "source")) {
+                        installations.incrementAndGet();
+                        Files.write(target, new byte[] {1, 2, 3});
+                        InstallationMarker.markInstalled(target, "source");
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+        CompletableFuture.allOf(installers).get(10, TimeUnit.SECONDS);
+
+        // Then: Only one of them installed
+        assertEquals(1, installations.get());
+    }
+
+    @Test
+    void testAcquire_InterruptedWaiterKeepsLockOfHolder() throws Exception {
+        // Given: One installer holding the lock and another waiting for it
+        Path target = tempDir.resolve("model.bin");
+        try (InstallationLock holder = InstallationLock.acquire(target)) {
+            Thread waiter = new Thread(() -> {
+                try (InstallationLock lock = InstallationLock.acquire(target)) {
+                    fail("Lock acquired while held");
+                } catch (IOException expected) {
+                    // Interrupted
+                }
+            });
+            waiter.start();
+            Thread.sleep(300);
+
+            // When: The waiter gives up
+            waiter.interrupt();
+            waiter.join(5_000);
+
+            // Then: Another process still finds the lock held
+            assertEquals(0, lockFromOtherProcess(tempDir.resolve("model.bin.lock")), "Lock released by the waiter");
+        }
+        assertEquals(1, lockFromOtherProcess(tempDir.resolve("model.bin.lock")), "Lock not released by the holder");
+    }
+
+    @Test
+    void testAcquire_WaiterInAnotherApplicationKeepsLockOfHolder() throws Exception {
+        // Given: One application holding the lock, and the connector loaded by another application
+        Path target = tempDir.resolve("model.bin");
+        try (InstallationLock holder = InstallationLock.acquire(target);
+             URLClassLoader otherApplication = applicationClassLoader()) {
+            Class<?> type = otherApplication.loadClass(InstallationLock.class.getName());
+            assertNotSame(InstallationLock.class, type);
+
+            // When: The other application waits for the lock and gives up
+            InvocationTargetException e = assertThrows(InvocationTargetException.class, () ->
+                type.getMethod("acquire", Path.class, long.class).invoke(null, target, 500L));
+            assertTrue(e.getCause() instanceof IOException, "Unexpected cause " + e.getCause());
+
+            // Then: Another process still finds the lock held
+            assertEquals(0, lockFromOtherProcess(tempDir.resolve("model.bin.lock")), "Lock released by the waiter");
+        }
+        assertEquals(1, lockFromOtherProcess(tempDir.resolve("model.bin.lock")), "Lock not released by the holder");
+    }
+
+    @Test
+    void testAcquire_TimesOutWithoutProgress() throws Exception {
+        // Given: One installer holding the lock without doing anything
+        Path target = tempDir.resolve("model.bin");
+        try (InstallationLock holder = InstallationLock.acquire(target)) {
+
+            // When: Another installer waits with a short timeout
+            long start = System.nanoTime();
+            IOException e = assertThrows(IOException.class, () -> InstallationLock.acquire(target, 500));
+
+            // Then: It gives up once the timeout has passed
+            assertTrue(e.getMessage().contains("Timed out"), "Unexpected message " + e.getMessage());
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 500, "Gave up too early");
+        }
+
+        // And the lock can be taken once the holder is done
+        InstallationLock.acquire(target, 500).close();
+    }
+
+    @Test
+    void testAcquire_WaitsWhileHolderMakesProgress() throws Exception {
+        // Given: One installer holding the lock and writing its download for well over the timeout
+        Path target = tempDir.resolve("model.bin");
+        Path part = tempDir.resolve("model.bin.part");
+        InstallationLock holder = InstallationLock.acquire(target);
+        CompletableFuture<Void> download = CompletableFuture.runAsync(() -> {
+            try {
+                for (int i = 1; i <= 10; i++) {
+                    Files.write(part, new byte[i * 100]);
+                    Thread.sleep(150);
+                }
+                holder.close();
+            } catch (IOException | InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        // When: Another installer waits with a timeout shorter than the download
+        try (InstallationLock lock = InstallationLock.acquire(target, 500)) {
+
+            // Then: It gets the lock once the download is done
+            assertEquals(1000, Files.size(part), "Lock acquired while held");
+        }
+        download.get(5, TimeUnit.SECONDS);
+    }
+
+    // ========================================
+    // Marker Tests
+    // ========================================
+
+    @Test
+    void testIsInstalled_WithoutMarker() throws IOException {
+        // Given: A file left by an interrupted installation
+        Path target = tempDir.resolve("model.bin");
+        Files.write(target, new byte[10]);
+
+        // Then: It is not taken as installed
+        assertFalse(InstallationMarker.isInstalled(target, "source"));
+    }
+
+    @Test
+    void testIsInstalled_ChecksSourceAndSize() throws IOException {
+        // Given: A completed installation
+        Path target = tempDir.resolve("model.bin");
+        Files.write(target, new byte[10]);
+        InstallationMarker.markInstalled(target, "https://example.com/model.bin");
+
+        // Then: It is installed for the same source only
+        assertTrue(InstallationMarker.isInstalled(target, "https://example.com/model.bin"));
+        assertFalse(InstallationMarker.isInstalled(target, "https://example.com/other.bin"));
+
+        // When: The file is truncated afterwards
+        Files.write(target, new byte[5]);
+
+        // Then: It is no longer taken as installed
+        assertFalse(InstallationMarker.isInstalled(target, "https://example.com/model.bin"));
+    }
+
+    @Test
+    void testIsInstalled_Directory() throws IOException {
+        // Given: A directory that was completely extracted
+        Path target = tempDir.resolve("libs");
+        Files.createDirectories(target);
+        InstallationMarker.markInstalled(target, "libs.zip");
+
+        // Then: It is installed until the marker is cleared
+        assertTrue(InstallationMarker.isInstalled(target, "libs.zip"));
+        InstallationMarker.clear(target);
+        assertFalse(InstallationMarker.isInstalled(target, "libs.zip"));
+    }
+
+    // ========================================
+    // Helper Methods
+    // ========================================
+
+    /**
+     * @return a class loader loading the connector on its own, like a second application in the same Mule runtime
+     */
+    private static URLClassLoader applicationClassLoader() throws IOException {
+        String[] entries = System.getProperty("java.class.path").split(File.pathSeparator);
+        URL[] urls = new URL[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            urls[i] = Paths.get(entries[i]).toUri().toURL();
+        }
+        return new URLClassLoader(urls, ClassLoader.getPlatformClassLoader());
+    }
+
+    /**
+     * @return 1 if a separate JVM could lock the file, 0 if it is held
+     */
+    private static int lockFromOtherProcess(Path lockFile) throws Exception {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                                             LockProbe.class.getName(), lockFile.toString())
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        assertTrue(process.waitFor(30, TimeUnit.SECONDS), "Lock probe did not finish");
+        return process.exitValue();
+    }
+
+    /**
+     * Tries to lock a file from another JVM, exiting with 1 if it could and 0 if it is held.
+     */
+    static final class LockProbe {
+
+        public static void main(String[] args) throws IOException {
+            try (FileChannel channel = FileChannel.open(Paths.get(args[0]), StandardOpenOption.WRITE);
+                 FileLock lock = channel.tryLock()) {
+                System.exit(lock != null ? 1 : 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package org.mule.extension.whisperer.internal.helpers.models;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ModelCache.
+ * Tests extraction, reuse of verified copies and recovery from damaged ones.
+ */
+class ModelCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    // ========================================
+    // Extraction Tests
+    // ========================================
+
+    @Test
+    void testResolve_ExtractsResource() throws IOException {
+        // Given: A model resource and an empty cache
+        byte[] content = randomBytes(3 * 1024 * 1024 + 17, 1);
+        URL resource = writeResource("source/model.bin", content);
+        ModelCache cache = new ModelCache(tempDir.resolve("cache"));
+
+        // When: The model is resolved
+        Path cached = cache.resolve(resource, "model.bin");
+
+        // Then: An identical copy is in the cache, with no temporary files left behind
+        assertTrue(cached.startsWith(tempDir.resolve("cache")));
+        assertTrue(cached.getFileName().toString().endsWith("-model.bin"));
+        assertArrayEquals(content, Files.readAllBytes(cached));
+        assertEquals(0, countFiles(tempDir.resolve("cache"), ".tmp"));
+    }
+
+    @Test
+    void testResolve_ReusesVerifiedCopy() throws IOException {
+        // Given: A model already extracted
+        URL resource = writeResource("source/model.bin", randomBytes(4096, 2));
+        ModelCache cache = new ModelCache(tempDir.resolve("cache"));
+        Path first = cache.resolve(resource, "model.bin");
+        FileTime extractedAt = FileTime.fromMillis(1_000_000L);
+        Files.setLastModifiedTime(first, extractedAt);
+
+        // When: It is resolved again, e.g. after a restart
+        Path second = new ModelCache(tempDir.resolve("cache")).resolve(resource, "model.bin");
+
+        // Then: The cached copy is used without being written again
+        assertEquals(first, second);
+        assertEquals(extractedAt, Files.getLastModifiedTime(second));
+    }
+
+    @Test
+    void testResolve_ChangedResourceIsExtractedAgain() throws IOException {
+        // Given: A model already extracted
+        Path source = tempDir.resolve("source/model.bin");
+        URL resource = writeResource("source/model.bin", randomBytes(4096, 3));
+        ModelCache cache = new ModelCache(tempDir.resolve("cache"));
+        Path first = cache.resolve(resource, "model.bin");
+
+        // When: The resource is replaced by a different model
+        byte[] updated = randomBytes(8192, 4);
+        Files.write(source, updated);
+        Files.setLastModifiedTime(source, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 5_000));
+        Path second = cache.resolve(resource, "model.bin");
+
+        // Then: The new model is extracted next to the old one
+        assertNotEquals(first, second);
+        assertArrayEquals(updated, Files.readAllBytes(second));
+    }
+
+    @Test
+    void testResolve_SameContentFromAnotherSourceSharesCopy() throws IOException {
+        // Given: A model extracted from one location
+        byte[] content = randomBytes(4096, 5);
+        ModelCache cache = new ModelCache(tempDir.resolve("cache"));
+        Path first = cache.resolve(writeResource("app-1/model.bin", content), "model.bin");
+
+        // When: A redeployed application carries the same model elsewhere
+        Path second = cache.resolve(writeResource("app-2/model.bin", content), "model.bin");
+
+        // Then: Both resolve to the same cached file
+        assertEquals(first, second);
+        assertEquals(1, countFiles(tempDir.resolve("cache"), "-model.bin"));
+    }
+
+    // ========================================
+    // Verification Tests
+    // ========================================
+
+    @Test
+    void testResolve_TruncatedCopyIsExtractedAgain() throws IOException {
+        // Given: A cached model that was truncated on disk
+        byte[] content = randomBytes(4096, 6);
+        URL resource = writeResource("source/model.bin", content);
+        ModelCache cache = new ModelCache(tempDir.resolve("cache"));
+        Path cached = cache.resolve(resource, "model.bin");
+        Files.write(cached, new byte[100]);
+
+        // When: The model is resolved again
+        Path resolved = cache.resolve(resource, "model.bin");
+
+        // Then: A complete copy is extracted
+        assertArrayEquals(content, Files.readAllBytes(resolved));
+    }
+
+    @Test
+    void testResolve_CorruptManifestIsIgnored() throws IOException {
+        // Given: A cached model whose manifest was damaged
+        byte[] content = randomBytes(4096, 7);
+        URL resource = writeResource("source/model.bin", content);
+        ModelCache cache = new ModelCache(tempDir.resolve("cache"));
+        cache.resolve(resource, "model.bin");
+        try (Stream<Path> files = Files.list(tempDir.resolve("cache"))) {
+            for (Path manifest : (Iterable<Path>) files.filter(f -> f.toString().endsWith(".properties"))::iterator) {
+                Files.write(manifest, "size=not-a-number".getBytes());
+            }
+        }
+
+        // When: The model is resolved again
+        Path resolved = cache.resolve(resource, "model.bin");
+
+        // Then: The model is still available
+        assertArrayEquals(content, Files.readAllBytes(resolved));
+    }
+
+    // ========================================
+    // Helper Methods
+    // ========================================
+
+    private URL writeResource(String relativePath, byte[] content) throws IOException {
+        Path file = tempDir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+        return file.toUri().toURL();
+    }
+
+    private static byte[] randomBytes(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static long countFiles(Path directory, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(suffix)).count();
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package org.mule.extension.whisperer.internal.helpers.models;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ModelDownloader against a local HTTP server.
+ * Tests parallel range downloads, resuming, checksum verification and servers without range support.
+ */
+class ModelDownloaderTest {
+
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private byte[] content;
+    private byte[] otherContent;
+    private volatile boolean supportRanges = true;
+    private volatile long failFrom = Long.MAX_VALUE;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicLong bytesServed = new AtomicLong();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        content = new byte[1024 * 1024 + 123];
+        new Random(42).nextBytes(content);
+        otherContent = new byte[content.length];
+        new Random(7).nextBytes(otherContent);
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/model.bin", exchange -> serve(exchange, content));
+        server.createContext("/v2/model.bin", exchange -> serve(exchange, otherContent));
+        serverExecutor = Executors.newFixedThreadPool(8);
+        server.setExecutor(serverExecutor);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    // ========================================
+    // Download Tests
+    // ========================================
+
+    @Test
+    void testDownload_ParallelRanges() throws Exception {
+        // Given: A server supporting range requests
+        Path target = tempDir.resolve("models/model.bin");
+
+        // When: The model is downloaded over four connections
+        downloader().download(url(), target, null);
+
+        // Then: The file is complete, was fetched in chunks and nothing is left behind
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertTrue(requests.get() > 2, "Expected one request per chunk");
+        assertFalse(Files.exists(tempDir.resolve("models/model.bin.part")));
+        assertFalse(Files.exists(tempDir.resolve("models/model.bin.part.progress")));
+    }
+
+    @Test
+    void testDownload_WithoutRangeSupport() throws Exception {
+        // Given: A server ignoring range requests
+        supportRanges = false;
+        Path target = tempDir.resolve("model.bin");
+
+        // When: The model is downloaded
+        downloader().download(url(), target, null);
+
+        // Then: It is fetched in a single stream
+        assertArrayEquals(content, Files.readAllBytes(target));
+    }
+
+    @Test
+    void testDownload_ResumesInterruptedDownload() throws Exception {
+        // Given: A download that failed halfway
+        Path target = tempDir.resolve("model.bin");
+        failFrom = content.length / 2;
+        assertThrows(IOException.class, () -> downloader().download(url(), target, null));
+        assertFalse(Files.exists(target), "A partial download must not be installed");
+        assertTrue(Files.exists(tempDir.resolve("model.bin.part")));
+
+        // When: The download is retried
+        failFrom = Long.MAX_VALUE;
+        bytesServed.set(0);
+        downloader().download(url(), target, sha256(content));
+
+        // Then: Only the missing chunks are fetched again
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertTrue(bytesServed.get() < content.length,
+                   "Expected fewer than " + content.length + " bytes, got " + bytesServed.get());
+    }
+
+    // ========================================
+    // Verification Tests
+    // ========================================
+
+    @Test
+    void testDownload_ChecksumMismatchFails() throws Exception {
+        // Given: An expected checksum the served file does not have
+        Path target = tempDir.resolve("model.bin");
+        String wrong = sha256(new byte[] {1, 2, 3});
+
+        // When: The model is downloaded
+        IOException e = assertThrows(IOException.class, () -> downloader().download(url(), target, wrong));
+
+        // Then: Nothing is installed and the corrupt part is removed
+        assertTrue(e.getMessage().contains("Checksum mismatch"));
+        assertFalse(Files.exists(target));
+        assertFalse(Files.exists(tempDir.resolve("model.bin.part")));
+    }
+
+    @Test
+    void testDownload_VerifiedTargetIsNotDownloaded() throws Exception {
+        // Given: The model already installed
+        Path target = tempDir.resolve("model.bin");
+        Files.write(target, content);
+
+        // When: It is installed again with its checksum
+        downloader().download(url(), target, sha256(content).toUpperCase());
+
+        // Then: No request is made
+        assertEquals(0, requests.get());
+    }
+
+    @Test
+    void testDownload_CorruptTargetIsReplaced() throws Exception {
+        // Given: A truncated model left by an earlier version
+        Path target = tempDir.resolve("model.bin");
+        Files.write(target, new byte[1000]);
+
+        // When: It is installed again with its checksum
+        downloader().download(url(), target, sha256(content));
+
+        // Then: It is replaced by the complete model
+        assertArrayEquals(content, Files.readAllBytes(target));
+    }
+
+    @Test
+    void testDownload_TargetOfServedLengthIsNotDownloaded() throws Exception {
+        // Given: The model already installed, without a checksum to verify it
+        Path target = tempDir.resolve("model.bin");
+        Files.write(target, content);
+
+        // When: It is installed again
+        downloader().download(url(), target, null);
+
+        // Then: Only the length is probed
+        assertEquals(1, requests.get());
+        assertTrue(bytesServed.get() <= 1, "Expected at most the probed byte, got " + bytesServed.get());
+    }
+
+    @Test
+    void testDownload_TruncatedTargetWithoutChecksumIsReplaced() throws Exception {
+        // Given: A truncated model left by an earlier version, without a checksum to verify it
+        Path target = tempDir.resolve("model.bin");
+        Files.write(target, new byte[1000]);
+
+        // When: It is installed again
+        downloader().download(url(), target, null);
+
+        // Then: It is replaced by the complete model
+        assertArrayEquals(content, Files.readAllBytes(target));
+    }
+
+    // ========================================
+    // Installation Tests
+    // ========================================
+
+    @Test
+    void testSetup_ChangedUrlReplacesModelAtSamePath() throws Exception {
+        // Given: A model installed from one URL
+        Path target = tempDir.resolve("model.bin");
+        WhisperJNIModelConfigurer.setup(url().toString(), target.toString());
+        assertArrayEquals(content, Files.readAllBytes(target));
+
+        // When: The installation path is kept but the URL changes to a model of the same length
+        WhisperJNIModelConfigurer.setup(url("/v2/model.bin").toString(), target.toString());
+
+        // Then: The model of the new URL is installed
+        assertArrayEquals(otherContent, Files.readAllBytes(target));
+        assertTrue(InstallationMarker.isInstalled(target, url("/v2/model.bin").toString()));
+    }
+
+    // ========================================
+    // Helper Methods
+    // ========================================
+
+    private ModelDownloader downloader() {
+        return new ModelDownloader(4, 5_000, CHUNK_BYTES);
+    }
+
+    private URL url() throws IOException {
+        return url("/model.bin");
+    }
+
+    private URL url(String path) throws IOException {
+        return new URL("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    private void serve(HttpExchange exchange, byte[] content) throws IOException {
+        requests.incrementAndGet();
+        exchange.getResponseHeaders().add("ETag", "\"v1\"");
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        long from = 0;
+        long to = content.length - 1;
+        int status = 200;
+        if (supportRanges && range != null && range.startsWith("bytes=")) {
+            String[] bounds = range.substring("bytes=".length()).split("-");
+            from = Long.parseLong(bounds[0]);
+            to = Math.min(Long.parseLong(bounds[1]), content.length - 1);
+            status = 206;
+            exchange.getResponseHeaders().add("Content-Range", "bytes " + from + "-" + to + "/" + content.length);
+        }
+        if (from >= failFrom) {
+            exchange.sendResponseHeaders(500, -1);
+            exchange.close();
+            return;
+        }
+        int length = (int) (to - from + 1);
+        exchange.sendResponseHeaders(status, length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(content, (int) from, length);
+        }
+        bytesServed.addAndGet(length);
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(bytes)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,141 @@
+package org.mule.extension.whisperer.internal.helpers.models;
+
+import org.apache.commons.compress.archivers.zip.UnixStat;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for NativeLibraryExtractor.
+ * Tests extraction, manifest-based reuse and repair of stale or damaged directories.
+ */
+class NativeLibraryExtractorTest {
+
+    @TempDir
+    Path tempDir;
+
+    // ========================================
+    // Extraction Tests
+    // ========================================
+
+    @Test
+    void testInstall_ExtractsLibrariesAndLinks() throws IOException {
+        // Given: An archive with a library, a link to it and macOS metadata
+        Path libs = tempDir.resolve("libs");
+
+        // When: It is installed
+        boolean extracted = new NativeLibraryExtractor(libs, "1.0.0").install(archive("library"));
+
+        // Then: Libraries and links are extracted flat, without the metadata, along with a manifest
+        assertTrue(extracted);
+        assertEquals("library", new String(Files.readAllBytes(libs.resolve("libfoo.so")), StandardCharsets.UTF_8));
+        assertTrue(Files.isSymbolicLink(libs.resolve("libfoo.so.1")));
+        assertEquals(Paths.get("libfoo.so"), Files.readSymbolicLink(libs.resolve("libfoo.so.1")));
+        assertFalse(Files.exists(libs.resolve("._libfoo.so")));
+        assertTrue(Files.exists(libs.resolve(NativeLibraryExtractor.MANIFEST_FILE_NAME)));
+    }
+
+    @Test
+    void testInstall_ReusesVerifiedExtraction() throws IOException {
+        // Given: Libraries already extracted
+        Path libs = tempDir.resolve("libs");
+        byte[] archive = archive("library");
+        new NativeLibraryExtractor(libs, "1.0.0").install(archive);
+
+        // When: The same archive is installed again
+        boolean extracted = new NativeLibraryExtractor(libs, "1.0.0").install(archive);
+
+        // Then: Nothing is extracted
+        assertFalse(extracted);
+    }
+
+    // ========================================
+    // Repair Tests
+    // ========================================
+
+    @Test
+    void testInstall_NewConnectorVersionExtractsAgain() throws IOException {
+        // Given: Libraries extracted by an older connector
+        Path libs = tempDir.resolve("libs");
+        new NativeLibraryExtractor(libs, "1.0.0").install(archive("old library"));
+
+        // When: A newer connector installs its archive
+        boolean extracted = new NativeLibraryExtractor(libs, "1.1.0").install(archive("new library"));
+
+        // Then: The stale libraries are replaced
+        assertTrue(extracted);
+        assertEquals("new library", new String(Files.readAllBytes(libs.resolve("libfoo.so")), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testInstall_DamagedLibraryExtractsAgain() throws IOException {
+        // Given: An extracted library that was truncated
+        Path libs = tempDir.resolve("libs");
+        byte[] archive = archive("library");
+        new NativeLibraryExtractor(libs, "1.0.0").install(archive);
+        Files.write(libs.resolve("libfoo.so"), new byte[] {1});
+
+        // When: The archive is installed again
+        boolean extracted = new NativeLibraryExtractor(libs, "1.0.0").install(archive);
+
+        // Then: The library is repaired
+        assertTrue(extracted);
+        assertEquals("library", new String(Files.readAllBytes(libs.resolve("libfoo.so")), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testInstall_PartialExtractionIsReplaced() throws IOException {
+        // Given: A directory left by an interrupted extraction, without a manifest
+        Path libs = tempDir.resolve("libs");
+        Files.createDirectories(libs);
+        Files.write(libs.resolve("libfoo.so"), new byte[] {1});
+        Files.write(libs.resolve("stale.so"), new byte[] {2});
+
+        // When: The archive is installed
+        boolean extracted = new NativeLibraryExtractor(libs, "1.0.0").install(archive("library"));
+
+        // Then: The directory is replaced as a whole
+        assertTrue(extracted);
+        assertEquals("library", new String(Files.readAllBytes(libs.resolve("libfoo.so")), StandardCharsets.UTF_8));
+        assertFalse(Files.exists(libs.resolve("stale.so")));
+    }
+
+    // ========================================
+    // Helper Methods
+    // ========================================
+
+    private static byte[] archive(String libraryContent) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(bytes)) {
+            zip.putArchiveEntry(new ZipArchiveEntry("deps/"));
+            zip.closeArchiveEntry();
+
+            ZipArchiveEntry library = new ZipArchiveEntry("deps/libfoo.so");
+            library.setUnixMode(UnixStat.FILE_FLAG | 0755);
+            zip.putArchiveEntry(library);
+            zip.write(libraryContent.getBytes(StandardCharsets.UTF_8));
+            zip.closeArchiveEntry();
+
+            ZipArchiveEntry link = new ZipArchiveEntry("deps/libfoo.so.1");
+            link.setUnixMode(UnixStat.LINK_FLAG | 0777);
+            zip.putArchiveEntry(link);
+            zip.write("libfoo.so".getBytes(StandardCharsets.UTF_8));
+            zip.closeArchiveEntry();
+
+            zip.putArchiveEntry(new ZipArchiveEntry("__MACOSX/deps/._libfoo.so"));
+            zip.write(new byte[] {0, 5, 22, 7});
+            zip.closeArchiveEntry();
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,196 @@
+package org.mule.extension.whisperer.internal.helpers.pool;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BoundedPool.
+ * Tests growth up to the maximum size, waiting and timeouts, reuse order, invalidation, idle eviction and closing.
+ */
+class BoundedPoolTest {
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final List<Integer> destroyed = new ArrayList<>();
+
+    // ========================================
+    // Acquire Tests
+    // ========================================
+
+    @Test
+    void testStart_CreatesMinimum() {
+        // Given: A pool with a minimum size of 2
+        BoundedPool<Integer> pool = newPool(2, 4, 0);
+
+        // When: Starting the pool
+        pool.start();
+
+        // Then: Two idle objects are ready
+        assertEquals(2, created.get());
+        assertEquals(2, pool.getIdleCount());
+        assertEquals(0, pool.getActiveCount());
+    }
+
+    @Test
+    void testAcquire_GrowsUpToMaximum() throws Exception {
+        // Given: An empty pool of at most 2 objects
+        BoundedPool<Integer> pool = newPool(0, 2, 0);
+
+        // When: Acquiring two objects
+        BoundedPool.Lease<Integer> first = pool.acquire(0, TimeUnit.MILLISECONDS);
+        BoundedPool.Lease<Integer> second = pool.acquire(0, TimeUnit.MILLISECONDS);
+
+        // Then: Both are distinct and a third acquisition times out
+        assertNotEquals(first.get(), second.get());
+        assertEquals(2, pool.getActiveCount());
+        assertThrows(TimeoutException.class, () -> pool.acquire(50, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testAcquire_ReusesMostRecentlyReturned() throws Exception {
+        // Given: Two objects returned one after the other
+        BoundedPool<Integer> pool = newPool(0, 2, 0);
+        BoundedPool.Lease<Integer> first = pool.acquire(0, TimeUnit.MILLISECONDS);
+        BoundedPool.Lease<Integer> second = pool.acquire(0, TimeUnit.MILLISECONDS);
+        int secondObject = second.get();
+        first.close();
+        second.close();
+
+        // When: Acquiring again
+        try (BoundedPool.Lease<Integer> lease = pool.acquire(0, TimeUnit.MILLISECONDS)) {
+            // Then: The last returned object is handed out, without creating a new one
+            assertEquals(secondObject, lease.get().intValue());
+            assertEquals(2, created.get());
+        }
+    }
+
+    @Test
+    void testAcquire_WaitsForReturn() throws Exception {
+        // Given: A full pool
+        BoundedPool<Integer> pool = newPool(0, 1, 0);
+        BoundedPool.Lease<Integer> lease = pool.acquire(0, TimeUnit.MILLISECONDS);
+
+        // When: Another caller waits while the object is returned
+        CompletableFuture<Integer> waiter = CompletableFuture.supplyAsync(() -> {
+            try (BoundedPool.Lease<Integer> other = pool.acquire(5, TimeUnit.SECONDS)) {
+                return other.get();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        lease.close();
+
+        // Then: The waiting caller gets the returned object
+        assertEquals(0, waiter.get(5, TimeUnit.SECONDS).intValue());
+    }
+
+    @Test
+    void testAcquire_FactoryFailureReleasesSlot() {
+        // Given: A pool whose factory fails
+        BoundedPool<Integer> pool = new BoundedPool<>("test", () -> {
+            throw new IllegalStateException("out of memory");
+        }, destroyed::add, 0, 1, 0);
+
+        // When/Then: The failure reaches the caller and the slot is not leaked
+        assertThrows(IllegalStateException.class, () -> pool.acquire(0, TimeUnit.MILLISECONDS));
+        assertEquals(0, pool.getSize());
+    }
+
+    // ========================================
+    // Release Tests
+    // ========================================
+
+    @Test
+    void testInvalidate_DestroysObject() throws Exception {
+        // Given: A leased object
+        BoundedPool<Integer> pool = newPool(0, 1, 0);
+        BoundedPool.Lease<Integer> lease = pool.acquire(0, TimeUnit.MILLISECONDS);
+
+        // When: Invalidating and closing the lease twice
+        lease.invalidate();
+        lease.close();
+        lease.close();
+
+        // Then: The object is destroyed once and its slot is free again
+        assertEquals(1, destroyed.size());
+        assertEquals(0, pool.getSize());
+        try (BoundedPool.Lease<Integer> next = pool.acquire(0, TimeUnit.MILLISECONDS)) {
+            assertEquals(1, next.get().intValue());
+        }
+    }
+
+    @Test
+    void testEvictIdle_KeepsMinimum() throws Exception {
+        // Given: A pool with a minimum of 1 and three idle objects
+        BoundedPool<Integer> pool = newPool(1, 3, 20);
+        pool.start();
+        List<BoundedPool.Lease<Integer>> leases = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            leases.add(pool.acquire(0, TimeUnit.MILLISECONDS));
+        }
+        leases.forEach(BoundedPool.Lease::close);
+
+        // When: Evicting after the idle timeout
+        Thread.sleep(50);
+        int evicted = pool.evictIdle();
+
+        // Then: Only the minimum is kept
+        assertEquals(2, evicted);
+        assertEquals(1, pool.getSize());
+    }
+
+    @Test
+    void testEvictIdle_KeepsRecentlyUsed() throws Exception {
+        // Given: Two idle objects, one just returned
+        BoundedPool<Integer> pool = newPool(0, 2, 200);
+        BoundedPool.Lease<Integer> first = pool.acquire(0, TimeUnit.MILLISECONDS);
+        BoundedPool.Lease<Integer> second = pool.acquire(0, TimeUnit.MILLISECONDS);
+        Integer firstObject = first.get();
+        first.close();
+        Thread.sleep(300);
+        second.close();
+
+        // When: Evicting
+        pool.evictIdle();
+
+        // Then: Only the stale object is destroyed
+        assertEquals(1, destroyed.size());
+        assertEquals(firstObject, destroyed.get(0));
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    void testClose_DestroysIdleAndReturnedObjects() throws Exception {
+        // Given: One idle and one leased object
+        BoundedPool<Integer> pool = newPool(1, 2, 0);
+        pool.start();
+        BoundedPool.Lease<Integer> first = pool.acquire(0, TimeUnit.MILLISECONDS);
+        BoundedPool.Lease<Integer> second = pool.acquire(0, TimeUnit.MILLISECONDS);
+        first.close();
+
+        // When: Closing the pool, then returning the leased object
+        pool.close();
+        second.close();
+
+        // Then: Both objects are destroyed and new acquisitions are rejected
+        assertEquals(2, destroyed.size());
+        assertEquals(0, pool.getSize());
+        assertThrows(IllegalStateException.class, () -> pool.acquire(0, TimeUnit.MILLISECONDS));
+    }
+
+    // ========================================
+    // Helper Methods
+    // ========================================
+
+    private BoundedPool<Integer> newPool(int min, int max, long idleTimeoutMillis) {
+        return new BoundedPool<>("test", created::getAndIncrement, destroyed::add, min, max, idleTimeoutMillis);
+    }
+}
@@ -0,0 +1,241 @@
+package org.mule.extension.whisperer.internal.helpers.scratch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ScratchSpaceManager and ScratchSpace.
+ * Tests per-request isolation, quota enforcement and orphan cleanup.
+ */
+class ScratchSpaceManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ScratchSpaceManager manager;
+
+    @AfterEach
+    void tearDown() {
+        if (manager != null) {
+            manager.stop();
+        }
+    }
+
+    // ========================================
+    // Allocation Tests
+    // ========================================
+
+    @Test
+    void testAllocate_UniqueDirectories() throws IOException {
+        // Given: A started manager
+        manager = startManager(0);
+
+        // When: Allocating two scratch spaces
+        try (ScratchSpace first = manager.allocate(); ScratchSpace second = manager.allocate()) {
+
+            // Then: Each request gets its own directory
+            assertNotEquals(first.getDirectory(), second.getDirectory());
+            assertTrue(Files.isDirectory(first.getDirectory()));
+            assertTrue(Files.isDirectory(second.getDirectory()));
+        }
+    }
+
+    @Test
+    void testClose_DeletesDirectoryAndReleasesQuota() throws IOException {
+        // Given: A scratch space holding a file
+        manager = startManager(0);
+        ScratchSpace scratchSpace = manager.allocate();
+        Path file = scratchSpace.write("audio.wav", new ByteArrayInputStream(new byte[1000]));
+        assertTrue(Files.exists(file));
+        assertEquals(1000, manager.getUsedBytes());
+
+        // When: Closing the scratch space
+        scratchSpace.close();
+
+        // Then: Directory is gone and bytes are released
+        assertFalse(Files.exists(scratchSpace.getDirectory()));
+        assertEquals(0, manager.getUsedBytes());
+    }
+
+    // ========================================
+    // Quota Tests
+    // ========================================
+
+    @Test
+    void testWrite_QuotaExceeded() throws IOException {
+        // Given: A manager with a small quota
+        manager = startManager(1500);
+
+        try (ScratchSpace first = manager.allocate(); ScratchSpace second = manager.allocate()) {
+            first.write("audio.wav", new ByteArrayInputStream(new byte[1000]));
+
+            // When/Then: Writing past the shared quota fails
+            assertThrows(ScratchSpaceQuotaExceededException.class,
+                () -> second.write("audio.wav", new ByteArrayInputStream(new byte[1000])));
+        }
+
+        // Then: Everything is released once both requests complete
+        assertEquals(0, manager.getUsedBytes());
+    }
+
+    // ========================================
+    // Lifecycle Tests
+    // ========================================
+
+    @Test
+    void testStart_RemovesOrphans() throws IOException {
+        // Given: An instance directory left behind by a process that is gone
+        Path orphan = tempDir.resolve(ScratchSpaceManager.ROOT_DIRECTORY_NAME).resolve("dead-instance");
+        Files.createDirectories(orphan.resolve("request-1"));
+        Files.createFile(orphan.resolve(".lock"));
+
+        // And: A directory without a lock file that is older than the grace period
+        Path unlocked = tempDir.resolve(ScratchSpaceManager.ROOT_DIRECTORY_NAME).resolve("unlocked-instance");
+        Files.createDirectories(unlocked);
+        Files.setLastModifiedTime(unlocked, FileTime.fromMillis(System.currentTimeMillis() - 3_600_000));
+
+        // When: Starting a new manager
+        manager = startManager(0);
+
+        // Then: Orphans are removed
+        assertFalse(Files.exists(orphan), "Orphaned instance directory should be removed");
+        assertFalse(Files.exists(unlocked), "Stale unlocked instance directory should be removed");
+    }
+
+    @Test
+    void testStart_KeepsDirectoriesOfRunningManagers() throws IOException {
+        // Given: Another running manager
+        ScratchSpaceManager other = startManager(0);
+        try {
+            // When: Starting a second manager on the same base directory
+            manager = startManager(0);
+
+            // Then: The running manager's directory is kept
+            assertTrue(Files.exists(other.getInstanceDirectory()));
+        } finally {
+            other.stop();
+        }
+    }
+
+    @Test
+    void testStart_KeepsLockOfManagerInAnotherApplication() throws Exception {
+        // Given: A manager started by the copy of the connector of one application
+        try (URLClassLoader firstApplication = applicationClassLoader();
+             URLClassLoader secondApplication = applicationClassLoader()) {
+            AutoCloseable first = startManager(firstApplication);
+            Path instance = instanceDirectories().get(0);
+            try {
+                // When: The copy of another application starts a manager on the same base directory
+                AutoCloseable second = startManager(secondApplication);
+                second.close();
+
+                // Then: Another process still finds the first manager's directory locked
+                assertTrue(Files.exists(instance));
+                assertEquals(0, lockFromOtherProcess(instance.resolve(".lock")), "Lock released by the sweep");
+            } finally {
+                first.close();
+            }
+        }
+    }
+
+    @Test
+    void testStop_DeletesInstanceDirectory() throws IOException {
+        // Given: A manager with an outstanding scratch space
+        ScratchSpaceManager stopped = startManager(0);
+        stopped.allocate();
+
+        // When: Stopping the manager
+        stopped.stop();
+
+        // Then: The instance directory is gone
+        assertFalse(Files.exists(stopped.getInstanceDirectory()));
+    }
+
+    // ========================================
+    // Helper Methods
+    // ========================================
+
+    private ScratchSpaceManager startManager(long quotaBytes) throws IOException {
+        ScratchSpaceManager scratchSpaceManager = new ScratchSpaceManager(tempDir, quotaBytes);
+        scratchSpaceManager.start();
+        return scratchSpaceManager;
+    }
+
+    /**
+     * @return a class loader with its own copy of the connector, as a Mule application has
+     */
+    private static URLClassLoader applicationClassLoader() throws IOException {
+        String[] entries = System.getProperty("java.class.path").split(File.pathSeparator);
+        URL[] urls = new URL[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            urls[i] = Paths.get(entries[i]).toUri().toURL();
+        }
+        return new URLClassLoader(urls, ClassLoader.getPlatformClassLoader());
+    }
+
+    /**
+     * Starts a manager of the copy of the connector of a class loader.
+     *
+     * @return stops the manager when closed
+     */
+    private AutoCloseable startManager(ClassLoader application) throws Exception {
+        Class<?> type = application.loadClass(ScratchSpaceManager.class.getName());
+        assertNotSame(ScratchSpaceManager.class, type);
+        Object started = type.getConstructor(Path.class, long.class).newInstance(tempDir, 0L);
+        type.getMethod("start").invoke(started);
+        return () -> type.getMethod("stop").invoke(started);
+    }
+
+    private List<Path> instanceDirectories() throws IOException {
+        try (Stream<Path> instances = Files.list(tempDir.resolve(ScratchSpaceManager.ROOT_DIRECTORY_NAME))) {
+            return instances.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * @return 1 if a separate JVM could lock the file, 0 if it is held
+     */
+    private static int lockFromOtherProcess(Path lockFile) throws Exception {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                                             LockProbe.class.getName(), lockFile.toString())
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        assertTrue(process.waitFor(30, TimeUnit.SECONDS), "Lock probe did not finish");
+        return process.exitValue();
+    }
+
+    /**
+     * Tries to lock a file from another JVM, exiting with 1 if it could and 0 if it is held.
+     */
+    static final class LockProbe {
+
+        public static void main(String[] args) throws IOException {
+            try (FileChannel channel = FileChannel.open(Paths.get(args[0]), StandardOpenOption.WRITE);
+                 FileLock lock = channel.tryLock()) {
+                System.exit(lock != null ? 1 : 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.mule.extension.whisperer.internal.helpers.system;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ContainerCpus.
+ * Tests cgroup v1 and v2 quota parsing against fake cgroup trees.
+ */
+class ContainerCpusTest {
+
+    @TempDir
+    Path cgroupRoot;
+
+    @Test
+    void testCgroupV2Quota() throws IOException {
+        // Given: A cgroup v2 quota of 2.5 CPUs
+        Files.write(cgroupRoot.resolve("cpu.max"), "250000 100000\n".getBytes());
+
+        // When/Then: The quota is rounded up and caps the processor count
+        assertEquals(3, ContainerCpus.cgroupQuota(cgroupRoot));
+        assertEquals(3, ContainerCpus.availableCpus(cgroupRoot, 16));
+        assertEquals(2, ContainerCpus.availableCpus(cgroupRoot, 2));
+    }
+
+    @Test
+    void testCgroupV2Unlimited() throws IOException {
+        // Given: A cgroup v2 without quota
+        Files.write(cgroupRoot.resolve("cpu.max"), "max 100000\n".getBytes());
+
+        // When/Then: The processor count is used
+        assertEquals(0, ContainerCpus.cgroupQuota(cgroupRoot));
+        assertEquals(8, ContainerCpus.availableCpus(cgroupRoot, 8));
+    }
+
+    @Test
+    void testCgroupV1Quota() throws IOException {
+        // Given: A cgroup v1 quota of half a CPU
+        Path cpu = Files.createDirectories(cgroupRoot.resolve("cpu"));
+        Files.write(cpu.resolve("cpu.cfs_quota_us"), "50000\n".getBytes());
+        Files.write(cpu.resolve("cpu.cfs_period_us"), "100000\n".getBytes());
+
+        // When/Then: At least one CPU is reported
+        assertEquals(1, ContainerCpus.availableCpus(cgroupRoot, 4));
+    }
+
+    @Test
+    void testCgroupV1Unlimited() throws IOException {
+        // Given: A cgroup v1 with a quota of -1
+        Path cpu = Files.createDirectories(cgroupRoot.resolve("cpu,cpuacct"));
+        Files.write(cpu.resolve("cpu.cfs_quota_us"), "-1\n".getBytes());
+        Files.write(cpu.resolve("cpu.cfs_period_us"), "100000\n".getBytes());
+
+        // When/Then: The processor count is used
+        assertEquals(4, ContainerCpus.availableCpus(cgroupRoot, 4));
+    }
+
+    @Test
+    void testNoCgroup() {
+        // Given: No cgroup files at all
+        // When/Then: The processor count is used
+        assertEquals(6, ContainerCpus.availableCpus(cgroupRoot.resolve("missing"), 6));
+    }
+}
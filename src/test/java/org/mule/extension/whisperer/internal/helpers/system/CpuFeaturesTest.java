@@ -0,0 +1,111 @@
+package org.mule.extension.whisperer.internal.helpers.system;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mule.extension.whisperer.internal.helpers.system.CpuFeatures.Level;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CpuFeatures.
+ * Tests flag parsing from fake cpuinfo files and the choice of native library levels.
+ */
+class CpuFeaturesTest {
+
+    private static final String SKYLAKE_SERVER =
+        "fpu vme sse sse2 ssse3 fma cx16 sse4_1 sse4_2 popcnt avx f16c avx2 avx512f avx512dq avx512bw avx512vl";
+    private static final String HASWELL = "fpu vme sse sse2 ssse3 fma cx16 sse4_1 sse4_2 popcnt avx f16c avx2";
+    private static final String WESTMERE = "fpu vme sse sse2 ssse3 cx16 sse4_1 sse4_2 popcnt";
+
+    @TempDir
+    Path tempDir;
+
+    // ========================================
+    // Parsing Tests
+    // ========================================
+
+    @Test
+    void testFlags_ReadsFirstProcessor() throws IOException {
+        // Given: A cpuinfo file with two processors
+        Path cpuinfo = tempDir.resolve("cpuinfo");
+        Files.write(cpuinfo, (cpuinfo(0, HASWELL) + "\n" + cpuinfo(1, HASWELL)).getBytes());
+
+        // When: The flags are read
+        Set<String> flags = CpuFeatures.flags(cpuinfo);
+
+        // Then: The flags of the processor are returned
+        assertTrue(flags.containsAll(Arrays.asList("avx", "avx2", "fma", "f16c", "sse4_2")));
+        assertFalse(flags.contains("avx512f"));
+    }
+
+    @Test
+    void testFlags_MissingFile() {
+        // Given: No cpuinfo file, e.g. on another operating system
+        Path cpuinfo = tempDir.resolve("missing");
+
+        // When/Then: No flags are reported
+        assertTrue(CpuFeatures.flags(cpuinfo).isEmpty());
+    }
+
+    @Test
+    void testParseFlags_NoFlagsLine() {
+        // Given: A cpuinfo without a flags line, as on ARM hosts which report "Features"
+        String cpuinfo = "processor\t: 0\nFeatures\t: fp asimd evtstrm aes\n";
+
+        // When/Then: No flags are reported
+        assertTrue(CpuFeatures.parseFlags(cpuinfo).isEmpty());
+    }
+
+    // ========================================
+    // Level Tests
+    // ========================================
+
+    @Test
+    void testSupportedLevels_FastestFirst() {
+        // Given: Flags of CPUs of three generations
+        Set<String> avx512 = CpuFeatures.parseFlags(cpuinfo(0, SKYLAKE_SERVER));
+        Set<String> avx2 = CpuFeatures.parseFlags(cpuinfo(0, HASWELL));
+        Set<String> sse = CpuFeatures.parseFlags(cpuinfo(0, WESTMERE));
+
+        // When/Then: Each gets the levels it can run, fastest first, ending with the baseline
+        assertEquals(Arrays.asList(Level.AVX512, Level.AVX2, Level.BASELINE), CpuFeatures.supportedLevels(avx512, null));
+        assertEquals(Arrays.asList(Level.AVX2, Level.BASELINE), CpuFeatures.supportedLevels(avx2, null));
+        assertEquals(Collections.singletonList(Level.BASELINE), CpuFeatures.supportedLevels(sse, null));
+    }
+
+    @Test
+    void testSupportedLevels_UnknownFlagsFallBackToBaseline() {
+        // When/Then: Without flags only the baseline is considered safe
+        assertEquals(Collections.singletonList(Level.BASELINE),
+                     CpuFeatures.supportedLevels(Collections.emptySet(), null));
+    }
+
+    @Test
+    void testSupportedLevels_Limit() {
+        // Given: An AVX-512 CPU
+        Set<String> flags = CpuFeatures.parseFlags(cpuinfo(0, SKYLAKE_SERVER));
+
+        // When/Then: A limit excludes the levels above it
+        assertEquals(Arrays.asList(Level.AVX2, Level.BASELINE), CpuFeatures.supportedLevels(flags, Level.fromId("AVX2")));
+        assertEquals(Collections.singletonList(Level.BASELINE), CpuFeatures.supportedLevels(flags, Level.BASELINE));
+        assertNull(Level.fromId("sse9"));
+    }
+
+    // ========================================
+    // Helper Methods
+    // ========================================
+
+    private static String cpuinfo(int processor, String flags) {
+        return "processor\t: " + processor + "\n"
+            + "vendor_id\t: GenuineIntel\n"
+            + "model name\t: Test CPU\n"
+            + "flags\t\t: " + flags + "\n";
+    }
+}
@@ -0,0 +1,77 @@
+package org.mule.extension.whisperer.internal.helpers.vad;
+
+import org.junit.jupiter.api.Test;
+import org.mule.extension.whisperer.internal.helpers.audio.AudioDecoder;
+import org.mule.extension.whisperer.internal.helpers.audio.FloatSampleBuffer;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SilenceSplitter.
+ * Tests window coverage, overlap and placement of cuts at pauses.
+ */
+class SilenceSplitterTest {
+
+    private static final int RATE = AudioDecoder.WHISPER_SAMPLE_RATE;
+
+    @Test
+    void testSplit_ShortAudioSingleWindow() {
+        // Given: 20 s of audio
+        FloatSampleBuffer samples = tone(20 * RATE);
+
+        // When: Splitting into 30 s windows
+        List<AudioWindow> windows = SilenceSplitter.split(samples, 30 * RATE, 2 * RATE, 3 * RATE);
+
+        // Then: A single window covers everything
+        assertEquals(1, windows.size());
+        assertEquals(0, windows.get(0).getStartSample());
+        assertEquals(samples.size(), windows.get(0).getEndSample());
+    }
+
+    @Test
+    void testSplit_OwnedRangesCoverRecordingOnce() {
+        // Given: 100 s of continuous audio
+        FloatSampleBuffer samples = tone(100 * RATE);
+
+        // When: Splitting into 30 s windows with 2 s overlap
+        List<AudioWindow> windows = SilenceSplitter.split(samples, 30 * RATE, 2 * RATE, 3 * RATE);
+
+        // Then: Owned ranges are contiguous, and windows extend into their neighbours
+        assertEquals(4, windows.size());
+        assertEquals(0, windows.get(0).getOwnedStartMillis());
+        assertEquals(100_000, windows.get(windows.size() - 1).getOwnedEndMillis());
+        for (int i = 1; i < windows.size(); i++) {
+            AudioWindow previous = windows.get(i - 1);
+            AudioWindow current = windows.get(i);
+            assertEquals(previous.getOwnedEndMillis(), current.getOwnedStartMillis());
+            assertEquals(current.getOwnedStartMillis() - 2000, current.getStartMillis());
+            assertTrue(previous.getOwnedEndMillis() - previous.getOwnedStartMillis() <= 30_000);
+        }
+    }
+
+    @Test
+    void testSplit_CutsAtPause() {
+        // Given: 60 s of audio with a pause at 28-28.5 s
+        FloatSampleBuffer samples = tone(60 * RATE);
+        for (int i = 28 * RATE; i < 28 * RATE + RATE / 2; i++) {
+            samples.array()[i] = 0;
+        }
+
+        // When: Splitting into 30 s windows searching the last 3 s
+        List<AudioWindow> windows = SilenceSplitter.split(samples, 30 * RATE, RATE, 3 * RATE);
+
+        // Then: The first window ends inside the pause
+        long cut = windows.get(0).getOwnedEndMillis();
+        assertTrue(cut > 28_000 && cut < 28_500, "Cut at " + cut + " ms");
+    }
+
+    private FloatSampleBuffer tone(int length) {
+        FloatSampleBuffer samples = new FloatSampleBuffer(length);
+        for (int i = 0; i < length; i++) {
+            samples.append((float) (0.5 * Math.sin(2 * Math.PI * 220 * i / RATE)));
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,159 @@
+package org.mule.extension.whisperer.internal.helpers.vad;
+
+import org.junit.jupiter.api.Test;
+import org.mule.extension.whisperer.internal.helpers.audio.AudioDecoder;
+import org.mule.extension.whisperer.internal.helpers.audio.FloatSampleBuffer;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for VoiceActivityDetector and SpeechTimeline.
+ * Tests speech detection on synthetic and recorded audio, and timestamp mapping back to the original timeline.
+ */
+class VoiceActivityDetectorTest {
+
+    private static final int RATE = AudioDecoder.WHISPER_SAMPLE_RATE;
+
+    private final Random random = new Random(42);
+
+    // ========================================
+    // Detection Tests
+    // ========================================
+
+    @Test
+    void testDetect_SpeechBetweenSilence() {
+        // Given: 2 s of faint noise, 2 s of voiced sound, 2 s of faint noise
+        FloatSampleBuffer samples = new FloatSampleBuffer();
+        appendNoise(samples, 2000, 0.001f);
+        appendVoiced(samples, 2000, 0.3f);
+        appendNoise(samples, 2000, 0.001f);
+
+        // When: Detecting speech
+        List<SpeechRegion> regions = new VoiceActivityDetector(10, 300, 100).detect(samples);
+
+        // Then: A single padded region around the voiced sound
+        assertEquals(1, regions.size(), "Regions: " + regions);
+        assertEquals(1900, regions.get(0).getStartMillis(), 40);
+        assertEquals(4100, regions.get(0).getEndMillis(), 40);
+    }
+
+    @Test
+    void testDetect_IgnoresLoudBroadbandNoise() {
+        // Given: Loud white noise followed by voiced sound
+        FloatSampleBuffer samples = new FloatSampleBuffer();
+        appendNoise(samples, 1000, 0.0005f);
+        appendNoise(samples, 2000, 0.3f);
+        appendVoiced(samples, 2000, 0.3f);
+
+        // When: Detecting speech
+        List<SpeechRegion> regions = new VoiceActivityDetector(10, 300, 0).detect(samples);
+
+        // Then: Only the voiced sound is kept
+        assertEquals(1, regions.size(), "Regions: " + regions);
+        assertEquals(3000, regions.get(0).getStartMillis(), 40);
+    }
+
+    @Test
+    void testDetect_BridgesShortPauses() {
+        // Given: Two words separated by a 200 ms pause
+        FloatSampleBuffer samples = new FloatSampleBuffer();
+        appendNoise(samples, 1000, 0.001f);
+        appendVoiced(samples, 600, 0.3f);
+        appendNoise(samples, 200, 0.001f);
+        appendVoiced(samples, 600, 0.3f);
+        appendNoise(samples, 1000, 0.001f);
+
+        // When: Detecting speech with a 500 ms minimum silence
+        List<SpeechRegion> regions = new VoiceActivityDetector(10, 500, 0).detect(samples);
+
+        // Then: The pause does not split the region
+        assertEquals(1, regions.size(), "Regions: " + regions);
+    }
+
+    @Test
+    void testDetect_Silence() {
+        // Given: Digital silence
+        FloatSampleBuffer samples = new FloatSampleBuffer();
+        samples.ensureCapacity(RATE);
+        samples.advance(RATE);
+
+        // When/Then: No speech is found
+        assertTrue(new VoiceActivityDetector(10, 300, 100).detect(samples).isEmpty());
+    }
+
+    @Test
+    void testDetect_RecordedSpeech() throws IOException {
+        // Given: A recorded speech sample
+        FloatSampleBuffer samples;
+        try (InputStream input = new FileInputStream("src/test/resources/speech-sample-1.wav")) {
+            samples = AudioDecoder.decode(input, "wav");
+        }
+
+        // When: Detecting speech
+        List<SpeechRegion> regions = new VoiceActivityDetector(10, 500, 200).detect(samples);
+
+        // Then: Most of the recording is kept
+        long speechSamples = regions.stream().mapToLong(SpeechRegion::getLength).sum();
+        assertFalse(regions.isEmpty());
+        assertTrue(speechSamples > samples.size() / 2, "Kept only " + speechSamples + " of " + samples.size());
+    }
+
+    // ========================================
+    // Timeline Tests
+    // ========================================
+
+    @Test
+    void testTimeline_MapsTimestampsBack() {
+        // Given: Speech at 1-2 s and 5-7 s of a 10 s clip
+        FloatSampleBuffer samples = new FloatSampleBuffer();
+        appendNoise(samples, 10000, 0.01f);
+        List<SpeechRegion> regions = Arrays.asList(new SpeechRegion(RATE, 2 * RATE),
+                                                   new SpeechRegion(5 * RATE, 7 * RATE));
+
+        // When: Compacting the clip
+        SpeechTimeline timeline = SpeechTimeline.compact(samples, regions);
+
+        // Then: Only 3 s of audio remain, and compacted times map back to the original recording
+        assertEquals(3 * RATE, timeline.getSamples().size());
+        assertEquals(samples.array()[5 * RATE], timeline.getSamples().array()[RATE]);
+        assertEquals(1000, timeline.toOriginalStartMillis(0));
+        assertEquals(1500, timeline.toOriginalStartMillis(500));
+        assertEquals(5000, timeline.toOriginalStartMillis(1000));
+        assertEquals(2000, timeline.toOriginalEndMillis(1000));
+        assertEquals(6500, timeline.toOriginalEndMillis(2500));
+        assertEquals(7000, timeline.toOriginalEndMillis(3500));
+    }
+
+    // ========================================
+    // Helper Methods
+    // ========================================
+
+    private void appendNoise(FloatSampleBuffer samples, int millis, float amplitude) {
+        for (int i = 0; i < millis * RATE / 1000; i++) {
+            samples.append((float) (random.nextGaussian() * amplitude));
+        }
+    }
+
+    /**
+     * Harmonic tone with a slowly varying pitch, standing in for a voiced vowel.
+     */
+    private void appendVoiced(FloatSampleBuffer samples, int millis, float amplitude) {
+        double phase = 0;
+        for (int i = 0; i < millis * RATE / 1000; i++) {
+            double pitch = 140 + 20 * Math.sin(2 * Math.PI * 3 * i / RATE);
+            phase += 2 * Math.PI * pitch / RATE;
+            double value = 0;
+            for (int harmonic = 1; harmonic <= 10; harmonic++) {
+                value += Math.sin(harmonic * phase) / harmonic;
+            }
+            samples.append((float) (amplitude * value / 2));
+        }
+    }
+}